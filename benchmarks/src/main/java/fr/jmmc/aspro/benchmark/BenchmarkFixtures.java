@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.benchmark;
+
+import fr.jmmc.aspro.AsproConstants;
+import fr.jmmc.aspro.model.ConfigurationManager;
+import fr.jmmc.aspro.model.ObservationManager;
+import fr.jmmc.aspro.model.TimeRef;
+import fr.jmmc.aspro.model.observability.ObservabilityData;
+import fr.jmmc.aspro.model.observability.SunTimeInterval.SunType;
+import fr.jmmc.aspro.model.oi.FocalInstrumentConfigurationChoice;
+import fr.jmmc.aspro.model.oi.FocalInstrumentMode;
+import fr.jmmc.aspro.model.oi.ObservationSetting;
+import fr.jmmc.aspro.model.uvcoverage.UVCoverageData;
+import fr.jmmc.aspro.service.ObservabilityService;
+import fr.jmmc.aspro.service.UVCoverageService;
+import fr.jmmc.aspro.service.UserModelService.MathMode;
+import fr.jmmc.aspro.service.pops.BestPopsEstimatorFactory.Algorithm;
+import fr.jmmc.aspro.service.pops.Criteria;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class loads the observation settings used by benchmarks (representative cases)
+ * from the asprox files bundled in this package
+ *
+ * @author bourgesl
+ */
+public final class BenchmarkFixtures {
+
+    /** Class logger */
+    private static final Logger logger = LoggerFactory.getLogger(BenchmarkFixtures.class.getName());
+    /** user model files referenced by fixtures (relative path) */
+    private final static String[] MODEL_FILES = new String[]{"boo2_RADMC3D_model.fits"};
+    /** temporary directory containing fixture files */
+    private static File fixtureDir = null;
+
+    /**
+     * Benchmark fixtures
+     */
+    public enum Fixture {
+
+        /** VLTI 4T (PIONIER on ATs) */
+        VLTI_4T,
+        /** VLTI GRAVITY high resolution on UTs */
+        GRAVITY_HR,
+        /** VLTI MATISSE LM with a FITS cube (user model) */
+        MATISSE_CUBE,
+        /** CHARA 6T (MIRC) with best PoPs */
+        CHARA_6T;
+    }
+
+    /**
+     * Forbidden constructor
+     */
+    private BenchmarkFixtures() {
+        super();
+    }
+
+    /**
+     * Initialize the environment like the application (locale, time zone, configuration)
+     */
+    public static synchronized void init() {
+        if (fixtureDir == null) {
+            // Set the default locale to en-US locale (for Numerical Fields "." ",")
+            Locale.setDefault(Locale.US);
+
+            // Set the default timezone to GMT to handle properly the date in UTC :
+            TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
+
+            // Preload configuration:
+            ConfigurationManager.getInstance();
+
+            try {
+                final File dir = File.createTempFile("aspro-bench-", "");
+                if (!dir.delete() || !dir.mkdir()) {
+                    throw new IllegalStateException("Unable to create directory: " + dir);
+                }
+                dir.deleteOnExit();
+
+                for (String name : MODEL_FILES) {
+                    copyResource(name, dir);
+                }
+                for (Fixture fixture : Fixture.values()) {
+                    copyResource(fixture.name() + ".asprox", dir);
+                }
+                fixtureDir = dir;
+            } catch (IOException ioe) {
+                throw new IllegalStateException("Unable to prepare benchmark fixtures", ioe);
+            }
+        }
+    }
+
+    /**
+     * Load the observation settings of the given fixture (resolved references and prepared user models)
+     * @param fixture fixture to load
+     * @return observation settings
+     * @throws IllegalStateException if the fixture can not be loaded
+     */
+    public static ObservationSetting load(final Fixture fixture) throws IllegalStateException {
+        init();
+
+        final File file = new File(fixtureDir, fixture.name() + ".asprox");
+        final StringBuilder sb = new StringBuilder(128);
+
+        final ObservationSetting observation;
+        try {
+            observation = ObservationManager.getInstance().loadObservation(file, sb);
+        } catch (IOException ioe) {
+            throw new IllegalStateException("Unable to load fixture: " + fixture, ioe);
+        }
+        if (sb.length() != 0) {
+            throw new IllegalStateException("Invalid fixture: " + fixture + "\n" + sb);
+        }
+
+        // use the first instrument mode if undefined (configuration dependent):
+        final FocalInstrumentConfigurationChoice insChoice = observation.getInstrumentConfiguration();
+        if (insChoice.getFocalInstrumentMode() == null) {
+            final List<FocalInstrumentMode> modes = insChoice.getInstrumentConfiguration().getFocalInstrument().getModes();
+
+            insChoice.setInstrumentMode(modes.get(0).getName());
+            insChoice.setFocalInstrumentMode(modes.get(0));
+        }
+
+        logger.info("Fixture {}: {}", fixture, ObservationManager.toString(observation));
+        return observation;
+    }
+
+    /**
+     * Compute the observability data of the given observation using default preferences (LST, night center)
+     * @param observation observation settings
+     * @return observability data
+     */
+    public static ObservabilityData computeObservability(final ObservationSetting observation) {
+        return new ObservabilityService(observation, TimeRef.LST, false, false, true, SunType.Night,
+                Algorithm.HALimits, Criteria.MEDIUM, Criteria.LARGE).compute();
+    }
+
+    /**
+     * Compute the UV coverage data of the first target of the given observation using default preferences
+     * (uv max = max baseline + 5%, instrument bias, data noise, supersampling, FAST math mode)
+     * @param observation observation settings
+     * @param obsData observability data
+     * @return UV coverage data
+     */
+    public static UVCoverageData computeUVCoverage(final ObservationSetting observation, final ObservabilityData obsData) {
+        final String targetName = observation.getTargets().get(0).getName();
+        final double uvMax = 1.05 * observation.getInterferometerConfiguration().getInterferometerConfiguration().getMaxBaseLine();
+
+        // use 1/2 to make SNR(VIS) < TH and not SNR(VIS2) < TH ( SNR(VIS2) = SNR(VIS) / 2 )
+        return new UVCoverageService(observation, obsData, targetName, uvMax, true, true, true,
+                AsproConstants.DEFAULT_SUPER_SAMPLING.intValue(), MathMode.FAST,
+                AsproConstants.DEFAULT_SNR_THRESHOLD.doubleValue() / 2.0).compute();
+    }
+
+    /**
+     * Copy the given resource (in this package) into the given directory
+     * @param name resource name
+     * @param dir destination directory
+     * @throws IOException if an I/O exception occured
+     */
+    private static void copyResource(final String name, final File dir) throws IOException {
+        final InputStream in = BenchmarkFixtures.class.getResourceAsStream(name);
+        if (in == null) {
+            throw new IOException("Missing resource: " + name);
+        }
+        final File file = new File(dir, name);
+        file.deleteOnExit();
+
+        final OutputStream out = new FileOutputStream(file);
+        try {
+            final byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+        } finally {
+            out.close();
+            in.close();
+        }
+    }
+}
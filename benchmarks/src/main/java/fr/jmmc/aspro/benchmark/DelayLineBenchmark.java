@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.benchmark;
+
+import fr.jmmc.aspro.benchmark.BenchmarkFixtures.Fixture;
+import fr.jmmc.aspro.model.BaseLine;
+import fr.jmmc.aspro.model.Beam;
+import fr.jmmc.aspro.model.ObservabilityContext;
+import fr.jmmc.aspro.model.oi.ObservationSetting;
+import fr.jmmc.aspro.service.DelayLineService;
+import fr.jmmc.oitools.model.range.Range;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * DelayLineService.findHAIntervals() benchmark on all baselines for declinations in [-90; 90] (1 deg step)
+ *
+ * @author bourgesl
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true"})
+public class DelayLineBenchmark {
+
+    /** number of declinations */
+    private final static int N_DEC = 181;
+
+    /** fixture */
+    @Param({"VLTI_4T", "GRAVITY_HR", "MATISSE_CUBE", "CHARA_6T"})
+    public Fixture fixture;
+    /** base line list */
+    private List<BaseLine> baseLines = null;
+    /** [wMin - wMax] ranges per base line */
+    private List<Range> wRanges = null;
+    /** observability context (RangeFactory) */
+    private ObservabilityContext ctx = null;
+
+    @Setup
+    public void setup() {
+        final ObservationSetting observation = BenchmarkFixtures.load(fixture);
+
+        this.baseLines = BenchmarkFixtures.computeObservability(observation).getBaseLines();
+
+        // same W ranges as ObservabilityService.prepareBaseLines():
+        final int sizeBL = this.baseLines.size();
+        this.wRanges = new ArrayList<Range>(sizeBL);
+
+        for (BaseLine bl : this.baseLines) {
+            final Beam b1 = bl.getBeam1();
+            final Beam b2 = bl.getBeam2();
+
+            // optical path difference:
+            final double opd = b1.getOpticalPathLength() - b2.getOpticalPathLength();
+
+            this.wRanges.add(new Range(opd - b2.getDelayLine().getMaximumThrow(), opd + b1.getDelayLine().getMaximumThrow()));
+        }
+
+        this.ctx = new ObservabilityContext(sizeBL);
+    }
+
+    @Benchmark
+    public void findHAIntervals(final Blackhole bh) {
+        final ObservabilityContext oc = this.ctx;
+
+        for (int i = 0; i < N_DEC; i++) {
+            final double dec = Math.toRadians(i - 90.0);
+
+            final List<List<Range>> rangesBL = DelayLineService.findHAIntervals(dec, baseLines, wRanges,
+                    oc.getHa(), oc.getHaValues(), oc.getW(), oc);
+
+            bh.consume(rangesBL.size());
+
+            // recycle ranges like ObservabilityService:
+            oc.recycleAll(rangesBL);
+        }
+    }
+}
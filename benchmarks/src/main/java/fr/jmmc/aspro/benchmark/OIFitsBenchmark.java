@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.benchmark;
+
+import fr.jmmc.aspro.benchmark.BenchmarkFixtures.Fixture;
+import fr.jmmc.aspro.model.observability.ObservabilityData;
+import fr.jmmc.aspro.model.oi.ObservationSetting;
+import fr.jmmc.aspro.service.OIFitsCreatorService;
+import fr.jmmc.oitools.model.OIFitsFile;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * OIFitsCreatorService.createOIFits() benchmark (first target, data noise)
+ *
+ * The OIFitsCreatorService is statefull so a new instance is prepared (uv coverage) before each invocation.
+ * The visibility cache is disabled and the random seed is fixed to get reproducible results.
+ *
+ * @author bourgesl
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true",
+    "-DOIFits.random.seed=1"})
+public class OIFitsBenchmark {
+
+    /** fixture */
+    @Param({"VLTI_4T", "GRAVITY_HR", "MATISSE_CUBE", "CHARA_6T"})
+    public Fixture fixture;
+    /** observation settings */
+    private ObservationSetting observation = null;
+    /** observability data */
+    private ObservabilityData obsData = null;
+    /** OIFits creator (one per invocation) */
+    private OIFitsCreatorService oiFitsCreator = null;
+
+    @Setup
+    public void setup() {
+        this.observation = BenchmarkFixtures.load(fixture);
+        this.obsData = BenchmarkFixtures.computeObservability(observation);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() {
+        this.oiFitsCreator = BenchmarkFixtures.computeUVCoverage(observation, obsData).getOiFitsCreator();
+
+        if (this.oiFitsCreator == null) {
+            throw new IllegalStateException("OIFits data not available: " + fixture);
+        }
+    }
+
+    @Benchmark
+    public OIFitsFile createOIFits() {
+        return this.oiFitsCreator.createOIFits();
+    }
+}
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.benchmark;
+
+import fr.jmmc.aspro.benchmark.BenchmarkFixtures.Fixture;
+import fr.jmmc.aspro.model.observability.ObservabilityData;
+import fr.jmmc.aspro.model.oi.ObservationSetting;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ObservabilityService.compute() benchmark (all targets)
+ *
+ * Caches (incremental observability, PoPs ranges) are disabled to measure the full computation.
+ *
+ * @author bourgesl
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true",
+    "-DObservability.incremental.disable=true", "-DObservability.popRanges.disable=true"})
+public class ObservabilityBenchmark {
+
+    /** fixture */
+    @Param({"VLTI_4T", "GRAVITY_HR", "MATISSE_CUBE", "CHARA_6T"})
+    public Fixture fixture;
+    /** observation settings */
+    private ObservationSetting observation = null;
+
+    @Setup
+    public void setup() {
+        this.observation = BenchmarkFixtures.load(fixture);
+    }
+
+    @Benchmark
+    public ObservabilityData compute() {
+        return BenchmarkFixtures.computeObservability(observation);
+    }
+}
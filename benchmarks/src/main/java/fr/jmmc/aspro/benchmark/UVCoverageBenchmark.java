@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.benchmark;
+
+import fr.jmmc.aspro.benchmark.BenchmarkFixtures.Fixture;
+import fr.jmmc.aspro.model.observability.ObservabilityData;
+import fr.jmmc.aspro.model.oi.ObservationSetting;
+import fr.jmmc.aspro.model.uvcoverage.UVCoverageData;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * UVCoverageService.compute() benchmark (first target, observability data computed once)
+ *
+ * @author bourgesl
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-DNoise.strehlCache.disable=true"})
+public class UVCoverageBenchmark {
+
+    /** fixture */
+    @Param({"VLTI_4T", "GRAVITY_HR", "MATISSE_CUBE", "CHARA_6T"})
+    public Fixture fixture;
+    /** observation settings */
+    private ObservationSetting observation = null;
+    /** observability data */
+    private ObservabilityData obsData = null;
+
+    @Setup
+    public void setup() {
+        this.observation = BenchmarkFixtures.load(fixture);
+        this.obsData = BenchmarkFixtures.computeObservability(observation);
+    }
+
+    @Benchmark
+    public UVCoverageData compute() {
+        return BenchmarkFixtures.computeUVCoverage(observation, obsData);
+    }
+}
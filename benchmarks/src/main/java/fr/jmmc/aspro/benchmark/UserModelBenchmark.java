@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.benchmark;
+
+import fr.jmmc.aspro.Preferences;
+import fr.jmmc.aspro.benchmark.BenchmarkFixtures.Fixture;
+import fr.jmmc.aspro.model.oi.ObservationSetting;
+import fr.jmmc.aspro.model.oi.UserModel;
+import fr.jmmc.aspro.service.UserModelData;
+import fr.jmmc.aspro.service.UserModelService;
+import fr.jmmc.jmal.image.ColorModels;
+import fr.jmmc.jmal.image.ColorScale;
+import fr.jmmc.jmal.model.ImageMode;
+import fr.jmmc.jmal.model.UVMapData;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.IndexColorModel;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * UserModelService.computeUVMap() benchmark (MATISSE fixture: FITS cube) on the first image or the whole cube
+ *
+ * @author bourgesl
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true"})
+public class UserModelBenchmark {
+
+    /** image size (pixels) */
+    @Param({"256", "512"})
+    public int imageSize;
+    /** image mode */
+    @Param({"AMP", "PHASE"})
+    public ImageMode imageMode;
+    /** user model images */
+    private List<UserModelData> modelDataList = null;
+    /** uv rectangle (max baseline + 5%) */
+    private final Rectangle2D.Double uvRect = new Rectangle2D.Double();
+    /** color model */
+    private IndexColorModel colorModel = null;
+    /** color scale */
+    private ColorScale colorScale = null;
+
+    @Setup
+    public void setup() {
+        final ObservationSetting observation = BenchmarkFixtures.load(Fixture.MATISSE_CUBE);
+
+        final UserModel userModel = observation.getTargets().get(0).getUserModel();
+        if (userModel == null || !userModel.isModelDataReady()) {
+            throw new IllegalStateException("User model not available: " + Fixture.MATISSE_CUBE);
+        }
+        this.modelDataList = userModel.getModelDataList();
+
+        // get uvMaxFreq from the uv coverage (wavelength correction):
+        final double uvMaxFreq = BenchmarkFixtures.computeUVCoverage(observation,
+                BenchmarkFixtures.computeObservability(observation)).getUvMaxFreq();
+
+        this.uvRect.setFrameFromDiagonal(-uvMaxFreq, -uvMaxFreq, uvMaxFreq, uvMaxFreq);
+
+        // Use model image Preferences:
+        final Preferences myPreferences = Preferences.getInstance();
+        final String modelImageLut = myPreferences.getPreference(Preferences.MODEL_IMAGE_LUT);
+        this.colorModel = (imageMode != ImageMode.PHASE) ? ColorModels.getColorModel(modelImageLut)
+                : ColorModels.getCyclicColorModel(modelImageLut);
+        this.colorScale = myPreferences.getImageColorScale();
+    }
+
+    @Benchmark
+    public UVMapData computeUVMap() {
+        return UserModelService.computeUVMap(modelDataList.get(0).getFitsImage(), uvRect, imageMode, imageSize, colorModel, colorScale);
+    }
+
+    @Benchmark
+    public void computeUVMapCube(final Blackhole bh) {
+        for (int i = 0, len = modelDataList.size(); i < len; i++) {
+            bh.consume(UserModelService.computeUVMap(modelDataList.get(i).getFitsImage(), uvRect, imageMode, imageSize, colorModel, colorScale));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.benchmark;
+
+import fr.jmmc.aspro.service.UserModelService;
+import fr.jmmc.aspro.service.UserModelService.MathMode;
+import fr.jmmc.jmal.ALX;
+import fr.jmmc.jmal.complex.MutableComplex;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * UserModelService.computeModel() benchmark (direct Fourier transform kernels) on a synthetic 512x512 image
+ * and 64 wavelengths (u = B / lambda) computed by a single thread
+ *
+ * @author bourgesl
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true"})
+public class UserModelDFTBenchmark {
+
+    /** image size */
+    private final static int SIZE = 512;
+    /** number of wavelengths */
+    private final static int N_WLEN = 64;
+
+    /** math mode */
+    @Param({"FAST", "BLOCKED"})
+    public MathMode mathMode;
+    /** data points [flux col row] */
+    private float[] data1D = null;
+    /** U frequencies */
+    private final double[] ufreq = new double[N_WLEN];
+    /** V frequencies */
+    private final double[] vfreq = new double[N_WLEN];
+    /** complex visibilities */
+    private final MutableComplex[] vis = new MutableComplex[N_WLEN];
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(1234L);
+
+        // 0.1 mas per pixel:
+        final double[] coords = UserModelService.computeSpatialCoords(SIZE, Math.toRadians(0.1 * ALX.MILLI_ARCSEC_IN_DEGREES));
+
+        final int nPoints = SIZE * SIZE;
+        this.data1D = new float[nPoints * UserModelService.DATA_1D_POINT_SIZE];
+
+        for (int r = 0, n = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                data1D[n++] = random.nextFloat() / nPoints;
+                data1D[n++] = (float) coords[c];
+                data1D[n++] = (float) coords[r];
+            }
+        }
+
+        for (int i = 0; i < N_WLEN; i++) {
+            final double lambda = 3.0e-6 + 1e-8 * i;
+            ufreq[i] = 100.0 / lambda;
+            vfreq[i] = 40.0 / lambda;
+            vis[i] = new MutableComplex();
+        }
+    }
+
+    @Benchmark
+    public MutableComplex[] computeModel() {
+        for (int i = 0; i < N_WLEN; i++) {
+            vis[i].updateComplex(0d, 0d);
+        }
+        UserModelService.computeModel(data1D, 0, data1D.length, ufreq, vfreq, vis, 0, N_WLEN, mathMode);
+        return vis;
+    }
+}
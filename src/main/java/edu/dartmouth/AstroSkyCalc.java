@@ -66,6 +66,8 @@ public final class AstroSkyCalc {
     private Calendar dateLst0;
     /** temporary WhenWhere instance used by calendar conversion */
     private WhenWhere wwCal = null;
+    /** temporary WhenWhere instance used by moon illumination */
+    private WhenWhere wwMoon = null;
     /** temporary Calendar instance used by calendar conversion */
     private final Calendar tmpCal = new GregorianCalendar();
 
@@ -112,6 +114,9 @@ public final class AstroSkyCalc {
      */
     public void defineSite(final String name, final LonLatAlt position, final String timezone) {
         this.site = createSite(name, position);
+        // reset temporary instances (site changed):
+        this.wwCal = null;
+        this.wwMoon = null;
         // timezone (handling the Daylight Saving Time):
         final String timezoneID = (timezone != null) ? timezone : "GMT"; // GMT if unknown
         this.siteTZ = TimeZone.getTimeZone(timezoneID);
@@ -732,7 +737,12 @@ public final class AstroSkyCalc {
      * @return moon illumination fraction
      */
     private double moonIllum(final double jd) {
-        final WhenWhere wwMoon = new WhenWhere(jd, this.site);
+        // avoid new instances:
+        if (wwMoon == null) {
+            wwMoon = new WhenWhere(jd, this.site);
+        } else {
+            wwMoon.changeWhen(jd);
+        }
         wwMoon.computeSunMoon();
 
         if (isLogDebug) {
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package edu.dartmouth;
+
+import net.jafama.FastMath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class holds night-scoped ephemeris tables (moon topocentric position and altitude) sampled once
+ * over the observation night and interpolated (cubic) to avoid calling the full JSkyCalc moon routines
+ * for every target and time step.
+ *
+ * Note: this class is immutable once created so it can be shared by several threads (targets)
+ *
+ * @author bourgesl
+ */
+public final class AstroSkyCalcEphemeris {
+
+    /** Class logger */
+    private static final Logger logger = LoggerFactory.getLogger(AstroSkyCalcEphemeris.class.getName());
+    /** sampling step = 10 minutes in JD */
+    public final static double JD_STEP = 10d / (24d * 60d);
+
+    /* members */
+    /** first sampled julian date */
+    private final double jdFirst;
+    /** last valid julian date (cubic interpolation) */
+    private final double jdLast;
+    /** number of samples */
+    private final int nSamples;
+    /** moon topocentric position (unit vector in equinox of date) */
+    private final double[] moonX;
+    private final double[] moonY;
+    private final double[] moonZ;
+    /** moon altitude (deg) */
+    private final double[] moonAlt;
+
+    /**
+     * Create the ephemeris tables for the given site and julian date range
+     * @param sc Astro Sky Calc instance to get site information
+     * @param jdMin lower julian date
+     * @param jdMax upper julian date
+     */
+    public AstroSkyCalcEphemeris(final AstroSkyCalc sc, final double jdMin, final double jdMax) {
+        final long start = System.nanoTime();
+
+        // 1 extra sample before jdMin and 2 extra samples after jdMax (cubic interpolation):
+        this.jdFirst = jdMin - JD_STEP;
+        this.nSamples = (int) Math.ceil((jdMax - jdMin) / JD_STEP) + 4;
+        this.jdLast = this.jdFirst + (this.nSamples - 2) * JD_STEP;
+
+        this.moonX = new double[nSamples];
+        this.moonY = new double[nSamples];
+        this.moonZ = new double[nSamples];
+        this.moonAlt = new double[nSamples];
+
+        final WhenWhere ww = new WhenWhere(this.jdFirst, sc.site, true);
+        double[] xyz;
+
+        for (int i = 0; i < nSamples; i++) {
+            ww.changeWhen(this.jdFirst + i * JD_STEP);
+            ww.updateLocalMoon();
+
+            xyz = ww.moon.topopos.cel_unitXYZ();
+            moonX[i] = xyz[0];
+            moonY[i] = xyz[1];
+            moonZ[i] = xyz[2];
+            moonAlt[i] = ww.altmoon;
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("AstroSkyCalcEphemeris: {} samples - duration = {} ms.", nSamples, 1e-6d * (System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Return true if the given julian date is inside the sampled range
+     * @param jd julian date
+     * @return true if the given julian date is inside the sampled range
+     */
+    public boolean contains(final double jd) {
+        return (jd >= this.jdFirst + JD_STEP) && (jd <= this.jdLast);
+    }
+
+    /**
+     * Return the moon separation in degrees of the given target position at the given julian date
+     * @param targetXYZ target position (unit vector)
+     * @param jd julian date (inside the sampled range)
+     * @param riseSetAlt moon rise/set altitude (deg)
+     * @return moon separation in degrees or +INFINITY if moon is not visible
+     */
+    double getMoonSeparation(final double[] targetXYZ, final double jd, final double riseSetAlt) {
+        final double x = (jd - this.jdFirst) / JD_STEP;
+        final int i = getIndex(x);
+        final double t = x - i;
+
+        // Catmull-Rom weights:
+        final double t2 = t * t;
+        final double t3 = t2 * t;
+        final double w0 = 0.5d * (-t3 + 2d * t2 - t);
+        final double w1 = 0.5d * (3d * t3 - 5d * t2 + 2d);
+        final double w2 = 0.5d * (-3d * t3 + 4d * t2 + t);
+        final double w3 = 0.5d * (t3 - t2);
+
+        if (interpolate(moonAlt, i, w0, w1, w2, w3) < riseSetAlt) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        final double mx = interpolate(moonX, i, w0, w1, w2, w3);
+        final double my = interpolate(moonY, i, w0, w1, w2, w3);
+        final double mz = interpolate(moonZ, i, w0, w1, w2, w3);
+
+        // normalize the interpolated vector:
+        final double dotproduct = (mx * targetXYZ[0] + my * targetXYZ[1] + mz * targetXYZ[2])
+                / Math.sqrt(mx * mx + my * my + mz * mz);
+
+        return Const.DEG_IN_RADIAN * FastMath.acos(Math.min(1d, Math.max(-1d, dotproduct)));
+    }
+
+    /**
+     * Return the interpolated moon topocentric position (unit vector in equinox of date) at the given julian date
+     * (validation)
+     * @param jd julian date (inside the sampled range)
+     * @param xyz output moon position (unit vector)
+     */
+    void getMoonXYZ(final double jd, final double[] xyz) {
+        final double x = (jd - this.jdFirst) / JD_STEP;
+        final int i = getIndex(x);
+        final double t = x - i;
+
+        // Catmull-Rom weights:
+        final double t2 = t * t;
+        final double t3 = t2 * t;
+        final double w0 = 0.5d * (-t3 + 2d * t2 - t);
+        final double w1 = 0.5d * (3d * t3 - 5d * t2 + 2d);
+        final double w2 = 0.5d * (-3d * t3 + 4d * t2 + t);
+        final double w3 = 0.5d * (t3 - t2);
+
+        final double mx = interpolate(moonX, i, w0, w1, w2, w3);
+        final double my = interpolate(moonY, i, w0, w1, w2, w3);
+        final double mz = interpolate(moonZ, i, w0, w1, w2, w3);
+
+        final double norm = Math.sqrt(mx * mx + my * my + mz * mz);
+        xyz[0] = mx / norm;
+        xyz[1] = my / norm;
+        xyz[2] = mz / norm;
+    }
+
+    /**
+     * Return the index of the first sample used by the cubic interpolation clamped to [1; nSamples - 3]
+     * @param x sample position
+     * @return sample index
+     */
+    private int getIndex(final double x) {
+        final int i = (int) x;
+        if (i < 1) {
+            return 1;
+        }
+        return (i > nSamples - 3) ? nSamples - 3 : i;
+    }
+
+    private static double interpolate(final double[] values, final int i,
+                                      final double w0, final double w1, final double w2, final double w3) {
+        return w0 * values[i - 1] + w1 * values[i] + w2 * values[i + 1] + w3 * values[i + 2];
+    }
+}
@@ -7,6 +7,7 @@ import fr.jmmc.aspro.AsproConstants;
 import fr.jmmc.aspro.model.oi.AzEl;
 import fr.jmmc.aspro.util.AngleUtils;
 import fr.jmmc.jmal.ALX;
+import java.util.Arrays;
 import net.jafama.FastMath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,12 +29,26 @@ public final class AstroSkyCalcObservation {
     private Site site;
     /** rise/set altitude taking into account the observatory altitude */
     private double rise_set_alt;
+    /** optional night ephemeris tables (moon) */
+    private AstroSkyCalcEphemeris ephemeris = null;
+    /** current target position (unit vector) */
+    private final double[] targetXYZ = new double[3];
     /** cosinus of site latitude */
     private double cosLat = 0d;
     /** sinus of site latitude */
     private double sinLat = 0d;
     /** target info */
     private Observation observation = null;
+    /** reusable target coordinates (J2000) */
+    private Celest target = null;
+    /** reusable target coordinates precessed to the date */
+    private Celest targetPrecessed = null;
+    /** reusable date / site used to precess targets */
+    private WhenWhere whenWhere = null;
+    /** julian epoch of the cached precession matrix */
+    private double precessEpoch = Double.NaN;
+    /** cached precession matrix (J2000 to precessEpoch) shared by all targets */
+    private final double[] precessMatrix = new double[9];
 
     /**
      * Public Constructor
@@ -43,10 +58,20 @@ public final class AstroSkyCalcObservation {
     }
 
     /**
-     * Reset the current observation
+     * Reset the current target
+     *
+     * Note: date / site, target and observation instances are kept to be reused by the next target (see defineTarget)
      */
     public void reset() {
-        this.observation = null;
+        Arrays.fill(this.targetXYZ, Double.NaN);
+    }
+
+    /**
+     * Return the current observation (test)
+     * @return current observation or null if no target defined since the site was defined
+     */
+    Observation getObservation() {
+        return this.observation;
     }
 
     /**
@@ -57,6 +82,11 @@ public final class AstroSkyCalcObservation {
         // copy site info :
         this.site = sc.site;
 
+        // reset reusable instances (site changed):
+        this.observation = null;
+        this.whenWhere = null;
+        this.precessEpoch = Double.NaN;
+
         // pre compute cosLat / sinLat used intensively by getTargetPosition():
         final double latRad = this.site.lat.radians();
         this.cosLat = FastMath.cos(latRad);
@@ -69,6 +99,14 @@ public final class AstroSkyCalcObservation {
         this.rise_set_alt = -(0.83d + horiz);
     }
 
+    /**
+     * Define the optional night ephemeris tables (shared by all targets) used to get the moon position
+     * @param ephemeris night ephemeris tables or null to use JSkyCalc routines
+     */
+    public void defineEphemeris(final AstroSkyCalcEphemeris ephemeris) {
+        this.ephemeris = ephemeris;
+    }
+
     /**
      * Define a target by its RA/dec coordinates in degrees
      * and return its precessed coordinates for the given date
@@ -80,9 +118,31 @@ public final class AstroSkyCalcObservation {
      * @return double[] containing precessed ra (dec hours) and dec (deg) for the given jd date
      */
     public double[] defineTarget(final double jd, final double ra, final double dec, final Double pmRa, final Double pmDec) {
+        final double[] raDec = new double[2];
+        defineTarget(jd, ra, dec, pmRa, pmDec, raDec);
+        return raDec;
+    }
+
+    /**
+     * Define a target by its RA/dec coordinates in degrees
+     * and return its precessed coordinates for the given date.
+     *
+     * Note: date / site and target instances are reused and the precession matrix is computed once per date
+     * (shared by all targets) so this method does not allocate memory
+     *
+     * @param jd julian date used to precess the target
+     * @param ra right ascension (deg)
+     * @param dec declination (deg)
+     * @param pmRa proper motion in RA given divided by cos(DE) in mas/yr
+     * @param pmDec proper motion in DE in mas/yr
+     * @param raDec double[2] to store the precessed ra (dec hours) and dec (deg) for the given jd date
+     */
+    public void defineTarget(final double jd, final double ra, final double dec, final Double pmRa, final Double pmDec,
+                             final double[] raDec) {
 
         // Proper motion handling:
-        final Celest target;
+        double raTarget = ra;
+        double decTarget = dec;
 
         if ((pmRa != null) && (pmDec != null)) {
             final double years = (jd - Const.J2000) * Const.DAY_IN_YEAR;
@@ -102,12 +162,17 @@ public final class AstroSkyCalcObservation {
                 logger.debug("Target delta[RA/DEC]: {} {} arcsec", deltaRa * ALX.DEG_IN_ARCSEC, deltaDec * ALX.DEG_IN_ARCSEC);
             }
 
-            // RA (decimal hours), DEC (degrees)
-            target = new Celest(AngleUtils.deg2hours(ra + deltaRa), (dec + deltaDec), AsproConstants.EPOCH_J2000);
+            raTarget += deltaRa;
+            decTarget += deltaDec;
+        }
+
+        // RA (decimal hours), DEC (degrees)
+        if (this.target == null) {
+            this.target = new Celest(AngleUtils.deg2hours(raTarget), decTarget, AsproConstants.EPOCH_J2000);
         } else {
-            // RA (decimal hours), DEC (degrees)
-            target = new Celest(AngleUtils.deg2hours(ra), dec, AsproConstants.EPOCH_J2000);
+            this.target.update(AngleUtils.deg2hours(raTarget), decTarget, AsproConstants.EPOCH_J2000, 0d);
         }
+        final Celest target = this.target;
 
         if (isLogDebug) {
             logger.debug("Target [RA/DEC/EPOCH]: {} {}",
@@ -116,11 +181,30 @@ public final class AstroSkyCalcObservation {
         }
 
         // define jd as lst0 to precess the target:
-        final WhenWhere ww = new WhenWhere(jd, this.site);
+        if (this.whenWhere == null) {
+            this.whenWhere = new WhenWhere(jd, this.site);
+        } else if (this.whenWhere.when.jd != jd) {
+            this.whenWhere.changeWhen(jd);
+        }
+
+        // precession matrix shared by all targets at the same date:
+        final double epoch = this.whenWhere.when.julianEpoch();
+        if (epoch != this.precessEpoch) {
+            Celest.precessionMatrix(AsproConstants.EPOCH_J2000, epoch, this.precessMatrix);
+            this.precessEpoch = epoch;
+        }
 
         // note: observation is now precessed to (jd)
         // it has a minor impact on coordinates (few arcsec per year):
-        this.observation = new Observation(ww, target, false);
+        if (this.targetPrecessed == null) {
+            this.targetPrecessed = new Celest(0d, 0d, epoch);
+        }
+        target.precessInto(this.precessMatrix, epoch, this.targetPrecessed);
+
+        // observation shares the reused date / site, target and precessed target instances:
+        if (this.observation == null) {
+            this.observation = new Observation(this.whenWhere, target, this.targetPrecessed);
+        }
 
         if (isLogDebug) {
             logger.debug("Target [RA/DEC/EPOCH] precessed: {} {}",
@@ -128,7 +212,14 @@ public final class AstroSkyCalcObservation {
                     this.observation.current.delta.roundedDecString(3, ":"));
         }
 
-        return new double[]{this.observation.current.alpha.value, this.observation.current.delta.value};
+        // target position (unit vector) used by moon separation:
+        final double[] xyz = this.observation.current.cel_unitXYZ();
+        this.targetXYZ[0] = xyz[0];
+        this.targetXYZ[1] = xyz[1];
+        this.targetXYZ[2] = xyz[2];
+
+        raDec[0] = this.observation.current.alpha.value;
+        raDec[1] = this.observation.current.delta.value;
     }
 
     /**
@@ -140,7 +231,8 @@ public final class AstroSkyCalcObservation {
      * @return hour angle
      */
     public double getTargetPosition(final double cosDec, final double sinDec, final double jd, final AzEl position) {
-        getTargetPosition(cosDec, sinDec, jd);
+        // only the local sidereal time is needed (avoid date conversions):
+        this.observation.computeSkyFast(this.cosLat, this.sinLat, cosDec, sinDec, WhenWhere.lstCalc(jd, this.site.longit.value));
         position.setAzEl(this.observation.azimuth, this.observation.altitude);
         return this.observation.ha.value;
     }
@@ -166,6 +258,10 @@ public final class AstroSkyCalcObservation {
      * @return moon separation in degrees or +INFINITY if moon is not visible
      */
     public double getMoonSeparation(final double cosDec, final double sinDec, final double jd) {
+        if (this.ephemeris != null && this.ephemeris.contains(jd)) {
+            // interpolate the moon position (night ephemeris):
+            return this.ephemeris.getMoonSeparation(this.targetXYZ, jd, this.rise_set_alt);
+        }
         getTargetPosition(cosDec, sinDec, jd);
         return getMoonSeparation();
     }
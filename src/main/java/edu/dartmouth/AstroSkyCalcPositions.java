@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package edu.dartmouth;
+
+import fr.jmmc.jmcs.util.concurrent.ParallelJobExecutor;
+import net.jafama.FastMath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class computes target positions (elevation, azimuth and airmass) for many targets and julian dates at once
+ * (bulk version of AstroSkyCalcObservation.getTargetPosition()) to screen whole catalogs.
+ *
+ * Loops are split in passes: the local sidereal time trigonometry is computed once per julian date and
+ * the inner loops over julian dates only use arithmetic on arrays (JIT auto-vectorization) before
+ * the inverse trigonometric functions are evaluated. Targets may be processed in parallel (ParallelJobExecutor).
+ *
+ * Outputs are stored per target: value[iTarget * nJDs + iJD]
+ *
+ * @author bourgesl
+ */
+public final class AstroSkyCalcPositions {
+
+    /** Class logger */
+    private static final Logger logger = LoggerFactory.getLogger(AstroSkyCalcPositions.class.getName());
+    /** minimum number of positions (targets x julian dates) to use parallel jobs */
+    private final static int JOB_THRESHOLD = 16 * 1024;
+    /** airmass polynomial coefficients (see Spherical.true_airmass) */
+    private final static double[] AIRMASS_COEFS = {2.879465e-3, 3.033104e-3, 1.351167e-3, -4.716679e-5};
+
+    /**
+     * Forbidden constructor
+     */
+    private AstroSkyCalcPositions() {
+        // no-op
+    }
+
+    /**
+     * Compute the positions of the given targets at the given julian dates for the site of the given AstroSkyCalc
+     * @param sc Astro Sky Calc instance to get the site
+     * @param ra precessed right ascensions (decimal hours) of targets (see AstroSkyCalcObservation.defineTarget())
+     * @param dec precessed declinations (deg) of targets
+     * @param nTargets number of targets
+     * @param jds julian dates
+     * @param nJDs number of julian dates
+     * @param elevation output elevations (deg) [nTargets x nJDs]
+     * @param azimuth optional output azimuths (0 to north, 90 to east) in degrees [nTargets x nJDs]
+     * @param airmass optional output true airmass (NaN if elevation &lt;= 0) [nTargets x nJDs]
+     * @param useThreads true to split targets across cores (ParallelJobExecutor)
+     * @throws IllegalArgumentException if any array is too small
+     */
+    public static void computePositions(final AstroSkyCalc sc,
+                                        final double[] ra, final double[] dec, final int nTargets,
+                                        final double[] jds, final int nJDs,
+                                        final double[] elevation, final double[] azimuth, final double[] airmass,
+                                        final boolean useThreads) {
+
+        final int nPositions = nTargets * nJDs;
+
+        if (ra.length < nTargets || dec.length < nTargets || jds.length < nJDs
+                || elevation.length < nPositions
+                || (azimuth != null && azimuth.length < nPositions)
+                || (airmass != null && airmass.length < nPositions)) {
+            throw new IllegalArgumentException("Invalid array length: nTargets = " + nTargets + " nJDs = " + nJDs);
+        }
+        if (nPositions == 0) {
+            return;
+        }
+
+        final long start = System.nanoTime();
+
+        // site:
+        final double latRad = sc.site.lat.radians();
+        final double cosLat = FastMath.cos(latRad);
+        final double sinLat = FastMath.sin(latRad);
+        final double longit = sc.site.longit.value;
+
+        // local sidereal time trigonometry (shared by all targets):
+        final double[] cosLst = new double[nJDs];
+        final double[] sinLst = new double[nJDs];
+
+        for (int j = 0; j < nJDs; j++) {
+            final double lstRad = WhenWhere.lstCalc(jds[j], longit) * Const.RADIAN_IN_HRS;
+            cosLst[j] = FastMath.cos(lstRad);
+            sinLst[j] = FastMath.sin(lstRad);
+        }
+
+        final ParallelJobExecutor jobExecutor = ParallelJobExecutor.getInstance();
+
+        final int nTh = (useThreads && !jobExecutor.isWorkerThread() && nPositions > JOB_THRESHOLD)
+                ? Math.min(nTargets, jobExecutor.getMaxParallelJob()) : 1;
+
+        if (nTh == 1) {
+            computeTargets(0, nTargets, ra, dec, nJDs, cosLat, sinLat, cosLst, sinLst, elevation, azimuth, airmass);
+        } else {
+            final int step = nTargets / nTh;
+
+            // 1 job per block of targets:
+            final Runnable[] jobs = new Runnable[nTh];
+
+            for (int t = 0; t < nTh; t++) {
+                final int from = t * step;
+                final int end = (t == nTh - 1) ? nTargets : from + step;
+
+                jobs[t] = new Runnable() {
+                    /**
+                     * Called by the ParallelJobExecutor to perform task computation
+                     */
+                    @Override
+                    public void run() {
+                        computeTargets(from, end, ra, dec, nJDs, cosLat, sinLat, cosLst, sinLst, elevation, azimuth, airmass);
+                    }
+                };
+            }
+
+            // execute jobs in parallel (throws InterruptedJobException if interrupted):
+            jobExecutor.forkAndJoin("AstroSkyCalcPositions.computePositions", jobs);
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("computePositions: {} targets x {} dates - duration = {} ms.", nTargets, nJDs, 1e-6d * (System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Compute the positions of targets in range [from; end[
+     */
+    private static void computeTargets(final int from, final int end,
+                                       final double[] ra, final double[] dec, final int nJDs,
+                                       final double cosLat, final double sinLat,
+                                       final double[] cosLst, final double[] sinLst,
+                                       final double[] elevation, final double[] azimuth, final double[] airmass) {
+
+        // temporary north / east components (per job):
+        final double[] north = new double[nJDs];
+        final double[] east = new double[nJDs];
+
+        final double c0 = AIRMASS_COEFS[0];
+        final double c1 = AIRMASS_COEFS[1];
+        final double c2 = AIRMASS_COEFS[2];
+        final double c3 = AIRMASS_COEFS[3];
+
+        for (int i = from; i < end; i++) {
+            final double raRad = ra[i] * Const.RADIAN_IN_HRS;
+            final double cosRa = FastMath.cos(raRad);
+            final double sinRa = FastMath.sin(raRad);
+
+            final double decRad = dec[i] * Const.RADIAN_IN_DEG;
+            final double cosDec = FastMath.cos(decRad);
+            final double sinDec = FastMath.sin(decRad);
+
+            final double a = cosDec * cosLat;
+            final double b = sinDec * sinLat;
+            final double n0 = sinDec * cosLat;
+            final double n1 = cosDec * sinLat;
+
+            final int offset = i * nJDs;
+
+            // pass 1: arithmetic only (vectorizable): ha = lst - ra
+            for (int j = 0; j < nJDs; j++) {
+                final double cosHa = cosLst[j] * cosRa + sinLst[j] * sinRa;
+                final double sinHa = sinLst[j] * cosRa - cosLst[j] * sinRa;
+
+                // sinus of altitude:
+                elevation[offset + j] = a * cosHa + b;
+                // due N comp:
+                north[j] = n0 - n1 * cosHa;
+                // due E comp:
+                east[j] = -cosDec * sinHa;
+            }
+
+            // pass 2: airmass from sinus of altitude (see Spherical.true_airmass):
+            if (airmass != null) {
+                for (int j = 0, k = offset; j < nJDs; j++, k++) {
+                    final double sinAlt = elevation[k];
+                    final double secz = 1d / sinAlt;
+                    final double x = secz - 1d;
+
+                    final double am = (secz > 12d) ? (secz - 1.5d) : secz - ((((c3 * x + c2) * x + c1) * x + c0) * x);
+
+                    airmass[k] = (sinAlt > 0d) ? am : Double.NaN;
+                }
+            }
+
+            // pass 3: inverse trigonometric functions:
+            for (int j = 0, k = offset; j < nJDs; j++, k++) {
+                // fix rounding errors (|sinAlt| <= 1):
+                final double sinAlt = elevation[k];
+                elevation[k] = Const.DEG_IN_RADIAN * FastMath.asin((sinAlt > 1d) ? 1d : ((sinAlt < -1d) ? -1d : sinAlt));
+            }
+
+            if (azimuth != null) {
+                for (int j = 0, k = offset; j < nJDs; j++, k++) {
+                    double az = Const.DEG_IN_RADIAN * FastMath.atan2(east[j], north[j]);
+                    if (az < 0d) {
+                        az += 360d;
+                    }
+                    azimuth[k] = (az >= 360d) ? az - 360d : az;
+                }
+            }
+        }
+    }
+}
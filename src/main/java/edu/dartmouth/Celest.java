@@ -177,13 +177,9 @@ public final class Celest implements Cloneable {
         return retVals;
     }
 
-    /** generates a unit vector XYZ in equinox NewEquinox from the current
-     alpha, delta, and equinox.  I believe these are IUA 1976 precession
-     constants, which are not fully up-to-date but which are close
-     enough for most puropses. */
-    double[] precess(final double NewEquinox) {
-
-        //System.out.printf("equinoxes %f %f%n",equinox,NewEquinox);
+    /** LBO: computes the precession matrix (row-major double[9]) from the given equinox to NewEquinox
+     (same constants as precess()) so it can be reused for many targets. */
+    static void precessionMatrix(final double equinox, final double NewEquinox, final double[] p) {
         final double ti = (equinox - 2000d) / 100d;
         final double tf = (NewEquinox - 2000d - 100d * ti) / 100d;
 
@@ -199,18 +195,67 @@ public final class Celest implements Cloneable {
         final double sinzeta = FastMath.sin(zeta * Const.RADIAN_IN_ARCSEC);
         final double sintheta = FastMath.sin(theta * Const.RADIAN_IN_ARCSEC);
 
-        final double[][] p = new double[3][3];
-        p[0][0] = coszeta * cosz * costheta - sinzeta * sinz;
-        p[0][1] = -1d * sinzeta * cosz * costheta - coszeta * sinz;
-        p[0][2] = -1d * cosz * sintheta;
+        p[0] = coszeta * cosz * costheta - sinzeta * sinz;
+        p[1] = -1d * sinzeta * cosz * costheta - coszeta * sinz;
+        p[2] = -1d * cosz * sintheta;
+
+        p[3] = coszeta * sinz * costheta + sinzeta * cosz;
+        p[4] = -1d * sinzeta * sinz * costheta + coszeta * cosz;
+        p[5] = -1d * sinz * sintheta;
+
+        p[6] = coszeta * sintheta;
+        p[7] = -1d * sinzeta * sintheta;
+        p[8] = costheta;
+    }
 
-        p[1][0] = coszeta * sinz * costheta + sinzeta * cosz;
-        p[1][1] = -1d * sinzeta * sinz * costheta + coszeta * cosz;
-        p[1][2] = -1d * sinz * sintheta;
+    /** LBO: precesses this Celest into the given Celest (equinox NewEquinox) using the given precession matrix
+     (see precessionMatrix()) without any allocation; same results as precessed(NewEquinox). */
+    void precessInto(final double[] p, final double NewEquinox, final Celest out) {
+        final double alphaRad = this.alpha.radians();
+        final double deltaRad = this.delta.radians();
+
+        final double cosdec = FastMath.cos(deltaRad);
 
-        p[2][0] = coszeta * sintheta;
-        p[2][1] = -1d * sinzeta * sintheta;
-        p[2][2] = costheta;
+        final double o0 = cosdec * FastMath.cos(alphaRad);
+        final double o1 = cosdec * FastMath.sin(alphaRad);
+        final double o2 = FastMath.sin(deltaRad);
+
+        double x = p[0] * o0 + p[1] * o1 + p[2] * o2;
+        double y = p[3] * o0 + p[4] * o1 + p[5] * o2;
+        double z = p[6] * o0 + p[7] * o1 + p[8] * o2;
+
+        // see xyzCel():
+        double raout = 0d, decout = 0d;
+
+        final double mod = Math.sqrt(x * x + y * y + z * z);
+        if (mod > 0d) {
+            x /= mod;
+            y /= mod;
+            z /= mod;
+
+            final double xy = Math.sqrt(x * x + y * y);
+            if (xy < 1.0e-11d) {  // on the pole
+                decout = Const.PI_OVER_2;
+                if (z < 0d) {
+                    decout *= -1d;
+                }
+            } else {
+                raout = FastMath.atan2(y, x) * Const.HRS_IN_RADIAN;
+                decout = FastMath.asin(z) * Const.DEG_IN_RADIAN;
+            }
+        }
+        out.update(raout, decout, NewEquinox, 0d);
+    }
+
+    /** generates a unit vector XYZ in equinox NewEquinox from the current
+     alpha, delta, and equinox.  I believe these are IUA 1976 precession
+     constants, which are not fully up-to-date but which are close
+     enough for most puropses. */
+    double[] precess(final double NewEquinox) {
+
+        //System.out.printf("equinoxes %f %f%n",equinox,NewEquinox);
+        final double[] p = new double[9];
+        precessionMatrix(equinox, NewEquinox, p);
 
         final double alphaRad = this.alpha.radians();
         final double deltaRad = this.delta.radians();
@@ -230,7 +275,7 @@ public final class Celest implements Cloneable {
             //System.out.printf("orig[%d] = %f%n",i,orig[i]);
             for (j = 0; j < 3; j++) {
                 //System.out.printf("%d%d: %f  ",i,j,p[i][j]);
-                fin[i] += p[i][j] * orig[j];
+                fin[i] += p[3 * i + j] * orig[j];
             }
             //System.out.printf("%nfin[%d] = %f%n%n",i,fin[i]);
         }
@@ -41,6 +41,20 @@ public final class Observation implements Cloneable {
         ha = new HA(0d);
         computeSky();
     }
+
+    /**
+     * LBO: special constructor sharing the given (mutable) instances and the already precessed coordinates
+     * (sky is not computed: use computeSkyFast())
+     * @param wIn date / site
+     * @param celIn target coordinates
+     * @param currentIn target coordinates precessed to the date
+     */
+    Observation(final WhenWhere wIn, final Celest celIn, final Celest currentIn) {
+        w = wIn;
+        c = celIn;
+        current = currentIn;
+        ha = new HA(0d);
+    }
     
     void computeSky() {   // bare-bones updater
         // assumes WhenWhere w has been updated.
@@ -67,10 +81,18 @@ public final class Observation implements Cloneable {
     void computeSkyFast(final double cosLat, final double sinLat,
             final double cosDec, final double sinDec) {
         // assumes WhenWhere w has been updated.
+        computeSkyFast(cosLat, sinLat, cosDec, sinDec, w.sidereal);
+    }
+
+    /**
+     * LBO: fast sky update given the local sidereal time (WhenWhere w is not used nor updated)
+     */
+    void computeSkyFast(final double cosLat, final double sinLat,
+            final double cosDec, final double sinDec, final double sidereal) {
         // do not precess current coordinates as JD does not change much during night:
         //  current = c.precessed(w.when.julianEpoch());
 
-        ha.setHA(w.sidereal - current.alpha.value);
+        ha.setHA(sidereal - current.alpha.value);
 
         altAz(cosLat, sinLat, cosDec, sinDec, ha.value, altazpar);
 
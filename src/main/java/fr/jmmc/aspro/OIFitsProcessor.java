@@ -20,9 +20,23 @@ import fr.jmmc.oitools.model.OIData;
 import fr.jmmc.oitools.model.OIFitsFile;
 import fr.jmmc.oitools.model.OIFitsLoader;
 import fr.jmmc.oitools.model.OIFitsWriter;
+import fr.jmmc.jmcs.util.FileUtils;
+import fr.jmmc.jmcs.util.concurrent.InterruptedJobException;
+import fr.jmmc.jmcs.util.concurrent.ParallelJobExecutor;
 import fr.nom.tam.fits.FitsException;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,6 +70,16 @@ public final class OIFitsProcessor {
     public final static String ARG_APODIZE = "apodize";
     /** CLI arg - apodization diameter */
     public final static String ARG_DIAMETER = "diameter";
+    /** CLI arg - batch (manifest or input glob) */
+    public final static String ARG_BATCH = "batch";
+    /** CLI arg - batch output directory */
+    public final static String ARG_OUTPUT_DIR = "outputDir";
+    /** CLI arg - batch workers */
+    public final static String ARG_WORKERS = "workers";
+    /** manifest comment prefix */
+    private final static String MANIFEST_COMMENT = "#";
+    /** default output file suffix */
+    private final static String OUTPUT_SUFFIX = "-processed.fits";
 
     public static void defineCommandLineArguments(final App app) {
         app.addCustomCommandLineArgument(ARG_IMAGE, true, "the input FITS model to process", App.ExecMode.TTY);
@@ -66,30 +90,40 @@ public final class OIFitsProcessor {
         app.addCustomCommandLineArgument(ARG_FAST_ERROR, true, "optional Fast mode error in percents [0 - 10 %]; 1% by default", App.ExecMode.TTY);
         app.addCustomCommandLineArgument(ARG_SUPER_SAMPLING, true, "supersampling per spectral channel ["
                 + AsproConstants.DEFAULT_SUPER_SAMPLING + "]", App.ExecMode.TTY);
-        app.addCustomCommandLineArgument(ARG_MATH, true, "Math mode: ['FAST'] faster, 'DEFAULT' highest accuracy or 'QUICK' fastest BUT low accuracy", App.ExecMode.TTY);
+        app.addCustomCommandLineArgument(ARG_MATH, true, "Math mode: ['FAST'] faster, 'DEFAULT' highest accuracy, 'QUICK' fastest BUT low accuracy or 'BLOCKED' (FAST accuracy, blocked kernel)", App.ExecMode.TTY);
         // transform arguments:
         app.addCustomCommandLineArgument(ARG_SCALE, true, "optional image scale (increment) expressed in milli-arcsec (mas)", App.ExecMode.TTY);
         app.addCustomCommandLineArgument(ARG_ROTATE, true, "optional image rotation expressed in degrees", App.ExecMode.TTY);
         // apodization arguments:
         app.addCustomCommandLineArgument(ARG_APODIZE, true, "[true] to perform image apodization; false to disable", App.ExecMode.TTY);
         app.addCustomCommandLineArgument(ARG_DIAMETER, true, "optional telescope diameter (meters) used by image apodization", App.ExecMode.TTY);
+        // batch arguments:
+        app.addCustomCommandLineArgument(ARG_BATCH, true, "batch mode: manifest file ('input image [output]' per line) "
+                + "or input OIFITS glob pattern (with the " + ARG_IMAGE + " argument, also accepting a glob pattern)", App.ExecMode.TTY);
+        app.addCustomCommandLineArgument(ARG_OUTPUT_DIR, true, "optional output directory (batch mode)", App.ExecMode.TTY);
+        app.addCustomCommandLineArgument(ARG_WORKERS, true, "optional number of files processed in parallel (batch mode)", App.ExecMode.TTY);
     }
 
     public static void processCommandLine(final App app, final Map<String, String> argValues) {
-        final String inputFile = argValues.get(ARG_INPUT);
+        final String batch = argValues.get(ARG_BATCH);
+        // manifest gives both input and image files:
+        final boolean useManifest = (batch != null) && !isGlob(batch);
 
-        if (inputFile == null) {
+        final String inputFile = argValues.get(ARG_INPUT);
+        final boolean hasInput = (inputFile != null) || (batch != null);
+        if (!hasInput) {
             logger.warn("Missing {} argument !", ARG_INPUT);
             app.showArgumentsHelp();
         }
 
         final String modelFile = argValues.get(ARG_IMAGE);
-        if (modelFile == null) {
+        final boolean hasImage = (modelFile != null) || useManifest;
+        if (!hasImage) {
             logger.warn("Missing {} argument !", ARG_IMAGE);
             app.showArgumentsHelp();
         }
 
-        if (inputFile != null && modelFile != null) {
+        if (hasInput && hasImage) {
             // Optional arguments:
             final String outputFile = argValues.get(ARG_OUTPUT);
 
@@ -119,13 +153,275 @@ public final class OIFitsProcessor {
             optArg = argValues.get(ARG_DIAMETER);
             final double diameter = (optArg != null) ? Double.parseDouble(optArg) : Double.NaN;
 
-            // Process (in sync):
-            new OIFitsProcessor(inputFile, modelFile, outputFile,
-                    useFastMode, fastError, supersampling, mathMode,
-                    doApodization, diameter,
-                    scale, rotate
-            ).process();
+            if (batch != null) {
+                // Batch mode:
+                optArg = argValues.get(ARG_WORKERS);
+                final int workers = (optArg != null) ? Integer.parseInt(optArg)
+                        : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+                final List<String[]> tasks = getBatchTasks(batch, modelFile, argValues.get(ARG_OUTPUT_DIR));
+
+                if (tasks.isEmpty()) {
+                    logger.warn("No file to process in batch [{}] !", batch);
+                    return;
+                }
+
+                final List<OIFitsProcessor> processors = new ArrayList<OIFitsProcessor>(tasks.size());
+                for (String[] task : tasks) {
+                    processors.add(new OIFitsProcessor(task[0], task[1], task[2],
+                            useFastMode, fastError, supersampling, mathMode,
+                            doApodization, diameter,
+                            scale, rotate
+                    ));
+                }
+
+                // Process (in sync):
+                if (processBatch(processors, workers) != 0) {
+                    // non-zero exit status:
+                    App.exit(1);
+                }
+            } else {
+                final OIFitsProcessor processor = new OIFitsProcessor(inputFile, modelFile, outputFile,
+                        useFastMode, fastError, supersampling, mathMode,
+                        doApodization, diameter,
+                        scale, rotate
+                );
+                // Process (in sync):
+                processor.process();
+
+                if (processor.failed) {
+                    // non-zero exit status:
+                    App.exit(1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Process the given processors using a bounded number of workers.
+     * Inputs sharing the same image are grouped (processors are sorted by image) and each group is processed
+     * by a single worker so the user model is prepared once per image.
+     * @param processors processors to run
+     * @param workers maximum number of processors running in parallel
+     * @return number of failed processors
+     */
+    private static int processBatch(final List<OIFitsProcessor> processors, final int workers) {
+        final long start = System.nanoTime();
+
+        // group inputs sharing the same image (stable sort):
+        Collections.sort(processors, new Comparator<OIFitsProcessor>() {
+            @Override
+            public int compare(final OIFitsProcessor p1, final OIFitsProcessor p2) {
+                return p1.modelFile.compareTo(p2.modelFile);
+            }
+        });
+
+        final int nTasks = processors.size();
+
+        // contiguous groups [from; end[ sharing the same image:
+        final List<int[]> groups = new ArrayList<int[]>();
+        for (int i = 0, from = 0; i < nTasks; i++) {
+            if (i + 1 == nTasks || !processors.get(i + 1).modelFile.equals(processors.get(from).modelFile)) {
+                groups.add(new int[]{from, i + 1});
+                from = i + 1;
+            }
+        }
+        final int nGroups = groups.size();
+
+        final ParallelJobExecutor jobExecutor = ParallelJobExecutor.getInstance();
+        final int nTh = Math.max(1, Math.min(Math.min(workers, nGroups), jobExecutor.getMaxParallelJob()));
+
+        logger.info("Batch: processing {} files ({} images) using {} workers", nTasks, nGroups, nTh);
+
+        // next group index (shared by workers):
+        final AtomicInteger nextGroup = new AtomicInteger(0);
+
+        // 1 job per worker:
+        final Runnable[] jobs = new Runnable[nTh];
+
+        for (int t = 0; t < nTh; t++) {
+            jobs[t] = new Runnable() {
+                /**
+                 * Called by the ParallelJobExecutor to perform task computation
+                 */
+                @Override
+                public void run() {
+                    final Thread currentTh = Thread.currentThread();
+
+                    for (int g; (g = nextGroup.getAndIncrement()) < nGroups;) {
+                        final int[] group = groups.get(g);
+
+                        // prepared user model (shared by the group):
+                        UserModel userModel = null;
+
+                        for (int i = group[0]; i < group[1]; i++) {
+                            final OIFitsProcessor processor = processors.get(i);
+                            try {
+                                userModel = processor.process(userModel);
+                            } catch (InterruptedJobException ije) {
+                                throw ije;
+                            } catch (RuntimeException re) {
+                                // isolate the failure to this task (do not abort the batch):
+                                logger.warn("Batch: failure while processing [{}] with image [{}]", processor.inputFile, processor.modelFile, re);
+                                processor.failed = true;
+                                // reset the prepared user model (may be corrupted):
+                                userModel = null;
+                            }
+
+                            // fast interrupt:
+                            if (currentTh.isInterrupted()) {
+                                return;
+                            }
+                        }
+                    }
+                }
+            };
+        }
+
+        if (nTh == 1) {
+            // use current thread (parallel computations enabled):
+            jobs[0].run();
+        } else {
+            // execute jobs in parallel:
+            jobExecutor.forkAndJoin("OIFitsProcessor.processBatch", jobs);
+        }
+
+        int nFailed = 0;
+        for (OIFitsProcessor processor : processors) {
+            if (processor.failed) {
+                nFailed++;
+            }
+        }
+
+        if (nFailed != 0) {
+            logger.error("Batch: {} / {} files failed", nFailed, nTasks);
         }
+        logger.info("Batch: {} files processed - duration = {} ms.", nTasks, 1e-6d * (System.nanoTime() - start));
+
+        return nFailed;
+    }
+
+    /**
+     * Return the batch tasks (input, image, output) from the given manifest file or input glob pattern
+     * @param batch manifest file or input glob pattern
+     * @param modelFile image file or glob pattern (input glob pattern only)
+     * @param outputDir optional output directory
+     * @return list of tasks [input, image, output]
+     */
+    private static List<String[]> getBatchTasks(final String batch, final String modelFile, final String outputDir) {
+        final List<String[]> tasks = new ArrayList<String[]>();
+
+        if (isGlob(batch)) {
+            final List<File> inputs = listFiles(batch);
+            final List<File> images = listFiles(modelFile);
+
+            for (File input : inputs) {
+                for (File image : images) {
+                    final String outputName = (images.size() == 1) ? input.getName() + OUTPUT_SUFFIX
+                            : FileUtils.getFileNameWithoutExtension(input.getName()) + '-' + FileUtils.getFileNameWithoutExtension(image.getName()) + ".fits";
+
+                    tasks.add(new String[]{input.getPath(), image.getPath(),
+                        new File((outputDir != null) ? new File(outputDir) : input.getParentFile(), outputName).getPath()});
+                }
+            }
+        } else {
+            final File manifest = new File(batch);
+            final File baseDir = manifest.getAbsoluteFile().getParentFile();
+
+            BufferedReader reader = null;
+            try {
+                reader = new BufferedReader(new FileReader(manifest));
+
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+
+                    if (line.isEmpty() || line.startsWith(MANIFEST_COMMENT)) {
+                        continue;
+                    }
+                    // tab or whitespace separated values:
+                    final String[] values = line.split((line.indexOf('\t') != -1) ? "\t+" : "\\s+");
+
+                    if (values.length < 2) {
+                        logger.warn("Invalid line in manifest [{}]: {}", batch, line);
+                        continue;
+                    }
+                    final File input = resolve(baseDir, values[0].trim());
+                    final File output;
+                    if (values.length > 2) {
+                        output = resolve((outputDir != null) ? new File(outputDir) : baseDir, values[2].trim());
+                    } else {
+                        output = new File((outputDir != null) ? new File(outputDir) : input.getParentFile(), input.getName() + OUTPUT_SUFFIX);
+                    }
+                    tasks.add(new String[]{input.getPath(), resolve(baseDir, values[1].trim()).getPath(), output.getPath()});
+                }
+            } catch (IOException ioe) {
+                logger.warn("Unable to read the manifest [{}]", batch, ioe);
+            } finally {
+                FileUtils.closeFile(reader);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Return true if the given path contains glob wildcards ('*' or '?')
+     * @param path path to test
+     * @return true if the given path contains glob wildcards
+     */
+    private static boolean isGlob(final String path) {
+        return (path.indexOf('*') != -1) || (path.indexOf('?') != -1);
+    }
+
+    /**
+     * Return the files matching the given glob pattern (wildcards in the file name only) sorted by name
+     * @param pattern file path or glob pattern
+     * @return matching files
+     */
+    private static List<File> listFiles(final String pattern) {
+        final File file = new File(pattern);
+
+        if (!isGlob(pattern)) {
+            return Collections.singletonList(file);
+        }
+        final File dir = (file.getParentFile() != null) ? file.getParentFile() : new File(".");
+
+        // convert glob to regular expression:
+        final StringBuilder sb = new StringBuilder(32);
+        for (String part : file.getName().split("(?<=[*?])|(?=[*?])")) {
+            if ("*".equals(part)) {
+                sb.append(".*");
+            } else if ("?".equals(part)) {
+                sb.append('.');
+            } else if (!part.isEmpty()) {
+                sb.append(Pattern.quote(part));
+            }
+        }
+        final Pattern regexp = Pattern.compile(sb.toString());
+
+        final File[] files = dir.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(final File f) {
+                return f.isFile() && regexp.matcher(f.getName()).matches();
+            }
+        });
+
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    /**
+     * Resolve the given path against the given directory (if relative)
+     * @param dir base directory
+     * @param path file path
+     * @return file
+     */
+    private static File resolve(final File dir, final String path) {
+        final File file = new File(path);
+        return (file.isAbsolute() || dir == null) ? file : new File(dir, path);
     }
 
     /* members */
@@ -151,6 +447,8 @@ public final class OIFitsProcessor {
     private final double scale;
     /** rotation angle (deg) */
     private final double rotate;
+    /** failure flag (batch report) */
+    private boolean failed = false;
 
     /**
      * Constructor
@@ -200,7 +498,17 @@ public final class OIFitsProcessor {
     }
 
     public void process() {
+        process(null);
+    }
+
+    /**
+     * Process the input file with the given prepared user model (if any)
+     * @param preparedUserModel optional user model already prepared for the same image (batch mode)
+     * @return prepared user model (to be reused) or null if the image preparation failed
+     */
+    private UserModel process(final UserModel preparedUserModel) {
         final WarningContainer warningContainer = new WarningContainer();
+        UserModel userModel = preparedUserModel;
         try {
             // load OIFITS:
             final OIFitsFile oiFitsFile = OIFitsLoader.loadOIFits(inputFile);
@@ -208,35 +516,13 @@ public final class OIFitsProcessor {
             
             // Handle analytical model:
 
-            // load and prepare images:
-            final UserModel userModel = new UserModel();
-            userModel.setFile(modelFile);
-
-            // define optional Transforms:
-            if (!Double.isNaN(scale)) {
-                final double inc = ALX.convertMasToRad(scale);
-                userModel.setScaleX(inc);
-                userModel.setScaleY(inc);
+            if (userModel == null) {
+                // load and prepare images:
+                userModel = prepareUserModel();
+            } else {
+                logger.info("Reusing prepared FitsImage: {}", userModel.getModelData(0).getFitsImage().toString());
             }
-            if (!Double.isNaN(rotate)) {
-                userModel.setRotation(rotate);
-            }
-
-            // throws exceptions if the given fits file or image is incorrect:
-            // note: apodization is defered to use appropriate wavelength
-            UserModelService.prepareUserModel(userModel, useFastMode, fastError);
-
-            final UserModelData modelData = userModel.getModelData(0);
-            final FitsImage fitsImage = modelData.getFitsImage();
-            logger.info("Prepared FitsImage: {}", fitsImage.toString());
 
-            // update checksum before validation:
-            if (userModel.isModelDataReady()) {
-                // note: only possible with one Fits image or one Fits cube (single HDU):
-                final FitsImageHDU fitsImageHDU = modelData.getFitsImageHDU();
-
-                userModel.setChecksum(fitsImageHDU.getChecksum());
-            }
             // Validate user model with the max frequency from the OIFITS file:
             UserModelService.validateModel(userModel, getMaxFreq(oiFitsFile));
 
@@ -259,10 +545,14 @@ public final class OIFitsProcessor {
 
         } catch (IllegalArgumentException iae) {
             logger.warn("Incorrect fits image in file [{}]", modelFile, iae);
+            userModel = null;
+            this.failed = true;
         } catch (FitsException fe) {
             logger.info("FITS failure", fe);
+            this.failed = true;
         } catch (IOException ioe) {
             logger.info("IO failure", ioe);
+            this.failed = true;
         } finally {
             if (warningContainer.hasWarning()) {
                 logSeparator();
@@ -273,6 +563,46 @@ public final class OIFitsProcessor {
             }
             logSeparator();
         }
+        return userModel;
+    }
+
+    /**
+     * Load and prepare the user model (image)
+     * @return prepared user model
+     * @throws FitsException if the fits file can not be loaded
+     * @throws IOException IO failure
+     * @throws IllegalArgumentException if the given fits file or image is incorrect
+     */
+    private UserModel prepareUserModel() throws FitsException, IOException, IllegalArgumentException {
+        final UserModel userModel = new UserModel();
+        userModel.setFile(modelFile);
+
+        // define optional Transforms:
+        if (!Double.isNaN(scale)) {
+            final double inc = ALX.convertMasToRad(scale);
+            userModel.setScaleX(inc);
+            userModel.setScaleY(inc);
+        }
+        if (!Double.isNaN(rotate)) {
+            userModel.setRotation(rotate);
+        }
+
+        // throws exceptions if the given fits file or image is incorrect:
+        // note: apodization is defered to use appropriate wavelength
+        UserModelService.prepareUserModel(userModel, useFastMode, fastError);
+
+        final UserModelData modelData = userModel.getModelData(0);
+        final FitsImage fitsImage = modelData.getFitsImage();
+        logger.info("Prepared FitsImage: {}", fitsImage.toString());
+
+        // update checksum before validation:
+        if (userModel.isModelDataReady()) {
+            // note: only possible with one Fits image or one Fits cube (single HDU):
+            final FitsImageHDU fitsImageHDU = modelData.getFitsImageHDU();
+
+            userModel.setChecksum(fitsImageHDU.getChecksum());
+        }
+        return userModel;
     }
 
     private double getMaxFreq(final OIFitsFile oiFitsFile) {
@@ -55,7 +55,7 @@ public final class Preferences extends fr.jmmc.oiexplorer.core.Preferences {
     public final static String BEST_POPS_CRITERIA_AVERAGE_WEIGHT = "bestPops.criteria.averageWeight";
     /** Preference : Add noise to OIFits data */
     public final static String OIFITS_ADD_NOISE = "oifits.noise";
-    /** Preference : MathMode used by OIFits computation (QUICK, FAST, DEFAULT) */
+    /** Preference : MathMode used by OIFits computation (QUICK, FAST, DEFAULT, BLOCKED) */
     public final static String OIFITS_MATH_MODE = "oifits.math.mode";
     /** Preference : Number of complex visibility samples used to compute the complex visibility of each spectral channel (1, 5, 10 ...) */
     public final static String OIFITS_SUPER_SAMPLING = "oifits.supersampling";
@@ -267,8 +267,8 @@ public final class Preferences extends fr.jmmc.oiexplorer.core.Preferences {
     }
 
     /**
-     * Return the MathMode used by OIFits computation (QUICK, FAST, DEFAULT)
-     * @return MathMode used by OIFits computation (QUICK, FAST, DEFAULT)
+     * Return the MathMode used by OIFits computation (QUICK, FAST, DEFAULT, BLOCKED)
+     * @return MathMode used by OIFits computation (QUICK, FAST, DEFAULT, BLOCKED)
      */
     public MathMode getOIFitsMathMode() {
         final String value = getPreference(OIFITS_MATH_MODE);
@@ -40,6 +40,7 @@ import fr.jmmc.aspro.model.oi.ObservationVariant;
 import fr.jmmc.aspro.model.oi.Pop;
 import fr.jmmc.aspro.model.oi.Target;
 import fr.jmmc.aspro.model.oi.TargetUserInformations;
+import fr.jmmc.aspro.model.util.TargetIndex;
 import fr.jmmc.jmal.star.EditableStarResolverWidget;
 import fr.jmmc.jmal.star.StarResolver;
 import fr.jmmc.jmal.star.StarResolverListener;
@@ -1545,8 +1546,11 @@ public final class BasicObservationForm extends javax.swing.JPanel implements Ch
                 final StringBuilder sb = new StringBuilder(64);
                 boolean isTargetChanged = false;
                 try {
+                    // sky index of the edited targets (crossmatch):
+                    final TargetIndex index = new TargetIndex(editTargets);
+
                     for (String name : validNames) {
-                        isTargetChanged |= TargetImporter.addTarget(result.getSingleStar(name), editTargets, doConfirm, sb);
+                        isTargetChanged |= TargetImporter.addTarget(result.getSingleStar(name), editTargets, index, doConfirm, sb);
                     }
                 } finally {
                     if (isTargetChanged) {
@@ -17,6 +17,7 @@ import fr.jmmc.aspro.model.oi.Target;
 import fr.jmmc.aspro.model.oi.TargetInformation;
 import fr.jmmc.aspro.model.oi.TargetUserInformations;
 import fr.jmmc.aspro.model.util.TargetDEComparator;
+import fr.jmmc.aspro.model.util.TargetIndex;
 import fr.jmmc.aspro.model.util.TargetRAComparator;
 import fr.jmmc.jmal.Band;
 import fr.jmmc.jmal.star.StarResolver;
@@ -732,8 +733,11 @@ public final class TargetForm extends javax.swing.JPanel implements StarResolver
                 final StringBuilder sb = new StringBuilder(64);
                 boolean isTargetChanged = false;
                 try {
+                    // sky index of the edited targets (crossmatch):
+                    final TargetIndex index = new TargetIndex(editTargets);
+
                     for (String name : validNames) {
-                        isTargetChanged |= TargetImporter.addTarget(result.getSingleStar(name), editTargets, doConfirm, sb);
+                        isTargetChanged |= TargetImporter.addTarget(result.getSingleStar(name), editTargets, index, doConfirm, sb);
                     }
                 } finally {
                     if (isTargetChanged) {
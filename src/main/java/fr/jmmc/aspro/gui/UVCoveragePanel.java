@@ -17,6 +17,7 @@ import fr.jmmc.aspro.gui.task.AsproTaskRegistry;
 import fr.jmmc.aspro.gui.task.ObservationCollectionTaskSwingWorker;
 import fr.jmmc.aspro.gui.util.AnimatorPanel;
 import fr.jmmc.aspro.gui.util.UserModelAnimator;
+import fr.jmmc.aspro.gui.util.UserModelFrameCache;
 import fr.jmmc.aspro.model.BaseLine;
 import fr.jmmc.aspro.model.ConfigurationManager;
 import fr.jmmc.aspro.model.OIFitsData;
@@ -204,6 +205,8 @@ public final class UVCoveragePanel extends javax.swing.JPanel implements XYToolT
     private final static ObservationManager om = ObservationManager.getInstance();
     /** user model animator singleton */
     private final static UserModelAnimator animator = UserModelAnimator.getInstance();
+    /** user model frame cache singleton */
+    private final static UserModelFrameCache frameCache = UserModelFrameCache.getInstance();
     /** default timeline refresh period = 1 minutes */
     private static final int REFRESH_PERIOD = 60 * 1000;
     /* members */
@@ -2151,11 +2154,17 @@ public final class UVCoveragePanel extends javax.swing.JPanel implements XYToolT
                                     final FitsImage fitsImage = modelDataList.get(imageIdx).getFitsImage();
 
                                     if (fitsImage != null) {
-                                        // Check if the previously computed visiblity Data is still valid :
-                                        if (this.currentUVMapData != null
+                                        // Check if the frame was precomputed (animation):
+                                        uvMapData = frameCache.getFrame(target.getUserModel(), imageIdx, targetName, targetVersion,
+                                                uvRect, this.imageMode, this.imageSize, this.colorModel, this.colorScale, noiseService, airyRadius);
+
+                                        if (uvMapData != null) {
+                                            _logger.debug("Reuse precomputed model image.");
+
+                                        } else if (this.currentUVMapData != null
+                                                && !frameCache.isCached(this.currentUVMapData) // cached frames do not share their data
                                                 && this.currentUVMapData.isDataValid(targetName, targetVersion, uvRect, this.imageSize,
                                                         imageIdx, airyRadius)) {
-
                                             _logger.debug("Reuse model visiblity.");
 
                                             // flag indicating not to recycle currentUVMapData.getData():
@@ -2202,6 +2211,12 @@ public final class UVCoveragePanel extends javax.swing.JPanel implements XYToolT
                                 uvMapData.setTargetVersion(targetVersion);
 
                                 uvDataCollection.setUvMapData(uvMapData);
+
+                                if (modelDataList != null) {
+                                    // precompute other frames in background if the user model is animated:
+                                    frameCache.precompute(target.getUserModel(), modelDataList, uvMapData, targetName, targetVersion,
+                                            uvRect, this.imageMode, this.imageSize, this.colorModel, this.colorScale, noiseService, airyRadius);
+                                }
                             }
 
                         } catch (InterruptedJobException ije) {
@@ -2209,6 +2224,7 @@ public final class UVCoveragePanel extends javax.swing.JPanel implements XYToolT
                             // recycle arrays:
                             if ((uvMapData != null)
                                     && !target.hasAnalyticalModel()
+                                    && !uvMapData.isDataReused()
                                     && ((this.currentUVMapData == null)
                                     || (this.currentUVMapData.getData() != uvMapData.getData()))) {
                                 // recycle array:
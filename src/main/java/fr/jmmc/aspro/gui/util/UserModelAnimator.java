@@ -34,6 +34,8 @@ public final class UserModelAnimator {
     private static final int REFRESH_PERIOD = 100;
     /** debug mode for register/unregister actions */
     private static final boolean DEBUG = false;
+    /** frame cache (precomputed frames of animated user models) */
+    private static final UserModelFrameCache frameCache = UserModelFrameCache.getInstance();
 
     /**
      * Return the singleton instance
@@ -114,6 +116,7 @@ public final class UserModelAnimator {
                 if (oldContext.actionListeners.isEmpty()) {
                     // remove context:
                     contexts.remove(oldContext.userModelKey);
+                    frameCache.disable(oldContext.userModelKey);
                 }
             }
         }
@@ -136,6 +139,7 @@ public final class UserModelAnimator {
             // update:
             contextByListener.put(listener, context);
             contexts.put(key, context);
+            frameCache.enable(key);
         }
 
         // anyway start or stop timer:
@@ -159,6 +163,7 @@ public final class UserModelAnimator {
                 if (oldContext.actionListeners.isEmpty()) {
                     // remove context:
                     contexts.remove(oldContext.userModelKey);
+                    frameCache.disable(oldContext.userModelKey);
                 }
             }
         }
@@ -192,11 +197,11 @@ public final class UserModelAnimator {
     }
 
     /**
-     * Compyte an user model key (key in context map)
+     * Compute an user model key (key in context map)
      * @param userModel user model to use
      * @return user model key
      */
-    private String getUserModelKey(final UserModel userModel) {
+    static String getUserModelKey(final UserModel userModel) {
         return userModel.getFile() + '#' + userModel.getChecksum();
     }
 
@@ -0,0 +1,376 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.gui.util;
+
+import fr.jmmc.aspro.model.oi.UserModel;
+import fr.jmmc.aspro.service.UserModelData;
+import fr.jmmc.aspro.service.UserModelService;
+import fr.jmmc.jmal.image.ColorScale;
+import fr.jmmc.jmal.image.FloatArrayCache;
+import fr.jmmc.jmal.model.ImageMode;
+import fr.jmmc.jmal.model.UVMapData;
+import fr.jmmc.jmal.model.VisNoiseService;
+import fr.jmmc.jmcs.util.concurrent.InterruptedJobException;
+import fr.jmmc.jmcs.util.concurrent.ParallelJobExecutor;
+import fr.jmmc.oitools.image.FitsImage;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.IndexColorModel;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class precomputes the UV map frames of all images of an animated user model (FITS cube) as a singleton:
+ * frames are computed (FFT + image) in background by dedicated low priority threads (not the shared ParallelJobExecutor
+ * used by foreground computations) and kept in a bounded frame cache so the animation only displays cached frames
+ * once warmed-up.
+ *
+ * Only the frames of the current user model and UV map parameters are kept: the background computation is cancelled
+ * and frames are discarded when the user model is no longer animated or when UV map parameters change.
+ *
+ * Note: cached frames are flagged as reused (UVMapData.isDataReused) so their complex visibilities are never recycled;
+ * background frames that are not cached (computed concurrently or cancelled) are recycled.
+ *
+ * @author bourgesl
+ */
+public final class UserModelFrameCache {
+
+    /** Class logger */
+    private static final Logger logger = LoggerFactory.getLogger(UserModelFrameCache.class.getName());
+    /** maximum memory used by cached frames (megabytes) */
+    private static final long MAX_FRAME_CACHE = 1024L * 1024L * Integer.getInteger("UserModel.frameCache.maxSizeMB", 256);
+    /** singleton instance */
+    private static final UserModelFrameCache instance = new UserModelFrameCache();
+    /** number of background threads (same as the ParallelJobExecutor) */
+    private static final int N_THREADS = Math.max(1, ParallelJobExecutor.getInstance().getMaxParallelJob());
+
+    /**
+     * Return the singleton instance
+     * @return UserModelFrameCache instance
+     */
+    public static UserModelFrameCache getInstance() {
+        return instance;
+    }
+
+    /* members */
+    /** low priority background threads running frame computations */
+    private final ExecutorService executor;
+    /** animated user model keys (= file + checksum) */
+    private final Set<String> animatedKeys = new HashSet<String>(4);
+    /** current frame set (guarded by this) */
+    private FrameSet current = null;
+
+    /**
+     * Private constructor (singleton)
+     */
+    private UserModelFrameCache() {
+        super();
+
+        this.executor = Executors.newFixedThreadPool(N_THREADS, new ThreadFactory() {
+            /** thread counter */
+            private final AtomicInteger count = new AtomicInteger(0);
+
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, "UserModelFrameCache-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Enable frame precomputation for the given user model (animation started)
+     * @param userModelKey user model key (= file + checksum)
+     */
+    synchronized void enable(final String userModelKey) {
+        this.animatedKeys.add(userModelKey);
+    }
+
+    /**
+     * Disable frame precomputation for the given user model (animation stopped or model changed):
+     * cancel the background computation and discard its frames
+     * @param userModelKey user model key (= file + checksum)
+     */
+    synchronized void disable(final String userModelKey) {
+        this.animatedKeys.remove(userModelKey);
+
+        if (this.current != null && this.current.userModelKey.equals(userModelKey)) {
+            cancelCurrent();
+        }
+    }
+
+    /**
+     * Return the cached frame for the given user model image if it is valid for the given UV map parameters
+     * @param userModel user model
+     * @param imageIndex image index
+     * @param targetName target name
+     * @param targetVersion target version
+     * @param uvRect UV frequency area in rad-1
+     * @param mode image mode (amplitude or phase)
+     * @param imageSize expected number of pixels for both width and height of the generated image
+     * @param colorModel color model to use
+     * @param colorScale color scaling method
+     * @param noiseService optional Complex visibility Noise Service
+     * @param airyRadius airy radius
+     * @return cached frame or null if not available
+     */
+    public UVMapData getFrame(final UserModel userModel, final int imageIndex,
+                              final String targetName, final int targetVersion,
+                              final Rectangle2D.Double uvRect, final ImageMode mode, final int imageSize,
+                              final IndexColorModel colorModel, final ColorScale colorScale,
+                              final VisNoiseService noiseService, final double airyRadius) {
+
+        final FrameSet set;
+        synchronized (this) {
+            set = this.current;
+        }
+        if (set == null || imageIndex < 0 || imageIndex >= set.frames.length()
+                || !set.userModelKey.equals(UserModelAnimator.getUserModelKey(userModel))) {
+            return null;
+        }
+        final UVMapData frame = set.frames.get(imageIndex);
+
+        // frames are only visible once flagged as reused (see FrameSet.offer):
+        if (frame != null && frame.isDataReused() && frame.isValid(targetName, targetVersion, uvRect, mode, imageSize, colorModel, colorScale,
+                imageIndex, noiseService, airyRadius)) {
+            return frame;
+        }
+        return null;
+    }
+
+    /**
+     * Return true if the given UV map data is a cached frame
+     * @param uvMapData UV map data to check
+     * @return true if the given UV map data is a cached frame
+     */
+    public boolean isCached(final UVMapData uvMapData) {
+        final FrameSet set;
+        synchronized (this) {
+            set = this.current;
+        }
+        if (set != null) {
+            final int index = uvMapData.getImageIndex();
+
+            return (index >= 0 && index < set.frames.length() && set.frames.get(index) == uvMapData);
+        }
+        return false;
+    }
+
+    /**
+     * Start computing in background the frames of all images of the given user model if it is animated
+     * (and not already done for the same UV map parameters)
+     *
+     * @param userModel user model
+     * @param modelDataList prepared user model images
+     * @param refFrame frame computed by the caller (stored in the frame cache)
+     * @param targetName target name
+     * @param targetVersion target version
+     * @param uvRect UV frequency area in rad-1
+     * @param mode image mode (amplitude or phase)
+     * @param imageSize expected number of pixels for both width and height of the generated image
+     * @param colorModel color model to use
+     * @param colorScale color scaling method
+     * @param noiseService optional Complex visibility Noise Service
+     * @param airyRadius airy radius
+     */
+    public synchronized void precompute(final UserModel userModel, final List<UserModelData> modelDataList,
+                                        final UVMapData refFrame,
+                                        final String targetName, final int targetVersion,
+                                        final Rectangle2D.Double uvRect, final ImageMode mode, final int imageSize,
+                                        final IndexColorModel colorModel, final ColorScale colorScale,
+                                        final VisNoiseService noiseService, final double airyRadius) {
+
+        final String userModelKey = UserModelAnimator.getUserModelKey(userModel);
+
+        if (!this.animatedKeys.contains(userModelKey) || modelDataList.size() <= 1) {
+            return;
+        }
+
+        if (this.current != null) {
+            final FrameSet set = this.current;
+
+            if (set.userModelKey.equals(userModelKey)
+                    && set.refFrame.isValid(targetName, targetVersion, uvRect, mode, imageSize, colorModel, colorScale,
+                            set.refFrame.getImageIndex(), noiseService, airyRadius)) {
+                // same parameters: keep the given frame if missing (else the caller still owns it):
+                set.offer(refFrame);
+                return;
+            }
+            cancelCurrent();
+        }
+
+        // bound the number of frames according to the frame size:
+        final int nFrames = (int) Math.min(modelDataList.size(), Math.max(1L, MAX_FRAME_CACHE / getFrameSize(refFrame)));
+
+        final FrameSet set = new FrameSet(userModelKey, refFrame, nFrames);
+        set.offer(refFrame);
+
+        logger.debug("precompute: {} frames for user model [{}]", nFrames, userModelKey);
+
+        this.current = set;
+
+        final int nTh = Math.min(nFrames, N_THREADS);
+
+        // next frame index and running workers (shared by workers):
+        final AtomicInteger nextFrame = new AtomicInteger(0);
+        final AtomicInteger running = new AtomicInteger(nTh);
+        final long start = System.nanoTime();
+
+        // 1 job per background thread:
+        set.futures = new Future<?>[nTh];
+
+        for (int t = 0; t < nTh; t++) {
+            set.futures[t] = this.executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        computeFrames(set, nextFrame, userModel, modelDataList, targetName, targetVersion, uvRect, mode,
+                                imageSize, colorModel, colorScale, noiseService, airyRadius);
+
+                    } catch (InterruptedJobException ije) {
+                        logger.debug("computeFrames: interrupted: ", ije);
+                    } catch (RuntimeException re) {
+                        // frames will be computed on demand:
+                        logger.warn("computeFrames: failure: ", re);
+                    } finally {
+                        if (running.decrementAndGet() == 0 && !set.cancelled) {
+                            logger.info("computeFrames: {} frames - duration = {} ms.", nFrames, 1e-6d * (System.nanoTime() - start));
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Cancel the background computation and discard the current frame set
+     */
+    private void cancelCurrent() {
+        final FrameSet set = this.current;
+        if (set != null) {
+            logger.debug("cancel: frames for user model [{}]", set.userModelKey);
+
+            set.cancelled = true;
+            if (set.futures != null) {
+                for (Future<?> future : set.futures) {
+                    future.cancel(true);
+                }
+            }
+            this.current = null;
+        }
+    }
+
+    /**
+     * Compute missing frames of the given frame set (work stealing on frame indexes)
+     * This code is executed by the background threads
+     *
+     * @throws InterruptedJobException if the current thread is interrupted (cancelled)
+     */
+    private static void computeFrames(final FrameSet set, final AtomicInteger nextFrame,
+                                      final UserModel userModel, final List<UserModelData> modelDataList,
+                                      final String targetName, final int targetVersion,
+                                      final Rectangle2D.Double uvRect, final ImageMode mode, final int imageSize,
+                                      final IndexColorModel colorModel, final ColorScale colorScale,
+                                      final VisNoiseService noiseService, final double airyRadius) {
+        final Thread currentTh = Thread.currentThread();
+        final int nFrames = set.frames.length();
+
+        for (int i; (i = nextFrame.getAndIncrement()) < nFrames;) {
+            // fast interrupt:
+            if (set.cancelled || currentTh.isInterrupted()) {
+                return;
+            }
+            if (set.frames.get(i) != null) {
+                continue;
+            }
+
+            final FitsImage fitsImage = modelDataList.get(i).getFitsImage();
+
+            if (fitsImage != null) {
+                final UVMapData frame = UserModelService.computeUVMap(fitsImage,
+                        uvRect, mode, imageSize, colorModel, colorScale, noiseService);
+
+                if (frame != null) {
+                    // same attributes as UVCoveragePanel:
+                    frame.setImageIndex(i);
+                    frame.setImageCount(modelDataList.size());
+                    frame.setWaveLength(fitsImage.getWaveLength());
+                    frame.setUserModel(userModel);
+                    frame.setAiryRadius(airyRadius);
+                    frame.setTargetName(targetName);
+                    frame.setTargetVersion(targetVersion);
+
+                    if (!set.offer(frame)) {
+                        // not cached (cancelled or computed concurrently): recycle its complex visibilities:
+                        FloatArrayCache.recycleArray(frame.getData());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the estimated memory size (bytes) of the given frame: complex visibilities and image
+     * @param frame UV map data
+     * @return estimated memory size (bytes)
+     */
+    private static long getFrameSize(final UVMapData frame) {
+        long size = 4L * frame.getImageSize() * frame.getImageSize();
+
+        final float[][] data = frame.getData();
+        if (data != null && data.length != 0) {
+            size += 4L * data.length * data[0].length;
+        }
+        return size;
+    }
+
+    /**
+     * Frames of one user model for the same UV map parameters
+     */
+    private static final class FrameSet {
+
+        /** user model key (= file + checksum) */
+        final String userModelKey;
+        /** reference frame (UV map parameters) */
+        final UVMapData refFrame;
+        /** frames indexed by image index */
+        final AtomicReferenceArray<UVMapData> frames;
+        /** cancellation flag */
+        volatile boolean cancelled = false;
+        /** background computations (1 per thread) */
+        Future<?>[] futures = null;
+
+        FrameSet(final String userModelKey, final UVMapData refFrame, final int nFrames) {
+            this.userModelKey = userModelKey;
+            this.refFrame = refFrame;
+            this.frames = new AtomicReferenceArray<UVMapData>(nFrames);
+        }
+
+        /**
+         * Store the given frame if missing
+         * @param frame frame to store
+         * @return true if the frame is stored; false otherwise (the caller still owns the frame and its data)
+         */
+        boolean offer(final UVMapData frame) {
+            final int index = frame.getImageIndex();
+
+            if (!cancelled && index >= 0 && index < frames.length() && frames.compareAndSet(index, null, frame)) {
+                // flag indicating not to recycle frame.getData():
+                frame.setDataReused(true);
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -14,6 +14,7 @@ import fr.jmmc.aspro.model.oi.ObservationSetting;
 import fr.jmmc.aspro.model.oi.StringValue;
 import fr.jmmc.aspro.model.oi.Target;
 import fr.jmmc.aspro.model.oi.TargetUserInformations;
+import fr.jmmc.aspro.model.util.TargetIndex;
 import fr.jmmc.jmal.ALX;
 import fr.jmmc.jmcs.gui.component.MessagePane;
 import fr.jmmc.jmcs.gui.util.SwingUtils;
@@ -314,6 +315,9 @@ public final class SearchCalVOTableHandler {
         String calName;
         Target oldCal;
 
+        // sky index of the edited targets (crossmatch):
+        final TargetIndex index = new TargetIndex(editTargets);
+
         for (Target newCal : calibrators) {
             // format the target name:
             newCal.updateNameAndIdentifier();
@@ -323,12 +327,13 @@ public final class SearchCalVOTableHandler {
 
             // Find any target (id + position) within 5 arcsecs:
             // note: SearchCal considers internally duplicates within 10 arcsecs (and discard all of them)
-            oldCal = Target.matchTarget(newCal, editTargets);
+            oldCal = index.matchTarget(newCal);
 
             if (oldCal == null) {
 
                 // append the missing target:
                 editTargets.add(newCal);
+                index.add(newCal);
 
                 // define it as a calibrator:
                 editTargetUserInfos.addCalibrator(newCal);
@@ -379,6 +384,8 @@ public final class SearchCalVOTableHandler {
                 // note: the position of the target is not the same:
                 editTargets.remove(oldCal);
                 editTargets.add(newCal);
+                index.remove(oldCal);
+                index.add(newCal);
             }
         }
         return sb.toString();
@@ -395,6 +402,9 @@ public final class SearchCalVOTableHandler {
         final StringBuilder sb = new StringBuilder(512);
         sb.append("Import GetStar targets\n\n");
 
+        // sky index of the edited targets (crossmatch):
+        final TargetIndex index = new TargetIndex(editTargets);
+
         for (Target newTarget : targets) {
             // format the target name:
             newTarget.updateNameAndIdentifier();
@@ -404,11 +414,12 @@ public final class SearchCalVOTableHandler {
 
             // Find any target (id + position) within 5 arcsecs:
             // note: SearchCal considers internally duplicates within 10 arcsecs (and discard all of them)
-            final Target oldTarget = Target.matchTarget(newTarget, editTargets);
+            final Target oldTarget = index.matchTarget(newTarget);
 
             if (oldTarget == null) {
                 // append the missing target:
                 editTargets.add(newTarget);
+                index.add(newTarget);
 
                 // report message:
                 sb.append(targetName).append(" added\n");
@@ -418,6 +429,7 @@ public final class SearchCalVOTableHandler {
 
                 // copy non empty values into old target:
                 Target.merge(oldTarget, newTarget);
+                index.update(oldTarget);
 
                 // Add model if none already present:
                 // (do not merge with existing model)
@@ -32,6 +32,12 @@ public final class BestPoPsObservabilityContext extends ObservabilityContext {
     private Range[] wRanges = null;
     /** best PoPs estimator related to the current target (HA ranges) */
     private BestPopsEstimator popEstimator = null;
+    /** temporary interval set (target HA ranges) */
+    private final IntervalSet targetIntervals = new IntervalSet();
+    /** temporary interval set (merged HA ranges) */
+    private final IntervalSet mergeIntervals = new IntervalSet();
+    /** temporary range */
+    private final Range tmpRange = new Range();
 
     /**
      * Public constructor
@@ -66,6 +72,87 @@ public final class BestPoPsObservabilityContext extends ObservabilityContext {
         return Range.intersectRanges(flatRangeLimits, nFlatRangeLimits, nValid, ranges, this);
     }
 
+    /**
+     * Intersect the given HA ranges of all base lines and return the merged ranges as flat ranges
+     * @param rangesBL list of HA ranges per BL
+     * @return flat ranges [min0, max0, min1, max1 ...] or null if the intersection is empty
+     */
+    public double[] intersectAndGetFlatRanges(final List<List<Range>> rangesBL) {
+        final int size = rangesBL.size();
+
+        this.nFlatRangeLimits = 0;
+        for (int i = 0; i < size; i++) {
+            addInFlatRangeLimits(rangesBL.get(i));
+        }
+        return intersectAndGetFlatRanges(size);
+    }
+
+    /**
+     * Intersect the given flat ranges and return the merged ranges as flat ranges
+     * @param flatRanges1 first flat ranges [min0, max0, min1, max1 ...]
+     * @param flatRanges2 second flat ranges [min0, max0, min1, max1 ...]
+     * @return flat ranges [min0, max0, min1, max1 ...] or null if the intersection is empty
+     */
+    public double[] intersectAndGetFlatRanges(final double[] flatRanges1, final double[] flatRanges2) {
+        this.nFlatRangeLimits = 0;
+        addInFlatRangeLimits(flatRanges1);
+        addInFlatRangeLimits(flatRanges2);
+        return intersectAndGetFlatRanges(2);
+    }
+
+    /**
+     * Intersect overlapping ranges (flat range limits) according to the nValid parameter
+     * and return the merged ranges as flat ranges
+     * @param nValid number of ranges to consider a point is valid
+     * @return flat ranges [min0, max0, min1, max1 ...] or null if the intersection is empty
+     */
+    public double[] intersectAndGetFlatRanges(final int nValid) {
+        final List<Range> ranges = intersectAndGetMergeRanges(nValid);
+
+        final int len = ranges.size();
+        if (len == 0) {
+            return null;
+        }
+
+        final double[] flatRanges = new double[2 * len];
+
+        Range range;
+        for (int i = 0, n = 0; i < len; i++) {
+            range = ranges.get(i);
+            flatRanges[n++] = range.getMin();
+            flatRanges[n++] = range.getMax();
+        }
+
+        // recycle memory (to avoid GC):
+        recycleRanges(ranges);
+
+        return flatRanges;
+    }
+
+    /**
+     * Return the temporary interval set (target HA ranges)
+     * @return temporary interval set
+     */
+    public IntervalSet getTargetIntervals() {
+        return targetIntervals;
+    }
+
+    /**
+     * Return the temporary interval set (merged HA ranges)
+     * @return temporary interval set
+     */
+    public IntervalSet getMergeIntervals() {
+        return mergeIntervals;
+    }
+
+    /**
+     * Return the temporary range
+     * @return temporary range
+     */
+    public Range getTmpRange() {
+        return tmpRange;
+    }
+
     /**
      * Return the temporary PopObservabilityData list
      * @return temporary PopObservabilityData list
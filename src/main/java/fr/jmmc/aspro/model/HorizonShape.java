@@ -6,15 +6,44 @@ package fr.jmmc.aspro.model;
 import java.awt.Shape;
 
 /**
- * Simple Horizon profile holder to use the java shape API to check if a point is inside a polygon
+ * Simple Horizon profile holder to use the java shape API to check if a point is inside a polygon.
+ *
+ * Polygon profiles are compiled into an azimuth-indexed table (1 column per polygon unit ie 0.1 deg)
+ * giving the lower (horizon) and upper elevation bounds of each column, so the check is an indexed compare.
+ * Columns crossed by more than 2 polygon edges and points close to the column bounds (float rounding
+ * or polygon edge / vertex insideness rules) use the shape instead, so the check gives the same result.
+ * Global elevation bounds of the table tell if a whole elevation range is inside (or outside) the shape
+ * whatever the azimuth (adaptive observability scans).
+ *
  * @author bourgesl
  */
 public final class HorizonShape {
 
+  /** elevation tolerance (polygon unit) to use the shape near the column bounds */
+  private final static double EDGE_EPSILON = 1e-3;
+
+  /* members */
   /** profile name */
   private final String name;
   /** internal shape */
   private final Shape shape;
+  /* compiled table (x = polygon unit) */
+  /** first column x */
+  private final int xMin;
+  /** number of columns */
+  private final int nCols;
+  /** lower elevation bound at the left / right side of each column (NaN means use the shape) */
+  private final float[] lowLeft;
+  private final float[] lowRight;
+  /** upper elevation bound at the left / right side of each column */
+  private final float[] highLeft;
+  private final float[] highRight;
+  /** maximum lower bound of all columns (NaN if any column uses the shape) */
+  private final double lowMax;
+  /** minimum lower bound of all columns (NaN if any column uses the shape) */
+  private final double lowMin;
+  /** minimum upper bound of all columns (NaN if any column uses the shape) */
+  private final double highMin;
 
   /**
    * Protected constructor
@@ -24,6 +53,112 @@ public final class HorizonShape {
   public HorizonShape(final String name, final Shape shape) {
     this.name = name;
     this.shape = shape;
+    this.xMin = 0;
+    this.nCols = 0;
+    this.lowLeft = null;
+    this.lowRight = null;
+    this.highLeft = null;
+    this.highRight = null;
+    this.lowMax = Double.NaN;
+    this.lowMin = Double.NaN;
+    this.highMin = Double.NaN;
+  }
+
+  /**
+   * Protected constructor compiling the given closed polygon into the azimuth-indexed table
+   * @param name profile name
+   * @param shape shape (horizon) built from the given polygon
+   * @param xpoints polygon x coordinates (closed polygon)
+   * @param ypoints polygon y coordinates (closed polygon)
+   * @param npoints number of polygon points
+   */
+  public HorizonShape(final String name, final Shape shape,
+                      final int[] xpoints, final int[] ypoints, final int npoints) {
+    this.name = name;
+    this.shape = shape;
+
+    int min = Integer.MAX_VALUE;
+    int max = Integer.MIN_VALUE;
+    for (int i = 0; i < npoints; i++) {
+      min = Math.min(min, xpoints[i]);
+      max = Math.max(max, xpoints[i]);
+    }
+    this.xMin = min;
+    this.nCols = Math.max(0, max - min);
+
+    this.lowLeft = new float[nCols];
+    this.lowRight = new float[nCols];
+    this.highLeft = new float[nCols];
+    this.highRight = new float[nCols];
+
+    for (int c = 0; c < nCols; c++) {
+      final double xl = min + c;
+      final double xm = xl + 0.5;
+
+      int hits = 0;
+      double yl0 = 0.0, yr0 = 0.0, yl1 = 0.0, yr1 = 0.0;
+
+      // find edges crossing this column (no vertex strictly inside a column):
+      for (int i = 1; i < npoints && hits <= 2; i++) {
+        final int x0 = xpoints[i - 1];
+        final int x1 = xpoints[i];
+
+        if ((x0 < xm && xm < x1) || (x1 < xm && xm < x0)) {
+          final double slope = (double) (ypoints[i] - ypoints[i - 1]) / (x1 - x0);
+          final double yl = ypoints[i - 1] + (xl - x0) * slope;
+          final double yr = yl + slope;
+
+          if (hits == 0) {
+            yl0 = yl;
+            yr0 = yr;
+          } else {
+            yl1 = yl;
+            yr1 = yr;
+          }
+          hits++;
+        }
+      }
+
+      if (hits == 2 && (yl0 - yl1) * (yr0 - yr1) >= 0.0) {
+        // edges do not cross inside a column:
+        if (yl0 + yr0 <= yl1 + yr1) {
+          lowLeft[c] = (float) yl0;
+          lowRight[c] = (float) yr0;
+          highLeft[c] = (float) yl1;
+          highRight[c] = (float) yr1;
+        } else {
+          lowLeft[c] = (float) yl1;
+          lowRight[c] = (float) yr1;
+          highLeft[c] = (float) yl0;
+          highRight[c] = (float) yr0;
+        }
+      } else if (hits == 0) {
+        // empty column:
+        lowLeft[c] = lowRight[c] = Float.POSITIVE_INFINITY;
+        highLeft[c] = highRight[c] = Float.NEGATIVE_INFINITY;
+      } else {
+        // complex column (or crossing edges): use the shape
+        lowLeft[c] = Float.NaN;
+      }
+    }
+
+    // global bounds:
+    double lMax = Double.NEGATIVE_INFINITY;
+    double lMin = Double.POSITIVE_INFINITY;
+    double hMin = Double.POSITIVE_INFINITY;
+
+    for (int c = 0; c < nCols; c++) {
+      if (Float.isNaN(lowLeft[c])) {
+        lMax = lMin = hMin = Double.NaN;
+        break;
+      }
+      lMax = Math.max(lMax, Math.max(lowLeft[c], lowRight[c]));
+      lMin = Math.min(lMin, Math.min(lowLeft[c], lowRight[c]));
+      hMin = Math.min(hMin, Math.min(highLeft[c], highRight[c]));
+    }
+    this.lowMax = lMax;
+    this.lowMin = lMin;
+    this.highMin = hMin;
   }
 
   /**
@@ -33,9 +168,54 @@ public final class HorizonShape {
    * @return true if the given coordinates are inside the observable shape
    */
   public boolean check(final double az, final double elev) {
+    if (this.lowLeft != null) {
+      final double x = az - this.xMin;
+
+      if (x < 0.0 || x >= this.nCols) {
+        return false;
+      }
+      final int c = (int) x;
+
+      if (!Float.isNaN(this.lowLeft[c])) {
+        final double t = x - c;
+        final double low = lowLeft[c] + t * (lowRight[c] - lowLeft[c]);
+        final double high = highLeft[c] + t * (highRight[c] - highLeft[c]);
+
+        if (Math.abs(elev - low) > EDGE_EPSILON && Math.abs(elev - high) > EDGE_EPSILON) {
+          return (elev > low) && (elev < high);
+        }
+      }
+    }
     return this.shape.contains(az, elev);
   }
 
+  /**
+   * Return true if every point of the given azimuth and elevation ranges is inside the observable shape
+   * (compiled table bounds only, false if unknown)
+   * @param azMin lower azimuth
+   * @param azMax upper azimuth (exclusive)
+   * @param elevMin lower elevation
+   * @param elevMax upper elevation
+   * @return true if every point is inside the observable shape; false if unknown
+   */
+  public boolean containsAll(final double azMin, final double azMax, final double elevMin, final double elevMax) {
+    // NaN bounds give false:
+    return (azMin >= this.xMin) && (azMax <= this.xMin + this.nCols)
+        && (elevMin > this.lowMax + EDGE_EPSILON) && (elevMax < this.highMin - EDGE_EPSILON);
+  }
+
+  /**
+   * Return true if every point of the given elevation range is outside the observable shape whatever the azimuth
+   * (compiled table bounds only, false if unknown)
+   * @param elevMin lower elevation
+   * @param elevMax upper elevation
+   * @return true if every point is outside the observable shape; false if unknown
+   */
+  public boolean containsNone(final double elevMin, final double elevMax) {
+    // NaN bounds give false:
+    return (elevMin <= elevMax) && (elevMax < this.lowMin - EDGE_EPSILON);
+  }
+
   /**
    * Return the profile name
    * @return profile name
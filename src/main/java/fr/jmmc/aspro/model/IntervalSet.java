@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.model;
+
+import fr.jmmc.oitools.model.range.Range;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class represents a set of disjoint closed intervals stored as sorted primitive endpoints
+ * [min0, max0, min1, max1 ...] with in-place union and intersection (no Range allocation)
+ *
+ * Note: intersections only keep intervals having a positive length
+ *
+ * Scope: used by the best PoPs search only (branch-and-bound traversal and cached PoP ranges).
+ * The per-target observability path (delay lines, horizon, moon and wind restrictions) still relies on
+ * Range.intersectRanges() and the Range / List pools of ObservabilityContext.
+ *
+ * @author bourgesl
+ */
+public final class IntervalSet {
+
+    /* members */
+    /** interval endpoints [min0, max0, min1, max1 ...] */
+    private double[] bounds;
+    /** number of intervals */
+    private int size = 0;
+    /** temporary endpoints used by in-place operations (swapped with bounds) */
+    private double[] tmpBounds;
+
+    /**
+     * Public constructor
+     */
+    public IntervalSet() {
+        this(4);
+    }
+
+    /**
+     * Public constructor
+     * @param capacity initial number of intervals
+     */
+    public IntervalSet(final int capacity) {
+        this.bounds = new double[2 * capacity];
+        this.tmpBounds = new double[2 * capacity];
+    }
+
+    /**
+     * Return the number of intervals
+     * @return number of intervals
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return true if this set is empty
+     * @return true if this set is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Return the lower bound of the interval at the given index
+     * @param index interval index
+     * @return lower bound
+     */
+    public double getMin(final int index) {
+        return bounds[2 * index];
+    }
+
+    /**
+     * Return the upper bound of the interval at the given index
+     * @param index interval index
+     * @return upper bound
+     */
+    public double getMax(final int index) {
+        return bounds[2 * index + 1];
+    }
+
+    /**
+     * Return the length of the interval at the given index
+     * @param index interval index
+     * @return length
+     */
+    public double getLength(final int index) {
+        return bounds[2 * index + 1] - bounds[2 * index];
+    }
+
+    /**
+     * Return the index of the longest interval (the first one if several intervals have the same length)
+     * @return index of the longest interval or -1 if this set is empty
+     */
+    public int indexOfMaxLength() {
+        int index = -1;
+        double max = 0d;
+        double len;
+        for (int i = 0; i < size; i++) {
+            len = getLength(i);
+            if (index == -1 || len > max) {
+                max = len;
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Remove all intervals
+     * @return this
+     */
+    public IntervalSet clear() {
+        this.size = 0;
+        return this;
+    }
+
+    /**
+     * Copy the given set
+     * @param other set to copy
+     * @return this
+     */
+    public IntervalSet set(final IntervalSet other) {
+        final int len = 2 * other.size;
+        ensureCapacity(len);
+        System.arraycopy(other.bounds, 0, this.bounds, 0, len);
+        this.size = other.size;
+        return this;
+    }
+
+    /**
+     * Copy the given flat intervals (sorted and disjoint)
+     * @param flatRanges flat intervals [min0, max0, min1, max1 ...] or null (empty)
+     * @return this
+     */
+    public IntervalSet set(final double[] flatRanges) {
+        if (flatRanges == null) {
+            return clear();
+        }
+        final int len = flatRanges.length;
+        ensureCapacity(len);
+        System.arraycopy(flatRanges, 0, this.bounds, 0, len);
+        this.size = len / 2;
+        return this;
+    }
+
+    /**
+     * Set the union of the given ranges (any order)
+     * @param ranges list of ranges
+     * @return this
+     */
+    public IntervalSet set(final List<Range> ranges) {
+        this.size = 0;
+        for (int i = 0, len = ranges.size(); i < len; i++) {
+            final Range range = ranges.get(i);
+            add(range.getMin(), range.getMax());
+        }
+        return this;
+    }
+
+    /**
+     * Add the given interval (union)
+     * @param min lower bound
+     * @param max upper bound
+     * @return this
+     */
+    public IntervalSet add(final double min, final double max) {
+        final int n = this.size;
+        ensureCapacity(2 * (n + 1));
+
+        final double[] b = this.bounds;
+
+        // insertion point (sorted by lower bound):
+        int i = n;
+        while (i > 0 && b[2 * i - 2] > min) {
+            i--;
+        }
+        System.arraycopy(b, 2 * i, b, 2 * i + 2, 2 * (n - i));
+        b[2 * i] = min;
+        b[2 * i + 1] = max;
+
+        // merge overlapping or touching intervals:
+        int w = 0;
+        for (int r = 1; r <= n; r++) {
+            if (b[2 * r] <= b[2 * w + 1]) {
+                if (b[2 * r + 1] > b[2 * w + 1]) {
+                    b[2 * w + 1] = b[2 * r + 1];
+                }
+            } else {
+                w++;
+                b[2 * w] = b[2 * r];
+                b[2 * w + 1] = b[2 * r + 1];
+            }
+        }
+        this.size = w + 1;
+        return this;
+    }
+
+    /**
+     * Intersect this set with the given set (in place)
+     * @param other set to intersect with
+     * @return this
+     */
+    public IntervalSet intersect(final IntervalSet other) {
+        return intersect(other.bounds, other.size);
+    }
+
+    /**
+     * Intersect this set with the given flat intervals (in place)
+     * @param flatRanges flat intervals [min0, max0, min1, max1 ...] (sorted and disjoint) or null (empty)
+     * @return this
+     */
+    public IntervalSet intersect(final double[] flatRanges) {
+        if (flatRanges == null) {
+            return clear();
+        }
+        return intersect(flatRanges, flatRanges.length / 2);
+    }
+
+    /**
+     * Intersect this set with the given flat intervals (in place)
+     * @param other flat intervals [min0, max0, min1, max1 ...] (sorted and disjoint)
+     * @param otherSize number of intervals
+     * @return this
+     */
+    private IntervalSet intersect(final double[] other, final int otherSize) {
+        final int n = this.size;
+        if (n == 0) {
+            return this;
+        }
+        // at most n + otherSize - 1 intervals:
+        final int len = 2 * (n + otherSize);
+        if (this.tmpBounds.length < len) {
+            this.tmpBounds = new double[len];
+        }
+        final double[] b = this.bounds;
+        final double[] res = this.tmpBounds;
+
+        int i = 0, j = 0, k = 0;
+        double lo, hi;
+
+        while (i < n && j < otherSize) {
+            lo = Math.max(b[2 * i], other[2 * j]);
+            hi = Math.min(b[2 * i + 1], other[2 * j + 1]);
+
+            if (lo < hi) {
+                res[k++] = lo;
+                res[k++] = hi;
+            }
+            // advance the interval ending first:
+            if (b[2 * i + 1] < other[2 * j + 1]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+
+        // swap arrays:
+        this.tmpBounds = b;
+        this.bounds = res;
+        this.size = k / 2;
+
+        if (this.tmpBounds.length < this.bounds.length) {
+            this.tmpBounds = new double[this.bounds.length];
+        }
+        return this;
+    }
+
+    /**
+     * Return the intervals as flat intervals
+     * @return flat intervals [min0, max0, min1, max1 ...] or null if this set is empty
+     */
+    public double[] toArray() {
+        return (size == 0) ? null : Arrays.copyOf(bounds, 2 * size);
+    }
+
+    /**
+     * Ensure the endpoint arrays can store the given number of endpoints
+     * @param len number of endpoints
+     */
+    private void ensureCapacity(final int len) {
+        if (this.bounds.length < len) {
+            final int capacity = Math.max(len, 2 * this.bounds.length);
+            this.bounds = Arrays.copyOf(this.bounds, capacity);
+            this.tmpBounds = new double[capacity];
+        }
+    }
+
+    /**
+     * @return string representation
+     */
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder(16 * size + 2);
+        sb.append('{');
+        for (int i = 0; i < size; i++) {
+            if (i != 0) {
+                sb.append(", ");
+            }
+            sb.append('[').append(getMin(i)).append(", ").append(getMax(i)).append(']');
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -159,6 +159,30 @@ public class ObservabilityContext implements RangeFactory {
         this.nFlatRangeLimits = n;
     }
 
+    /**
+     * Add the given flat ranges [min0, max0, min1, max1 ...] to the flat range limits array as range limits
+     * @param flatRanges flat ranges
+     */
+    public final void addInFlatRangeLimits(final double[] flatRanges) {
+        final int len = flatRanges.length;
+
+        int n = this.nFlatRangeLimits;
+
+        final int newLength = n + len;
+        if (newLength > this.lenFlatRangeLimits) {
+            this.resizeFlatRangeLimits(newLength);
+        }
+
+        final RangeLimit[] limits = this.flatRangeLimits;
+
+        for (int i = 0; i < len; i += 2) {
+            limits[n++].set(flatRanges[i], 1);
+            limits[n++].set(flatRanges[i + 1], -1);
+        }
+
+        this.nFlatRangeLimits = n;
+    }
+
     /**
      * Intersect overlapping ranges according to the nValid parameter that indicates how many times a point must be inside a range
      * to consider the point as valid
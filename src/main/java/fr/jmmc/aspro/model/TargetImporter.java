@@ -10,6 +10,7 @@ import fr.jmmc.aspro.model.oi.TargetGroup;
 import fr.jmmc.aspro.model.oi.TargetGroupMembers;
 import fr.jmmc.aspro.model.oi.TargetInformation;
 import fr.jmmc.aspro.model.oi.TargetUserInformations;
+import fr.jmmc.aspro.model.util.TargetIndex;
 import fr.jmmc.aspro.model.util.TargetMatch;
 import fr.jmmc.aspro.model.util.TargetUtils;
 import fr.jmmc.jmal.ALX;
@@ -56,6 +57,20 @@ public final class TargetImporter {
     }
 
     public static boolean addTarget(final Star star, final List<Target> editTargets, final boolean doConfirm, final StringBuilder sb) {
+        return addTarget(star, editTargets, null, doConfirm, sb);
+    }
+
+    /**
+     * Add the given star as a new target or merge it with an existing target (crossmatch)
+     * @param star star to add
+     * @param editTargets edited list of targets
+     * @param index optional target index of the edited list of targets (kept in sync)
+     * @param doConfirm true to ask user confirmation when the target is too close to another target
+     * @param sb report buffer
+     * @return true if the target list changed
+     */
+    public static boolean addTarget(final Star star, final List<Target> editTargets, final TargetIndex index,
+                                    final boolean doConfirm, final StringBuilder sb) {
         boolean changed = false;
         if (star != null) {
             final Target newTarget = TargetUtils.convert(star);
@@ -66,7 +81,7 @@ public final class TargetImporter {
                 boolean add = true;
 
                 // Find any target (id + position) within 5 arcsecs:
-                final TargetMatch match = Target.doMatchTarget(newTarget, editTargets);
+                final TargetMatch match = (index != null) ? index.doMatchTarget(newTarget) : Target.doMatchTarget(newTarget, editTargets);
 
                 if (match != null) {
                     final Target t = match.getMatch();
@@ -80,6 +95,10 @@ public final class TargetImporter {
 
                         Target.mergeSimbadTarget(t, newTarget);
                         changed = true;
+
+                        if (index != null) {
+                            index.update(t);
+                        }
                     } else {
                         msg = "Target[" + newTarget.getName() + "](" + newTarget.getRA() + " , " + newTarget.getDEC()
                                 + ") too close to Target[" + t.getName() + "](" + t.getRA() + " , " + t.getDEC()
@@ -101,6 +120,10 @@ public final class TargetImporter {
                 if (add) {
                     editTargets.add(newTarget);
                     changed = true;
+
+                    if (index != null) {
+                        index.add(newTarget);
+                    }
                 }
             }
         }
@@ -336,6 +359,9 @@ public final class TargetImporter {
 
         final IdentityHashMap<Target, Target> mapTargetsNewToOld = new IdentityHashMap<Target, Target>(targets.size());
 
+        // sky index of the edited targets (crossmatch):
+        final TargetIndex index = new TargetIndex(editTargets);
+
         String targetName;
         Target oldTarget;
 
@@ -350,13 +376,14 @@ public final class TargetImporter {
             newTarget.fixCoords();
 
             // Find any target (id + position) within 5 arcsecs:
-            oldTarget = Target.matchTarget(newTarget, editTargets);
+            oldTarget = index.matchTarget(newTarget);
 
             if (oldTarget == null) {
                 mapTargetsNewToOld.put(newTarget, newTarget);
 
                 // append the missing target:
                 editTargets.add(newTarget);
+                index.add(newTarget);
 
                 // report message:
                 sb.append(targetName).append(" added\n");
@@ -367,6 +394,7 @@ public final class TargetImporter {
 
                 // copy non empty values into old target:
                 Target.merge(oldTarget, newTarget);
+                index.update(oldTarget);
 
                 // report message:
                 sb.append(targetName).append(" updated\n");
@@ -4,6 +4,7 @@
 package fr.jmmc.aspro.model.observability;
 
 import fr.jmmc.aspro.model.BestPoPsObservabilityContext;
+import fr.jmmc.aspro.model.IntervalSet;
 import fr.jmmc.oitools.model.range.Range;
 import fr.jmmc.aspro.service.pops.BestPopsEstimator;
 import fr.jmmc.jmcs.util.NumberUtils;
@@ -94,6 +95,31 @@ public final class PopObservabilityData implements Comparable<PopObservabilityDa
         return popData;
     }
 
+    /**
+     * Estimator : find the longest observability interval and computes its estimation.
+     *
+     * @param targetName target name
+     * @param popCombination pop combination
+     * @param ranges merged HA ranges (rise/set intervals + night limits and HA ranges of all base lines)
+     * @param estimator best PoPs estimator
+     * @param tmpRange temporary range
+     * @return PopObservabilityData instance or null if ranges are empty (unobservable)
+     */
+    public static PopObservabilityData estimate(final String targetName, final PopCombination popCombination, final IntervalSet ranges,
+                                                final BestPopsEstimator estimator, final Range tmpRange) {
+
+        // find the maximum length of HA observable intervals:
+        final int index = ranges.indexOfMaxLength();
+
+        if (index == -1) {
+            // intersection is empty:
+            return null;
+        }
+        tmpRange.set(ranges.getMin(index), ranges.getMax(index));
+
+        return new PopObservabilityData(targetName, popCombination, null, estimator.compute(tmpRange), tmpRange.getLength());
+    }
+
     /**
      * Public constructor
      * @param targetName target name
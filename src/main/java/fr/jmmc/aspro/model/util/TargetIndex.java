@@ -0,0 +1,328 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.model.util;
+
+import fr.jmmc.aspro.model.oi.Target;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import net.jafama.FastMath;
+
+/**
+ * This class is a sky spatial index of targets (identifier and coordinates) to cross-match many targets
+ * against a target list (import, SearchCal merge) without scanning the whole list for every target.
+ *
+ * Target positions are indexed as unit vectors in a regular 3D grid whose cells are larger than the
+ * cross-match distance (TargetUtils.SAME_TARGET_DISTANCE) so a match is a nearest-neighbour query
+ * on few cells (no pole / RA wrap-around issues). Match results are the same as
+ * Target.doMatchTarget(srcTarget, targets) as candidates are checked in the target list order.
+ *
+ * Note: the index must be kept in sync with the target list (add / remove / update if coordinates changed)
+ *
+ * @author bourgesl
+ */
+public final class TargetIndex {
+
+    /** cell size (radians) = 0.1 deg */
+    private final static double CELL_SIZE = FastMath.toRadians(0.1);
+    /** inverse cell size */
+    private final static double INV_CELL_SIZE = 1d / CELL_SIZE;
+    /** query radius (radians): upper bound of the chord of the cross-match distance (margin x2) */
+    private final static double QUERY_RADIUS = 2d * FastMath.toRadians(TargetUtils.SAME_TARGET_DISTANCE);
+    /** cell index offset (positive values) */
+    private final static int CELL_OFFSET = 1 << 20;
+    /** comparator on insertion order */
+    private final static Comparator<Entry> SEQ_COMPARATOR = new Comparator<Entry>() {
+        @Override
+        public int compare(final Entry e1, final Entry e2) {
+            return (e1.seq < e2.seq) ? -1 : ((e1.seq == e2.seq) ? 0 : 1);
+        }
+    };
+
+    /* members */
+    /** entries keyed by target instance */
+    private final Map<Target, Entry> entries;
+    /** entries keyed by target identifier (first entry of the chain in insertion order) */
+    private final Map<String, Entry> entriesById;
+    /** entries keyed by cell (linked list) */
+    private final Map<Long, Entry> entriesByCell;
+    /** next sequence number (list order) */
+    private long nextSeq = 0L;
+    /** temporary candidate list */
+    private final ArrayList<Entry> candidates = new ArrayList<Entry>(4);
+    /** temporary candidate targets */
+    private final ArrayList<Target> candidateTargets = new ArrayList<Target>(4);
+
+    /**
+     * Public constructor
+     * @param targets list of targets to index (in list order)
+     */
+    public TargetIndex(final List<Target> targets) {
+        final int capacity = Math.max(16, 2 * targets.size());
+        this.entries = new IdentityHashMap<Target, Entry>(capacity);
+        this.entriesById = new HashMap<String, Entry>(capacity);
+        this.entriesByCell = new HashMap<Long, Entry>(capacity);
+
+        for (int i = 0, size = targets.size(); i < size; i++) {
+            add(targets.get(i));
+        }
+    }
+
+    /**
+     * Add the given target (appended at the end of the target list)
+     * @param target target to add
+     */
+    public void add(final Target target) {
+        if (this.entries.containsKey(target)) {
+            return;
+        }
+        final Entry e = new Entry(target, this.nextSeq++);
+        this.entries.put(target, e);
+
+        // identifier (chain sorted by sequence number):
+        final Entry first = this.entriesById.get(e.id);
+        if (first == null || first.seq > e.seq) {
+            e.nextId = first;
+            this.entriesById.put(e.id, e);
+        } else {
+            Entry prev = first;
+            while (prev.nextId != null && prev.nextId.seq < e.seq) {
+                prev = prev.nextId;
+            }
+            e.nextId = prev.nextId;
+            prev.nextId = e;
+        }
+
+        // position:
+        if (e.cell != null) {
+            e.nextCell = this.entriesByCell.get(e.cell);
+            this.entriesByCell.put(e.cell, e);
+        }
+    }
+
+    /**
+     * Remove the given target
+     * @param target target to remove
+     */
+    public void remove(final Target target) {
+        final Entry e = this.entries.remove(target);
+        if (e == null) {
+            return;
+        }
+
+        // identifier:
+        final Entry first = this.entriesById.get(e.id);
+        if (first == e) {
+            if (e.nextId == null) {
+                this.entriesById.remove(e.id);
+            } else {
+                this.entriesById.put(e.id, e.nextId);
+            }
+        } else if (first != null) {
+            Entry prev = first;
+            while (prev.nextId != null && prev.nextId != e) {
+                prev = prev.nextId;
+            }
+            prev.nextId = e.nextId;
+        }
+
+        // position:
+        if (e.cell != null) {
+            final Entry head = this.entriesByCell.get(e.cell);
+            if (head == e) {
+                if (e.nextCell == null) {
+                    this.entriesByCell.remove(e.cell);
+                } else {
+                    this.entriesByCell.put(e.cell, e.nextCell);
+                }
+            } else if (head != null) {
+                Entry prev = head;
+                while (prev.nextCell != null && prev.nextCell != e) {
+                    prev = prev.nextCell;
+                }
+                prev.nextCell = e.nextCell;
+            }
+        }
+    }
+
+    /**
+     * Update the given target (identifier or coordinates changed) keeping its position in the target list
+     * @param target target to update
+     */
+    public void update(final Target target) {
+        final Entry e = this.entries.get(target);
+        if (e != null) {
+            final long seq = e.seq;
+            remove(target);
+
+            final long saved = this.nextSeq;
+            this.nextSeq = seq;
+            add(target);
+            this.nextSeq = saved;
+        }
+    }
+
+    /**
+     * Check if the indexed targets contain the given target: same identifier or coordinates (crossmatch)
+     * @see Target#matchTarget(Target, List)
+     * @param srcTarget target to look for
+     * @return target or null if the target was not found
+     */
+    public Target matchTarget(final Target srcTarget) {
+        final TargetMatch match = doMatchTarget(srcTarget);
+        return (match != null) ? match.getMatch() : null;
+    }
+
+    /**
+     * Check if the indexed targets contain the given target: same identifier or coordinates (crossmatch)
+     * @see Target#doMatchTarget(Target, List)
+     * @param srcTarget target to look for
+     * @return target match or null if the target was not found
+     */
+    public TargetMatch doMatchTarget(final Target srcTarget) {
+        // Is the same identifier ?
+        final Entry e = this.entriesById.get(srcTarget.getIdentifier());
+        if (e != null) {
+            return new TargetMatch(e.target);
+        }
+        return matchTargetCoordinates(srcTarget);
+    }
+
+    /**
+     * Check the distance between the given source target and the indexed targets (5 arcesecs)
+     * @see TargetUtils#matchTargetCoordinates(Target, List)
+     * @param srcTarget source target
+     * @return target match or null
+     */
+    public TargetMatch matchTargetCoordinates(final Target srcTarget) {
+        final double raDeg = srcTarget.getRADeg();
+        final double decDeg = srcTarget.getDECDeg();
+
+        if (Double.isNaN(raDeg) || Double.isNaN(decDeg)) {
+            return null;
+        }
+
+        final double cosDec = FastMath.cos(FastMath.toRadians(decDeg));
+        final double x = cosDec * FastMath.cos(FastMath.toRadians(raDeg));
+        final double y = cosDec * FastMath.sin(FastMath.toRadians(raDeg));
+        final double z = FastMath.sin(FastMath.toRadians(decDeg));
+
+        final ArrayList<Entry> cands = this.candidates;
+        cands.clear();
+
+        final int xMax = cellIndex(x + QUERY_RADIUS);
+        final int yMax = cellIndex(y + QUERY_RADIUS);
+        final int zMax = cellIndex(z + QUERY_RADIUS);
+
+        for (int i = cellIndex(x - QUERY_RADIUS); i <= xMax; i++) {
+            for (int j = cellIndex(y - QUERY_RADIUS); j <= yMax; j++) {
+                for (int k = cellIndex(z - QUERY_RADIUS); k <= zMax; k++) {
+                    for (Entry e = this.entriesByCell.get(cellKey(i, j, k)); e != null; e = e.nextCell) {
+                        final double dx = e.x - x;
+                        final double dy = e.y - y;
+                        final double dz = e.z - z;
+
+                        if (dx * dx + dy * dy + dz * dz <= QUERY_RADIUS * QUERY_RADIUS) {
+                            cands.add(e);
+                        }
+                    }
+                }
+            }
+        }
+
+        if (cands.isEmpty()) {
+            return null;
+        }
+        if (cands.size() > 1) {
+            // preserve the target list order:
+            Collections.sort(cands, SEQ_COMPARATOR);
+        }
+
+        final ArrayList<Target> targets = this.candidateTargets;
+        targets.clear();
+        for (int i = 0, size = cands.size(); i < size; i++) {
+            targets.add(cands.get(i).target);
+        }
+        cands.clear();
+
+        try {
+            return TargetUtils.matchTargetCoordinates(srcTarget, targets);
+        } finally {
+            targets.clear();
+        }
+    }
+
+    /**
+     * Return the number of indexed targets
+     * @return number of indexed targets
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Return the cell index of the given coordinate
+     * @param value unit vector coordinate
+     * @return cell index
+     */
+    private static int cellIndex(final double value) {
+        return (int) Math.floor(value * INV_CELL_SIZE);
+    }
+
+    /**
+     * Return the cell key of the given cell indexes
+     * @param i x cell index
+     * @param j y cell index
+     * @param k z cell index
+     * @return cell key
+     */
+    private static Long cellKey(final int i, final int j, final int k) {
+        return Long.valueOf(((long) (i + CELL_OFFSET) << 42) | ((long) (j + CELL_OFFSET) << 21) | (long) (k + CELL_OFFSET));
+    }
+
+    /**
+     * Index entry
+     */
+    private static final class Entry {
+
+        /** target */
+        final Target target;
+        /** sequence number (list order) */
+        final long seq;
+        /** target identifier */
+        final String id;
+        /** unit vector */
+        final double x, y, z;
+        /** cell key or null if the position is undefined */
+        final Long cell;
+        /** next entry having the same identifier */
+        Entry nextId = null;
+        /** next entry in the same cell */
+        Entry nextCell = null;
+
+        Entry(final Target target, final long seq) {
+            this.target = target;
+            this.seq = seq;
+            this.id = target.getIdentifier();
+
+            final double raDeg = target.getRADeg();
+            final double decDeg = target.getDECDeg();
+
+            if (Double.isNaN(raDeg) || Double.isNaN(decDeg)) {
+                this.x = this.y = this.z = Double.NaN;
+                this.cell = null;
+            } else {
+                final double cosDec = FastMath.cos(FastMath.toRadians(decDeg));
+                this.x = cosDec * FastMath.cos(FastMath.toRadians(raDeg));
+                this.y = cosDec * FastMath.sin(FastMath.toRadians(raDeg));
+                this.z = FastMath.sin(FastMath.toRadians(decDeg));
+                this.cell = cellKey(cellIndex(x), cellIndex(y), cellIndex(z));
+            }
+        }
+    }
+}
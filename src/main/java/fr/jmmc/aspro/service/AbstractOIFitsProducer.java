@@ -12,18 +12,18 @@ import fr.jmmc.aspro.model.oi.Target;
 import fr.jmmc.aspro.model.oi.UserModel;
 import fr.jmmc.aspro.service.UserModelService.MathMode;
 import fr.jmmc.jmcs.util.StatUtils;
-import fr.jmmc.jmcs.util.StatUtils.ComplexDistribution;
 import fr.jmmc.jmal.complex.ImmutableComplex;
 import fr.jmmc.jmal.complex.MutableComplex;
-import fr.jmmc.jmal.model.ModelComputeContext;
 import fr.jmmc.jmal.model.ModelFunctionComputeContext;
 import fr.jmmc.jmal.model.ModelManager;
 import fr.jmmc.jmal.model.targetmodel.Model;
 import fr.jmmc.jmcs.util.NumberUtils;
 import fr.jmmc.jmcs.util.SpecialChars;
+import fr.jmmc.jmcs.util.concurrent.InterruptedJobException;
 import fr.jmmc.jmcs.util.concurrent.ParallelJobExecutor;
 import static fr.jmmc.jmcs.util.StatUtils.N_SAMPLES;
 import fr.jmmc.jmal.complex.Complex;
+import fr.jmmc.oitools.image.FitsImage;
 import fr.jmmc.oitools.model.OIFitsFile;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -33,7 +33,6 @@ import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import java.util.Set;
 import net.jafama.FastMath;
 import org.slf4j.Logger;
@@ -56,6 +55,30 @@ public abstract class AbstractOIFitsProducer {
     protected final static boolean SHOW_COMPUTE_STATS = false;
     /** threshold to use parallel jobs for user models (32 UV points) */
     protected final static int JOB_THRESHOLD_USER_MODELS = 32;
+    /** threshold to use parallel jobs for analytical models (1024 UV points) */
+    protected final static int JOB_THRESHOLD_ANALYTICAL_MODELS = 1024;
+    /** current threshold to use parallel jobs for analytical models (validation) */
+    private static volatile int analyticalJobThreshold = JOB_THRESHOLD_ANALYTICAL_MODELS;
+    /** threshold to use parallel jobs for OIFits tables (256 data points) */
+    protected final static int JOB_THRESHOLD_OIFITS_TABLES = 256;
+    /** flag to disable the FFT + interpolation engine for user models (direct Fourier transform only) */
+    protected final static boolean DISABLE_FFT_INTERPOLATION = Boolean.getBoolean("OIFits.fft.disable");
+    /** maximum absolute error on complex visibilities (normalized) to accept the FFT + interpolation engine */
+    protected final static double FFT_INTERP_MAX_ERROR = 1e-3;
+    /** interpolation error check: one point every FFT_INTERP_CHECK_STRIDE points (all rows) compared to the direct Fourier transform */
+    protected final static int FFT_INTERP_CHECK_STRIDE = 16;
+    /** optional base seed for noise random streams to get reproducible OIFits data */
+    private final static Long RANDOM_SEED = Long.getLong("OIFits.random.seed");
+    /** random stream key for complex distributions (per row) */
+    private final static long STREAM_DISTRIBUTION = 1L;
+    /** random stream key for sample indexes (per point and channel) */
+    private final static long STREAM_SAMPLE_INDEX = 2L;
+    /** random stream key for OI_VIS rows */
+    protected final static long STREAM_OI_VIS = 3L;
+    /** random stream key for OI_VIS2 rows */
+    protected final static long STREAM_OI_VIS2 = 4L;
+    /** random stream key for OI_T3 rows */
+    protected final static long STREAM_OI_T3 = 5L;
     /** Jmcs Parallel Job executor */
     protected static final ParallelJobExecutor JOB_EXECUTOR = ParallelJobExecutor.getInstance();
 
@@ -79,8 +102,8 @@ public abstract class AbstractOIFitsProducer {
     protected double[] waveLengths;
     /** channel widths */
     protected double[] waveBands;
-    /** random generator */
-    private final Random random = new Random();
+    /** base seed of random streams */
+    private long randomSeed;
     /** noise service */
     protected NoiseService noiseService = null;
     /** flag to add gaussian noise to OIFits data; true if parameter doDataNoise = true and noise parameters are valid */
@@ -109,8 +132,8 @@ public abstract class AbstractOIFitsProducer {
     /** internal complex visibility SNR flag on phases [row][waveLength] */
     protected boolean[][] visPhiSNRFlag = null;
 
-    /** internal complex distribution [row] */
-    protected ComplexDistribution[] visRndDist = null;
+    /** internal complex distribution samples [row][re/im][sample] (one distribution per row) */
+    protected double[][][] visRndDist = null;
     /** internal random index [row][waveLength] */
     protected int[][] visRndIdx = null;
 
@@ -138,6 +161,10 @@ public abstract class AbstractOIFitsProducer {
         this.snrThreshold = snrThreshold;
 
         logger.debug("snr threshold: {}", snrThreshold);
+
+        this.randomSeed = (RANDOM_SEED != null) ? RANDOM_SEED.longValue() : RandomStream.mix64(System.nanoTime());
+
+        logger.debug("random seed: {}", randomSeed);
     }
 
     /**
@@ -316,10 +343,24 @@ public abstract class AbstractOIFitsProducer {
         return true;
     }
 
+    /**
+     * Define the threshold (number of data points) to use parallel jobs for analytical models (validation)
+     * @param threshold 0 to always use parallel jobs, Integer.MAX_VALUE to never use them
+     */
+    static void setAnalyticalJobThreshold(final int threshold) {
+        analyticalJobThreshold = threshold;
+    }
+
     /**
      * Compute complex visibilities using the target model (analytical or user model)
      * and store this data in local reference table
-     * @return true if complex visibilities are computed; false otherwise
+     *
+     * Note: analytical models are computed by row blocks (parallel jobs) giving the same results as the sequential loop;
+     * if interrupted, it returns false as before (InterruptedJobException is caught)
+     *
+     * @return true if complex visibilities are computed; false otherwise (or if interrupted)
+     *
+     * @throws InterruptedJobException if the user model computation is interrupted (cancelled)
      */
     protected final boolean computeModelVisibilities() {
         boolean computed = false;
@@ -424,30 +465,76 @@ public abstract class AbstractOIFitsProducer {
                 // Clone models and normalize fluxes :
                 final List<Model> normModels = ModelManager.normalizeModels(this.target.getModels());
 
-                // Analytical models: no parallelization:
                 final ModelManager modelManager = ModelManager.getInstance();
 
-                // model computation context
-                final ModelComputeContext context = modelManager.prepareModels(normModels, nWLen);
+                // enable parallel jobs if many points using analytical models:
+                final int nTh = (!JOB_EXECUTOR.isWorkerThread() && (nDataPoints > analyticalJobThreshold)) ? JOB_EXECUTOR.getMaxParallelJob() : 1;
 
-                // Iterate on rows:
-                for (int k = 0; k < nRows; k++) {
+                // Prepare thread context variables:
+                // model computation context per thread (internal buffers):
+                final ModelFunctionComputeContext[] contextThreads = new ModelFunctionComputeContext[nTh];
 
-                    // Compute complex visibility using the target model:
-                    copyArray(modelManager.computeModels((ModelFunctionComputeContext) context, ufreq[k], vfreq[k]), cmVis[k]);
+                for (int t = 0; t < nTh; t++) {
+                    contextThreads[t] = (ModelFunctionComputeContext) modelManager.prepareModels(normModels, nWLen);
+                }
 
-                    if (currentThread.isInterrupted()) {
-                        // fast interrupt :
-                        return false;
-                    }
-                } // rows
+                // computation tasks = 1 job per row block (work stealing):
+                final int nJobs = (nTh > 1) ? Math.min(nRows, 4 * nTh) : 1;
+                final int stepRows = nRows / nJobs;
+
+                final Runnable[] jobs = new Runnable[nJobs];
+
+                for (int j = 0; j < nJobs; j++) {
+                    // rows to be processed by this task:
+                    final int fromRow = j * stepRows;
+                    final int endRow = (j == nJobs - 1) ? nRows : fromRow + stepRows;
+
+                    jobs[j] = new Runnable() {
+                        /**
+                         * Called by the ParallelJobExecutor to perform task computation
+                         */
+                        @Override
+                        public void run() {
+                            // Get thread index to get appropriate thread vars:
+                            final int threadIndex = ParallelJobExecutor.currentThreadIndex(nTh);
+                            final ModelFunctionComputeContext context = contextThreads[threadIndex];
+
+                            final Thread thread = Thread.currentThread();
+
+                            // Iterate on rows:
+                            for (int k = fromRow; k < endRow; k++) {
+
+                                // Compute complex visibility using the target model:
+                                copyArray(modelManager.computeModels(context, ufreq[k], vfreq[k]), cmVis[k]);
+
+                                if (thread.isInterrupted()) {
+                                    // fast interrupt :
+                                    return;
+                                }
+                            } // rows
+                        }
+                    };
+                }
+
+                try {
+                    // execute jobs in parallel or using current thread if only one job (throws InterruptedJobException if interrupted):
+                    JOB_EXECUTOR.forkAndJoin("OIFitsCreatorService.computeModelVisibilities", jobs);
+                } catch (InterruptedJobException ije) {
+                    // keep the sequential contract (return false if interrupted):
+                    logger.debug("computeModelVisibilities: interrupted: ", ije);
+                    return false;
+                }
+
+                if (currentThread.isInterrupted()) {
+                    // fast interrupt :
+                    return false;
+                }
 
             } else {
                 if (logger.isDebugEnabled()) {
                     logger.debug("computeModelVisibilities: MathMode = {}.", mathMode);
                 }
 
-                // TODO: compare directFT vs FFT + interpolation
                 // define mapping between spectral channels and model images:
                 final List<UserModelData> modelDataList = target.getUserModel().getModelDataList();
 
@@ -467,111 +554,131 @@ public abstract class AbstractOIFitsProducer {
                     }
                 }
 
-                // enable parallel jobs if many points using user model:
-                final int nTh = (!JOB_EXECUTOR.isWorkerThread() && (nDataPoints > JOB_THRESHOLD_USER_MODELS)) ? JOB_EXECUTOR.getMaxParallelJob() : 1;
+                // persistent cache of computed complex visibilities:
+                final VisibilityCacheService visCache = VisibilityCacheService.getInstance();
+                final String cacheKey = visCache.computeKey(userModel.getChecksum(), modelParts, sampleWaveLengths, ufreq, vfreq, mathMode,
+                        !DISABLE_FFT_INTERPOLATION, FFT_INTERP_MAX_ERROR);
 
-                // Prepare thread context variables:
-                final int[][] nTaskThreads = (SHOW_COMPUTE_STATS) ? new int[nTh][16] : null; // cache line padding
+                if (!visCache.load(cacheKey, cmVis, nWLen)) {
+                    // enable parallel jobs if many points using user model:
+                    final int nTh = (!JOB_EXECUTOR.isWorkerThread() && (nDataPoints > JOB_THRESHOLD_USER_MODELS)) ? JOB_EXECUTOR.getMaxParallelJob() : 1;
 
-                // adjust largest chunk size:
-                final int maxPixelsPerChunk = 80000; // to ensure chunk less than 1 Mb (and fit in L3 cache)
+                    // Prepare thread context variables:
+                    final int[][] nTaskThreads = (SHOW_COMPUTE_STATS) ? new int[nTh][16] : null; // cache line padding
 
-                // computation tasks = 1 job per row and chunk (work stealing):
-                final List<Runnable> jobList = new ArrayList<Runnable>(nRows * 2 * modelParts.size()); // 2 chunks by default
+                    // adjust largest chunk size:
+                    final int maxPixelsPerChunk = 80000; // to ensure chunk less than 1 Mb (and fit in L3 cache)
 
-                // Iterate on wavelength ranges i.e. UserModelComputePart:
-                for (UserModelComputePart modelPart : modelParts) {
+                    // computation tasks = 1 job per row and chunk (work stealing):
+                    final List<Runnable> jobList = new ArrayList<Runnable>(nRows * 2 * modelParts.size()); // 2 chunks by default
 
-                    // use image corresponding to the model part:
-                    final UserModelData modelData = modelPart.modelData;
+                    // Iterate on wavelength ranges i.e. UserModelComputePart:
+                    for (UserModelComputePart modelPart : modelParts) {
 
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("computeModelVisibilities: model part: {}", modelPart);
-                    }
+                        // use image corresponding to the model part:
+                        final UserModelData modelData = modelPart.modelData;
 
-                    // process wavelengths:
-                    final int from = modelPart.fromWL;
-                    final int end = modelPart.endWL;
+                        if (logger.isDebugEnabled()) {
+                            logger.debug("computeModelVisibilities: model part: {}", modelPart);
+                        }
 
-                    // This will change for each image in the Fits cube:
-                    final int n1D = modelData.getNData(); // data, xfreq, yfreq
-                    final float[] data1D = modelData.getData1D();
+                        // use FFT + interpolation if faster and accurate enough:
+                        if (!DISABLE_FFT_INTERPOLATION && computeModelPartFFT(modelPart, ufreq, vfreq, cmVis)) {
+                            continue;
+                        }
 
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("computeModelVisibilities: {} bytes for image arrays", 4 * n1D); // (float) array
-                    }
+                        if (currentThread.isInterrupted()) {
+                            // fast interrupt :
+                            return false;
+                        }
 
-                    int chunk = maxPixelsPerChunk * UserModelService.DATA_1D_POINT_SIZE;
+                        // process wavelengths:
+                        final int from = modelPart.fromWL;
+                        final int end = modelPart.endWL;
 
-                    final int nChunks = 1 + n1D / chunk;
+                        // This will change for each image in the Fits cube:
+                        final int n1D = modelData.getNData(); // data, xfreq, yfreq
 
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("computeModelVisibilities: {} chunks", nChunks);
-                    }
+                        if (logger.isDebugEnabled()) {
+                            logger.debug("computeModelVisibilities: {} bytes for image arrays", 4 * n1D); // (float) array
+                        }
 
-                    // note: chunk must a multiple of 3: see UserModelService.DATA_1D_POINT_SIZE
-                    chunk = UserModelService.DATA_1D_POINT_SIZE * ((n1D / nChunks) / UserModelService.DATA_1D_POINT_SIZE);
+                        int chunk = maxPixelsPerChunk * UserModelService.DATA_1D_POINT_SIZE;
 
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("computeModelVisibilities: {} bytes for chunk", (chunk > n1D) ? 4 * n1D : 4 * chunk);// (float) array
-                        logger.debug("computeModelVisibilities: chunk = {}", chunk);
-                    }
+                        final int nChunks = 1 + n1D / chunk;
 
-                    final int[] fromThreads = new int[nChunks];
-                    final int[] endThreads = new int[nChunks];
+                        if (logger.isDebugEnabled()) {
+                            logger.debug("computeModelVisibilities: {} chunks", nChunks);
+                        }
 
-                    for (int c = 0; c < nChunks; c++) {
-                        fromThreads[c] = c * chunk;
-                        endThreads[c] = fromThreads[c] + chunk;
-                    }
-                    endThreads[nChunks - 1] = n1D;
-
-                    // create tasks:
-                    for (int c = 0; c < nChunks; c++) {
-                        // Image chunks:
-                        final int fromData = fromThreads[c];
-                        final int endData = endThreads[c];
-
-                        for (int k = 0; k < nRows; k++) {
-                            // rows index to be processed by this task:
-                            final int rowIndex = k;
-                            final double[] ufreqRow = ufreq[rowIndex];
-                            final double[] vfreqRow = vfreq[rowIndex];
-                            final MutableComplex[] cmVisRow = cmVis[rowIndex];
-
-                            jobList.add(new Runnable() {
-                                /**
-                                 * Called by the ParallelJobExecutor to perform task computation
-                                 */
-                                @Override
-                                public void run() {
-                                    // Compute complex visibility using the target model:
-                                    UserModelService.computeModel(data1D, fromData, endData, ufreqRow, vfreqRow, cmVisRow, from, end, mathMode);
-
-                                    if (SHOW_COMPUTE_STATS) {
-                                        // Get thread index to get appropriate thread vars:
-                                        final int threadIndex = ParallelJobExecutor.currentThreadIndex(nTh);
-                                        nTaskThreads[threadIndex][0]++;
+                        // note: chunk must a multiple of 3: see UserModelService.DATA_1D_POINT_SIZE
+                        chunk = UserModelService.DATA_1D_POINT_SIZE * ((n1D / nChunks) / UserModelService.DATA_1D_POINT_SIZE);
+
+                        if (logger.isDebugEnabled()) {
+                            logger.debug("computeModelVisibilities: {} bytes for chunk", (chunk > n1D) ? 4 * n1D : 4 * chunk);// (float) array
+                            logger.debug("computeModelVisibilities: chunk = {}", chunk);
+                        }
+
+                        final int[] fromThreads = new int[nChunks];
+                        final int[] endThreads = new int[nChunks];
+
+                        for (int c = 0; c < nChunks; c++) {
+                            fromThreads[c] = c * chunk;
+                            endThreads[c] = fromThreads[c] + chunk;
+                        }
+                        endThreads[nChunks - 1] = n1D;
+
+                        // create tasks:
+                        for (int c = 0; c < nChunks; c++) {
+                            // Image chunks:
+                            final int fromData = fromThreads[c];
+                            final int endData = endThreads[c];
+
+                            for (int k = 0; k < nRows; k++) {
+                                // rows index to be processed by this task:
+                                final int rowIndex = k;
+                                final double[] ufreqRow = ufreq[rowIndex];
+                                final double[] vfreqRow = vfreq[rowIndex];
+                                final MutableComplex[] cmVisRow = cmVis[rowIndex];
+
+                                jobList.add(new Runnable() {
+                                    /**
+                                     * Called by the ParallelJobExecutor to perform task computation
+                                     */
+                                    @Override
+                                    public void run() {
+                                        // Compute complex visibility using the target model:
+                                        UserModelService.computeModel(modelData, fromData, endData, ufreqRow, vfreqRow, cmVisRow, from, end, mathMode);
+
+                                        if (SHOW_COMPUTE_STATS) {
+                                            // Get thread index to get appropriate thread vars:
+                                            final int threadIndex = ParallelJobExecutor.currentThreadIndex(nTh);
+                                            nTaskThreads[threadIndex][0]++;
+                                        }
                                     }
-                                }
-                            });
+                                });
+                            }
                         }
                     }
-                }
 
-                final int nJobs = jobList.size();
+                    final int nJobs = jobList.size();
 
-                // note: have jobs a multiple of nTh to maximize parallelism !
-                logger.debug("computeModelVisibilities: {} jobs", nJobs);
+                    // note: have jobs a multiple of nTh to maximize parallelism !
+                    logger.debug("computeModelVisibilities: {} jobs", nJobs);
 
-                final Runnable[] jobs = jobList.toArray(new Runnable[nJobs]);
+                    final Runnable[] jobs = jobList.toArray(new Runnable[nJobs]);
 
-                // execute jobs in parallel or using current thread if only one job (throws InterruptedJobException if interrupted):
-                JOB_EXECUTOR.forkAndJoin("OIFitsCreatorService.computeModelVisibilities", jobs);
+                    // execute jobs in parallel or using current thread if only one job (throws InterruptedJobException if interrupted):
+                    JOB_EXECUTOR.forkAndJoin("OIFitsCreatorService.computeModelVisibilities", jobs);
 
-                if (SHOW_COMPUTE_STATS) {
-                    for (int t = 0; t < nTh; t++) {
-                        logger.info("Thread[{}] done: {} processed jobs", t, nTaskThreads[t][0]);
+                    if (SHOW_COMPUTE_STATS) {
+                        for (int t = 0; t < nTh; t++) {
+                            logger.info("Thread[{}] done: {} processed jobs", t, nTaskThreads[t][0]);
+                        }
+                    }
+
+                    if (!currentThread.isInterrupted()) {
+                        visCache.store(cacheKey, cmVis, nWLen);
                     }
                 }
             }
@@ -655,15 +762,9 @@ public abstract class AbstractOIFitsProducer {
             }
 
             final NoiseService ns = this.noiseService;
-            final StatUtils stat;
 
-            if (ns == null) {
-                stat = null;
-            } else {
-                stat = StatUtils.getInstance();
-                // prepare enough distributions for all baselines:
-                stat.prepare(nBl);
-            }
+            final long distSeed = RandomStream.seed(this.randomSeed, STREAM_DISTRIBUTION);
+            final long idxSeed = RandomStream.seed(this.randomSeed, STREAM_SAMPLE_INDEX);
 
             final double[][] cVisAmpError = new double[nRows][nChannels];
             final double[][] cVisPhiError = new double[nRows][nChannels];
@@ -676,12 +777,15 @@ public abstract class AbstractOIFitsProducer {
             final boolean[][] cVisAmpSNRFlag = new boolean[nRows][nChannels];
             final boolean[][] cVisPhiSNRFlag = new boolean[nRows][nChannels];
 
-            final ComplexDistribution[] cVisRndDist = new ComplexDistribution[nRows];
+            final double[][][] cVisRndDist = new double[nRows][][];
 
             // use the same sample index per ha point (as distributions are different instances)
             // to ensure T3 sample is correlated with C12, C23, C13 samples:
             final int[][] cVisRndIdx = new int[nRows][];
 
+            // visibility amplitudes of the current row:
+            final double[] visAmpRow = new double[nChannels];
+
             int pt, prevPt = -1;
 
             // Iterate on rows :
@@ -697,7 +801,7 @@ public abstract class AbstractOIFitsProducer {
                 final boolean[] cVisAmpSNRFlagRow = cVisAmpSNRFlag[k];
                 final boolean[] cVisPhiSNRFlagRow = cVisPhiSNRFlag[k];
 
-                if ((ns == null) || (stat == null)) {
+                if (ns == null) {
                     Arrays.fill(cVisAmpErrorRow, Double.NaN);
                     Arrays.fill(cVisPhiErrorRow, Double.NaN);
 
@@ -710,27 +814,32 @@ public abstract class AbstractOIFitsProducer {
                     Arrays.fill(cVisPhiSNRFlagRow, true);
                 } else {
                     final ImmutableComplex[] cVisRow = cVis[k];
-                    // select a different complex distribution per row:
-                    cVisRndDist[k] = stat.get();
                     pt = ptIdx[k];
 
+                    // select a different complex distribution per row (stream keyed by the row index):
+                    cVisRndDist[k] = new RandomStream(RandomStream.seed(distSeed, k)).nextComplexDistribution(N_SAMPLES);
+
                     double visAmp;
-                    // Iterate on spectral channels:
                     for (l = 0; l < nChannels; l++) {
-                        visAmp = cVisRow[l].abs();
+                        visAmpRow[l] = cVisRow[l].abs();
+                    }
+
+                    // complex visibility error for phases (no photometry) on the whole row:
+                    // note: call this method first as it modifies internally other vectors:
+                    ns.computeVisComplexErrorValues(pt, visAmpRow, false, cVisPhiErrorRow);
 
-                        // complex visibility error for phases (no photometry):
-                        // note: call this method first as it modifies internally other vectors:
-                        cVisPhiErrorRow[l] = ns.computeVisComplexErrorValue(pt, l, visAmp, false);
+                    // complex visibility error for amplitudes (with photometry):
+                    ns.computeVisComplexErrorValues(pt, visAmpRow, true, cVisAmpErrorRow);
 
-                        // complex visibility error for amplitudes (with photometry):
-                        cVisAmpErrorRow[l] = ns.computeVisComplexErrorValue(pt, l, visAmp, true);
+                    // extra Vis2 columns (photo + square correlated fluxes):
+                    ns.getNbPhotPhoto(pt, nbPhotPhotoRow);
+                    ns.getErrorPhotPhoto(pt, errPhotPhotoRow);
+                    ns.getSqCorrFlux(pt, sqCorrFluxRow);
+                    ns.getErrorSqCorrFlux(pt, errSqCorrFluxRow);
 
-                        // extra Vis2 columns (photo + square correlated fluxes):
-                        nbPhotPhotoRow[l] = ns.getNbPhotPhoto(pt, l);
-                        errPhotPhotoRow[l] = ns.getErrorPhotPhoto(pt, l);
-                        sqCorrFluxRow[l] = ns.getSqCorrFlux(pt, l);
-                        errSqCorrFluxRow[l] = ns.getErrorSqCorrFlux(pt, l);
+                    // Iterate on spectral channels:
+                    for (l = 0; l < nChannels; l++) {
+                        visAmp = visAmpRow[l];
 
                         // check SNR(V) for amplitudes:
                         final double snrVisAmp = visAmp / cVisAmpErrorRow[l];
@@ -771,8 +880,8 @@ public abstract class AbstractOIFitsProducer {
                         if (this.doNoise) {
                             final int[] cVisRndIdxRow = cVisRndIdx[k] = new int[nChannels];
                             for (l = 0; l < nChannels; l++) {
-                                // Choose the jth sample (uniform probability):
-                                cVisRndIdxRow[l] = getNextRandomSampleIndex();
+                                // Choose the jth sample (uniform probability) keyed by (point, channel):
+                                cVisRndIdxRow[l] = RandomStream.index(idxSeed, pt, l, N_SAMPLES);
                             }
                         }
                     } else {
@@ -803,10 +912,199 @@ public abstract class AbstractOIFitsProducer {
         return computed;
     }
 
+    /**
+     * Compute complex visibilities of the given user model part using the FFT of its image and bicubic interpolation
+     * (O(Npix log Npix + Npoints)) instead of the direct Fourier transform (O(Npix x Npoints)) if it is cheaper
+     * and if the interpolation error checked on sample points against the direct Fourier transform is small enough:
+     * one point every FFT_INTERP_CHECK_STRIDE points of every row and the highest frequency point are compared
+     * (fails if no point could be compared)
+     *
+     * @param modelPart user model part to compute
+     * @param ufreq U frequencies in rad-1 [row][wavelength]
+     * @param vfreq V frequencies in rad-1 [row][wavelength]
+     * @param cmVis complex visibilities to update [row][wavelength]
+     * @return true if complex visibilities are computed; false to use the direct Fourier transform
+     */
+    private boolean computeModelPartFFT(final UserModelComputePart modelPart,
+                                        final double[][] ufreq, final double[][] vfreq, final MutableComplex[][] cmVis) {
+
+        final UserModelData modelData = modelPart.modelData;
+        final FitsImage fitsImage = modelData.getFitsImage();
+
+        // the FFT plane is not rotated:
+        if (fitsImage.isRotAngleDefined() && fitsImage.getRotAngle() != 0.0) {
+            return false;
+        }
+
+        final int from = modelPart.fromWL;
+        final int end = modelPart.endWL;
+        final int nRows = ufreq.length;
+
+        // maximum frequency and point having the highest frequency:
+        double uvMaxFreq = 0.0;
+        int kMax = 0;
+        int iMax = from;
+
+        for (int k = 0, i; k < nRows; k++) {
+            for (i = from; i < end; i++) {
+                final double uvFreq = Math.max(Math.abs(ufreq[k][i]), Math.abs(vfreq[k][i]));
+                if (uvFreq > uvMaxFreq) {
+                    uvMaxFreq = uvFreq;
+                    kMax = k;
+                    iMax = i;
+                }
+            }
+        }
+
+        if (uvMaxFreq <= 0.0) {
+            return false;
+        }
+
+        // compare costs (FFT ~ N^2 log2(N) vs DFT ~ Npix x Npoints):
+        final int fftSize = UserModelService.getInterpolationFFTSize(fitsImage, uvMaxFreq);
+
+        if (fftSize > UserModelService.MAX_FFT_SIZE) {
+            return false;
+        }
+
+        final double fftCost = ((double) fftSize) * fftSize * (Math.log(fftSize) / Math.log(2.0));
+        final double dftCost = ((double) modelData.getNData() / UserModelService.DATA_1D_POINT_SIZE) * nRows * (end - from);
+        // the error check computes the direct Fourier transform on 1 / FFT_INTERP_CHECK_STRIDE points:
+        final double checkCost = dftCost / FFT_INTERP_CHECK_STRIDE;
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("computeModelPartFFT: fftSize = {} - cost FFT = {} vs DFT = {}", fftSize, fftCost, dftCost);
+        }
+
+        if (dftCost <= fftCost + checkCost) {
+            return false;
+        }
+
+        final UserModelFFTPlane plane = UserModelService.computeFFTPlane(fitsImage, uvMaxFreq);
+
+        if (plane == null) {
+            // interrupted:
+            return false;
+        }
+
+        final int n1D = modelData.getNData();
+
+        try {
+            // 1 - check interpolation error on sample points (every FFT_INTERP_CHECK_STRIDE points of every row
+            // and the highest frequency point):
+            final Thread currentThread = Thread.currentThread();
+
+            final MutableComplex interp = new MutableComplex();
+            final MutableComplex[] exactRow = createArray(ufreq[0].length);
+
+            int nChecked = 0;
+            double maxError = 0.0;
+            // true if the last sample point was outside of the FFT plane (check the next point instead):
+            boolean pending = false;
+
+            for (int k = 0, i, p = 0; k < nRows; k++) {
+                final double[] ufreqRow = ufreq[k];
+                final double[] vfreqRow = vfreq[k];
+
+                for (i = from; i < end; i++, p++) {
+                    if ((p % FFT_INTERP_CHECK_STRIDE != 0) && !pending && !(k == kMax && i == iMax)) {
+                        continue;
+                    }
+                    interp.updateComplex(0d, 0d);
+
+                    // points outside of the FFT plane use the direct Fourier transform:
+                    pending = !plane.interpolate(ufreqRow[i], vfreqRow[i], interp);
+
+                    if (!pending) {
+                        exactRow[i].updateComplex(0d, 0d);
+                        UserModelService.computeModel(modelData, 0, n1D, ufreqRow, vfreqRow, exactRow, i, i + 1, mathMode);
+
+                        final double error = Math.max(Math.abs(interp.getReal() - exactRow[i].getReal()),
+                                Math.abs(interp.getImaginary() - exactRow[i].getImaginary()));
+
+                        if (error > FFT_INTERP_MAX_ERROR) {
+                            logger.info("computeModelPartFFT: interpolation error = {} > {}: use direct Fourier transform.",
+                                    error, FFT_INTERP_MAX_ERROR);
+                            return false;
+                        }
+                        if (error > maxError) {
+                            maxError = error;
+                        }
+                        nChecked++;
+                    }
+                }
+
+                if (currentThread.isInterrupted()) {
+                    // fast interrupt (computeModelVisibilities checks the interrupted flag):
+                    return false;
+                }
+            }
+
+            if (nChecked == 0) {
+                logger.info("computeModelPartFFT: no point to check the interpolation error: use direct Fourier transform.");
+                return false;
+            }
+
+            if (logger.isDebugEnabled()) {
+                logger.debug("computeModelPartFFT: max interpolation error = {} ({} points checked)", maxError, nChecked);
+            }
+
+            // 2 - interpolate all points:
+            for (int k = 0, i; k < nRows; k++) {
+                final double[] ufreqRow = ufreq[k];
+                final double[] vfreqRow = vfreq[k];
+                final MutableComplex[] cmVisRow = cmVis[k];
+
+                for (i = from; i < end; i++) {
+                    if (!plane.interpolate(ufreqRow[i], vfreqRow[i], cmVisRow[i])) {
+                        // outside of the FFT plane: use exact fourier transform:
+                        UserModelService.computeModel(modelData, 0, n1D, ufreqRow, vfreqRow, cmVisRow, i, i + 1, mathMode);
+                    }
+                }
+
+                if (currentThread.isInterrupted()) {
+                    // fast interrupt (computeModelVisibilities checks the interrupted flag):
+                    return true;
+                }
+            }
+
+            logger.info("computeModelPartFFT: {} points interpolated using {}", nRows * (end - from), plane);
+            return true;
+
+        } finally {
+            plane.recycle();
+        }
+    }
+
     protected abstract UVFreqTable computeSpatialFreqTable(final double[] sampleWaveLengths);
 
-    protected final int getNextRandomSampleIndex() {
-        return this.random.nextInt(N_SAMPLES);
+    /**
+     * Return one random seed per row derived from the base seed and the given table key if noise is enabled.
+     * Each row then uses its own random stream so results do not depend on the job scheduling
+     * and are reproducible using the same base seed (OIFits.random.seed system property).
+     * @param tableKey random stream key of the table (STREAM_OI_VIS, STREAM_OI_VIS2 or STREAM_OI_T3)
+     * @param firstRow index of the first row in the complete table (blocks)
+     * @param nRows number of rows
+     * @return random seeds or null if noise is disabled
+     */
+    protected final long[] getRowRandomSeeds(final long tableKey, final int firstRow, final int nRows) {
+        if (!this.doNoise) {
+            return null;
+        }
+        final long tableSeed = RandomStream.seed(this.randomSeed, tableKey);
+        final long[] seeds = new long[nRows];
+        for (int k = 0; k < nRows; k++) {
+            seeds[k] = RandomStream.seed(tableSeed, firstRow + k);
+        }
+        return seeds;
+    }
+
+    /**
+     * Define the base seed of random streams (validation) like the OIFits.random.seed system property
+     * @param randomSeed base seed of random streams
+     */
+    public final void setRandomSeed(final long randomSeed) {
+        this.randomSeed = randomSeed;
     }
 
     /**
@@ -19,6 +19,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * This class provides the atmospheric transmission (mean atmospheric conditions) averaged over spectral channels
+ * using precomputed cumulative sums of the transmission curve (O(1) per channel).
  *
  * @author bourgesl
  */
@@ -48,6 +50,7 @@ public final class AtmosphereSpectrumService {
     }
 
     /* members */
+    /** mean transmission curve */
     private AtmTransmission cached = null;
 
     private AtmosphereSpectrumService() {
@@ -56,6 +59,12 @@ public final class AtmosphereSpectrumService {
         init();
     }
 
+    /**
+     * Return the mean atmospheric transmission (mean atmospheric conditions) of the given spectral channels
+     * @param waveLengths spectral channel central wavelengths (meters)
+     * @param waveBands spectral channel widths (meters)
+     * @return mean transmission per spectral channel
+     */
     public double[] getTransmission(final double[] waveLengths, final double[] waveBands) {
         final int nWLen = waveLengths.length;
 
@@ -69,60 +78,33 @@ public final class AtmosphereSpectrumService {
         // TODO: add several transmission curves for paranal !
         final AtmTransmission atm = this.cached;
 
+        // search hints (channels are usually sorted):
+        int hintMin = 0, hintMax = 0;
+
         for (int i = 0; i < nWLen; i++) {
             final double lambdaMin = waveLengths[i] - 0.5 * waveBands[i];
             final double lambdaMax = waveLengths[i] + 0.5 * waveBands[i];
 
-            final int first = findIndex(atm.lambda, lambdaMin, true);
-            final int last = findIndex(atm.lambda, lambdaMax, false);
+            hintMin = atm.findLastLowerOrEqual(lambdaMin, hintMin);
+            hintMax = atm.findLastLowerOrEqual(lambdaMax, hintMax);
+
+            final int first = atm.findIndex(lambdaMin, true, hintMin);
+            final int last = atm.findIndex(lambdaMax, false, hintMax);
 
             if (logger.isDebugEnabled()) {
                 logger.debug("lambdaMin: {} vs lambda(first): {}", lambdaMin, atm.lambda[first]);
                 logger.debug("lambdaMax: {} vs lambda(last) : {}", lambdaMax, atm.lambda[last]);
             }
 
-            if (first < last) {
-                // simple mean:
-                // should perform convolution of gaussian filter on each spectral channels (varying width):
-                double total = 0.0;
-
-                for (int j = first; j <= last; j++) {
-                    total += atm.transmission[j]; // x weight !
-                }
-
-                trans[i] = total / (last + 1 - first);
-
-            } else {
-                // Lower = Upper index side case:
-                // only happen if lambda < min(atm.lambda) or lambda > max(atm.lambda)
-                trans[i] = atm.transmission[first];
-            }
+            // simple mean:
+            // should perform convolution of gaussian filter on each spectral channels (varying width):
+            // note: first = last only happens if lambda < min(atm.lambda) or lambda > max(atm.lambda)
+            trans[i] = atm.mean(first, last);
         }
 
         return trans;
     }
 
-    private static int findIndex(final double[] array, final double value, final boolean smaller) {
-        int idx = Arrays.binarySearch(array, value);
-        if (idx < 0) {
-            // insertion point = index of the first element greater than the key (>= 0)
-            idx = -idx - 1;
-            // adjust to get the index of the first element smaller than the key
-            if (smaller) {
-                idx--;
-            }
-        }
-
-        // Range check:
-        if (idx <= 0) {
-            return 0; // inclusive
-        }
-        if (idx >= array.length) {
-            return array.length - 1; // inclusive
-        }
-        return idx;
-    }
-
     private void init() {
         final BinaryTableHDU table = loadFits(ATM_MEAN);
 
@@ -197,10 +179,100 @@ public final class AtmosphereSpectrumService {
         final double[] lambda;
         /** transmission [0;1] */
         final double[] transmission;
+        /** cumulative sums of transmission: cumTransmission[j] = sum(transmission[0 .. j-1]) */
+        final double[] cumTransmission;
 
         AtmTransmission(final double[] lambda, final double[] transmission) {
             this.lambda = lambda;
             this.transmission = transmission;
+
+            final int n = transmission.length;
+            this.cumTransmission = new double[n + 1];
+
+            double total = 0.0;
+            for (int j = 0; j < n; j++) {
+                total += transmission[j];
+                this.cumTransmission[j + 1] = total;
+            }
+        }
+
+        /**
+         * Return the mean transmission over the given (inclusive) index range
+         * @param first first index
+         * @param last last index
+         * @return mean transmission
+         */
+        double mean(final int first, final int last) {
+            if (first < last) {
+                return (cumTransmission[last + 1] - cumTransmission[first]) / (last + 1 - first);
+            }
+            return transmission[first];
+        }
+
+        /**
+         * Return the index of the closest lambda value (clamped to the valid range)
+         * @param value lambda value
+         * @param smaller true to get the last value smaller than the given value; false to get the first greater value
+         * @param le index of the last lambda value lower or equal to the given value (-1 if none)
+         * @return index in [0; n - 1]
+         */
+        int findIndex(final double value, final boolean smaller, final int le) {
+            int idx;
+            if (le >= 0 && lambda[le] == value) {
+                idx = le;
+            } else {
+                idx = (smaller) ? le : le + 1;
+            }
+
+            // Range check:
+            if (idx <= 0) {
+                return 0; // inclusive
+            }
+            if (idx >= lambda.length) {
+                return lambda.length - 1; // inclusive
+            }
+            return idx;
+        }
+
+        /**
+         * Return the index of the last lambda value lower or equal to the given value using a galloping search
+         * from the given hint (amortized O(1) for sorted queries)
+         * @param value lambda value
+         * @param hint search hint (previous result)
+         * @return index of the last lambda value lower or equal to the given value or -1 if none
+         */
+        int findLastLowerOrEqual(final double value, final int hint) {
+            final double[] array = this.lambda;
+            final int n = array.length;
+
+            // invariant: array[lo] <= value < array[hi]
+            int lo, hi;
+
+            if (hint >= 0 && hint < n && array[hint] <= value) {
+                lo = hint;
+                hi = hint + 1;
+
+                for (int step = 1; hi < n && array[hi] <= value; step <<= 1) {
+                    lo = hi;
+                    hi = lo + step;
+                }
+                if (hi > n) {
+                    hi = n;
+                }
+            } else {
+                lo = -1;
+                hi = (hint >= 0 && hint < n) ? hint : n;
+            }
+
+            while (hi - lo > 1) {
+                final int mid = (lo + hi) >>> 1;
+                if (array[mid] <= value) {
+                    lo = mid;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
         }
     }
 
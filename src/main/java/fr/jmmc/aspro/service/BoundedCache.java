@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.service;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class is a shared cache (LRU) bounded by the total weight of its values (thread-safe).
+ *
+ * It is configured by system properties:
+ * - '[name].disable' = true to disable the cache
+ * - '[name].[binName]' = optional bin shared by neighbouring values of a continuous key part (0 means exact values)
+ *
+ * Keys are Key instances or any object implementing equals / hashCode.
+ * All methods lock this instance so callers may hold this lock to use a cached value safely
+ * (it can not be evicted meanwhile).
+ *
+ * @param <V> value type
+ * @author bourgesl
+ */
+public abstract class BoundedCache<V> {
+
+    /* members */
+    /** cache name (system property prefix) */
+    private final String name;
+    /** maximum total weight of cached values */
+    private volatile long maxWeight;
+    /** flag to enable the cache */
+    private volatile boolean enabled;
+    /** bin (0 means exact values) */
+    private volatile double bin;
+    /** cached values (access order) */
+    private final Map<Object, V> cache = new LinkedHashMap<Object, V>(256, 0.75f, true);
+    /** total weight of cached values */
+    private long weight = 0L;
+    /** number of cache hits (get) */
+    private long hits = 0L;
+    /** number of cache misses (get) */
+    private long misses = 0L;
+
+    /**
+     * Protected constructor
+     * @param name cache name (system property prefix)
+     * @param binName bin property name (or null if no bin)
+     * @param maxWeight maximum total weight of cached values
+     */
+    protected BoundedCache(final String name, final String binName, final long maxWeight) {
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.enabled = !Boolean.getBoolean(name + ".disable");
+        this.bin = (binName != null) ? Double.parseDouble(System.getProperty(name + '.' + binName, "0")) : 0d;
+    }
+
+    /**
+     * Return the weight of the given value
+     * @param value cached value
+     * @return weight
+     */
+    protected abstract long weight(final V value);
+
+    /**
+     * Handle a value removed from the cache (eviction, replacement, purge or clear)
+     * @param value removed value
+     */
+    protected void evicted(final V value) {
+        // no-op by default
+    }
+
+    /**
+     * Return true if the given key is stale i.e. its entry must be removed by purge()
+     * @param key cache key
+     * @return false by default
+     */
+    protected boolean isStale(final Object key) {
+        return false;
+    }
+
+    /**
+     * Return the cache name
+     * @return cache name
+     */
+    public final String getName() {
+        return name;
+    }
+
+    /**
+     * Return true if the cache is enabled
+     * @return true if the cache is enabled
+     */
+    public final boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enable or disable the cache (validation); disabling the cache clears it
+     * @param enabled true to enable the cache
+     */
+    public final void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    /**
+     * Return the maximum total weight of cached values
+     * @return maximum total weight of cached values
+     */
+    public final long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Define the maximum total weight of cached values (validation); the cache is cleared
+     * @param maxWeight maximum total weight of cached values
+     */
+    public final void setMaxWeight(final long maxWeight) {
+        this.maxWeight = maxWeight;
+        clear();
+    }
+
+    /**
+     * Return the bin (0 means exact values)
+     * @return bin
+     */
+    public final double getBin() {
+        return bin;
+    }
+
+    /**
+     * Define the bin (validation); the cache is cleared
+     * @param bin bin (0 means exact values)
+     */
+    public final void setBin(final double bin) {
+        this.bin = bin;
+        clear();
+    }
+
+    /**
+     * Return the value used in cache keys i.e. the nearest multiple of the bin (if enabled)
+     * @param value continuous value
+     * @param binUnit bin unit expressed in the value unit
+     * @return value or its nearest multiple of the bin
+     */
+    public final double getBinValue(final double value, final double binUnit) {
+        if (bin > 0d) {
+            final double step = bin * binUnit;
+            return step * Math.floor(value / step + 0.5d);
+        }
+        return value;
+    }
+
+    /**
+     * Return the cached value for the given key
+     * @param key cache key
+     * @return cached value or null if not found
+     */
+    public final synchronized V get(final Object key) {
+        final V value = cache.get(key);
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    /**
+     * Store the given value in the cache and evict least recently used values if needed
+     * (the given value is always kept)
+     * @param key cache key
+     * @param value value to store
+     */
+    public final synchronized void put(final Object key, final V value) {
+        final V previous = cache.put(key, value);
+        if (previous != null) {
+            weight -= weight(previous);
+            if (previous != value) {
+                evicted(previous);
+            }
+        }
+        weight += weight(value);
+
+        // evict least recently used entries (first) but the given one (last):
+        for (final Iterator<Map.Entry<Object, V>> it = cache.entrySet().iterator(); it.hasNext() && weight > maxWeight;) {
+            final Map.Entry<Object, V> e = it.next();
+            if (e.getValue() == value) {
+                break;
+            }
+            weight -= weight(e.getValue());
+            it.remove();
+            evicted(e.getValue());
+        }
+    }
+
+    /**
+     * Remove the entries whose key is stale (see isStale)
+     */
+    public final synchronized void purge() {
+        for (final Iterator<Map.Entry<Object, V>> it = cache.entrySet().iterator(); it.hasNext();) {
+            final Map.Entry<Object, V> e = it.next();
+            if (isStale(e.getKey())) {
+                weight -= weight(e.getValue());
+                it.remove();
+                evicted(e.getValue());
+            }
+        }
+    }
+
+    /**
+     * Clear the cache
+     */
+    public final synchronized void clear() {
+        for (V value : cache.values()) {
+            evicted(value);
+        }
+        cache.clear();
+        weight = 0L;
+    }
+
+    /**
+     * Return the number of cached values
+     * @return number of cached values
+     */
+    public final synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * Return the total weight of cached values
+     * @return total weight of cached values
+     */
+    public final synchronized long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Return the number of cache hits (get)
+     * @return number of cache hits
+     */
+    public final synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Return the number of cache misses (get)
+     * @return number of cache misses
+     */
+    public final synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return string representation
+     */
+    @Override
+    public final synchronized String toString() {
+        return "BoundedCache[" + name + " enabled=" + enabled + " bin=" + bin + " size=" + cache.size() + " weight=" + weight + '/' + maxWeight
+                + " hits=" + hits + " misses=" + misses + ']';
+    }
+
+    /**
+     * Immutable cache key made of several values compared by value (arrays are compared element by element)
+     * Note: given arrays must not be modified afterwards
+     */
+    public static final class Key {
+
+        /** key values */
+        private final Object[] values;
+        /** hash code (cached) */
+        private final int hash;
+
+        /**
+         * Public constructor
+         * @param values key values (arrays or nested keys are supported)
+         */
+        public Key(final Object... values) {
+            this.values = values;
+            this.hash = Arrays.deepHashCode(values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return (hash == other.hash) && Arrays.deepEquals(values, other.values);
+        }
+
+        /**
+         * @return string representation
+         */
+        @Override
+        public String toString() {
+            return Arrays.deepToString(values);
+        }
+    }
+}
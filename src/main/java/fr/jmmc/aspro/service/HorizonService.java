@@ -182,7 +182,8 @@ public final class HorizonService {
                     }
                 };
 
-                profile = new HorizonShape(key, polygon);
+                // compile the polygon into the azimuth-indexed elevation table:
+                profile = new HorizonShape(key, polygon, xpoints, ypoints, npoints);
 
                 cachedProfiles.put(key, profile);
             }
@@ -202,6 +203,28 @@ public final class HorizonService {
         return profile.check(upscale(az), upscale(elev));
     }
 
+    /**
+     * Return true if the given elevation range is visible through the given profile whatever the azimuth
+     * @param profile horizon profile
+     * @param elevMin lower elevation (deg)
+     * @param elevMax upper elevation (deg)
+     * @return true if the given elevation range is visible (false if unknown)
+     */
+    public boolean isVisible(final HorizonShape profile, final double elevMin, final double elevMax) {
+        return profile.containsAll(0.0, upscale(360.0), upscale(elevMin), upscale(elevMax));
+    }
+
+    /**
+     * Return true if the given elevation range is hidden by the given profile whatever the azimuth
+     * @param profile horizon profile
+     * @param elevMin lower elevation (deg)
+     * @param elevMax upper elevation (deg)
+     * @return true if the given elevation range is hidden (false if unknown)
+     */
+    public boolean isHidden(final HorizonShape profile, final double elevMin, final double elevMax) {
+        return profile.containsNone(upscale(elevMin), upscale(elevMax));
+    }
+
     private static int round(final double coord) {
         // use round() to avoid any precision issue with double numbers:
         return (int)Math.round(upscale(coord));
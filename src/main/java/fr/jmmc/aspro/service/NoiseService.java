@@ -80,6 +80,28 @@ public final class NoiseService implements VisNoiseService {
     /** enable bias handling (only for debugging / ETC tests) */
     private final static boolean USE_BIAS = true;
 
+    /**
+     * shared cache of strehl ratios per spectral channel keyed by (AO setup, target magnitude, seeing, wavelengths, elevation)
+     * bounded by its number of values (Noise.strehlCache.disable, Noise.strehlCache.elevationBin in deg)
+     */
+    static final BoundedCache<double[]> STREHL_CACHE = new BoundedCache<double[]>("Noise.strehlCache", "elevationBin", 1024 * 1024) {
+        @Override
+        protected long weight(final double[] strehl) {
+            return strehl.length;
+        }
+    };
+    /**
+     * shared cache of prepared instrument parameters per spectral channel (bias and spectral table) keyed by
+     * (instrument mode, instrument setup, telescope, atmosphere quality, calibration bias flag, wavelengths)
+     * bounded by its number of values (Noise.instrumentCache.disable)
+     */
+    static final BoundedCache<InstrumentParams> INSTRUMENT_CACHE = new BoundedCache<InstrumentParams>("Noise.instrumentCache", null, 1024 * 1024) {
+        @Override
+        protected long weight(final InstrumentParams params) {
+            return params.weight();
+        }
+    };
+
     /* members */
     /** instrument name */
     private String instrumentName = null;
@@ -445,6 +467,68 @@ public final class NoiseService implements VisNoiseService {
                     + " - Ratio Interferometry: " + df.format(100.0 * ratioTimeInterfero) + " %");
         }
 
+        // TODO: fix message if FT enabled (no restriction ...)
+        if (insMode.isWavelengthRangeRestriction()) {
+            addWarning("Detector can not be read completely within 1 DIT: the wavelength range is restricted to "
+                    + df.format(insMode.getWaveLengthBandRef()) + " " + SpecialChars.UNIT_MICRO_METER);
+        }
+
+        // parameters per spectral channel depend only on the instrument mode, telescope, atmosphere quality and wavelengths:
+        final BoundedCache.Key insKey = (INSTRUMENT_CACHE.isEnabled())
+                ? new BoundedCache.Key(insMode, insSetup, this.telescope, observation.getWhen().getAtmosphereQuality(),
+                        Boolean.valueOf(this.useCalibrationBias), this.waveLengths) : null;
+
+        final InstrumentParams cachedParams = (insKey != null) ? INSTRUMENT_CACHE.get(insKey) : null;
+
+        if (cachedParams != null) {
+            cachedParams.restore(this);
+        } else {
+            prepareInstrumentBias(observation, insSetup);
+            prepareSpectralTable(insMode, insSetup);
+
+            if (insKey != null) {
+                INSTRUMENT_CACHE.put(insKey, new InstrumentParams(this));
+            }
+        }
+        logger.debug("useBias : {}", this.useBias);
+        logger.debug("useRandomCalBias : {}", this.useRandomCalBias);
+
+        this.usePhotometry = ((fracFluxInPhotometry > 0.0) && (StatUtils.max(nbPixPhoto) > 0.0));
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("instrumentName                : {}", instrumentName);
+            logger.debug("instrumentSetup               : {}", insSetup.getName());
+            logger.debug("totalObsTime                  : {}", totalObsTime);
+            logger.debug("dit                           : {}", dit);
+            logger.debug("ron                           : {}", ron);
+            logger.debug("detectorSaturation            : {}", detectorSaturation);
+            logger.debug("quantumEfficiency             : {}", quantumEfficiency);
+            logger.debug("fracFluxInInterferometry      : {}", fracFluxInInterferometry);
+            logger.debug("fracFluxInPhotometry          : {}", fracFluxInPhotometry);
+            logger.debug("usePhotometry                 : {}", usePhotometry);
+            logger.debug("useStrehlCorrection           : {}", useStrehlCorrection);
+            logger.debug("transmission[iRefChannel]     : {}", transmission[iRefChannel]);
+            logger.debug("transmission                  : {}", Arrays.toString(transmission));
+            logger.debug("instrumentalVis[iRefChannel]  : {}", instrumentalVisibility[iRefChannel]);
+            logger.debug("instrumentalVisibility        : {}", Arrays.toString(instrumentalVisibility));
+            if (nbPhotThermal != null) {
+                logger.debug("nbPhotThermal[iRefChannel]    : {}", nbPhotThermal[iRefChannel]);
+                logger.debug("nbPhotThermal                 : {}", Arrays.toString(nbPhotThermal));
+            }
+            logger.debug("nbPixInterf[iRefChannel]      : {}", nbPixInterf[iRefChannel]);
+            logger.debug("nbPixInterf                   : {}", Arrays.toString(nbPixInterf));
+            logger.debug("nbPixPhoto[iRefChannel]       : {}", nbPixPhoto[iRefChannel]);
+            logger.debug("nbPixPhoto                    : {}", Arrays.toString(nbPixPhoto));
+        }
+    }
+
+    /**
+     * Prepare instrument and calibration bias per spectral channel
+     * @param observation observation settings
+     * @param insSetup instrument setup
+     */
+    private void prepareInstrumentBias(final ObservationSetting observation, final FocalInstrumentSetup insSetup) {
+
         final boolean insHasInstrumentBias = (!insSetup.getInstrumentBias().isEmpty());
 
         if (USE_BIAS && (this.useCalibrationBias || insHasInstrumentBias)) {
@@ -597,19 +681,19 @@ public final class NoiseService implements VisNoiseService {
                 }
             }
         }
-        logger.debug("useBias : {}", this.useBias);
-        logger.debug("useRandomCalBias : {}", this.useRandomCalBias);
+    }
+
+    /**
+     * Prepare transmission, instrumental visibility, thermal background and pixel counts per spectral channel
+     * using the spectral table of the instrument mode (if any) or instrument setup values
+     * @param insMode instrument mode
+     * @param insSetup instrument setup
+     */
+    private void prepareSpectralTable(final FocalInstrumentMode insMode, final FocalInstrumentSetup insSetup) {
 
-        // Check wavelength range:
         final double lambdaMin = this.waveLengths[0];
         final double lambdaMax = this.waveLengths[nSpectralChannels - 1];
 
-        // TODO: fix message if FT enabled (no restriction ...)
-        if (insMode.isWavelengthRangeRestriction()) {
-            addWarning("Detector can not be read completely within 1 DIT: the wavelength range is restricted to "
-                    + df.format(insMode.getWaveLengthBandRef()) + " " + SpecialChars.UNIT_MICRO_METER);
-        }
-
         final SpectralSetup table = insMode.getTable();
         int firstIdx = -1;
         int lastIdx = -1;
@@ -699,34 +783,6 @@ public final class NoiseService implements VisNoiseService {
             this.nbPixPhoto = new double[nSpectralChannels];
             Arrays.fill(this.nbPixPhoto, insSetup.getNbPixPhotometry());
         }
-
-        this.usePhotometry = ((fracFluxInPhotometry > 0.0) && (StatUtils.max(nbPixPhoto) > 0.0));
-
-        if (logger.isDebugEnabled()) {
-            logger.debug("instrumentName                : {}", instrumentName);
-            logger.debug("instrumentSetup               : {}", insSetup.getName());
-            logger.debug("totalObsTime                  : {}", totalObsTime);
-            logger.debug("dit                           : {}", dit);
-            logger.debug("ron                           : {}", ron);
-            logger.debug("detectorSaturation            : {}", detectorSaturation);
-            logger.debug("quantumEfficiency             : {}", quantumEfficiency);
-            logger.debug("fracFluxInInterferometry      : {}", fracFluxInInterferometry);
-            logger.debug("fracFluxInPhotometry          : {}", fracFluxInPhotometry);
-            logger.debug("usePhotometry                 : {}", usePhotometry);
-            logger.debug("useStrehlCorrection           : {}", useStrehlCorrection);
-            logger.debug("transmission[iRefChannel]     : {}", transmission[iRefChannel]);
-            logger.debug("transmission                  : {}", Arrays.toString(transmission));
-            logger.debug("instrumentalVis[iRefChannel]  : {}", instrumentalVisibility[iRefChannel]);
-            logger.debug("instrumentalVisibility        : {}", Arrays.toString(instrumentalVisibility));
-            if (nbPhotThermal != null) {
-                logger.debug("nbPhotThermal[iRefChannel]    : {}", nbPhotThermal[iRefChannel]);
-                logger.debug("nbPhotThermal                 : {}", Arrays.toString(nbPhotThermal));
-            }
-            logger.debug("nbPixInterf[iRefChannel]      : {}", nbPixInterf[iRefChannel]);
-            logger.debug("nbPixInterf                   : {}", Arrays.toString(nbPixInterf));
-            logger.debug("nbPixPhoto[iRefChannel]       : {}", nbPixPhoto[iRefChannel]);
-            logger.debug("nbPixPhoto                    : {}", Arrays.toString(nbPixPhoto));
-        }
     }
 
     /**
@@ -1073,11 +1129,32 @@ public final class NoiseService implements VisNoiseService {
                     }
                 }
 
+                // strehl depends only on the AO setup, target magnitude, seeing, wavelengths and elevation:
+                final BoundedCache.Key strehlKey = getStrehlKey(band, nbSubPupils, ao_td, ao_qe, ao_ron);
+                BoundedCache.Key key;
+                double[] strehl;
+
                 for (int n = 0; n < nObs; n++) {
-                    final double elevation = targetPointInfos[n].getElevation();
+                    double elevation = targetPointInfos[n].getElevation();
+
+                    if (strehlKey != null) {
+                        // use the nearest multiple of the elevation bin (deg) if any:
+                        elevation = STREHL_CACHE.getBinValue(elevation, 1d);
+                        key = new BoundedCache.Key(strehlKey, Double.valueOf(elevation));
+                        strehl = STREHL_CACHE.get(key);
 
-                    strehlPerChannel[n] = Band.strehl(band, adaptiveOpticsMag, waveLengths, telDiam, seeing,
-                            nbSubPupils, ao_td, t0, ao_qe, ao_ron, elevation);
+                        if (strehl == null) {
+                            strehl = Band.strehl(band, adaptiveOpticsMag, waveLengths, telDiam, seeing,
+                                    nbSubPupils, ao_td, t0, ao_qe, ao_ron, elevation);
+
+                            STREHL_CACHE.put(key, strehl);
+                        }
+                    } else {
+                        strehl = Band.strehl(band, adaptiveOpticsMag, waveLengths, telDiam, seeing,
+                                nbSubPupils, ao_td, t0, ao_qe, ao_ron, elevation);
+                    }
+                    // note: cached arrays are shared (read-only):
+                    strehlPerChannel[n] = strehl;
 
                     if (logger.isDebugEnabled()) {
                         logger.debug("elevation                     : {}", elevation);
@@ -1334,6 +1411,25 @@ public final class NoiseService implements VisNoiseService {
         }
     }
 
+    /**
+     * Return the key identifying the strehl computation inputs (except elevation) used by the strehl cache
+     * @param band AO band
+     * @param nbSubPupils number of AO sub-pupils
+     * @param ao_td AO detector integration time
+     * @param ao_qe AO quantum efficiency (including transmission)
+     * @param ao_ron AO detector readout noise
+     * @return strehl key or null if the cache is disabled
+     */
+    private BoundedCache.Key getStrehlKey(final Band band, final int nbSubPupils, final double ao_td,
+                                          final double ao_qe, final double ao_ron) {
+        if (!STREHL_CACHE.isEnabled()) {
+            return null;
+        }
+        // note: the wavelength grid is compared value by value:
+        return new BoundedCache.Key(band, Integer.valueOf(nbSubPupils), Double.valueOf(ao_td), Double.valueOf(ao_qe), Double.valueOf(ao_ron),
+                Double.valueOf(adaptiveOpticsMag), Double.valueOf(telDiam), Double.valueOf(seeing), Double.valueOf(t0), waveLengths);
+    }
+
     private void dumpVis2Error(final int iChannel) {
         logger.info("channel: {} => {} microns", iChannel, waveLengths[iChannel]);
         dumpVis2ErrorSample(iChannel, 1d);
@@ -1486,6 +1582,55 @@ public final class NoiseService implements VisNoiseService {
         return this.params[iPoint].errSqCorrFlux[iChannel];
     }
 
+    /**
+     * Copy the number of photons in each photometric channel (photometric flux) for all channels
+     * @param iPoint index of the observable point
+     * @param nbPhotPhoto output number of photons in each photometric channel [channel] (NaN if invalid)
+     */
+    public void getNbPhotPhoto(final int iPoint, final double[] nbPhotPhoto) {
+        copyRow((checkRow(iPoint, nbPhotPhoto)) ? null : this.params[iPoint].nbPhotPhoto, nbPhotPhoto);
+    }
+
+    /**
+     * Copy the error on the number of photons in each photometric channel for all channels
+     * @param iPoint index of the observable point
+     * @param errPhotPhoto output error on the number of photons in each photometric channel [channel] (NaN if invalid)
+     */
+    public void getErrorPhotPhoto(final int iPoint, final double[] errPhotPhoto) {
+        copyRow((checkRow(iPoint, errPhotPhoto)) ? null : this.params[iPoint].errPhotPhoto, errPhotPhoto);
+    }
+
+    /**
+     * Copy the squared correlated flux for all channels
+     * @param iPoint index of the observable point
+     * @param sqCorrFlux output squared correlated flux [channel] (NaN if invalid)
+     */
+    public void getSqCorrFlux(final int iPoint, final double[] sqCorrFlux) {
+        copyRow((checkRow(iPoint, sqCorrFlux)) ? null : this.params[iPoint].sqCorrFlux, sqCorrFlux);
+    }
+
+    /**
+     * Copy the error on squared correlated flux for all channels
+     * @param iPoint index of the observable point
+     * @param errSqCorrFlux output error on squared correlated flux [channel] (NaN if invalid)
+     */
+    public void getErrorSqCorrFlux(final int iPoint, final double[] errSqCorrFlux) {
+        copyRow((checkRow(iPoint, errSqCorrFlux)) ? null : this.params[iPoint].errSqCorrFlux, errSqCorrFlux);
+    }
+
+    /**
+     * Copy the given row values or fill the output with NaN if the row is undefined
+     * @param values row values or null if invalid
+     * @param output output array
+     */
+    private static void copyRow(final double[] values, final double[] output) {
+        if (values == null) {
+            Arrays.fill(output, Double.NaN);
+        } else {
+            System.arraycopy(values, 0, output, 0, output.length);
+        }
+    }
+
     /**
      * Prepare numeric constants for square visibility error
      *
@@ -1567,9 +1712,19 @@ public final class NoiseService implements VisNoiseService {
         if (check(iPoint, iChannel)) {
             return Double.NaN;
         }
+        return computeVis2Error(this.params[iPoint], iChannel, vis2, usePhot);
+    }
 
-        final NoiseWParams param = this.params[iPoint];
-
+    /**
+     * Compute error on square visibility (no check)
+     *
+     * @param param noise parameters of the observable point
+     * @param iChannel index of the channel
+     * @param vis2 squared visibility
+     * @param usePhot do use the photometric error
+     * @return square visiblity error
+     */
+    private double computeVis2Error(final NoiseWParams param, final int iChannel, final double vis2, final boolean usePhot) {
         // squared correlated flux (include instrumental visibility loss):
         final double sqCorFlux = param.sqCorFluxCoef[iChannel] * vis2;
 
@@ -1603,13 +1758,7 @@ public final class NoiseService implements VisNoiseService {
         return errVis2;
     }
 
-    private double computeVisErrorForMatisse(final int iPoint, final int iChannel, final double visAmp) {
-        if (check(iPoint, iChannel)) {
-            return Double.NaN;
-        }
-
-        final NoiseWParams param = this.params[iPoint];
-
+    private double computeVisErrorForMatisse(final NoiseWParams param, final int iChannel, final double visAmp) {
         final double[] nbPhotInterf = param.nbPhotInterf;
 
         // MATISSE SNR(Fc) = (nI * Vinst * V) / SQRT( ntel * (nI + nth) + npixI * RON^2 )
@@ -1699,8 +1848,45 @@ public final class NoiseService implements VisNoiseService {
         if (check(iPoint, iChannel)) {
             return Double.NaN;
         }
+        return computeT3PhiError(this.params[iPoint], iChannel, visAmp12, visAmp23, visAmp31);
+    }
 
+    /**
+     * Compute errors on closure phase for all channels of the given point.
+     * Output values are NaN if errors can not be computed
+     *
+     * @param iPoint index of the observable point
+     * @param visAmp12 visibility amplitudes of baseline AB = 12 [channel]
+     * @param visAmp23 visibility amplitudes of baseline BC = 23 [channel]
+     * @param visAmp31 visibility amplitudes of baseline CA = 31 [channel]
+     * @param errT3Phi output errors on closure phase in radians [channel]
+     */
+    public void computeT3PhiErrors(final int iPoint,
+                                   final double[] visAmp12, final double[] visAmp23, final double[] visAmp31,
+                                   final double[] errT3Phi) {
+        if (checkRow(iPoint, errT3Phi)) {
+            Arrays.fill(errT3Phi, Double.NaN);
+            return;
+        }
         final NoiseWParams param = this.params[iPoint];
+
+        for (int i = 0, len = errT3Phi.length; i < len; i++) {
+            errT3Phi[i] = computeT3PhiError(param, i, visAmp12[i], visAmp23[i], visAmp31[i]);
+        }
+    }
+
+    /**
+     * Compute error on closure phase (no check)
+     *
+     * @param param noise parameters of the observable point
+     * @param iChannel index of the channel
+     * @param visAmp12 visibility amplitude of baseline AB = 12
+     * @param visAmp23 visibility amplitude of baseline BC = 23
+     * @param visAmp31 visibility amplitude of baseline CA = 31
+     * @return error on closure phase in radians
+     */
+    private double computeT3PhiError(final NoiseWParams param, final int iChannel,
+                                     final double visAmp12, final double visAmp23, final double visAmp31) {
         final double[] t3photCoef = param.t3photCoef;
         final double[] t3photCoef2 = param.t3photCoef2;
         final double[] t3photCoef3 = param.t3photCoef3;
@@ -1780,8 +1966,48 @@ public final class NoiseService implements VisNoiseService {
      * @return complex visiblity error or NaN if the error can not be computed
      */
     public double computeVisComplexErrorValue(final int iPoint, final int iChannel, final double visAmp, final boolean forAmplitude) {
+        if (check(iPoint, iChannel)) {
+            return Double.NaN;
+        }
+        return computeVisComplexErrorValue(this.params[iPoint], iChannel, visAmp, forAmplitude, isMatisse());
+    }
+
+    /**
+     * Compute errors on complex visibility for all channels of the given point (see computeVisComplexErrorValue).
+     * Output values are NaN if errors can not be computed
+     *
+     * @param iPoint index of the observable point
+     * @param visAmp visibility amplitudes [channel]
+     * @param forAmplitude true to compute error for amplitudes (including the photometric error); false to compute error for phases
+     * @param visErr output complex visiblity errors [channel]
+     */
+    public void computeVisComplexErrorValues(final int iPoint, final double[] visAmp, final boolean forAmplitude, final double[] visErr) {
+        if (checkRow(iPoint, visErr)) {
+            Arrays.fill(visErr, Double.NaN);
+            return;
+        }
+        final NoiseWParams param = this.params[iPoint];
+        final boolean isMatisse = isMatisse();
+
+        for (int i = 0, len = visErr.length; i < len; i++) {
+            visErr[i] = computeVisComplexErrorValue(param, i, visAmp[i], forAmplitude, isMatisse);
+        }
+    }
+
+    /**
+     * Compute error on complex visibility (no check)
+     *
+     * @param param noise parameters of the observable point
+     * @param iChannel index of the channel
+     * @param visAmp visibility amplitude
+     * @param forAmplitude true to compute error for amplitudes (including the photometric error); false to compute error for phases
+     * @param isMatisse true if the instrument is MATISSE
+     * @return complex visiblity error
+     */
+    private double computeVisComplexErrorValue(final NoiseWParams param, final int iChannel, final double visAmp,
+                                               final boolean forAmplitude, final boolean isMatisse) {
         // visibility amplitude error (gaussian distribution):
-        double visAmpErr = computeVisError(iPoint, iChannel, visAmp, forAmplitude);
+        double visAmpErr = computeVisError(param, iChannel, visAmp, forAmplitude, isMatisse);
 
         // Limit excessively large errors (very low transmission or strehl):
         visAmpErr = Math.min(visAmpErr, MAX_ERR_V);
@@ -1798,22 +2024,22 @@ public final class NoiseService implements VisNoiseService {
     /**
      * Compute error on visibility amplitude derived from computeVis2Error(visAmp)
      *
-     * @param iPoint index of the observable point
+     * @param param noise parameters of the observable point
      * @param iChannel index of the channel
      * @param visAmp visibility amplitude
      * @param forAmplitude true to compute error for amplitudes (including the photometric error); false to compute error for phases
+     * @param isMatisse true if the instrument is MATISSE
      * @return visiblity error
      */
-    private double computeVisError(final int iPoint, final int iChannel, final double visAmp, final boolean forAmplitude) {
-        if (!forAmplitude) {
-            if (AsproConstants.MATCHER_MATISSE.match(instrumentName)) {
-                // special case for VISPHI / T3PHI and Correlated flux (VISDATA):
-                return computeVisErrorForMatisse(iPoint, iChannel, visAmp);
-            }
+    private double computeVisError(final NoiseWParams param, final int iChannel, final double visAmp,
+                                   final boolean forAmplitude, final boolean isMatisse) {
+        if (!forAmplitude && isMatisse) {
+            // special case for VISPHI / T3PHI and Correlated flux (VISDATA):
+            return computeVisErrorForMatisse(param, iChannel, visAmp);
         }
 
         // vis2 error with or without photometric error:
-        final double errV2 = computeVis2Error(iPoint, iChannel, visAmp * visAmp, forAmplitude); // for phases, do not use photometric error
+        final double errV2 = computeVis2Error(param, iChannel, visAmp * visAmp, forAmplitude); // for phases, do not use photometric error
         if (errV2 >= MAX_ERR_V2) {
             return MAX_ERR_V;
         }
@@ -1832,6 +2058,32 @@ public final class NoiseService implements VisNoiseService {
         return errV2;
     }
 
+    /**
+     * Return true if the instrument is MATISSE (specific error on correlated fluxes)
+     * @return true if the instrument is MATISSE
+     */
+    private boolean isMatisse() {
+        return AsproConstants.MATCHER_MATISSE.match(instrumentName);
+    }
+
+    private boolean checkRow(final int iPoint, final double[] output) {
+        if (DO_CHECKS) {
+            // fast return NaN if invalid configuration :
+            if (this.invalidParameters) {
+                return true;
+            }
+            if (iPoint < 0 || iPoint >= nPoints) {
+                logger.warn("invalid point index {}, expect [0 to {}]", iPoint, nPoints);
+                return true;
+            }
+        }
+        if (output.length != nSpectralChannels) {
+            logger.warn("invalid row length {}, expect {}", output.length, nSpectralChannels);
+            return true;
+        }
+        return false;
+    }
+
     private boolean check(final int iPoint, final int iChannel) {
         if (DO_CHECKS) {
             // fast return NaN if invalid configuration :
@@ -1993,6 +2245,85 @@ public final class NoiseService implements VisNoiseService {
         return df.format(val) + unit;
     }
 
+    /**
+     * Prepared instrument parameters per spectral channel (bias and spectral table) shared by the instrument cache
+     * Note: arrays are copied in both directions as NoiseService modifies some of them
+     */
+    static final class InstrumentParams {
+
+        /** true to use instrument or calibration bias */
+        private final boolean useBias;
+        /** true to use random bias */
+        private final boolean useRandomCalBias;
+        /** flag to prepare instrumentalVisRelBias / instrumentalVis2RelBias using instrumentalPhotRelBias */
+        private final boolean prepareVisRelBias;
+        /** (W) arrays in NoiseService order (see copy) */
+        private final double[][] values;
+
+        /**
+         * Protected constructor
+         * @param ns prepared noise service
+         */
+        InstrumentParams(final NoiseService ns) {
+            this.useBias = ns.useBias;
+            this.useRandomCalBias = ns.useRandomCalBias;
+            this.prepareVisRelBias = ns.prepareVisRelBias;
+            this.values = copy(new double[][]{
+                ns.instrumentalPhotRelBias, ns.instrumentalVisRelBias, ns.instrumentalVisCalBias, ns.instrumentalVis2RelBias,
+                ns.instrumentalVisPhaseBias, ns.instrumentalVisPhaseCalBias, ns.instrumentalT3PhaseBias, ns.instrumentalT3PhaseCalBias,
+                ns.transmission, ns.instrumentalVisibility, ns.nbPhotThermal, ns.nbPixInterf, ns.nbPixPhoto
+            });
+        }
+
+        /**
+         * Restore these parameters into the given noise service
+         * @param ns noise service to update
+         */
+        void restore(final NoiseService ns) {
+            ns.useBias = this.useBias;
+            ns.useRandomCalBias = this.useRandomCalBias;
+            ns.prepareVisRelBias = this.prepareVisRelBias;
+
+            final double[][] v = copy(this.values);
+            ns.instrumentalPhotRelBias = v[0];
+            ns.instrumentalVisRelBias = v[1];
+            ns.instrumentalVisCalBias = v[2];
+            ns.instrumentalVis2RelBias = v[3];
+            ns.instrumentalVisPhaseBias = v[4];
+            ns.instrumentalVisPhaseCalBias = v[5];
+            ns.instrumentalT3PhaseBias = v[6];
+            ns.instrumentalT3PhaseCalBias = v[7];
+            ns.transmission = v[8];
+            ns.instrumentalVisibility = v[9];
+            ns.nbPhotThermal = v[10];
+            ns.nbPixInterf = v[11];
+            ns.nbPixPhoto = v[12];
+        }
+
+        /**
+         * @return number of values
+         */
+        long weight() {
+            long n = 0L;
+            for (double[] array : values) {
+                if (array != null) {
+                    n += array.length;
+                }
+            }
+            return n;
+        }
+
+        private static double[][] copy(final double[][] arrays) {
+            final double[][] copy = new double[arrays.length][];
+            for (int i = 0; i < arrays.length; i++) {
+                if (arrays[i] != null) {
+                    copy[i] = arrays[i].clone();
+                }
+            }
+            return copy;
+        }
+    }
+
     static class NoiseWParams {
 
         /* varying values (spectrally dependent) */
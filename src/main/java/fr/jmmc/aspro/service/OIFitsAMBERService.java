@@ -3,7 +3,6 @@
  ******************************************************************************/
 package fr.jmmc.aspro.service;
 
-import fr.jmmc.jmcs.util.StatUtils.ComplexDistribution;
 import static fr.jmmc.jmcs.util.StatUtils.N_SAMPLES;
 import fr.jmmc.jmal.complex.Complex;
 import fr.jmmc.jmal.complex.ImmutableComplex;
@@ -48,13 +47,13 @@ public final class OIFitsAMBERService {
      * @param visComplex complex visibility [row][waveLength]
      * @param visError complex visibility error [row][waveLength]
      * @param nbLVis
-     * @param visRndDist complex normal distribution to sample complex visibilities
+     * @param visRndDist complex normal distribution samples [row][re/im][sample] to sample complex visibilities
      */
     public static void amdlibFakeAmberDiffVis(final OIVis vis,
                                               final Complex[][] visComplex,
                                               final double[][] visError,
                                               final int nbLVis,
-                                              final ComplexDistribution[] visRndDist) {
+                                              final double[][][] visRndDist) {
 
         /*
          * Note on amdlib port :
@@ -98,8 +97,8 @@ public final class OIFitsAMBERService {
         for (iRow = 0; iRow < nRows; iRow++) {
 
             // Get the complex distribution for this row:
-            distRe = visRndDist[iRow].getSamples()[0];
-            distIm = visRndDist[iRow].getSamples()[1];
+            distRe = visRndDist[iRow][0];
+            distIm = visRndDist[iRow][1];
 
             for (lVis = 0; lVis < nbLVis; lVis++) {
                 // pure complex visibility data :
@@ -28,7 +28,6 @@ import fr.jmmc.aspro.model.uvcoverage.UVRangeBaseLineData;
 import static fr.jmmc.aspro.service.OIFitsAMBERService.amdlibAbacusErrPhi;
 import fr.jmmc.aspro.service.UserModelService.MathMode;
 import fr.jmmc.jmcs.util.StatUtils;
-import fr.jmmc.jmcs.util.StatUtils.ComplexDistribution;
 import static fr.jmmc.jmcs.util.StatUtils.N_SAMPLES;
 import static fr.jmmc.jmcs.util.StatUtils.SAMPLING_FACTOR_MEAN;
 import static fr.jmmc.jmcs.util.StatUtils.SAMPLING_FACTOR_VARIANCE;
@@ -38,10 +37,12 @@ import fr.jmmc.jmal.complex.MutableComplex;
 import fr.jmmc.jmcs.gui.task.InterruptableThread;
 import fr.jmmc.jmcs.util.NumberUtils;
 import fr.jmmc.jmcs.util.SpecialChars;
+import fr.jmmc.jmcs.util.concurrent.ParallelJobExecutor;
 import fr.jmmc.oitools.OIFitsConstants;
 import fr.jmmc.oitools.meta.OIFitsStandard;
 import fr.jmmc.oitools.model.DataModel;
 import fr.jmmc.oitools.model.OIArray;
+import fr.jmmc.oitools.model.OIData;
 import fr.jmmc.oitools.model.OIFitsChecker;
 import fr.jmmc.oitools.model.OIFitsFile;
 import fr.jmmc.oitools.model.OIT3;
@@ -52,6 +53,7 @@ import fr.jmmc.oitools.model.OIWavelength;
 import fr.jmmc.oitools.model.range.Range;
 import fr.jmmc.oitools.util.CombUtils;
 import fr.nom.tam.fits.FitsException;
+import java.io.File;
 import java.io.IOException;
 import static java.lang.Math.PI;
 import java.util.ArrayList;
@@ -81,6 +83,8 @@ public final class OIFitsCreatorService extends AbstractOIFitsProducer {
     private final static boolean FIX_LOW_SNR = true;
     /** ignore SNR check: enabled for debugging / ETC tests */
     private final static boolean IGNORE_SNR_THRESHOLD = false;
+    /** default number of data points (rows x spectral channels) per block in streaming export */
+    private final static int STREAM_BLOCK_SIZE = Integer.getInteger("OIFits.stream.blockSize", 1024 * 1024);
 
     /* reused observability data */
     /** beam list */
@@ -142,6 +146,14 @@ public final class OIFitsCreatorService extends AbstractOIFitsProducer {
     private Map<BaseLine, short[]> baseLineMapping = null;
     /** integration time (s) */
     private double integrationTime = 300d;
+    /** first observation point of the current block */
+    private int obsFrom = 0;
+    /** last observation point (excluded) of the current block */
+    private int obsEnd;
+    /** number of data points (rows x spectral channels) per block in streaming export */
+    private int streamBlockSize = STREAM_BLOCK_SIZE;
+    /** number of threads to compute the rows of OIFits tables (0 means parallel jobs if many data points) */
+    private int tableThreads = 0;
 
     /**
      * Protected constructor
@@ -183,6 +195,7 @@ public final class OIFitsCreatorService extends AbstractOIFitsProducer {
         this.targetPointInfos = targetPointInfos;
         this.targetUVObservability = targetUVObservability;
         this.sc = sc;
+        this.obsEnd = this.nObsPoints;
 
         if (observation.getInstrumentConfiguration().getAcquisitionTime() != null) {
             this.integrationTime = observation.getInstrumentConfiguration().getAcquisitionTime().doubleValue();
@@ -468,10 +481,130 @@ public final class OIFitsCreatorService extends AbstractOIFitsProducer {
      * Create the OIFits structure with OI_ARRAY, OI_TARGET, OI_WAVELENGTH, OI_VIS tables
      * @return OIFits structure
      */
-    public OIFitsFile createOIFits() throws IllegalArgumentException {
+    public synchronized OIFitsFile createOIFits() throws IllegalArgumentException {
+        if (!prepareModel()) {
+            return null;
+        }
+
+        // Start the computations :
+        final long start = System.nanoTime();
+
+        // OI_ARRAY, OI_TARGET, OI_WAVELENGTH :
+        this.createOITables();
+
+        // OI_VIS, OI_VIS2, OI_T3 for all observation points :
+        if (!this.computeOIData(0, this.nObsPoints)) {
+            return null;
+        }
+
+        logger.info("createOIFits: duration = {} ms.", 1e-6d * (System.nanoTime() - start));
+
+        if (DO_VALIDATE_OIFITS) {
+            final OIFitsChecker checker = new OIFitsChecker();
+            this.oiFitsFile.check(checker);
+
+            // validation results
+            if (logger.isInfoEnabled()) {
+                logger.info("createOIFits: validation results\n{}", checker.getCheckReport());
+            }
+        }
+
+        // fast interrupt :
+        if (Thread.currentThread().isInterrupted()) {
+            return null;
+        }
+
+        // Analyze the OIFits file to get its configuration:
+        this.oiFitsFile.analyze();
+
+        return this.oiFitsFile;
+    }
+
+    /**
+     * Compute the OIFits tables by blocks of observation points and write them into the given file (streaming export):
+     * only the data tables of the current block are kept in memory.
+     * Written values are identical to the createOIFits() ones (random noise is keyed by row).
+     * Intended to headless / command-line generation where the complete OIFits structure is never built:
+     * the GUI writes its computed OIFits structure instead (OIFitsWriter).
+     * @param fileName file name
+     * @return true if the file was written; false if the user model is invalid or the computation was interrupted
+     * @throws FitsException if a fits error occurred
+     * @throws IOException if an I/O error occurred
+     */
+    public synchronized boolean writeOIFits(final String fileName) throws IllegalArgumentException, FitsException, IOException {
+        if (!prepareModel()) {
+            return false;
+        }
+
+        // Start the computations :
+        final long start = System.nanoTime();
+
+        boolean done = false;
+
+        final OIFitsStreamWriter writer = new OIFitsStreamWriter(fileName, this.nObsPoints);
+        try {
+            // OI_ARRAY, OI_TARGET, OI_WAVELENGTH :
+            this.createOITables();
+
+            final int blockPoints = getStreamBlockPoints();
+
+            for (int from = 0, end; from < this.nObsPoints; from = end) {
+                end = Math.min(from + blockPoints, this.nObsPoints);
+
+                // OI_VIS, OI_VIS2, OI_T3 for the observation points of this block :
+                if (!this.computeOIData(from, end)) {
+                    return false;
+                }
+
+                writer.write(this.oiFitsFile, end - from);
+
+                // release data tables of this block:
+                for (OIData oiData : new ArrayList<OIData>(this.oiFitsFile.getOiDataList())) {
+                    this.oiFitsFile.removeOiTable(oiData);
+                }
+            }
+            writer.finish();
+            done = true;
+
+            logger.info("writeOIFits: duration = {} ms.", 1e-6d * (System.nanoTime() - start));
+        } finally {
+            writer.close();
+
+            // release the OIFits structure:
+            this.oiFitsFile = null;
+
+            if (!done) {
+                // remove incomplete file:
+                new File(fileName).delete();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Define the number of data points (rows x spectral channels) per block in streaming export
+     * @param streamBlockSize number of data points per block
+     */
+    public void setStreamBlockSize(final int streamBlockSize) {
+        this.streamBlockSize = streamBlockSize;
+    }
+
+    /**
+     * Return the number of observation points per block in streaming export
+     * @return number of observation points per block
+     */
+    private int getStreamBlockPoints() {
+        return Math.max(1, this.streamBlockSize / Math.max(1, this.nBaseLines * this.waveLengths.length));
+    }
+
+    /**
+     * Check the user model and prepare it if needed
+     * @return true if the OIFits tables can be computed; false otherwise
+     */
+    private boolean prepareModel() throws IllegalArgumentException {
         if (!this.isModelWLValid) {
             // invalid user model against instrumental spectral configuration:
-            return null;
+            return false;
         }
         if (cUserModel != null) {
             // defered user model preparation for proper apodization according to current observation (telescope):
@@ -479,13 +612,16 @@ public final class OIFitsCreatorService extends AbstractOIFitsProducer {
 
             // fast interrupt :
             if (Thread.currentThread().isInterrupted()) {
-                return null;
+                return false;
             }
         }
+        return true;
+    }
 
-        // Start the computations :
-        final long start = System.nanoTime();
-
+    /**
+     * Create a new OIFits structure with OI_ARRAY, OI_TARGET, OI_WAVELENGTH tables
+     */
+    private void createOITables() {
         // create a new EMPTY OIFits structure :
         this.oiFitsFile = new OIFitsFile(OIFitsStandard.VERSION_1);
 
@@ -504,74 +640,68 @@ public final class OIFitsCreatorService extends AbstractOIFitsProducer {
 
         // OI_WAVELENGTH :
         this.createOIWaveLength();
+    }
 
-        // Compute complex visibilities:
-        if (!this.computeModelVisibilities()) {
-            // unable to compute complex visiblities so abort:
-            return null;
-        }
-
-        // fast interrupt :
-        if (Thread.currentThread().isInterrupted()) {
-            return null;
-        }
-
-        // OI_VIS :
-        this.createOIVis();
-
-        // fast interrupt :
-        if (Thread.currentThread().isInterrupted()) {
-            return null;
-        }
-
-        // OI_VIS2 :
-        this.createOIVis2();
+    /**
+     * Compute the OI_VIS, OI_VIS2 and OI_T3 tables for the given observation points
+     * @param from first observation point
+     * @param end last observation point (excluded)
+     * @return true if tables are computed; false if complex visibilities can not be computed or the computation was interrupted
+     */
+    private boolean computeOIData(final int from, final int end) {
+        this.obsFrom = from;
+        this.obsEnd = end;
+        try {
+            // Compute complex visibilities:
+            if (!this.computeModelVisibilities()) {
+                // unable to compute complex visiblities so abort:
+                return false;
+            }
 
-        // fast interrupt :
-        if (Thread.currentThread().isInterrupted()) {
-            return null;
-        }
+            // fast interrupt :
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
 
-        // OI_T3 :
-        this.createOIT3();
+            // OI_VIS :
+            this.createOIVis();
 
-        // fast interrupt :
-        if (Thread.currentThread().isInterrupted()) {
-            return null;
-        }
+            // fast interrupt :
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
 
-        // free computed complex visibilities :
-        this.visComplex = null;
+            // OI_VIS2 :
+            this.createOIVis2();
 
-        // remove the OI_VIS table for instruments that do not produce such results (PIONIER):
-        if (this.instrumentName.startsWith(AsproConstants.INS_PIONIER)) {
-            // Remove OI_VIS table if instrument is PIONIER:
-            final OIVis vis = this.oiFitsFile.getOiVis()[0];
+            // fast interrupt :
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
 
-            this.oiFitsFile.removeOiTable(vis);
-        }
+            // OI_T3 :
+            this.createOIT3();
 
-        logger.info("createOIFits: duration = {} ms.", 1e-6d * (System.nanoTime() - start));
+            // fast interrupt :
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
 
-        if (DO_VALIDATE_OIFITS) {
-            final OIFitsChecker checker = new OIFitsChecker();
-            this.oiFitsFile.check(checker);
+            // remove the OI_VIS table for instruments that do not produce such results (PIONIER):
+            if (this.instrumentName.startsWith(AsproConstants.INS_PIONIER)) {
+                // Remove OI_VIS table if instrument is PIONIER:
+                final OIVis vis = this.oiFitsFile.getOiVis()[0];
 
-            // validation results
-            if (logger.isInfoEnabled()) {
-                logger.info("createOIFits: validation results\n{}", checker.getCheckReport());
+                this.oiFitsFile.removeOiTable(vis);
             }
-        }
+        } finally {
+            // free computed complex visibilities :
+            this.visComplex = null;
 
-        // fast interrupt :
-        if (Thread.currentThread().isInterrupted()) {
-            return null;
+            this.obsFrom = 0;
+            this.obsEnd = this.nObsPoints;
         }
-
-        // Analyze the OIFits file to get its configuration:
-        this.oiFitsFile.analyze();
-
-        return this.oiFitsFile;
+        return true;
     }
 
     /**
@@ -704,7 +834,9 @@ public final class OIFitsCreatorService extends AbstractOIFitsProducer {
         final int nWLen = sampleWaveLengths.length;
 
         final int nBl = nBaseLines;
-        final int nObs = nObsPoints;
+        // observation points of the current block:
+        final int obsFrom = this.obsFrom;
+        final int nObs = this.obsEnd - obsFrom;
 
         final int nRows = nObs * nBl;
 
@@ -733,15 +865,15 @@ public final class OIFitsCreatorService extends AbstractOIFitsProducer {
             for (i = 0; i < nObs; i++) {
                 k = nBl * i + j;
                 // define point index:
-                ptIdx[k] = i;
+                ptIdx[k] = obsFrom + i;
 
                 // u/v freqs ...
                 final double[] uRow = ufreq[k];
                 final double[] vRow = vfreq[k];
 
                 // UV coords (m) :
-                final double u = uvBL.getU()[i];
-                final double v = uvBL.getV()[i];
+                final double u = uvBL.getU()[obsFrom + i];
+                final double v = uvBL.getV()[obsFrom + i];
 
                 // prepare spatial frequencies :
                 for (l = 0; l < nWLen; l++) {
@@ -771,8 +903,13 @@ public final class OIFitsCreatorService extends AbstractOIFitsProducer {
         // Update the data model before calling new OIVis():
         DataModel.setOiVisComplexSupport(useVisData);
 
+        // observation points of the current block:
+        final int obsFrom = this.obsFrom;
+        final int obsEnd = this.obsEnd;
+        final int nObs = obsEnd - obsFrom;
+
         // Create OI_VIS table :
-        final OIVis vis = new OIVis(this.oiFitsFile, this.insNameKeyword, this.nObsPoints * this.nBaseLines);
+        final OIVis vis = new OIVis(this.oiFitsFile, this.insNameKeyword, nObs * this.nBaseLines);
         vis.setArrName(this.arrNameKeyword);
 
         // OIFITS 2 keywords indicating the Absolute or Differential Visibility:
@@ -786,14 +923,20 @@ public final class OIFitsCreatorService extends AbstractOIFitsProducer {
         // Get target information for each UV point:
         final TargetPointInfo[] obsPointInfos = this.targetPointInfos;
 
-        final Calendar calObs;
+        // Precompute the time column (UTC) per observation point:
+        final double[] obsTimes = new double[nObs];
+
         // TODO: fix synchronization issue on AstroSkyCalc:
         synchronized (this.sc) {
-            // Compute UTC start date of the first point :
-            calObs = this.sc.toCalendar(obsPointInfos[0].getJd(), false);
+            // Compute UTC start date of the first point (all blocks) :
+            final Calendar calObs = this.sc.toCalendar(obsPointInfos[0].getJd(), false);
 
             final String dateObs = calendarToString(calObs);
             vis.setDateObs(dateObs);
+
+            for (int i = 0; i < nObs; i++) {
+                obsTimes[i] = calendarToTime(this.sc.toCalendar(obsPointInfos[obsFrom + i].getJd(), false), calObs);
+            }
         }
 
         // Columns :
@@ -832,594 +975,644 @@ public final class OIFitsCreatorService extends AbstractOIFitsProducer {
             logger.info("createOIVis: VisAmp/Phi errors computed using {} random complex visiblities", N_SAMPLES);
         }
 
-        // vars:
-        double jd, time, mjd;
-        double u, v;
-        double visRe, visIm, flux, visErrCplx;
-        double vamp, vphi, vampTh, vphiTh, errAmp, errPhi;
+        final double normFactorWL = 1.0 / (nWaveLengths - 1);
 
-        // distribution samples:
-        double[] distRe = null, distIm = null;
+        // random seeds per row (noise):
+        final long[] rowSeeds = getRowRandomSeeds(STREAM_OI_VIS, obsFrom * this.nBaseLines, nObs * this.nBaseLines);
 
-        // try resampling:
-        double re, im, sample, diff;
-        double vamp_sum_diff, vamp_sum_diff_square;
-        double re_sum, re_sum_err, im_sum, im_sum_err, cos_phi, sin_phi;
-        double s_vamp_mean, s_vamp_err;
-        double vphi_sum_diff, vphi_sum_diff_square;
-        double s_vphi_mean, s_vphi_err;
-        double y, t;
+        // enable parallel jobs if many data points:
+        final int nTh = getTableThreadCount(nObs * this.nBaseLines * nWaveLengths);
 
-        final double[] re_samples = new double[N_SAMPLES];
-        final double[] im_samples = new double[N_SAMPLES];
-        final double[] vamp_samples = new double[N_SAMPLES];
-        final double[] vphi_samples = new double[N_SAMPLES];
-        int[] visRndIdxRow = null;
-        boolean doFlag;
+        // Prepare thread context variables:
+        final SamplingContext[] contexts = createSamplingContexts(nTh);
 
-        final double normFactorWL = 1.0 / (nWaveLengths - 1);
+        // computation tasks = 1 job per block of observation points (work stealing):
+        final int nJobs = (nTh > 1) ? Math.min(nObs, 4 * nTh) : 1;
+        final int stepObs = nObs / nJobs;
 
-        // Use mutable complex carefully:
-        final MutableComplex cpxVisSum = new MutableComplex();
-        final MutableComplex cpxVisRef = new MutableComplex();
-        final MutableComplex cpxVisDiff = new MutableComplex();
+        final Runnable[] jobs = new Runnable[nJobs];
 
-        int chi2_nb = 0;
-        double chi2_amp_sum = 0.0;
-        double chi2_phi_sum = 0.0;
+        for (int b = 0; b < nJobs; b++) {
+            // observation points to be processed by this task:
+            final int fromObs = obsFrom + b * stepObs;
+            final int endObs = (b == nJobs - 1) ? obsEnd : fromObs + stepObs;
 
-        // Iterate on observable UV points :
-        for (int i = 0, j, k, l, n; i < nObsPoints; i++) {
+            jobs[b] = new Runnable() {
+                /**
+                 * Called by the ParallelJobExecutor to perform task computation
+                 */
+                @Override
+                public void run() {
+                    final SamplingContext ctx = contexts[ParallelJobExecutor.currentThreadIndex(nTh)];
+                    final Thread thread = Thread.currentThread();
 
-            // jd at the observed uv point:
-            jd = obsPointInfos[i].getJd();
+                    // vars:
+                    double time, mjd;
+                    double u, v;
+                    double visRe, visIm, flux, visErrCplx;
+                    double vamp, vphi, vampTh, vphiTh, errAmp, errPhi;
 
-            // TODO: fix synchronization issue on AstroSkyCalc:
-            synchronized (this.sc) {
-                // UTC :
-                time = calendarToTime(sc.toCalendar(jd, false), calObs);
-            }
+                    // distribution samples:
+                    double[] distRe = null, distIm = null;
 
-            // modified julian day :
-            mjd = AstroSkyCalc.mjd(jd);
+                    // try resampling:
+                    double re, im, sample, diff;
+                    double vamp_sum_diff, vamp_sum_diff_square;
+                    double re_sum, re_sum_err, im_sum, im_sum_err, cos_phi, sin_phi;
+                    double s_vamp_mean, s_vamp_err;
+                    double vphi_sum_diff, vphi_sum_diff_square;
+                    double s_vphi_mean, s_vphi_err;
+                    double y, t;
 
-            j = 0;
+                    final double[] re_samples = ctx.re_samples;
+                    final double[] im_samples = ctx.im_samples;
+                    final double[] vamp_samples = ctx.amp_samples;
+                    final double[] vphi_samples = ctx.phi_samples;
+                    int[] visRndIdxRow = null;
+                    boolean doFlag;
 
-            // Iterate on baselines :
-            for (final UVRangeBaseLineData uvBL : targetUVObservability) {
-                k = nBaseLines * i + j;
+                    // Use mutable complex carefully:
+                    final MutableComplex cpxVisSum = ctx.cpxVisSum;
+                    final MutableComplex cpxVisRef = ctx.cpxVisRef;
+                    final MutableComplex cpxVisDiff = ctx.cpxVisDiff;
 
-                // target id
-                targetIds[k] = TARGET_ID;
+                    int chi2_nb = 0;
+                    double chi2_amp_sum = 0.0;
+                    double chi2_phi_sum = 0.0;
 
-                // UTC :
-                times[k] = time;
+                    // Iterate on observable UV points :
+                    for (int i = fromObs, j, k, l, n; i < endObs; i++) {
 
-                // modified julian day :
-                mjds[k] = mjd;
+                        // UTC :
+                        time = obsTimes[i - obsFrom];
 
-                // integration time (s) :
-                intTimes[k] = integrationTime;
+                        // modified julian day :
+                        mjd = AstroSkyCalc.mjd(obsPointInfos[i].getJd());
 
-                // UV coords (m) :
-                u = uvBL.getU()[i];
-                v = uvBL.getV()[i];
+                        j = 0;
 
-                uCoords[k] = u;
-                vCoords[k] = v;
+                        // Iterate on baselines :
+                        for (final UVRangeBaseLineData uvBL : targetUVObservability) {
+                            k = nBaseLines * (i - obsFrom) + j;
 
-                // if target has a model, then complex visibility are computed :
-                if (!hasModel) {
-                    // Invalid => NaN value :
+                            // target id
+                            targetIds[k] = TARGET_ID;
 
-                    // Iterate on wave lengths :
-                    for (l = 0; l < nWaveLengths; l++) {
-                        if (useVisData) {
-                            visData[k][l][0] = Float.NaN;
-                            visData[k][l][1] = Float.NaN;
+                            // UTC :
+                            times[k] = time;
 
-                            visErr[k][l][0] = Float.NaN;
-                            visErr[k][l][1] = Float.NaN;
-                        }
+                            // modified julian day :
+                            mjds[k] = mjd;
 
-                        visAmp[k][l] = Double.NaN;
-                        visAmpErr[k][l] = Double.NaN;
+                            // integration time (s) :
+                            intTimes[k] = integrationTime;
 
-                        visPhi[k][l] = Double.NaN;
-                        visPhiErr[k][l] = Double.NaN;
+                            // UV coords (m) :
+                            u = uvBL.getU()[i];
+                            v = uvBL.getV()[i];
 
-                        // mark this value as invalid :
-                        flags[k][l] = true;
-                    }
+                            uCoords[k] = u;
+                            vCoords[k] = v;
 
-                } else {
-                    if (ns != null) {
-                        // Get the complex distribution for this row:
-                        distRe = visRndDist[k].getSamples()[0];
-                        distIm = visRndDist[k].getSamples()[1];
+                            // if target has a model, then complex visibility are computed :
+                            if (!hasModel) {
+                                // Invalid => NaN value :
+
+                                // Iterate on wave lengths :
+                                for (l = 0; l < nWaveLengths; l++) {
+                                    if (useVisData) {
+                                        visData[k][l][0] = Float.NaN;
+                                        visData[k][l][1] = Float.NaN;
+
+                                        visErr[k][l][0] = Float.NaN;
+                                        visErr[k][l][1] = Float.NaN;
+                                    }
 
-                        // Get proper index:
-                        visRndIdxRow = this.visRndIdx[k];
-                    }
+                                    visAmp[k][l] = Double.NaN;
+                                    visAmpErr[k][l] = Double.NaN;
 
-                    if (!isAmber && doVisDiff) {
-                        // Compute Vref (complex) as mean(V) along wavelength axis:
+                                    visPhi[k][l] = Double.NaN;
+                                    visPhiErr[k][l] = Double.NaN;
 
-                        // reset:
-                        cpxVisSum.updateComplex(0d, 0d);
+                                    // mark this value as invalid :
+                                    flags[k][l] = true;
+                                }
 
-                        // Iterate on wave lengths :
-                        for (l = 0; l < nWaveLengths; l++) {
-                            /* sum all R and I */
-                            cpxVisSum.add(visComplex[k][l]); // sum of all pure complex visibilities
-                        }
-                        // note: normalization is done below ie substract mean(cpxVis)
-                    }
+                            } else {
+                                if (rowSeeds != null) {
+                                    // use the random sequence of this row:
+                                    ctx.random.setSeed(rowSeeds[k]);
+                                }
+                                if (ns != null) {
+                                    // Get the complex distribution for this row:
+                                    distRe = visRndDist[k][0];
+                                    distIm = visRndDist[k][1];
 
-                    // Iterate on wave lengths :
-                    for (l = 0; l < nWaveLengths; l++) {
-                        doFlag = visAmpSNRFlag[k][l] && visPhiSNRFlag[k][l];
+                                    // Get proper index:
+                                    visRndIdxRow = visRndIdx[k];
+                                }
 
-                        // Compute correlated fluxes (visData / visErr):
-                        if (useVisData) {
-                            if (ns == null) {
-                                visData[k][l][0] = Float.NaN;
-                                visData[k][l][1] = Float.NaN;
+                                if (!isAmber && doVisDiff) {
+                                    // Compute Vref (complex) as mean(V) along wavelength axis:
 
-                                visErr[k][l][0] = Float.NaN;
-                                visErr[k][l][1] = Float.NaN;
-                            } else {
-                                // pure complex visibility data :
-                                visRe = this.visComplex[k][l].getReal();
-                                visIm = this.visComplex[k][l].getImaginary();
-
-                                // TODO: may use an asymetric distribution (visAmpError, visPhiError) rotated by phi
-                                // complex visibility error for phases : visErrRe = visErrIm = visAmpErr or Complex.NaN :
-                                visErrCplx = visPhiError[k][l];
-
-                                if (doNoise) {
-                                    final int nSample = visRndIdxRow[l];
-                                    // Use the corresponding sample:
-                                    visRe += (visErrCplx * distRe[nSample]);
-                                    visIm += (visErrCplx * distIm[nSample]);
+                                    // reset:
+                                    cpxVisSum.updateComplex(0d, 0d);
+
+                                    // Iterate on wave lengths :
+                                    for (l = 0; l < nWaveLengths; l++) {
+                                        /* sum all R and I */
+                                        cpxVisSum.add(visComplex[k][l]); // sum of all pure complex visibilities
+                                    }
+                                    // note: normalization is done below ie substract mean(cpxVis)
                                 }
 
-                                // pure correlated fluxes or NaN:
-                                flux = ns.getCorrelatedFluxWeight(i, l);
-                                visRe *= flux;
-                                visIm *= flux;
+                                // Iterate on wave lengths :
+                                for (l = 0; l < nWaveLengths; l++) {
+                                    doFlag = visAmpSNRFlag[k][l] && visPhiSNRFlag[k][l];
+
+                                    // Compute correlated fluxes (visData / visErr):
+                                    if (useVisData) {
+                                        if (ns == null) {
+                                            visData[k][l][0] = Float.NaN;
+                                            visData[k][l][1] = Float.NaN;
+
+                                            visErr[k][l][0] = Float.NaN;
+                                            visErr[k][l][1] = Float.NaN;
+                                        } else {
+                                            // pure complex visibility data :
+                                            visRe = visComplex[k][l].getReal();
+                                            visIm = visComplex[k][l].getImaginary();
+
+                                            // TODO: may use an asymetric distribution (visAmpError, visPhiError) rotated by phi
+                                            // complex visibility error for phases : visErrRe = visErrIm = visAmpErr or Complex.NaN :
+                                            visErrCplx = visPhiError[k][l];
+
+                                            if (doNoise) {
+                                                final int nSample = visRndIdxRow[l];
+                                                // Use the corresponding sample:
+                                                visRe += (visErrCplx * distRe[nSample]);
+                                                visIm += (visErrCplx * distIm[nSample]);
+                                            }
 
-                                // error on correlated fluxes :
-                                visErrCplx *= flux;
+                                            // pure correlated fluxes or NaN:
+                                            flux = ns.getCorrelatedFluxWeight(i, l);
+                                            visRe *= flux;
+                                            visIm *= flux;
+
+                                            // error on correlated fluxes :
+                                            visErrCplx *= flux;
+
+                                            if (useBias) {
+                                                final double biasCVis = flux * ns.getVisPhiBias(l); // instrumental bias
+                                                if (biasCVis > 0.0) {
+                                                    visErrCplx = computeCumulativeError(visErrCplx, biasCVis);
+
+                                                    // add this bias on random samples (normal distribution):
+                                                    if (doNoise) {
+                                                        final int nSample = ctx.nextRandomSampleIndex();
+                                                        // update nth sample (mimic normal law) but independent random :
+                                                        // just add gaussian noise (variance addition):
+                                                        visRe += biasCVis * distRe[nSample];
+                                                        visIm += biasCVis * distIm[nSample];
+                                                    }
+                                                }
+                                            }
 
-                                if (useBias) {
-                                    final double biasCVis = flux * ns.getVisPhiBias(l); // instrumental bias
-                                    if (biasCVis > 0.0) {
-                                        visErrCplx = computeCumulativeError(visErrCplx, biasCVis);
+                                            // store pure (0..1) or noisy correlated fluxes (NaN if no flux):
+                                            visData[k][l][0] = (float) visRe;
+                                            visData[k][l][1] = (float) visIm;
 
-                                        // add this bias on random samples (normal distribution):
-                                        if (this.doNoise) {
-                                            final int nSample = getNextRandomSampleIndex();
-                                            // update nth sample (mimic normal law) but independent random :
-                                            // just add gaussian noise (variance addition):
-                                            visRe += biasCVis * distRe[nSample];
-                                            visIm += biasCVis * distIm[nSample];
+                                            visErr[k][l][0] = (float) visErrCplx;
+                                            visErr[k][l][1] = (float) visErrCplx;
                                         }
                                     }
+
+                                    if (!isAmber) {
+                                        if (!instrumentVis) {
+                                            // Waiting for explanations on every instrument processing to compute VisAmp/Phi:
+                                            // following values are considered as invalid :
+                                            visAmp[k][l] = Double.NaN;
+                                            visAmpErr[k][l] = Double.NaN;
+
+                                            visPhi[k][l] = Double.NaN;
+                                            visPhiErr[k][l] = Double.NaN;
+                                        } else {
+                                            if (ns == null) {
+                                                // Pure theoretical visibilities:
+
+                                                if (doVisDiff) {
+                                                    re = visComplex[k][l].getReal();
+                                                    im = visComplex[k][l].getImaginary();
+
+                                                    /* then construct Cref by substracting current R and I
+                                                     * at that Wlen and make the arithmetic mean */
+                                                    cpxVisRef.updateComplex(
+                                                            normFactorWL * (cpxVisSum.getReal() - re),
+                                                            normFactorWL * (cpxVisSum.getImaginary() - im)
+                                                    );
+                                                    // VisDiff = CNop / CRef
+                                                    cpxVisDiff.set(re, im).divide(cpxVisRef);
+
+                                                    vamp = (doVisAmpDiff) ? cpxVisDiff.abs() : visComplex[k][l].abs();
+                                                    vphi = (doVisPhiDiff) ? cpxVisDiff.getArgument() : visComplex[k][l].getArgument();
+                                                } else {
+                                                    vamp = visComplex[k][l].abs();
+                                                    vphi = visComplex[k][l].getArgument();
+                                                }
+
+                                                vampTh = vamp;
+                                                vphiTh = vphi;
+                                                errAmp = errPhi = Double.NaN;
+                                            } else {
+                                                // pure complex visibility data :
+                                                visRe = visComplex[k][l].getReal();
+                                                visIm = visComplex[k][l].getImaginary();
+
+                                                if (doVisDiff) {
+                                                    re = visRe;
+                                                    im = visIm;
+
+                                                    /* then construct Cref by substracting current R and I
+                                                     * at that Wlen and make the arithmetic mean */
+                                                    cpxVisRef.updateComplex(
+                                                            normFactorWL * (cpxVisSum.getReal() - re),
+                                                            normFactorWL * (cpxVisSum.getImaginary() - im)
+                                                    );
+                                                    // VisDiff = CNop / CRef
+                                                    cpxVisDiff.set(re, im).divide(cpxVisRef);
+
+                                                    vamp = (doVisAmpDiff) ? cpxVisDiff.abs() : visComplex[k][l].abs();
+                                                    vphi = (doVisPhiDiff) ? cpxVisDiff.getArgument() : visComplex[k][l].getArgument();
+                                                } else {
+                                                    // pure visibility amplitude:
+                                                    vamp = Math.sqrt(visRe * visRe + visIm * visIm);
+                                                    // pure visibility phase:
+                                                    vphi = toAngle(visRe, visIm);
+                                                }
+
+                                                // Define theoretical values:
+                                                vampTh = vamp;
+                                                vphiTh = vphi;
+
+                                                // Sampling complex visibilities:
+                                                // VISAMP/VISPHI do not correspond to the same quantity (absolute or differential)
+                                                // note: anyway each observable use a different complex visibility error (amp or phi):
+                                                // 1. VISAMP:
+                                                {
+                                                    // complex visibility error for amplitudes : visErrRe = visErrIm = visAmpErr or Complex.NaN :
+                                                    visErrCplx = visAmpError[k][l];
+
+                                                    re_sum = re_sum_err = im_sum = im_sum_err = 0.0;
+
+                                                    // 1. compute average(complex visibility):
+                                                    // bivariate distribution (complex normal):
+                                                    for (n = 0; n < N_SAMPLES; n++) {
+                                                        // update nth sample:
+                                                        re = visRe + (visErrCplx * distRe[n]);
+                                                        im = visIm + (visErrCplx * distIm[n]);
+
+                                                        if (doVisAmpDiff) {
+                                                            /* then construct Cref by substracting current R and I
+                                                             * at that Wlen and make the arithmetic mean */
+                                                            cpxVisRef.updateComplex(
+                                                                    normFactorWL * (cpxVisSum.getReal() - re),
+                                                                    normFactorWL * (cpxVisSum.getImaginary() - im)
+                                                            );
+                                                            // VisDiff = CNop / CRef
+                                                            cpxVisDiff.set(re, im).divide(cpxVisRef);
+
+                                                            re = cpxVisDiff.getReal();
+                                                            im = cpxVisDiff.getImaginary();
+                                                        }
+                                                        // average complex value:
+                                                        re_samples[n] = re;
+                                                        im_samples[n] = im;
+
+                                                        // kahan sum
+                                                        // re_sum += cRe;
+                                                        y = re - re_sum_err;
+                                                        t = re_sum + y;
+                                                        re_sum_err = (t - re_sum) - y;
+                                                        re_sum = t;
+
+                                                        // im_sum += cIm;
+                                                        y = im - im_sum_err;
+                                                        t = im_sum + y;
+                                                        im_sum_err = (t - im_sum) - y;
+                                                        im_sum = t;
+                                                    }
+
+                                                    // mean(vis):
+                                                    s_vamp_mean = Math.sqrt(re_sum * re_sum + im_sum * im_sum);
+
+                                                    // rotate by -phi:
+                                                    cos_phi = re_sum / s_vamp_mean;
+                                                    sin_phi = im_sum / s_vamp_mean;
+
+                                                    // mean(vamp):
+                                                    s_vamp_mean = SAMPLING_FACTOR_MEAN * s_vamp_mean;
+
+                                                    vamp_sum_diff = vamp_sum_diff_square = 0.0;
+
+                                                    // 2. compute angle variance and amplitude:
+                                                    for (n = 0; n < N_SAMPLES; n++) {
+                                                        // Correct amplitude by estimated phase:
+                                                        // Amp = Re { C * phasor(-phi) }
+                                                        sample = re_samples[n] * cos_phi + im_samples[n] * sin_phi; // -phi => + imaginary part in complex mult
+                                                        vamp_samples[n] = sample;
+
+                                                        // Compensated-summation variant for better numeric precision:
+                                                        diff = sample - s_vamp_mean;
+                                                        vamp_sum_diff += diff;
+                                                        vamp_sum_diff_square += diff * diff;
+                                                    }
+
+                                                    // error(vamp):
+                                                    // note: this algorithm ensures correctness (stable) even if the mean used in diff is wrong !
+                                                    s_vamp_err = Math.sqrt(
+                                                            SAMPLING_FACTOR_VARIANCE * (vamp_sum_diff_square - (SAMPLING_FACTOR_MEAN * (vamp_sum_diff * vamp_sum_diff)))
+                                                    );
+                                                }
+
+                                                // 2. VISPHI:
+                                                {
+                                                    // complex visibility error for phases : visErrRe = visErrIm = visAmpErr or Complex.NaN :
+                                                    visErrCplx = visPhiError[k][l];
+
+                                                    re_sum = re_sum_err = im_sum = im_sum_err = 0.0;
+
+                                                    // 1. compute average(complex visibility):
+                                                    // bivariate distribution (complex normal):
+                                                    for (n = 0; n < N_SAMPLES; n++) {
+                                                        // update nth sample:
+                                                        re = visRe + (visErrCplx * distRe[n]);
+                                                        im = visIm + (visErrCplx * distIm[n]);
+
+                                                        if (doVisPhiDiff) {
+                                                            /* then construct Cref by substracting current R and I
+                                                             * at that Wlen and make the arithmetic mean */
+                                                            cpxVisRef.updateComplex(
+                                                                    normFactorWL * (cpxVisSum.getReal() - re),
+                                                                    normFactorWL * (cpxVisSum.getImaginary() - im)
+                                                            );
+                                                            // VisDiff = CNop / CRef
+                                                            cpxVisDiff.set(re, im).divide(cpxVisRef);
+
+                                                            re = cpxVisDiff.getReal();
+                                                            im = cpxVisDiff.getImaginary();
+                                                        }
+                                                        // average complex value:
+                                                        re_samples[n] = re;
+                                                        im_samples[n] = im;
+
+                                                        // kahan sum
+                                                        // re_sum += cRe;
+                                                        y = re - re_sum_err;
+                                                        t = re_sum + y;
+                                                        re_sum_err = (t - re_sum) - y;
+                                                        re_sum = t;
+
+                                                        // im_sum += cIm;
+                                                        y = im - im_sum_err;
+                                                        t = im_sum + y;
+                                                        im_sum_err = (t - im_sum) - y;
+                                                        im_sum = t;
+
+                                                        // phase in [-PI; PI]:
+                                                        sample = toAngle(re, im);
+                                                        vphi_samples[n] = sample;
+                                                    }
+
+                                                    // mean(vis):
+                                                    s_vphi_mean = toAngle(re_sum, im_sum);
+
+                                                    vphi_sum_diff = vphi_sum_diff_square = 0.0;
+
+                                                    // 2. compute angle variance and amplitude:
+                                                    for (n = 0; n < N_SAMPLES; n++) {
+                                                        // phase in [-PI; PI]:
+                                                        // Compensated-summation variant for better numeric precision:
+                                                        // check if diff is [-PI; PI]:
+                                                        diff = distanceAngle(vphi_samples[n], s_vphi_mean);
+                                                        vphi_sum_diff += diff;
+                                                        vphi_sum_diff_square += diff * diff;
+                                                    }
+
+                                                    // error(vphi):
+                                                    // note: this algorithm ensures correctness (stable) even if the mean used in diff is wrong !
+                                                    s_vphi_err = Math.sqrt(
+                                                            SAMPLING_FACTOR_VARIANCE * (vphi_sum_diff_square - (SAMPLING_FACTOR_MEAN * (vphi_sum_diff * vphi_sum_diff)))
+                                                    );
+                                                }
+
+                                                /* Complex visibility is a Normal distribution, 
+                                                 * no test needed on normality ? because vis diff ? */
+                                                if (DEBUG) {
+                                                    logger.info("Sampling[" + N_SAMPLES + "] snr=" + (s_vamp_mean / s_vamp_err) + " AMP "
+                                                            + " avg= " + s_vamp_mean + " vamp= " + vamp + " ratio: " + (s_vamp_mean / vamp)
+                                                            + " stddev= " + s_vamp_err + " errAmp= " + visAmpError[k][l] + " ratio: " + (s_vamp_err / visAmpError[k][l])
+                                                    );
+                                                    logger.info("Sampling[" + N_SAMPLES + "] snr=" + ((PI + s_vphi_mean) / s_vphi_err) + " PHI "
+                                                            + " avg= " + s_vphi_mean + " vphi= " + vphi + " ratio: " + ((PI + s_vphi_mean) / (PI + vphi))
+                                                            + " stddev= " + s_vphi_err + " errPhi = " + (visPhiError[k][l] / vamp) + " ratio: " + (s_vphi_err / (visPhiError[k][l] / vamp))
+                                                    );
+                                                }
+
+                                                /* Err on Phi must be corrected with an abacus */
+                                                s_vphi_err = amdlibAbacusErrPhi(s_vphi_err);
+
+                                                if (doNoise) {
+                                                    // Use the corresponding sample among vis, vis2, t3 on any baselines !
+                                                    final int nSample = visRndIdxRow[l];
+                                                    vamp = vamp_samples[nSample];
+                                                    vphi = vphi_samples[nSample];
+
+                                                    if (DEBUG) {
+                                                        // chi2 = sum ( (x - x_th) / err ) ^2
+                                                        chi2_nb++;
+                                                        diff = (vamp - vampTh) / s_vamp_err;
+                                                        chi2_amp_sum += diff * diff;
+
+                                                        diff = distanceAngle(vphi, vphiTh) / s_vphi_err;
+                                                        chi2_phi_sum += diff * diff;
+                                                    }
+                                                } else if (DO_USE_SAMPLED_MEAN) {
+                                                    vamp = s_vamp_mean;
+                                                    vphi = s_vphi_mean;
+                                                }
+                                                errAmp = s_vamp_err;
+                                                errPhi = s_vphi_err;
+
+                                                if (useBias) {
+                                                    double biasAmp = ns.getVisAmpBias(l, vampTh); // instrumental bias
+                                                    if (biasAmp > 0.0) {
+                                                        errAmp = computeCumulativeError(errAmp, biasAmp);
+
+                                                        // add this bias on random samples (normal distribution):
+                                                        if (doNoise) {
+                                                            // update nth sample (mimic normal law) but independent random :
+                                                            // just add gaussian noise (variance addition):
+                                                            vamp += biasAmp * distRe[ctx.nextRandomSampleIndex()];
+                                                        }
+                                                    }
+                                                    biasAmp = ns.getVisAmpCalBias(l); // calibration bias
+                                                    if (biasAmp > 0.0) {
+                                                        errAmp = computeCumulativeError(errAmp, biasAmp);
+
+                                                        // add this bias on random samples (normal distribution):
+                                                        if (doNoise && useRandomCalBias) {
+                                                            // update nth sample (mimic normal law) but independent random :
+                                                            // just add gaussian noise (variance addition):
+                                                            vamp += biasAmp * distRe[ctx.nextRandomSampleIndex()];
+                                                        }
+                                                    }
+
+                                                    double biasPhi = ns.getVisPhiBias(l); // instrumental bias
+                                                    if (biasPhi > 0.0) {
+                                                        errPhi = computeCumulativeError(errPhi, biasPhi);
+
+                                                        // add this bias on random samples (normal distribution):
+                                                        if (doNoise) {
+                                                            // update nth sample (mimic normal law) but independent random:
+                                                            // just add gaussian noise (variance addition):
+                                                            vphi += biasPhi * distIm[ctx.nextRandomSampleIndex()];
+                                                        }
+                                                    }
+                                                    biasPhi = ns.getVisPhiCalBias(l); // calibration bias
+                                                    if (biasPhi > 0.0) {
+                                                        errPhi = computeCumulativeError(errPhi, biasPhi);
+
+                                                        // add this bias on random samples (normal distribution):
+                                                        if (doNoise && useRandomCalBias) {
+                                                            // update nth sample (mimic normal law) but independent random :
+                                                            // just add gaussian noise (variance addition):
+                                                            vphi += biasPhi * distIm[ctx.nextRandomSampleIndex()];
+                                                        }
+                                                    }
+                                                }
+
+                                            } // sampling ?
+
+                                            // Set values:
+                                            visAmp[k][l] = vamp;
+                                            visAmpErr[k][l] = errAmp;
+
+                                            // pure model values:   
+                                            visAmpModel[k][l] = vampTh;
+                                            visPhiModel[k][l] = toDegrees(vphiTh);
+
+                                            // convert errPhi in degrees :
+                                            visPhi[k][l] = toDegrees(vphi);
+                                            visPhiErr[k][l] = toDegrees(errPhi);
+
+                                            // mark this value as valid only if observables are not NaN, error is valid and SNR is OK:
+                                            if (!doFlag && (Double.isNaN(visAmp[k][l]) || Double.isNaN(visAmpErr[k][l])
+                                                    || Double.isNaN(visPhi[k][l]) || Double.isNaN(visPhiErr[k][l]))) {
+                                                doFlag = true;
+                                            }
+                                        } // instrumentVis
+                                    } // not amber
+                                    flags[k][l] = doFlag;
                                 }
+                            }
+
+                            // station indexes :
+                            staIndexes[k] = baseLineMapping.get(uvBL.getBaseLine());
 
-                                // store pure (0..1) or noisy correlated fluxes (NaN if no flux):
-                                visData[k][l][0] = (float) visRe;
-                                visData[k][l][1] = (float) visIm;
+                            // increment j:
+                            j++;
 
-                                visErr[k][l][0] = (float) visErrCplx;
-                                visErr[k][l][1] = (float) visErrCplx;
+                            // fast interrupt :
+                            if (thread.isInterrupted()) {
+                                return;
                             }
-                        }
 
-                        if (!isAmber) {
-                            if (!this.instrumentVis) {
-                                // Waiting for explanations on every instrument processing to compute VisAmp/Phi:
-                                // following values are considered as invalid :
-                                visAmp[k][l] = Double.NaN;
-                                visAmpErr[k][l] = Double.NaN;
+                        } // baselines
+                    } // HA
 
-                                visPhi[k][l] = Double.NaN;
-                                visPhiErr[k][l] = Double.NaN;
-                            } else {
-                                if (ns == null) {
-                                    // Pure theoretical visibilities:
+                    // debug statistics:
+                    ctx.addChi2(chi2_nb, chi2_amp_sum, chi2_phi_sum);
+                }
+            };
+        }
 
-                                    if (doVisDiff) {
-                                        re = visComplex[k][l].getReal();
-                                        im = visComplex[k][l].getImaginary();
+        // execute jobs in parallel or using current thread if only one job (throws InterruptedJobException if interrupted):
+        JOB_EXECUTOR.forkAndJoin("OIFitsCreatorService.createOIVis", jobs);
 
-                                        /* then construct Cref by substracting current R and I
-                                         * at that Wlen and make the arithmetic mean */
-                                        cpxVisRef.updateComplex(
-                                                normFactorWL * (cpxVisSum.getReal() - re),
-                                                normFactorWL * (cpxVisSum.getImaginary() - im)
-                                        );
-                                        // VisDiff = CNop / CRef
-                                        cpxVisDiff.set(re, im).divide(cpxVisRef);
+        // fast interrupt :
+        if (currentThread.isInterrupted()) {
+            return;
+        }
 
-                                        vamp = (doVisAmpDiff) ? cpxVisDiff.abs() : visComplex[k][l].abs();
-                                        vphi = (doVisPhiDiff) ? cpxVisDiff.getArgument() : visComplex[k][l].getArgument();
-                                    } else {
-                                        vamp = visComplex[k][l].abs();
-                                        vphi = visComplex[k][l].getArgument();
-                                    }
+        if (hasModel) {
+            /* Compute visAmp / visPhi as amber does */
+            if (isAmber && (ns != null)) {
+                OIFitsAMBERService.amdlibFakeAmberDiffVis(vis, visComplex, this.visAmpError, nWaveLengths, this.visRndDist);
+                // TODO: generate noisy samples and biases
+            } else if (!isAmber && doVisAmpDiff) {
+                double vamp_sum;
 
-                                    vampTh = vamp;
-                                    vphiTh = vphi;
-                                    errAmp = errPhi = Double.NaN;
-                                } else {
-                                    // pure complex visibility data :
-                                    visRe = visComplex[k][l].getReal();
-                                    visIm = visComplex[k][l].getImaginary();
-
-                                    if (doVisDiff) {
-                                        re = visRe;
-                                        im = visIm;
-
-                                        /* then construct Cref by substracting current R and I
-                                         * at that Wlen and make the arithmetic mean */
-                                        cpxVisRef.updateComplex(
-                                                normFactorWL * (cpxVisSum.getReal() - re),
-                                                normFactorWL * (cpxVisSum.getImaginary() - im)
-                                        );
-                                        // VisDiff = CNop / CRef
-                                        cpxVisDiff.set(re, im).divide(cpxVisRef);
+                /* Normalize differential visibilities to 1 */
+                for (int k = 0, l; k < visAmp.length; k++) {
+                    vamp_sum = 0.0;
 
-                                        vamp = (doVisAmpDiff) ? cpxVisDiff.abs() : visComplex[k][l].abs();
-                                        vphi = (doVisPhiDiff) ? cpxVisDiff.getArgument() : visComplex[k][l].getArgument();
-                                    } else {
-                                        // pure visibility amplitude:
-                                        vamp = Math.sqrt(visRe * visRe + visIm * visIm);
-                                        // pure visibility phase:
-                                        vphi = toAngle(visRe, visIm);
-                                    }
+                    for (l = 0; l < nWaveLengths; l++) {
+                        vamp_sum += visAmp[k][l];
+                    }
+                    vamp_sum /= nWaveLengths; // mean
 
-                                    // Define theoretical values:
-                                    vampTh = vamp;
-                                    vphiTh = vphi;
+                    for (l = 0; l < nWaveLengths; l++) {
+                        visAmp[k][l] /= vamp_sum;
+                        visAmpErr[k][l] /= vamp_sum;
+                    }
+                }
+            }
+        }
+        this.oiFitsFile.addOiTable(vis);
 
-                                    // Sampling complex visibilities:
-                                    // VISAMP/VISPHI do not correspond to the same quantity (absolute or differential)
-                                    // note: anyway each observable use a different complex visibility error (amp or phi):
-                                    // 1. VISAMP:
-                                    {
-                                        // complex visibility error for amplitudes : visErrRe = visErrIm = visAmpErr or Complex.NaN :
-                                        visErrCplx = visAmpError[k][l];
+        // Chi2:
+        int chi2_nb = 0;
+        double chi2_amp_sum = 0.0;
+        double chi2_phi_sum = 0.0;
 
-                                        re_sum = re_sum_err = im_sum = im_sum_err = 0.0;
+        for (SamplingContext ctx : contexts) {
+            chi2_nb += ctx.chi2_nb;
+            chi2_amp_sum += ctx.chi2_amp_sum;
+            chi2_phi_sum += ctx.chi2_phi_sum;
+        }
+        if (chi2_nb != 0) {
+            final double chi2_amp_red = chi2_amp_sum / chi2_nb; // degrees of freedom = ??
+            logger.info("VISAMP: chi2 = " + chi2_amp_sum + " (n = " + chi2_nb + "): red_chi2: " + chi2_amp_red);
+            final double chi2_phi_red = chi2_phi_sum / chi2_nb; // degrees of freedom = ??
+            logger.info("VISPHI: chi2 = " + chi2_phi_sum + " (n = " + chi2_nb + "): red_chi2: " + chi2_phi_red);
+        }
 
-                                        // 1. compute average(complex visibility):
-                                        // bivariate distribution (complex normal):
-                                        for (n = 0; n < N_SAMPLES; n++) {
-                                            // update nth sample:
-                                            re = visRe + (visErrCplx * distRe[n]);
-                                            im = visIm + (visErrCplx * distIm[n]);
-
-                                            if (doVisAmpDiff) {
-                                                /* then construct Cref by substracting current R and I
-                                                 * at that Wlen and make the arithmetic mean */
-                                                cpxVisRef.updateComplex(
-                                                        normFactorWL * (cpxVisSum.getReal() - re),
-                                                        normFactorWL * (cpxVisSum.getImaginary() - im)
-                                                );
-                                                // VisDiff = CNop / CRef
-                                                cpxVisDiff.set(re, im).divide(cpxVisRef);
-
-                                                re = cpxVisDiff.getReal();
-                                                im = cpxVisDiff.getImaginary();
-                                            }
-                                            // average complex value:
-                                            re_samples[n] = re;
-                                            im_samples[n] = im;
+        if (logger.isDebugEnabled()) {
+            logger.debug("createOIVis: duration = {} ms.", 1e-6d * (System.nanoTime() - start));
+        }
+    }
 
-                                            // kahan sum
-                                            // re_sum += cRe;
-                                            y = re - re_sum_err;
-                                            t = re_sum + y;
-                                            re_sum_err = (t - re_sum) - y;
-                                            re_sum = t;
+    /**
+     * Create the OI_VIS2 table using internal computed visComplex data
+     */
+    private void createOIVis2() {
+        final long start = System.nanoTime();
 
-                                            // im_sum += cIm;
-                                            y = im - im_sum_err;
-                                            t = im_sum + y;
-                                            im_sum_err = (t - im_sum) - y;
-                                            im_sum = t;
-                                        }
+        // generate squared correlated and photometric fluxes:
+        final boolean useExtraVis2 = this.instrumentVis2Extra;
 
-                                        // mean(vis):
-                                        s_vamp_mean = Math.sqrt(re_sum * re_sum + im_sum * im_sum);
+        // Update the data model before calling new OIVis():
+        DataModel.setOiVis2ExtraSupport(useExtraVis2);
 
-                                        // rotate by -phi:
-                                        cos_phi = re_sum / s_vamp_mean;
-                                        sin_phi = im_sum / s_vamp_mean;
+        // Get OI_VIS table :
+        final OIVis vis = this.oiFitsFile.getOiVis()[0];
+        final int nRows = vis.getNbRows();
+        final int nWaveLengths = this.waveLengths.length;
 
-                                        // mean(vamp):
-                                        s_vamp_mean = SAMPLING_FACTOR_MEAN * s_vamp_mean;
-
-                                        vamp_sum_diff = vamp_sum_diff_square = 0.0;
-
-                                        // 2. compute angle variance and amplitude:
-                                        for (n = 0; n < N_SAMPLES; n++) {
-                                            // Correct amplitude by estimated phase:
-                                            // Amp = Re { C * phasor(-phi) }
-                                            sample = re_samples[n] * cos_phi + im_samples[n] * sin_phi; // -phi => + imaginary part in complex mult
-                                            vamp_samples[n] = sample;
-
-                                            // Compensated-summation variant for better numeric precision:
-                                            diff = sample - s_vamp_mean;
-                                            vamp_sum_diff += diff;
-                                            vamp_sum_diff_square += diff * diff;
-                                        }
-
-                                        // error(vamp):
-                                        // note: this algorithm ensures correctness (stable) even if the mean used in diff is wrong !
-                                        s_vamp_err = Math.sqrt(
-                                                SAMPLING_FACTOR_VARIANCE * (vamp_sum_diff_square - (SAMPLING_FACTOR_MEAN * (vamp_sum_diff * vamp_sum_diff)))
-                                        );
-                                    }
-
-                                    // 2. VISPHI:
-                                    {
-                                        // complex visibility error for phases : visErrRe = visErrIm = visAmpErr or Complex.NaN :
-                                        visErrCplx = visPhiError[k][l];
-
-                                        re_sum = re_sum_err = im_sum = im_sum_err = 0.0;
-
-                                        // 1. compute average(complex visibility):
-                                        // bivariate distribution (complex normal):
-                                        for (n = 0; n < N_SAMPLES; n++) {
-                                            // update nth sample:
-                                            re = visRe + (visErrCplx * distRe[n]);
-                                            im = visIm + (visErrCplx * distIm[n]);
-
-                                            if (doVisPhiDiff) {
-                                                /* then construct Cref by substracting current R and I
-                                                 * at that Wlen and make the arithmetic mean */
-                                                cpxVisRef.updateComplex(
-                                                        normFactorWL * (cpxVisSum.getReal() - re),
-                                                        normFactorWL * (cpxVisSum.getImaginary() - im)
-                                                );
-                                                // VisDiff = CNop / CRef
-                                                cpxVisDiff.set(re, im).divide(cpxVisRef);
-
-                                                re = cpxVisDiff.getReal();
-                                                im = cpxVisDiff.getImaginary();
-                                            }
-                                            // average complex value:
-                                            re_samples[n] = re;
-                                            im_samples[n] = im;
-
-                                            // kahan sum
-                                            // re_sum += cRe;
-                                            y = re - re_sum_err;
-                                            t = re_sum + y;
-                                            re_sum_err = (t - re_sum) - y;
-                                            re_sum = t;
-
-                                            // im_sum += cIm;
-                                            y = im - im_sum_err;
-                                            t = im_sum + y;
-                                            im_sum_err = (t - im_sum) - y;
-                                            im_sum = t;
-
-                                            // phase in [-PI; PI]:
-                                            sample = toAngle(re, im);
-                                            vphi_samples[n] = sample;
-                                        }
-
-                                        // mean(vis):
-                                        s_vphi_mean = toAngle(re_sum, im_sum);
-
-                                        vphi_sum_diff = vphi_sum_diff_square = 0.0;
-
-                                        // 2. compute angle variance and amplitude:
-                                        for (n = 0; n < N_SAMPLES; n++) {
-                                            // phase in [-PI; PI]:
-                                            // Compensated-summation variant for better numeric precision:
-                                            // check if diff is [-PI; PI]:
-                                            diff = distanceAngle(vphi_samples[n], s_vphi_mean);
-                                            vphi_sum_diff += diff;
-                                            vphi_sum_diff_square += diff * diff;
-                                        }
-
-                                        // error(vphi):
-                                        // note: this algorithm ensures correctness (stable) even if the mean used in diff is wrong !
-                                        s_vphi_err = Math.sqrt(
-                                                SAMPLING_FACTOR_VARIANCE * (vphi_sum_diff_square - (SAMPLING_FACTOR_MEAN * (vphi_sum_diff * vphi_sum_diff)))
-                                        );
-                                    }
-
-                                    /* Complex visibility is a Normal distribution, 
-                                     * no test needed on normality ? because vis diff ? */
-                                    if (DEBUG) {
-                                        logger.info("Sampling[" + N_SAMPLES + "] snr=" + (s_vamp_mean / s_vamp_err) + " AMP "
-                                                + " avg= " + s_vamp_mean + " vamp= " + vamp + " ratio: " + (s_vamp_mean / vamp)
-                                                + " stddev= " + s_vamp_err + " errAmp= " + visAmpError[k][l] + " ratio: " + (s_vamp_err / visAmpError[k][l])
-                                        );
-                                        logger.info("Sampling[" + N_SAMPLES + "] snr=" + ((PI + s_vphi_mean) / s_vphi_err) + " PHI "
-                                                + " avg= " + s_vphi_mean + " vphi= " + vphi + " ratio: " + ((PI + s_vphi_mean) / (PI + vphi))
-                                                + " stddev= " + s_vphi_err + " errPhi = " + (visPhiError[k][l] / vamp) + " ratio: " + (s_vphi_err / (visPhiError[k][l] / vamp))
-                                        );
-                                    }
-
-                                    /* Err on Phi must be corrected with an abacus */
-                                    s_vphi_err = amdlibAbacusErrPhi(s_vphi_err);
-
-                                    if (this.doNoise) {
-                                        // Use the corresponding sample among vis, vis2, t3 on any baselines !
-                                        final int nSample = visRndIdxRow[l];
-                                        vamp = vamp_samples[nSample];
-                                        vphi = vphi_samples[nSample];
-
-                                        if (DEBUG) {
-                                            // chi2 = sum ( (x - x_th) / err ) ^2
-                                            chi2_nb++;
-                                            diff = (vamp - vampTh) / s_vamp_err;
-                                            chi2_amp_sum += diff * diff;
-
-                                            diff = distanceAngle(vphi, vphiTh) / s_vphi_err;
-                                            chi2_phi_sum += diff * diff;
-                                        }
-                                    } else if (DO_USE_SAMPLED_MEAN) {
-                                        vamp = s_vamp_mean;
-                                        vphi = s_vphi_mean;
-                                    }
-                                    errAmp = s_vamp_err;
-                                    errPhi = s_vphi_err;
-
-                                    if (useBias) {
-                                        double biasAmp = ns.getVisAmpBias(l, vampTh); // instrumental bias
-                                        if (biasAmp > 0.0) {
-                                            errAmp = computeCumulativeError(errAmp, biasAmp);
-
-                                            // add this bias on random samples (normal distribution):
-                                            if (this.doNoise) {
-                                                // update nth sample (mimic normal law) but independent random :
-                                                // just add gaussian noise (variance addition):
-                                                vamp += biasAmp * distRe[getNextRandomSampleIndex()];
-                                            }
-                                        }
-                                        biasAmp = ns.getVisAmpCalBias(l); // calibration bias
-                                        if (biasAmp > 0.0) {
-                                            errAmp = computeCumulativeError(errAmp, biasAmp);
-
-                                            // add this bias on random samples (normal distribution):
-                                            if (this.doNoise && useRandomCalBias) {
-                                                // update nth sample (mimic normal law) but independent random :
-                                                // just add gaussian noise (variance addition):
-                                                vamp += biasAmp * distRe[getNextRandomSampleIndex()];
-                                            }
-                                        }
-
-                                        double biasPhi = ns.getVisPhiBias(l); // instrumental bias
-                                        if (biasPhi > 0.0) {
-                                            errPhi = computeCumulativeError(errPhi, biasPhi);
-
-                                            // add this bias on random samples (normal distribution):
-                                            if (this.doNoise) {
-                                                // update nth sample (mimic normal law) but independent random:
-                                                // just add gaussian noise (variance addition):
-                                                vphi += biasPhi * distIm[getNextRandomSampleIndex()];
-                                            }
-                                        }
-                                        biasPhi = ns.getVisPhiCalBias(l); // calibration bias
-                                        if (biasPhi > 0.0) {
-                                            errPhi = computeCumulativeError(errPhi, biasPhi);
-
-                                            // add this bias on random samples (normal distribution):
-                                            if (this.doNoise && useRandomCalBias) {
-                                                // update nth sample (mimic normal law) but independent random :
-                                                // just add gaussian noise (variance addition):
-                                                vphi += biasPhi * distIm[getNextRandomSampleIndex()];
-                                            }
-                                        }
-                                    }
-
-                                } // sampling ?
-
-                                // Set values:
-                                visAmp[k][l] = vamp;
-                                visAmpErr[k][l] = errAmp;
-
-                                // pure model values:   
-                                visAmpModel[k][l] = vampTh;
-                                visPhiModel[k][l] = toDegrees(vphiTh);
-
-                                // convert errPhi in degrees :
-                                visPhi[k][l] = toDegrees(vphi);
-                                visPhiErr[k][l] = toDegrees(errPhi);
-
-                                // mark this value as valid only if observables are not NaN, error is valid and SNR is OK:
-                                if (!doFlag && (Double.isNaN(visAmp[k][l]) || Double.isNaN(visAmpErr[k][l])
-                                        || Double.isNaN(visPhi[k][l]) || Double.isNaN(visPhiErr[k][l]))) {
-                                    doFlag = true;
-                                }
-                            } // instrumentVis
-                        } // not amber
-                        flags[k][l] = doFlag;
-                    }
-                }
-
-                // station indexes :
-                staIndexes[k] = baseLineMapping.get(uvBL.getBaseLine());
-
-                // increment j:
-                j++;
-
-                // fast interrupt :
-                if (currentThread.isInterrupted()) {
-                    return;
-                }
-
-            } // baselines
-        } // HA
-
-        if (hasModel) {
-            /* Compute visAmp / visPhi as amber does */
-            if (isAmber && (ns != null)) {
-                OIFitsAMBERService.amdlibFakeAmberDiffVis(vis, visComplex, this.visAmpError, nWaveLengths, this.visRndDist);
-                // TODO: generate noisy samples and biases
-            } else if (!isAmber && doVisAmpDiff) {
-                double vamp_sum;
-
-                /* Normalize differential visibilities to 1 */
-                for (int k = 0, l; k < visAmp.length; k++) {
-                    vamp_sum = 0.0;
-
-                    for (l = 0; l < nWaveLengths; l++) {
-                        vamp_sum += visAmp[k][l];
-                    }
-                    vamp_sum /= nWaveLengths; // mean
-
-                    for (l = 0; l < nWaveLengths; l++) {
-                        visAmp[k][l] /= vamp_sum;
-                        visAmpErr[k][l] /= vamp_sum;
-                    }
-                }
-            }
-        }
-        this.oiFitsFile.addOiTable(vis);
-
-        // Chi2:
-        if (chi2_nb != 0) {
-            final double chi2_amp_red = chi2_amp_sum / chi2_nb; // degrees of freedom = ??
-            logger.info("VISAMP: chi2 = " + chi2_amp_sum + " (n = " + chi2_nb + "): red_chi2: " + chi2_amp_red);
-            final double chi2_phi_red = chi2_phi_sum / chi2_nb; // degrees of freedom = ??
-            logger.info("VISPHI: chi2 = " + chi2_phi_sum + " (n = " + chi2_nb + "): red_chi2: " + chi2_phi_red);
-        }
-
-        if (logger.isDebugEnabled()) {
-            logger.debug("createOIVis: duration = {} ms.", 1e-6d * (System.nanoTime() - start));
-        }
-    }
-
-    /**
-     * Create the OI_VIS2 table using internal computed visComplex data
-     */
-    private void createOIVis2() {
-        final long start = System.nanoTime();
-
-        // generate squared correlated and photometric fluxes:
-        final boolean useExtraVis2 = this.instrumentVis2Extra;
-
-        // Update the data model before calling new OIVis():
-        DataModel.setOiVis2ExtraSupport(useExtraVis2);
-
-        // Get OI_VIS table :
-        final OIVis vis = this.oiFitsFile.getOiVis()[0];
-        final int nRows = vis.getNbRows();
-        final int nWaveLengths = this.waveLengths.length;
-
-        // Create OI_VIS2 table :
-        final OIVis2 vis2 = new OIVis2(this.oiFitsFile, this.insNameKeyword, nRows);
-        vis2.setArrName(this.arrNameKeyword);
-        vis2.setDateObs(vis.getDateObs());
+        // Create OI_VIS2 table :
+        final OIVis2 vis2 = new OIVis2(this.oiFitsFile, this.insNameKeyword, nRows);
+        vis2.setArrName(this.arrNameKeyword);
+        vis2.setDateObs(vis.getDateObs());
 
         // Columns :
         System.arraycopy(vis.getTargetId(), 0, vis2.getTargetId(), 0, nRows);
@@ -1444,282 +1637,334 @@ public final class OIFitsCreatorService extends AbstractOIFitsProducer {
 
         final NoiseService ns = this.noiseService;
 
-        // vars:
-        double visRe, visIm, errCVis;
-        double v2Th, v2ThErr, v2, v2Err;
-        double phot = Double.NaN, errPhot = Double.NaN;
-        double sqCorr = Double.NaN, errSqCorr = Double.NaN;
-
-        // distribution samples:
-        double[] distRe = null, distIm = null;
-
-        // try resampling:
-        double re, im, sample, diff;
-        double v2_sum_diff, v2_sum_diff_square;
-        double re_sum, re_sum_err, im_sum, im_sum_err, cos_phi, sin_phi;
-        double s_v2_mean, s_v2_err, snr;
-        double y, t;
+        // random seeds per row (noise):
+        final long[] rowSeeds = getRowRandomSeeds(STREAM_OI_VIS2, this.obsFrom * this.nBaseLines, nRows);
+
+        // enable parallel jobs if many data points:
+        final int nTh = getTableThreadCount(nRows * nWaveLengths);
+
+        // Prepare thread context variables:
+        final SamplingContext[] contexts = createSamplingContexts(nTh);
+
+        // computation tasks = 1 job per row block (work stealing):
+        final int nJobs = (nTh > 1) ? Math.min(nRows, 4 * nTh) : 1;
+        final int stepRows = nRows / nJobs;
+
+        final Runnable[] jobs = new Runnable[nJobs];
+
+        for (int b = 0; b < nJobs; b++) {
+            // rows to be processed by this task:
+            final int fromRow = b * stepRows;
+            final int endRow = (b == nJobs - 1) ? nRows : fromRow + stepRows;
+
+            jobs[b] = new Runnable() {
+                /**
+                 * Called by the ParallelJobExecutor to perform task computation
+                 */
+                @Override
+                public void run() {
+                    final SamplingContext ctx = contexts[ParallelJobExecutor.currentThreadIndex(nTh)];
+                    final Thread thread = Thread.currentThread();
+
+                    // vars:
+                    double visRe, visIm, errCVis;
+                    double v2Th, v2ThErr, v2, v2Err;
+                    double phot = Double.NaN, errPhot = Double.NaN;
+                    double sqCorr = Double.NaN, errSqCorr = Double.NaN;
+
+                    // distribution samples:
+                    double[] distRe = null, distIm = null;
+
+                    // try resampling:
+                    double re, im, sample, diff;
+                    double v2_sum_diff, v2_sum_diff_square;
+                    double re_sum, re_sum_err, im_sum, im_sum_err, cos_phi, sin_phi;
+                    double s_v2_mean, s_v2_err, snr;
+                    double y, t;
+
+                    final double[] v2_samples = ctx.amp_samples;
+                    int[] visRndIdxRow = null;
+                    boolean doFlag;
+
+                    final double[] re_samples = ctx.re_samples;
+                    final double[] im_samples = ctx.im_samples;
+
+                    double cRe, cIm, s_c2amp_mean;
+                    int chi2_nb = 0;
+                    double chi2_sum = 0.0;
+
+                    // Iterate on rows :
+                    for (int k = fromRow, l, n; k < endRow; k++) {
+
+                        // if target has models, then complex visibility are computed :
+                        if (!hasModel) {
+                            // Iterate on wave lengths :
+                            for (l = 0; l < nWaveLengths; l++) {
+                                vis2Data[k][l] = Double.NaN;
+                                vis2Err[k][l] = Double.NaN;
+
+                                // pure model values:                        
+                                vis2ModelData[k][l] = Double.NaN;
+                                vis2ModelErr[k][l] = Double.NaN;
+
+                                if (useExtraVis2) {
+                                    vis2CorrSq[k][l] = Double.NaN;
+                                    vis2CorrSqErr[k][l] = Double.NaN;
+
+                                    vis2Phot[k][l] = Double.NaN;
+                                    vis2PhotErr[k][l] = Double.NaN;
+                                }
 
-        final double[] v2_samples = new double[N_SAMPLES];
-        int[] visRndIdxRow = null;
-        boolean doFlag;
+                                // mark this value as invalid :
+                                flags[k][l] = true;
 
-        final double[] re_samples = new double[N_SAMPLES];
-        final double[] im_samples = new double[N_SAMPLES];
+                                if (DEBUG_SNR) {
+                                    snrData[l][k] = Double.NaN;
+                                }
+                            }
+                        } else {
+                            if (rowSeeds != null) {
+                                // use the random sequence of this row:
+                                ctx.random.setSeed(rowSeeds[k]);
+                            }
+                            if (ns != null) {
+                                // Get the complex distribution for this row:
+                                distRe = visRndDist[k][0];
+                                distIm = visRndDist[k][1];
 
-        double cRe, cIm, s_c2amp_mean;
-        int chi2_nb = 0;
-        double chi2_sum = 0.0;
+                                // Get proper index:
+                                visRndIdxRow = visRndIdx[k];
+                            }
 
-        // Iterate on rows :
-        for (int k = 0, l, n; k < nRows; k++) {
+                            // Iterate on wave lengths :
+                            for (l = 0; l < nWaveLengths; l++) {
+                                // pure complex visibility data :
+                                visRe = visComplex[k][l].getReal();
+                                visIm = visComplex[k][l].getImaginary();
 
-            // if target has models, then complex visibility are computed :
-            if (!this.hasModel) {
-                // Iterate on wave lengths :
-                for (l = 0; l < nWaveLengths; l++) {
-                    vis2Data[k][l] = Double.NaN;
-                    vis2Err[k][l] = Double.NaN;
+                                // pure square visibility :
+                                v2Th = visRe * visRe + visIm * visIm;
 
-                    // pure model values:                        
-                    vis2ModelData[k][l] = Double.NaN;
-                    vis2ModelErr[k][l] = Double.NaN;
+                                doFlag = visAmpSNRFlag[k][l];
 
-                    if (useExtraVis2) {
-                        vis2CorrSq[k][l] = Double.NaN;
-                        vis2CorrSqErr[k][l] = Double.NaN;
+                                if (ns == null) {
+                                    v2 = v2Th;
+                                    v2ThErr = Double.NaN;
+                                    phot = Double.NaN;
+                                    errPhot = Double.NaN;
+                                    v2Err = Double.NaN;
+                                    snr = Double.NaN;
+                                } else {
+                                    // complex visibility error : visErrRe = visErrIm = visAmpErr / SQRT(2) or Complex.NaN :
+                                    errCVis = visAmpError[k][l];
 
-                        vis2Phot[k][l] = Double.NaN;
-                        vis2PhotErr[k][l] = Double.NaN;
-                    }
+                                    v2ThErr = NoiseService.deriveVis2Error(errCVis, Math.sqrt(v2Th));
 
-                    // mark this value as invalid :
-                    flags[k][l] = true;
+                                    if (useExtraVis2) {
+                                        phot = nbPhotPhoto[k][l];
+                                        errPhot = errPhotPhoto[k][l];
 
-                    if (DEBUG_SNR) {
-                        snrData[l][k] = Double.NaN;
-                    }
-                }
-            } else {
-                if (ns != null) {
-                    // Get the complex distribution for this row:
-                    distRe = visRndDist[k].getSamples()[0];
-                    distIm = visRndDist[k].getSamples()[1];
-
-                    // Get proper index:
-                    visRndIdxRow = this.visRndIdx[k];
-                }
+                                        sqCorr = sqCorrFlux[k][l];
+                                        errSqCorr = errSqCorrFlux[k][l];
+                                    }
 
-                // Iterate on wave lengths :
-                for (l = 0; l < nWaveLengths; l++) {
-                    // pure complex visibility data :
-                    visRe = this.visComplex[k][l].getReal();
-                    visIm = this.visComplex[k][l].getImaginary();
+                                    // Sampling complex visibilities:
+                                    re_sum = re_sum_err = im_sum = im_sum_err = 0.0;
+
+                                    // pass 1: numeric mean:
+                                    for (n = 0; n < N_SAMPLES; n++) {
+                                        // update nth sample:
+                                        re = visRe + (errCVis * distRe[n]);
+                                        im = visIm + (errCVis * distIm[n]);
+
+                                        // compute C2=C*C
+                                        // (a + bi)(c + di) = (ac - bd) + (ad + bc)i
+                                        cRe = re * re - im * im;
+                                        cIm = 2.0 * re * im;
+
+                                        // average complex value:
+                                        re_samples[n] = cRe;
+                                        im_samples[n] = cIm;
+
+                                        // kahan sum
+                                        // re_sum += cRe;
+                                        y = cRe - re_sum_err;
+                                        t = re_sum + y;
+                                        re_sum_err = (t - re_sum) - y;
+                                        re_sum = t;
+
+                                        // im_sum += cIm;
+                                        y = cIm - im_sum_err;
+                                        t = im_sum + y;
+                                        im_sum_err = (t - im_sum) - y;
+                                        im_sum = t;
+                                    }
 
-                    // pure square visibility :
-                    v2Th = visRe * visRe + visIm * visIm;
+                                    // mean(C2):
+                                    s_c2amp_mean = Math.sqrt(re_sum * re_sum + im_sum * im_sum);
 
-                    doFlag = visAmpSNRFlag[k][l];
+                                    // rotate by -phi:
+                                    cos_phi = re_sum / s_c2amp_mean;
+                                    sin_phi = im_sum / s_c2amp_mean;
 
-                    if (ns == null) {
-                        v2 = v2Th;
-                        v2ThErr = Double.NaN;
-                        phot = Double.NaN;
-                        errPhot = Double.NaN;
-                        v2Err = Double.NaN;
-                        snr = Double.NaN;
-                    } else {
-                        // complex visibility error : visErrRe = visErrIm = visAmpErr / SQRT(2) or Complex.NaN :
-                        errCVis = visAmpError[k][l];
+                                    // mean(V2):
+                                    s_v2_mean = SAMPLING_FACTOR_MEAN * s_c2amp_mean;
 
-                        v2ThErr = NoiseService.deriveVis2Error(errCVis, Math.sqrt(v2Th));
+                                    v2_sum_diff = v2_sum_diff_square = 0.0;
 
-                        if (useExtraVis2) {
-                            phot = nbPhotPhoto[k][l];
-                            errPhot = errPhotPhoto[k][l];
+                                    // bivariate distribution (complex normal):
+                                    for (n = 0; n < N_SAMPLES; n++) {
+                                        // Correct amplitude by estimated phase:
+                                        // Amp = Re { C * phasor(-phi) }
+                                        sample = re_samples[n] * cos_phi + im_samples[n] * sin_phi; // -phi => + imaginary part in complex mult
+                                        v2_samples[n] = sample;
 
-                            sqCorr = sqCorrFlux[k][l];
-                            errSqCorr = errSqCorrFlux[k][l];
-                        }
+                                        // Compensated-summation variant for better numeric precision:
+                                        diff = sample - s_v2_mean;
+                                        v2_sum_diff += diff;
+                                        v2_sum_diff_square += diff * diff;
+                                    }
 
-                        // Sampling complex visibilities:
-                        re_sum = re_sum_err = im_sum = im_sum_err = 0.0;
-
-                        // pass 1: numeric mean:
-                        for (n = 0; n < N_SAMPLES; n++) {
-                            // update nth sample:
-                            re = visRe + (errCVis * distRe[n]);
-                            im = visIm + (errCVis * distIm[n]);
-
-                            // compute C2=C*C
-                            // (a + bi)(c + di) = (ac - bd) + (ad + bc)i
-                            cRe = re * re - im * im;
-                            cIm = 2.0 * re * im;
-
-                            // average complex value:
-                            re_samples[n] = cRe;
-                            im_samples[n] = cIm;
-
-                            // kahan sum
-                            // re_sum += cRe;
-                            y = cRe - re_sum_err;
-                            t = re_sum + y;
-                            re_sum_err = (t - re_sum) - y;
-                            re_sum = t;
-
-                            // im_sum += cIm;
-                            y = cIm - im_sum_err;
-                            t = im_sum + y;
-                            im_sum_err = (t - im_sum) - y;
-                            im_sum = t;
-                        }
+                                    // error(V2):
+                                    // note: this algorithm ensures correctness (stable) even if the mean used in diff is wrong !
+                                    s_v2_err = Math.sqrt(
+                                            SAMPLING_FACTOR_VARIANCE * (v2_sum_diff_square - (SAMPLING_FACTOR_MEAN * (v2_sum_diff * v2_sum_diff)))
+                                    );
+
+                                    /*
+                                    * This test on mean() is cheap and interesting to detect non gaussian behaviour = mean diverges and sigma too, but less fast !
+                                    * this is useful to FLAG such data anyway (incorrect assumptions) and use theoretical values instead :
+                                    * distribution of C2 samples is NOT gaussian anymore, but C is a good normal complex law, how it T3 = C1.C2.C3 (bad too, I suppose) ?
+                                     */
+                                    // 1.1 corresponds to SNR(V2) < 0.1
+                                    if (Math.abs(s_v2_mean / v2Th) > 1.1) {
+                                        logger.debug("Incompatible sampled distribution for normal law, detected OIVis2 : ratio(mean) = {} SNR= {}",
+                                                (s_v2_mean / v2Th), (v2Th / v2ThErr));
+                                        doFlag = true;
+                                    }
+                                    // 1.1 corresponds to SNR(V2) < 0.8
+                                    if (Math.abs(s_v2_err / v2ThErr) > 1.1) {
+                                        logger.debug("Incompatible sampled distribution for normal law, detected OIVis2 : ratio(stddev) = {} SNR= {}",
+                                                (s_v2_err / v2ThErr), (v2Th / v2ThErr));
+                                        doFlag = true;
+                                    }
 
-                        // mean(C2):
-                        s_c2amp_mean = Math.sqrt(re_sum * re_sum + im_sum * im_sum);
+                                    if (DEBUG) {
+                                        logger.info("Sampling[" + N_SAMPLES + "] SNR=" + (v2Th / v2ThErr) + " snr=" + (s_v2_mean / s_v2_err) + " V2"
+                                                + " (err(re,im)= " + errCVis + ")"
+                                                + " avg= " + s_v2_mean + " V2= " + v2Th + " ratio: " + (s_v2_mean / v2Th)
+                                                + " stddev= " + s_v2_err + " err(V2)= " + v2ThErr + " ratio: " + (s_v2_err / v2ThErr)
+                                        );
+                                    }
 
-                        // rotate by -phi:
-                        cos_phi = re_sum / s_c2amp_mean;
-                        sin_phi = im_sum / s_c2amp_mean;
+                                    if (doNoise) {
+                                        // Use the corresponding sample:
+                                        v2 = v2_samples[visRndIdxRow[l]];
 
-                        // mean(V2):
-                        s_v2_mean = SAMPLING_FACTOR_MEAN * s_c2amp_mean;
+                                        if (DEBUG) {
+                                            // chi2 = sum ( (v2 - v2_th) / err ) ^2
+                                            chi2_nb++;
+                                            diff = (v2 - v2Th) / s_v2_err;
+                                            chi2_sum += diff * diff;
+                                        }
+                                    } else if (DO_USE_SAMPLED_MEAN) {
+                                        v2 = s_v2_mean;
+                                    } else {
+                                        v2 = v2Th;
+                                    }
+                                    v2Err = s_v2_err;
 
-                        v2_sum_diff = v2_sum_diff_square = 0.0;
+                                    // If flagged, then use theoretical errors:
+                                    if (FIX_LOW_SNR && doFlag) {
+                                        // use theoretical value & error if SNR < 3 or not Normal Law !
+                                        v2 = v2Th;
 
-                        // bivariate distribution (complex normal):
-                        for (n = 0; n < N_SAMPLES; n++) {
-                            // Correct amplitude by estimated phase:
-                            // Amp = Re { C * phasor(-phi) }
-                            sample = re_samples[n] * cos_phi + im_samples[n] * sin_phi; // -phi => + imaginary part in complex mult
-                            v2_samples[n] = sample;
+                                        // theoretical square visibility error :
+                                        v2Err = v2ThErr;
 
-                            // Compensated-summation variant for better numeric precision:
-                            diff = sample - s_v2_mean;
-                            v2_sum_diff += diff;
-                            v2_sum_diff_square += diff * diff;
-                        }
+                                        if (doNoise) {
+                                            // update nth sample (mimic normal law) but independent random :
+                                            v2 += v2Err * distRe[ctx.nextRandomSampleIndex()];
+                                        }
+                                    }
 
-                        // error(V2):
-                        // note: this algorithm ensures correctness (stable) even if the mean used in diff is wrong !
-                        s_v2_err = Math.sqrt(
-                                SAMPLING_FACTOR_VARIANCE * (v2_sum_diff_square - (SAMPLING_FACTOR_MEAN * (v2_sum_diff * v2_sum_diff)))
-                        );
-
-                        /*
-                        * This test on mean() is cheap and interesting to detect non gaussian behaviour = mean diverges and sigma too, but less fast !
-                        * this is useful to FLAG such data anyway (incorrect assumptions) and use theoretical values instead :
-                        * distribution of C2 samples is NOT gaussian anymore, but C is a good normal complex law, how it T3 = C1.C2.C3 (bad too, I suppose) ?
-                         */
-                        // 1.1 corresponds to SNR(V2) < 0.1
-                        if (Math.abs(s_v2_mean / v2Th) > 1.1) {
-                            logger.debug("Incompatible sampled distribution for normal law, detected OIVis2 : ratio(mean) = {} SNR= {}",
-                                    (s_v2_mean / v2Th), (v2Th / v2ThErr));
-                            doFlag = true;
-                        }
-                        // 1.1 corresponds to SNR(V2) < 0.8
-                        if (Math.abs(s_v2_err / v2ThErr) > 1.1) {
-                            logger.debug("Incompatible sampled distribution for normal law, detected OIVis2 : ratio(stddev) = {} SNR= {}",
-                                    (s_v2_err / v2ThErr), (v2Th / v2ThErr));
-                            doFlag = true;
-                        }
+                                    if (useBias) {
+                                        double biasV2 = ns.getVis2Bias(l, v2Th); // instrumental bias
+                                        if (biasV2 > 0.0) {
+                                            v2Err = computeCumulativeError(v2Err, biasV2);
 
-                        if (DEBUG) {
-                            logger.info("Sampling[" + N_SAMPLES + "] SNR=" + (v2Th / v2ThErr) + " snr=" + (s_v2_mean / s_v2_err) + " V2"
-                                    + " (err(re,im)= " + errCVis + ")"
-                                    + " avg= " + s_v2_mean + " V2= " + v2Th + " ratio: " + (s_v2_mean / v2Th)
-                                    + " stddev= " + s_v2_err + " err(V2)= " + v2ThErr + " ratio: " + (s_v2_err / v2ThErr)
-                            );
-                        }
+                                            // add this bias on random samples (normal distribution):
+                                            if (doNoise) {
+                                                // update nth sample (mimic normal law) but independent random :
+                                                // just add gaussian noise (variance addition):
+                                                v2 += biasV2 * distIm[ctx.nextRandomSampleIndex()];
+                                            }
+                                        }
+                                        biasV2 = ns.getVis2CalBias(l, v2Th); // calibration bias
+                                        if (biasV2 > 0.0) {
+                                            v2Err = computeCumulativeError(v2Err, biasV2);
 
-                        if (this.doNoise) {
-                            // Use the corresponding sample:
-                            v2 = v2_samples[visRndIdxRow[l]];
+                                            // add this bias on random samples (normal distribution):
+                                            if (doNoise && useRandomCalBias) {
+                                                // update nth sample (mimic normal law) but independent random :
+                                                // just add gaussian noise (variance addition):
+                                                v2 += biasV2 * distIm[ctx.nextRandomSampleIndex()];
+                                            }
+                                        }
+                                    }
 
-                            if (DEBUG) {
-                                // chi2 = sum ( (v2 - v2_th) / err ) ^2
-                                chi2_nb++;
-                                diff = (v2 - v2Th) / s_v2_err;
-                                chi2_sum += diff * diff;
-                            }
-                        } else if (DO_USE_SAMPLED_MEAN) {
-                            v2 = s_v2_mean;
-                        } else {
-                            v2 = v2Th;
-                        }
-                        v2Err = s_v2_err;
+                                    if (DEBUG_SNR) {
+                                        snr = Math.abs(v2 / v2Err);
+                                    }
+                                } // noise service ?
 
-                        // If flagged, then use theoretical errors:
-                        if (FIX_LOW_SNR && doFlag) {
-                            // use theoretical value & error if SNR < 3 or not Normal Law !
-                            v2 = v2Th;
+                                // Set values:
+                                vis2Data[k][l] = v2;
+                                vis2Err[k][l] = v2Err;
 
-                            // theoretical square visibility error :
-                            v2Err = v2ThErr;
+                                // pure model values:                        
+                                vis2ModelData[k][l] = v2Th;
+                                vis2ModelErr[k][l] = v2ThErr;
 
-                            if (this.doNoise) {
-                                // update nth sample (mimic normal law) but independent random :
-                                v2 += v2Err * distRe[getNextRandomSampleIndex()];
-                            }
-                        }
+                                if (useExtraVis2) {
+                                    vis2CorrSq[k][l] = sqCorr;
+                                    vis2CorrSqErr[k][l] = errSqCorr;
 
-                        if (useBias) {
-                            double biasV2 = ns.getVis2Bias(l, v2Th); // instrumental bias
-                            if (biasV2 > 0.0) {
-                                v2Err = computeCumulativeError(v2Err, biasV2);
+                                    vis2Phot[k][l] = phot;
+                                    vis2PhotErr[k][l] = errPhot;
+                                }
 
-                                // add this bias on random samples (normal distribution):
-                                if (this.doNoise) {
-                                    // update nth sample (mimic normal law) but independent random :
-                                    // just add gaussian noise (variance addition):
-                                    v2 += biasV2 * distIm[getNextRandomSampleIndex()];
+                                // mark this value as valid only if observables are not NaN, error is valid and SNR is OK:
+                                if (!doFlag && (Double.isNaN(vis2Data[k][l]) || Double.isNaN(vis2Err[k][l]))) {
+                                    doFlag = true;
                                 }
-                            }
-                            biasV2 = ns.getVis2CalBias(l, v2Th); // calibration bias
-                            if (biasV2 > 0.0) {
-                                v2Err = computeCumulativeError(v2Err, biasV2);
-
-                                // add this bias on random samples (normal distribution):
-                                if (this.doNoise && useRandomCalBias) {
-                                    // update nth sample (mimic normal law) but independent random :
-                                    // just add gaussian noise (variance addition):
-                                    v2 += biasV2 * distIm[getNextRandomSampleIndex()];
+                                flags[k][l] = doFlag;
+
+                                if (DEBUG_SNR) {
+                                    snrData[l][k] = snr;
                                 }
-                            }
-                        }
+                            } // Iterate on wave lengths
+                        } // target has models ?
 
-                        if (DEBUG_SNR) {
-                            snr = Math.abs(v2 / v2Err);
+                        // fast interrupt :
+                        if (thread.isInterrupted()) {
+                            return;
                         }
-                    } // noise service ?
+                    } // Iterate on rows
 
-                    // Set values:
-                    vis2Data[k][l] = v2;
-                    vis2Err[k][l] = v2Err;
-
-                    // pure model values:                        
-                    vis2ModelData[k][l] = v2Th;
-                    vis2ModelErr[k][l] = v2ThErr;
-
-                    if (useExtraVis2) {
-                        vis2CorrSq[k][l] = sqCorr;
-                        vis2CorrSqErr[k][l] = errSqCorr;
-
-                        vis2Phot[k][l] = phot;
-                        vis2PhotErr[k][l] = errPhot;
-                    }
+                    // debug statistics:
+                    ctx.addChi2(chi2_nb, chi2_sum, 0.0);
+                }
+            };
+        }
 
-                    // mark this value as valid only if observables are not NaN, error is valid and SNR is OK:
-                    if (!doFlag && (Double.isNaN(vis2Data[k][l]) || Double.isNaN(vis2Err[k][l]))) {
-                        doFlag = true;
-                    }
-                    flags[k][l] = doFlag;
+        // execute jobs in parallel or using current thread if only one job (throws InterruptedJobException if interrupted):
+        JOB_EXECUTOR.forkAndJoin("OIFitsCreatorService.createOIVis2", jobs);
 
-                    if (DEBUG_SNR) {
-                        snrData[l][k] = snr;
-                    }
-                } // Iterate on wave lengths
-            } // target has models ?
-        } // Iterate on rows
+        // fast interrupt :
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
 
         System.arraycopy(vis.getUCoord(), 0, vis2.getUCoord(), 0, nRows);
         System.arraycopy(vis.getVCoord(), 0, vis2.getVCoord(), 0, nRows);
@@ -1729,6 +1974,13 @@ public final class OIFitsCreatorService extends AbstractOIFitsProducer {
         this.oiFitsFile.addOiTable(vis2);
 
         // Chi2:
+        int chi2_nb = 0;
+        double chi2_sum = 0.0;
+
+        for (SamplingContext ctx : contexts) {
+            chi2_nb += ctx.chi2_nb;
+            chi2_sum += ctx.chi2_amp_sum;
+        }
         if (chi2_nb != 0) {
             final double chi2_red = chi2_sum / chi2_nb; // degrees of freedom = ??
             logger.info("VIS2: chi2 = " + chi2_sum + " (n = " + chi2_nb + "): red_chi2: " + chi2_red);
@@ -1803,8 +2055,13 @@ public final class OIFitsCreatorService extends AbstractOIFitsProducer {
         // Get OI_VIS table :
         final OIVis vis = this.oiFitsFile.getOiVis()[0];
 
+        // observation points of the current block:
+        final int obsFrom = this.obsFrom;
+        final int obsEnd = this.obsEnd;
+        final int nObs = obsEnd - obsFrom;
+
         // Create OI_T3 table :
-        final OIT3 t3 = new OIT3(this.oiFitsFile, this.insNameKeyword, this.nObsPoints * nTriplets);
+        final OIT3 t3 = new OIT3(this.oiFitsFile, this.insNameKeyword, nObs * nTriplets);
         t3.setArrName(this.arrNameKeyword);
         t3.setDateObs(vis.getDateObs());
 
@@ -1847,466 +2104,545 @@ public final class OIFitsCreatorService extends AbstractOIFitsProducer {
         // The following code use some hypothesis on the OI_VIS table as defined in createOIVis()
         // 1 - the number of rows per HA point corresponds to the number of baselines.
         // 2 - OI_VIS rows have the same ordering than the list of baselines per HA points.
-        // vars :
-        Complex cvis12, cvis23, cvis13;
-        Complex[] visData12, visData23, visData13;
-        double[] visErr12, visErr23, visErr13;
-        ComplexDistribution dist12, dist23, dist13;
-        boolean[] visSNRFlag12, visSNRFlag23, visSNRFlag13;
-        double u12, v12, u23, v23;
-        double t3amp, t3phi, t3ampTh, t3phiTh, errAmp, errPhi;
-
-        // temporary mutable complex:
-        int[] relPos;
-        int pos;
-
-        // resampling:
-        double re_sum, re_sum_err, im_sum, im_sum_err, cos_phi, sin_phi;
-        double t3amp_sum_diff, t3amp_sum_diff_square;
-        double t3phi_sum_diff, t3phi_sum_diff_square;
-        double s_t3amp_mean, s_t3amp_err;
-        double s_t3phi_mean, s_t3phi_err;
-        double y, t;
+        final int nWaveLengths = this.waveLengths.length;
 
-        final double[] re_samples = new double[N_SAMPLES];
-        final double[] im_samples = new double[N_SAMPLES];
-        final double[] t3amp_samples = new double[N_SAMPLES];
-        final double[] t3phi_samples = new double[N_SAMPLES];
-        int[] visRndIdxRow;
-        boolean doFlag;
+        // random seeds per row (noise):
+        final long[] rowSeeds = getRowRandomSeeds(STREAM_OI_T3, obsFrom * nTriplets, nObs * nTriplets);
+
+        // enable parallel jobs if many data points:
+        final int nTh = getTableThreadCount(nObs * nTriplets * nWaveLengths);
 
-        double[] distRe_12 = null, distIm_12 = null;
-        double[] distRe_23 = null, distIm_23 = null;
-        double[] distRe_31 = null, distIm_31 = null;
+        // Prepare thread context variables:
+        final SamplingContext[] contexts = createSamplingContexts(nTh);
 
-        double visRe12, visIm12, visErrCplx12;
-        double visRe23, visIm23, visErrCplx23;
-        double visRe31, visIm31, visErrCplx31;
+        // computation tasks = 1 job per block of observation points (work stealing):
+        final int nJobs = (nTh > 1) ? Math.min(nObs, 4 * nTh) : 1;
+        final int stepObs = nObs / nJobs;
 
-        double t3Re, t3Im, sample, diff;
-        double sRe12, sIm12, sRe23, sIm23, sRe31, sIm31;
+        final Runnable[] jobs = new Runnable[nJobs];
 
-        final int nWaveLengths = this.waveLengths.length;
+        for (int b = 0; b < nJobs; b++) {
+            // observation points to be processed by this task:
+            final int fromObs = obsFrom + b * stepObs;
+            final int endObs = (b == nJobs - 1) ? obsEnd : fromObs + stepObs;
 
-        int chi2_nb = 0;
-        double chi2_amp_sum = 0.0;
-        double chi2_phi_sum = 0.0;
+            jobs[b] = new Runnable() {
+                /**
+                 * Called by the ParallelJobExecutor to perform task computation
+                 */
+                @Override
+                public void run() {
+                    final SamplingContext ctx = contexts[ParallelJobExecutor.currentThreadIndex(nTh)];
+                    final Thread thread = Thread.currentThread();
 
-        // Iterate on observable UV points :
-        for (int i = 0, j, k, l, vp, n; i < this.nObsPoints; i++) {
+                    // vars :
+                    Complex cvis12, cvis23, cvis13;
+                    Complex[] visData12, visData23, visData13;
+                    double[] visErr12, visErr23, visErr13;
+                    double[][] dist12, dist23, dist13;
+                    boolean[] visSNRFlag12, visSNRFlag23, visSNRFlag13;
+                    double u12, v12, u23, v23;
+                    double t3amp, t3phi, t3ampTh, t3phiTh, errAmp, errPhi;
 
-            // position in OI_VIS HA row group :
-            vp = this.nBaseLines * i;
+                    // temporary mutable complex:
+                    int[] relPos;
+                    int pos;
 
-            j = 0;
+                    // resampling:
+                    double re_sum, re_sum_err, im_sum, im_sum_err, cos_phi, sin_phi;
+                    double t3amp_sum_diff, t3amp_sum_diff_square;
+                    double t3phi_sum_diff, t3phi_sum_diff_square;
+                    double s_t3amp_mean, s_t3amp_err;
+                    double s_t3phi_mean, s_t3phi_err;
+                    double y, t;
 
-            // Iterate on baselines :
-            for (Triplet triplet : triplets) {
+                    final double[] re_samples = ctx.re_samples;
+                    final double[] im_samples = ctx.im_samples;
+                    final double[] t3amp_samples = ctx.amp_samples;
+                    final double[] t3phi_samples = ctx.phi_samples;
+                    int[] visRndIdxRow;
+                    boolean doFlag;
 
-                k = nTriplets * i + j;
+                    double[] distRe_12 = null, distIm_12 = null;
+                    double[] distRe_23 = null, distIm_23 = null;
+                    double[] distRe_31 = null, distIm_31 = null;
 
-                // target id
-                t3TargetIds[k] = TARGET_ID;
+                    double visRe12, visIm12, visErrCplx12;
+                    double visRe23, visIm23, visErrCplx23;
+                    double visRe31, visIm31, visErrCplx31;
 
-                // UTC :
-                t3Times[k] = visTimes[vp];
+                    double t3Re, t3Im, sample, diff;
+                    double sRe12, sIm12, sRe23, sIm23, sRe31, sIm31;
 
-                // modified julian day :
-                t3Mjds[k] = visMjds[vp];
+                    // theoretical closure phase errors of the current row (computed once if needed):
+                    final double[] visAmp12Row = new double[nWaveLengths];
+                    final double[] visAmp23Row = new double[nWaveLengths];
+                    final double[] visAmp31Row = new double[nWaveLengths];
+                    final double[] t3PhiErrRow = new double[nWaveLengths];
+                    boolean t3PhiErrRowReady;
 
-                // integration time (s) :
-                intTimes[k] = this.integrationTime;
+                    int chi2_nb = 0;
+                    double chi2_amp_sum = 0.0;
+                    double chi2_phi_sum = 0.0;
 
-                // Use relative positions to get the 3 complex vectors (AB, BC, AC)
-                relPos = triplet.getRelativePosition();
+                    // Iterate on observable UV points :
+                    for (int i = fromObs, j, k, l, vp, n; i < endObs; i++) {
 
-                // Find baseline AB = 12 :
-                pos = relPos[0];
+                        // position in OI_VIS HA row group :
+                        vp = nBaseLines * (i - obsFrom);
 
-                if (logger.isDebugEnabled()) {
-                    logger.debug("vis baseline: {}", Arrays.toString(visStaIndexes[vp + pos]));
-                    logger.debug("T3  baseline: {}", Arrays.toString(triplet.getBaselineIndexes()[0]));
-                }
+                        j = 0;
 
-                // use complex visibility error for phases (closure phase is not affected by photometry)
-                // TODO: may compute t3amp based on complex visibility error for amplitudes (like VISAMP) (less important)
-                // pure complex visibility data :
-                visData12 = (this.hasModel) ? this.visComplex[vp + pos] : null;
-                visErr12 = (this.hasModel) ? this.visPhiError[vp + pos] : null;
-                dist12 = this.visRndDist[vp + pos];
-                visSNRFlag12 = this.visPhiSNRFlag[vp + pos];
-                u12 = visUCoords[vp + pos];
-                v12 = visVCoords[vp + pos];
-
-                // Find baseline BC = 23 :
-                pos = relPos[1];
-
-                if (logger.isDebugEnabled()) {
-                    logger.debug("vis baseline: {}", Arrays.toString(visStaIndexes[vp + pos]));
-                    logger.debug("T3  baseline: {}", Arrays.toString(triplet.getBaselineIndexes()[1]));
-                }
+                        // Iterate on baselines :
+                        for (Triplet triplet : triplets) {
 
-                // pure complex visibility data :
-                visData23 = (this.hasModel) ? this.visComplex[vp + pos] : null;
-                visErr23 = (this.hasModel) ? this.visPhiError[vp + pos] : null;
-                dist23 = this.visRndDist[vp + pos];
-                visSNRFlag23 = this.visPhiSNRFlag[vp + pos];
-                u23 = visUCoords[vp + pos];
-                v23 = visVCoords[vp + pos];
+                            k = nTriplets * (i - obsFrom) + j;
 
-                // Find baseline AC = 13 :
-                pos = relPos[2];
+                            // target id
+                            t3TargetIds[k] = TARGET_ID;
 
-                if (logger.isDebugEnabled()) {
-                    logger.debug("vis baseline: {}", Arrays.toString(visStaIndexes[vp + pos]));
-                    logger.debug("T3  baseline: {}", Arrays.toString(triplet.getBaselineIndexes()[2]));
-                }
+                            // UTC :
+                            t3Times[k] = visTimes[vp];
 
-                if (logger.isDebugEnabled()) {
-                    logger.debug("UV 13    = ({}, {})", visUCoords[vp + pos], visVCoords[vp + pos]);
-                    logger.debug("UV 12+23 = ({}, {})", (u12 + u23), (v12 + v23));
-                }
+                            // modified julian day :
+                            t3Mjds[k] = visMjds[vp];
+
+                            // integration time (s) :
+                            intTimes[k] = integrationTime;
+
+                            // Use relative positions to get the 3 complex vectors (AB, BC, AC)
+                            relPos = triplet.getRelativePosition();
+
+                            // Find baseline AB = 12 :
+                            pos = relPos[0];
+
+                            if (logger.isDebugEnabled()) {
+                                logger.debug("vis baseline: {}", Arrays.toString(visStaIndexes[vp + pos]));
+                                logger.debug("T3  baseline: {}", Arrays.toString(triplet.getBaselineIndexes()[0]));
+                            }
 
-                // pure complex visibility data :
-                visData13 = (this.hasModel) ? this.visComplex[vp + pos] : null;
-                visErr13 = (this.hasModel) ? this.visPhiError[vp + pos] : null;
-                dist13 = this.visRndDist[vp + pos];
-                visSNRFlag13 = this.visPhiSNRFlag[vp + pos];
+                            // use complex visibility error for phases (closure phase is not affected by photometry)
+                            // TODO: may compute t3amp based on complex visibility error for amplitudes (like VISAMP) (less important)
+                            // pure complex visibility data :
+                            visData12 = (hasModel) ? visComplex[vp + pos] : null;
+                            visErr12 = (hasModel) ? visPhiError[vp + pos] : null;
+                            dist12 = visRndDist[vp + pos];
+                            visSNRFlag12 = visPhiSNRFlag[vp + pos];
+                            u12 = visUCoords[vp + pos];
+                            v12 = visVCoords[vp + pos];
+
+                            // Find baseline BC = 23 :
+                            pos = relPos[1];
+
+                            if (logger.isDebugEnabled()) {
+                                logger.debug("vis baseline: {}", Arrays.toString(visStaIndexes[vp + pos]));
+                                logger.debug("T3  baseline: {}", Arrays.toString(triplet.getBaselineIndexes()[1]));
+                            }
 
-                // Get proper index:
-                // note: visRndIdx[12] = visRndIdx[23] = visRndIdx[13] by construction
-                visRndIdxRow = this.visRndIdx[vp + pos];
+                            // pure complex visibility data :
+                            visData23 = (hasModel) ? visComplex[vp + pos] : null;
+                            visErr23 = (hasModel) ? visPhiError[vp + pos] : null;
+                            dist23 = visRndDist[vp + pos];
+                            visSNRFlag23 = visPhiSNRFlag[vp + pos];
+                            u23 = visUCoords[vp + pos];
+                            v23 = visVCoords[vp + pos];
 
-                // if target has models, then complex visibility are computed :
-                if (!this.hasModel) {
+                            // Find baseline AC = 13 :
+                            pos = relPos[2];
 
-                    // Iterate on wave lengths :
-                    for (l = 0; l < nWaveLengths; l++) {
-                        t3Amp[k][l] = Double.NaN;
-                        t3AmpErr[k][l] = Double.NaN;
+                            if (logger.isDebugEnabled()) {
+                                logger.debug("vis baseline: {}", Arrays.toString(visStaIndexes[vp + pos]));
+                                logger.debug("T3  baseline: {}", Arrays.toString(triplet.getBaselineIndexes()[2]));
+                            }
 
-                        t3Phi[k][l] = Double.NaN;
-                        t3PhiErr[k][l] = Double.NaN;
+                            if (logger.isDebugEnabled()) {
+                                logger.debug("UV 13    = ({}, {})", visUCoords[vp + pos], visVCoords[vp + pos]);
+                                logger.debug("UV 12+23 = ({}, {})", (u12 + u23), (v12 + v23));
+                            }
 
-                        // mark this value as invalid :
-                        flags[k][l] = true;
-                    }
+                            // pure complex visibility data :
+                            visData13 = (hasModel) ? visComplex[vp + pos] : null;
+                            visErr13 = (hasModel) ? visPhiError[vp + pos] : null;
+                            dist13 = visRndDist[vp + pos];
+                            visSNRFlag13 = visPhiSNRFlag[vp + pos];
 
-                } else {
-                    if (ns != null) {
-                        // Get the complex distributions for the 3 rows:
-                        distRe_12 = dist12.getSamples()[0];
-                        distIm_12 = dist12.getSamples()[1];
+                            // Get proper index:
+                            // note: visRndIdx[12] = visRndIdx[23] = visRndIdx[13] by construction
+                            visRndIdxRow = visRndIdx[vp + pos];
 
-                        distRe_23 = dist23.getSamples()[0];
-                        distIm_23 = dist23.getSamples()[1];
+                            // if target has models, then complex visibility are computed :
+                            if (!hasModel) {
 
-                        distRe_31 = dist13.getSamples()[0];
-                        distIm_31 = dist13.getSamples()[1];
+                                // Iterate on wave lengths :
+                                for (l = 0; l < nWaveLengths; l++) {
+                                    t3Amp[k][l] = Double.NaN;
+                                    t3AmpErr[k][l] = Double.NaN;
 
-                        if (dist12 == dist23 || dist23 == dist13 || dist12 == dist13) {
-                            logger.warn("Bad distribution associations !");
-                        }
-                    }
+                                    t3Phi[k][l] = Double.NaN;
+                                    t3PhiErr[k][l] = Double.NaN;
 
-                    // Iterate on wave lengths :
-                    for (l = 0; l < nWaveLengths; l++) {
+                                    // mark this value as invalid :
+                                    flags[k][l] = true;
+                                }
 
-                        // baseline AB = 12 :
-                        cvis12 = visData12[l];
-                        visRe12 = cvis12.getReal();
-                        visIm12 = cvis12.getImaginary();
-
-                        // baseline BC = 23
-                        cvis23 = visData23[l];
-                        visRe23 = cvis23.getReal();
-                        visIm23 = cvis23.getImaginary();
-
-                        // baseline AC = 13 => conjugate for 31 (im = -im)
-                        cvis13 = visData13[l];
-                        visRe31 = cvis13.getReal();
-                        // conjugate for 31 (im = -im)
-                        visIm31 = -cvis13.getImaginary();
-
-                        // Compute RE/IM bispectrum with C12*C23*~C13 :
-                        t3Re = visRe12 * visRe23 * visRe31 - visRe12 * visIm23 * visIm31 - visIm12 * visRe23 * visIm31 - visIm12 * visIm23 * visRe31;
-                        t3Im = visRe12 * visRe23 * visIm31 + visRe12 * visIm23 * visRe31 + visIm12 * visRe23 * visRe31 - visIm12 * visIm23 * visIm31;
-
-                        // pure amplitude :
-                        t3amp = Math.sqrt(t3Re * t3Re + t3Im * t3Im);
-
-                        // pure phase [-PI;PI] in degrees :
-                        t3phi = toAngle(t3Re, t3Im);
-
-                        doFlag = visSNRFlag12[l] || visSNRFlag23[l] || visSNRFlag13[l];
-
-                        t3ampTh = t3amp;
-                        t3phiTh = t3phi;
-                        errAmp = errPhi = Double.NaN;
-
-                        if (ns != null) {
-                            // Sampling complex visibilities:
-                            // complex visibility errors : visErrRe = visErrIm = visAmpErr or Complex.NaN :
-                            visErrCplx12 = visErr12[l];
-                            visErrCplx23 = visErr23[l];
-                            visErrCplx31 = visErr13[l];
-
-                            re_sum = re_sum_err = im_sum = im_sum_err = 0.0;
-
-                            // bivariate distribution (complex normal):
-                            for (n = 0; n < N_SAMPLES; n++) {
-                                // update nth sample:
-
-                                // baseline AB = 12 :
-                                sRe12 = visRe12 + (visErrCplx12 * distRe_12[n]);
-                                sIm12 = visIm12 + (visErrCplx12 * distIm_12[n]);
-
-                                // baseline BC = 23
-                                sRe23 = visRe23 + (visErrCplx23 * distRe_23[n]);
-                                sIm23 = visIm23 + (visErrCplx23 * distIm_23[n]);
-
-                                // baseline CA = 31
-                                sRe31 = visRe31 + (visErrCplx31 * distRe_31[n]);
-                                // Use conjuguate on distribution too:
-                                sIm31 = visIm31 - (visErrCplx31 * distIm_31[n]);
-
-                                // Compute RE/IM bispectrum with C12*C23*~C13 :
-                                // see ComplexUtils.bispectrum(vis12, vis23, vis31, t3Data);
-                                t3Re = sRe12 * sRe23 * sRe31 - sRe12 * sIm23 * sIm31 - sIm12 * sRe23 * sIm31 - sIm12 * sIm23 * sRe31;
-                                t3Im = sRe12 * sRe23 * sIm31 + sRe12 * sIm23 * sRe31 + sIm12 * sRe23 * sRe31 - sIm12 * sIm23 * sIm31;
-
-                                // average complex value:
-                                re_samples[n] = t3Re;
-                                im_samples[n] = t3Im;
-
-                                // kahan sum
-                                // re_sum += cRe;
-                                y = t3Re - re_sum_err;
-                                t = re_sum + y;
-                                re_sum_err = (t - re_sum) - y;
-                                re_sum = t;
-
-                                // im_sum += cIm;
-                                y = t3Im - im_sum_err;
-                                t = im_sum + y;
-                                im_sum_err = (t - im_sum) - y;
-                                im_sum = t;
-
-                                // phase in [-PI; PI]:
-                                sample = toAngle(t3Re, t3Im);
-                                t3phi_samples[n] = sample;
-                            }
+                            } else {
+                                if (rowSeeds != null) {
+                                    // use the random sequence of this row:
+                                    ctx.random.setSeed(rowSeeds[k]);
+                                }
+                                if (ns != null) {
+                                    // Get the complex distributions for the 3 rows:
+                                    distRe_12 = dist12[0];
+                                    distIm_12 = dist12[1];
 
-                            // mean(T3phi):
-                            s_t3amp_mean = Math.sqrt(re_sum * re_sum + im_sum * im_sum);
-                            s_t3phi_mean = toAngle(re_sum, im_sum);
-
-                            // rotate by -phi:
-                            cos_phi = re_sum / s_t3amp_mean;
-                            sin_phi = im_sum / s_t3amp_mean;
-
-                            // mean(T3amp):
-                            s_t3amp_mean = SAMPLING_FACTOR_MEAN * s_t3amp_mean;
-
-                            t3amp_sum_diff = t3amp_sum_diff_square = 0.0;
-                            t3phi_sum_diff = t3phi_sum_diff_square = 0.0;
-
-                            // 2. compute angle variance and amplitude:
-                            for (n = 0; n < N_SAMPLES; n++) {
-                                // Correct amplitude by estimated phase:
-                                // Amp = Re { C * phasor(-phi) }
-                                sample = re_samples[n] * cos_phi + im_samples[n] * sin_phi; // -phi => + imaginary part in complex mult
-                                t3amp_samples[n] = sample;
-
-                                // Compensated-summation variant for better numeric precision:
-                                diff = sample - s_t3amp_mean;
-                                t3amp_sum_diff += diff;
-                                t3amp_sum_diff_square += diff * diff;
-
-                                // phase in [-PI; PI]:
-                                // Compensated-summation variant for better numeric precision:
-                                // check if diff is [-PI; PI]:
-                                diff = distanceAngle(t3phi_samples[n], s_t3phi_mean);
-                                t3phi_sum_diff += diff;
-                                t3phi_sum_diff_square += diff * diff;
-                            }
+                                    distRe_23 = dist23[0];
+                                    distIm_23 = dist23[1];
 
-                            // error(t3amp):
-                            // note: this algorithm ensures correctness (stable) even if the mean used in diff is wrong !
-                            s_t3amp_err = Math.sqrt(
-                                    SAMPLING_FACTOR_VARIANCE * (t3amp_sum_diff_square - (SAMPLING_FACTOR_MEAN * (t3amp_sum_diff * t3amp_sum_diff)))
-                            );
-
-                            // error(t3phi):
-                            // note: this algorithm ensures correctness (stable) even if the mean used in diff is wrong !
-                            s_t3phi_err = Math.sqrt(
-                                    SAMPLING_FACTOR_VARIANCE * (t3phi_sum_diff_square - (SAMPLING_FACTOR_MEAN * (t3phi_sum_diff * t3phi_sum_diff)))
-                            );
-
-                            /*
-                            * This test on mean() is cheap and interesting to detect non gaussian behaviour = mean diverges and sigma too, but less fast !
-                            * this is useful to FLAG such data anyway (incorrect assumptions) and use theoretical values instead :
-                            * distribution of T3 samples is NOT gaussian anymore, but C is a good normal complex law, how it T3 = C1.C2.C3 (bad too, I suppose) ?
-                             */
-                            // 0.95 / 1.05 corresponds to low SNR(T3) ~ 0.5 and more strict than V2
-                            if (Math.abs(s_t3amp_mean / t3ampTh) > 1.05 || Math.abs(s_t3amp_mean / t3ampTh) < 0.95) {
-                                logger.debug("Incompatible sampled distribution for normal law, detected OIT3 : ratio(mean) = {} SNR= {}",
-                                        (s_t3amp_mean / t3ampTh), (s_t3amp_mean / s_t3amp_err));
-                                doFlag = true;
-                            }
+                                    distRe_31 = dist13[0];
+                                    distIm_31 = dist13[1];
 
-                            if (DEBUG) {
-                                // phase closure error (rad) :
-                                errPhi = ns.computeT3PhiError(i, l, cvis12.abs(), cvis23.abs(), cvis13.abs()); // abs(c13) = abs(c31)
-
-                                // amplitude error t3AmpErr = t3Amp * t3PhiErr :
-                                errAmp = t3amp * errPhi;
-
-                                // note: errAmp is wrong (approximation) in comparison below:
-                                logger.info("Sampling[" + N_SAMPLES + "] snr=" + Math.abs(s_t3amp_mean / s_t3amp_err) + " (low: " + doFlag + ") AMP "
-                                        + " avg= " + s_t3amp_mean + " T3amp= " + t3amp + " ratio: " + (s_t3amp_mean / t3amp)
-                                        + " stddev= " + s_t3amp_err + " errAmp= " + errAmp + " ratio: " + (s_t3amp_err / errAmp)
-                                );
-                                logger.info("Sampling[" + N_SAMPLES + "] snr=" + Math.abs((s_t3phi_mean + Math.PI) / s_t3phi_err) + " (low: " + doFlag + ") PHI "
-                                        + " avg= " + s_t3phi_mean + " T3phi= " + t3phi + " diff: " + distanceAngle(s_t3phi_mean, t3phi)
-                                        + " stddev= " + s_t3phi_err + " errPhi= " + errPhi + " ratio: " + (s_t3phi_err / errPhi)
-                                );
-                            }
+                                    if (dist12 == dist23 || dist23 == dist13 || dist12 == dist13) {
+                                        logger.warn("Bad distribution associations !");
+                                    }
+                                }
+                                t3PhiErrRowReady = false;
 
-                            /* Err on Phi must be corrected with an abacus */
-                            s_t3phi_err = amdlibAbacusErrPhi(s_t3phi_err);
+                                // Iterate on wave lengths :
+                                for (l = 0; l < nWaveLengths; l++) {
 
-                            if (this.doNoise) {
-                                // Use the corresponding sample among vis, vis2, t3 on any baselines !
-                                final int nSample = visRndIdxRow[l];
-                                t3amp = t3amp_samples[nSample];
-                                t3phi = t3phi_samples[nSample];
+                                    // baseline AB = 12 :
+                                    cvis12 = visData12[l];
+                                    visRe12 = cvis12.getReal();
+                                    visIm12 = cvis12.getImaginary();
 
-                                if (DEBUG) {
-                                    // chi2 = sum ( (x - x_th) / err ) ^2
-                                    chi2_nb++;
-                                    diff = (t3amp - t3ampTh) / s_t3amp_err;
-                                    chi2_amp_sum += diff * diff;
+                                    // baseline BC = 23
+                                    cvis23 = visData23[l];
+                                    visRe23 = cvis23.getReal();
+                                    visIm23 = cvis23.getImaginary();
 
-                                    diff = distanceAngle(t3phi, t3phiTh) / s_t3phi_err;
-                                    chi2_phi_sum += diff * diff;
-                                }
-                            } else if (DO_USE_SAMPLED_MEAN) {
-                                t3amp = s_t3amp_mean;
-                                t3phi = s_t3phi_mean;
-                            }
-                            errAmp = s_t3amp_err;
-                            errPhi = s_t3phi_err;
+                                    // baseline AC = 13 => conjugate for 31 (im = -im)
+                                    cvis13 = visData13[l];
+                                    visRe31 = cvis13.getReal();
+                                    // conjugate for 31 (im = -im)
+                                    visIm31 = -cvis13.getImaginary();
 
-                            // If flagged, then use theoretical errors:
-                            if (FIX_LOW_SNR && doFlag) {
-                                // theoretical phase closure error (rad) :
-                                errPhi = ns.computeT3PhiError(i, l, cvis12.abs(), cvis23.abs(), cvis13.abs()); // abs(c13) = abs(c31)
+                                    // Compute RE/IM bispectrum with C12*C23*~C13 :
+                                    t3Re = visRe12 * visRe23 * visRe31 - visRe12 * visIm23 * visIm31 - visIm12 * visRe23 * visIm31 - visIm12 * visIm23 * visRe31;
+                                    t3Im = visRe12 * visRe23 * visIm31 + visRe12 * visIm23 * visRe31 + visIm12 * visRe23 * visRe31 - visIm12 * visIm23 * visIm31;
 
-                                // amplitude error t3AmpErr = t3Amp * t3PhiErr :
-                                errAmp = t3amp * errPhi;
+                                    // pure amplitude :
+                                    t3amp = Math.sqrt(t3Re * t3Re + t3Im * t3Im);
 
-                                if (this.doNoise) {
-                                    // use the first distribution (sigma = 1):
-                                    final int nSample = getNextRandomSampleIndex();
+                                    // pure phase [-PI;PI] in degrees :
+                                    t3phi = toAngle(t3Re, t3Im);
 
-                                    // add gaussian noise with sigma = errAmp :
-                                    t3amp += errAmp * distRe_12[nSample];
-                                    // add gaussian noise with sigma = errPhi :
-                                    t3phi += errPhi * distIm_12[nSample];
-                                }
-                            }
+                                    doFlag = visSNRFlag12[l] || visSNRFlag23[l] || visSNRFlag13[l];
+
+                                    t3ampTh = t3amp;
+                                    t3phiTh = t3phi;
+                                    errAmp = errPhi = Double.NaN;
 
-                            if (useBias) {
-                                double biasAmp = ns.getT3AmpBias(l, t3ampTh); // instrumental bias
+                                    if (ns != null) {
+                                        // Sampling complex visibilities:
+                                        // complex visibility errors : visErrRe = visErrIm = visAmpErr or Complex.NaN :
+                                        visErrCplx12 = visErr12[l];
+                                        visErrCplx23 = visErr23[l];
+                                        visErrCplx31 = visErr13[l];
 
-                                if (biasAmp > 0.0) {
-                                    errAmp = computeCumulativeError(errAmp, biasAmp);
+                                        re_sum = re_sum_err = im_sum = im_sum_err = 0.0;
 
-                                    // add this bias on random samples (normal distribution):
-                                    if (this.doNoise) {
-                                        // update nth sample (mimic normal law) but independent random :
-                                        // just add gaussian noise (variance addition):
-                                        t3amp += biasAmp * distRe_23[getNextRandomSampleIndex()];
-                                    }
-                                }
-                                biasAmp = ns.getT3AmpCalBias(l, t3ampTh); // calibration bias
+                                        // bivariate distribution (complex normal):
+                                        for (n = 0; n < N_SAMPLES; n++) {
+                                            // update nth sample:
 
-                                if (biasAmp > 0.0) {
-                                    errAmp = computeCumulativeError(errAmp, biasAmp);
+                                            // baseline AB = 12 :
+                                            sRe12 = visRe12 + (visErrCplx12 * distRe_12[n]);
+                                            sIm12 = visIm12 + (visErrCplx12 * distIm_12[n]);
 
-                                    // add this bias on random samples (normal distribution):
-                                    if (this.doNoise && useRandomCalBias) {
-                                        // update nth sample (mimic normal law) but independent random :
-                                        // just add gaussian noise (variance addition) depending on time (not wavelength):
-                                        t3amp += biasAmp * distRe_23[getNextRandomSampleIndex()];
-                                    }
-                                }
+                                            // baseline BC = 23
+                                            sRe23 = visRe23 + (visErrCplx23 * distRe_23[n]);
+                                            sIm23 = visIm23 + (visErrCplx23 * distIm_23[n]);
+
+                                            // baseline CA = 31
+                                            sRe31 = visRe31 + (visErrCplx31 * distRe_31[n]);
+                                            // Use conjuguate on distribution too:
+                                            sIm31 = visIm31 - (visErrCplx31 * distIm_31[n]);
+
+                                            // Compute RE/IM bispectrum with C12*C23*~C13 :
+                                            // see ComplexUtils.bispectrum(vis12, vis23, vis31, t3Data);
+                                            t3Re = sRe12 * sRe23 * sRe31 - sRe12 * sIm23 * sIm31 - sIm12 * sRe23 * sIm31 - sIm12 * sIm23 * sRe31;
+                                            t3Im = sRe12 * sRe23 * sIm31 + sRe12 * sIm23 * sRe31 + sIm12 * sRe23 * sRe31 - sIm12 * sIm23 * sIm31;
+
+                                            // average complex value:
+                                            re_samples[n] = t3Re;
+                                            im_samples[n] = t3Im;
 
-                                double biasPhi = ns.getT3PhiBias(l); // instrumental bias
-                                if (biasPhi > 0.0) {
-                                    errPhi = computeCumulativeError(errPhi, biasPhi);
+                                            // kahan sum
+                                            // re_sum += cRe;
+                                            y = t3Re - re_sum_err;
+                                            t = re_sum + y;
+                                            re_sum_err = (t - re_sum) - y;
+                                            re_sum = t;
+
+                                            // im_sum += cIm;
+                                            y = t3Im - im_sum_err;
+                                            t = im_sum + y;
+                                            im_sum_err = (t - im_sum) - y;
+                                            im_sum = t;
+
+                                            // phase in [-PI; PI]:
+                                            sample = toAngle(t3Re, t3Im);
+                                            t3phi_samples[n] = sample;
+                                        }
 
-                                    // add this bias on random samples (normal distribution):
-                                    if (this.doNoise) {
-                                        // update nth sample (mimic normal law) but independent random :
-                                        // just add gaussian noise (variance addition):
-                                        t3phi += biasPhi * distIm_23[getNextRandomSampleIndex()];
+                                        // mean(T3phi):
+                                        s_t3amp_mean = Math.sqrt(re_sum * re_sum + im_sum * im_sum);
+                                        s_t3phi_mean = toAngle(re_sum, im_sum);
+
+                                        // rotate by -phi:
+                                        cos_phi = re_sum / s_t3amp_mean;
+                                        sin_phi = im_sum / s_t3amp_mean;
+
+                                        // mean(T3amp):
+                                        s_t3amp_mean = SAMPLING_FACTOR_MEAN * s_t3amp_mean;
+
+                                        t3amp_sum_diff = t3amp_sum_diff_square = 0.0;
+                                        t3phi_sum_diff = t3phi_sum_diff_square = 0.0;
+
+                                        // 2. compute angle variance and amplitude:
+                                        for (n = 0; n < N_SAMPLES; n++) {
+                                            // Correct amplitude by estimated phase:
+                                            // Amp = Re { C * phasor(-phi) }
+                                            sample = re_samples[n] * cos_phi + im_samples[n] * sin_phi; // -phi => + imaginary part in complex mult
+                                            t3amp_samples[n] = sample;
+
+                                            // Compensated-summation variant for better numeric precision:
+                                            diff = sample - s_t3amp_mean;
+                                            t3amp_sum_diff += diff;
+                                            t3amp_sum_diff_square += diff * diff;
+
+                                            // phase in [-PI; PI]:
+                                            // Compensated-summation variant for better numeric precision:
+                                            // check if diff is [-PI; PI]:
+                                            diff = distanceAngle(t3phi_samples[n], s_t3phi_mean);
+                                            t3phi_sum_diff += diff;
+                                            t3phi_sum_diff_square += diff * diff;
+                                        }
+
+                                        // error(t3amp):
+                                        // note: this algorithm ensures correctness (stable) even if the mean used in diff is wrong !
+                                        s_t3amp_err = Math.sqrt(
+                                                SAMPLING_FACTOR_VARIANCE * (t3amp_sum_diff_square - (SAMPLING_FACTOR_MEAN * (t3amp_sum_diff * t3amp_sum_diff)))
+                                        );
+
+                                        // error(t3phi):
+                                        // note: this algorithm ensures correctness (stable) even if the mean used in diff is wrong !
+                                        s_t3phi_err = Math.sqrt(
+                                                SAMPLING_FACTOR_VARIANCE * (t3phi_sum_diff_square - (SAMPLING_FACTOR_MEAN * (t3phi_sum_diff * t3phi_sum_diff)))
+                                        );
+
+                                        /*
+                                        * This test on mean() is cheap and interesting to detect non gaussian behaviour = mean diverges and sigma too, but less fast !
+                                        * this is useful to FLAG such data anyway (incorrect assumptions) and use theoretical values instead :
+                                        * distribution of T3 samples is NOT gaussian anymore, but C is a good normal complex law, how it T3 = C1.C2.C3 (bad too, I suppose) ?
+                                         */
+                                        // 0.95 / 1.05 corresponds to low SNR(T3) ~ 0.5 and more strict than V2
+                                        if (Math.abs(s_t3amp_mean / t3ampTh) > 1.05 || Math.abs(s_t3amp_mean / t3ampTh) < 0.95) {
+                                            logger.debug("Incompatible sampled distribution for normal law, detected OIT3 : ratio(mean) = {} SNR= {}",
+                                                    (s_t3amp_mean / t3ampTh), (s_t3amp_mean / s_t3amp_err));
+                                            doFlag = true;
+                                        }
+
+                                        if (DEBUG) {
+                                            // phase closure error (rad) :
+                                            errPhi = ns.computeT3PhiError(i, l, cvis12.abs(), cvis23.abs(), cvis13.abs()); // abs(c13) = abs(c31)
+
+                                            // amplitude error t3AmpErr = t3Amp * t3PhiErr :
+                                            errAmp = t3amp * errPhi;
+
+                                            // note: errAmp is wrong (approximation) in comparison below:
+                                            logger.info("Sampling[" + N_SAMPLES + "] snr=" + Math.abs(s_t3amp_mean / s_t3amp_err) + " (low: " + doFlag + ") AMP "
+                                                    + " avg= " + s_t3amp_mean + " T3amp= " + t3amp + " ratio: " + (s_t3amp_mean / t3amp)
+                                                    + " stddev= " + s_t3amp_err + " errAmp= " + errAmp + " ratio: " + (s_t3amp_err / errAmp)
+                                            );
+                                            logger.info("Sampling[" + N_SAMPLES + "] snr=" + Math.abs((s_t3phi_mean + Math.PI) / s_t3phi_err) + " (low: " + doFlag + ") PHI "
+                                                    + " avg= " + s_t3phi_mean + " T3phi= " + t3phi + " diff: " + distanceAngle(s_t3phi_mean, t3phi)
+                                                    + " stddev= " + s_t3phi_err + " errPhi= " + errPhi + " ratio: " + (s_t3phi_err / errPhi)
+                                            );
+                                        }
+
+                                        /* Err on Phi must be corrected with an abacus */
+                                        s_t3phi_err = amdlibAbacusErrPhi(s_t3phi_err);
+
+                                        if (doNoise) {
+                                            // Use the corresponding sample among vis, vis2, t3 on any baselines !
+                                            final int nSample = visRndIdxRow[l];
+                                            t3amp = t3amp_samples[nSample];
+                                            t3phi = t3phi_samples[nSample];
+
+                                            if (DEBUG) {
+                                                // chi2 = sum ( (x - x_th) / err ) ^2
+                                                chi2_nb++;
+                                                diff = (t3amp - t3ampTh) / s_t3amp_err;
+                                                chi2_amp_sum += diff * diff;
+
+                                                diff = distanceAngle(t3phi, t3phiTh) / s_t3phi_err;
+                                                chi2_phi_sum += diff * diff;
+                                            }
+                                        } else if (DO_USE_SAMPLED_MEAN) {
+                                            t3amp = s_t3amp_mean;
+                                            t3phi = s_t3phi_mean;
+                                        }
+                                        errAmp = s_t3amp_err;
+                                        errPhi = s_t3phi_err;
+
+                                        // If flagged, then use theoretical errors:
+                                        if (FIX_LOW_SNR && doFlag) {
+                                            if (!t3PhiErrRowReady) {
+                                                // theoretical phase closure errors (rad) for the whole row:
+                                                for (int m = 0; m < nWaveLengths; m++) {
+                                                    visAmp12Row[m] = visData12[m].abs();
+                                                    visAmp23Row[m] = visData23[m].abs();
+                                                    visAmp31Row[m] = visData13[m].abs(); // abs(c13) = abs(c31)
+                                                }
+                                                ns.computeT3PhiErrors(i, visAmp12Row, visAmp23Row, visAmp31Row, t3PhiErrRow);
+                                                t3PhiErrRowReady = true;
+                                            }
+                                            // theoretical phase closure error (rad) :
+                                            errPhi = t3PhiErrRow[l];
+
+                                            // amplitude error t3AmpErr = t3Amp * t3PhiErr :
+                                            errAmp = t3amp * errPhi;
+
+                                            if (doNoise) {
+                                                // use the first distribution (sigma = 1):
+                                                final int nSample = ctx.nextRandomSampleIndex();
+
+                                                // add gaussian noise with sigma = errAmp :
+                                                t3amp += errAmp * distRe_12[nSample];
+                                                // add gaussian noise with sigma = errPhi :
+                                                t3phi += errPhi * distIm_12[nSample];
+                                            }
+                                        }
+
+                                        if (useBias) {
+                                            double biasAmp = ns.getT3AmpBias(l, t3ampTh); // instrumental bias
+
+                                            if (biasAmp > 0.0) {
+                                                errAmp = computeCumulativeError(errAmp, biasAmp);
+
+                                                // add this bias on random samples (normal distribution):
+                                                if (doNoise) {
+                                                    // update nth sample (mimic normal law) but independent random :
+                                                    // just add gaussian noise (variance addition):
+                                                    t3amp += biasAmp * distRe_23[ctx.nextRandomSampleIndex()];
+                                                }
+                                            }
+                                            biasAmp = ns.getT3AmpCalBias(l, t3ampTh); // calibration bias
+
+                                            if (biasAmp > 0.0) {
+                                                errAmp = computeCumulativeError(errAmp, biasAmp);
+
+                                                // add this bias on random samples (normal distribution):
+                                                if (doNoise && useRandomCalBias) {
+                                                    // update nth sample (mimic normal law) but independent random :
+                                                    // just add gaussian noise (variance addition) depending on time (not wavelength):
+                                                    t3amp += biasAmp * distRe_23[ctx.nextRandomSampleIndex()];
+                                                }
+                                            }
+
+                                            double biasPhi = ns.getT3PhiBias(l); // instrumental bias
+                                            if (biasPhi > 0.0) {
+                                                errPhi = computeCumulativeError(errPhi, biasPhi);
+
+                                                // add this bias on random samples (normal distribution):
+                                                if (doNoise) {
+                                                    // update nth sample (mimic normal law) but independent random :
+                                                    // just add gaussian noise (variance addition):
+                                                    t3phi += biasPhi * distIm_23[ctx.nextRandomSampleIndex()];
+                                                }
+                                            }
+                                            biasPhi = ns.getT3PhiCalBias(l); // calibration bias
+                                            if (biasPhi > 0.0) {
+                                                errPhi = computeCumulativeError(errPhi, biasPhi);
+
+                                                // add this bias on random samples (normal distribution):
+                                                if (doNoise && useRandomCalBias) {
+                                                    // update nth sample (mimic normal law) but independent random :
+                                                    // just add gaussian noise (variance addition) depending on time (not wavelength):
+                                                    t3phi += biasPhi * distIm_23[ctx.nextRandomSampleIndex()];
+                                                }
+                                            }
+                                        }
                                     }
-                                }
-                                biasPhi = ns.getT3PhiCalBias(l); // calibration bias
-                                if (biasPhi > 0.0) {
-                                    errPhi = computeCumulativeError(errPhi, biasPhi);
-
-                                    // add this bias on random samples (normal distribution):
-                                    if (this.doNoise && useRandomCalBias) {
-                                        // update nth sample (mimic normal law) but independent random :
-                                        // just add gaussian noise (variance addition) depending on time (not wavelength):
-                                        t3phi += biasPhi * distIm_23[getNextRandomSampleIndex()];
+
+                                    // Set values:
+                                    t3Amp[k][l] = t3amp;
+                                    t3AmpErr[k][l] = errAmp;
+
+                                    // pure model values:   
+                                    t3AmpModel[k][l] = t3ampTh;
+                                    t3PhiModel[k][l] = toDegrees(t3phiTh);
+
+                                    // convert errPhi in degrees :
+                                    t3Phi[k][l] = toDegrees(t3phi);
+                                    t3PhiErr[k][l] = toDegrees(errPhi);
+
+                                    // mark this value as valid only if observables are not NaN, error is valid and SNR is OK:
+                                    if (!doFlag && (Double.isNaN(t3Amp[k][l]) || Double.isNaN(t3AmpErr[k][l])
+                                            || Double.isNaN(t3Phi[k][l]) || Double.isNaN(t3PhiErr[k][l]))) {
+                                        doFlag = true;
                                     }
+                                    flags[k][l] = doFlag;
                                 }
                             }
-                        }
 
-                        // Set values:
-                        t3Amp[k][l] = t3amp;
-                        t3AmpErr[k][l] = errAmp;
+                            // UV 1 coords (m) :
+                            t3U1Coords[k] = u12;
+                            t3V1Coords[k] = v12;
 
-                        // pure model values:   
-                        t3AmpModel[k][l] = t3ampTh;
-                        t3PhiModel[k][l] = toDegrees(t3phiTh);
+                            // UV 2 coords (m) :
+                            t3U2Coords[k] = u23;
+                            t3V2Coords[k] = v23;
 
-                        // convert errPhi in degrees :
-                        t3Phi[k][l] = toDegrees(t3phi);
-                        t3PhiErr[k][l] = toDegrees(errPhi);
+                            // station indexes :
+                            t3StaIndexes[k] = triplet.getTripletIndexes();
 
-                        // mark this value as valid only if observables are not NaN, error is valid and SNR is OK:
-                        if (!doFlag && (Double.isNaN(t3Amp[k][l]) || Double.isNaN(t3AmpErr[k][l])
-                                || Double.isNaN(t3Phi[k][l]) || Double.isNaN(t3PhiErr[k][l]))) {
-                            doFlag = true;
+                            j++;
                         }
-                        flags[k][l] = doFlag;
-                    }
-                }
 
-                // UV 1 coords (m) :
-                t3U1Coords[k] = u12;
-                t3V1Coords[k] = v12;
+                        // fast interrupt :
+                        if (thread.isInterrupted()) {
+                            return;
+                        }
+                    }
 
-                // UV 2 coords (m) :
-                t3U2Coords[k] = u23;
-                t3V2Coords[k] = v23;
+                    // debug statistics:
+                    ctx.addChi2(chi2_nb, chi2_amp_sum, chi2_phi_sum);
+                }
+            };
+        }
 
-                // station indexes :
-                t3StaIndexes[k] = triplet.getTripletIndexes();
+        // execute jobs in parallel or using current thread if only one job (throws InterruptedJobException if interrupted):
+        JOB_EXECUTOR.forkAndJoin("OIFitsCreatorService.createOIT3", jobs);
 
-                j++;
-            }
+        // fast interrupt :
+        if (Thread.currentThread().isInterrupted()) {
+            return;
         }
 
         this.oiFitsFile.addOiTable(t3);
 
         // Chi2:
+        int chi2_nb = 0;
+        double chi2_amp_sum = 0.0;
+        double chi2_phi_sum = 0.0;
+
+        for (SamplingContext ctx : contexts) {
+            chi2_nb += ctx.chi2_nb;
+            chi2_amp_sum += ctx.chi2_amp_sum;
+            chi2_phi_sum += ctx.chi2_phi_sum;
+        }
         if (chi2_nb != 0) {
             final double chi2_amp_red = chi2_amp_sum / chi2_nb; // degrees of freedom = ??
             logger.info("T3AMP: chi2 = " + chi2_amp_sum + " (n = " + chi2_nb + "): red_chi2: " + chi2_amp_red);
@@ -2326,4 +2662,72 @@ public final class OIFitsCreatorService extends AbstractOIFitsProducer {
     public boolean isUseCalibrationBias() {
         return useCalibrationBias;
     }
+
+    /**
+     * Define the number of threads to compute the rows of OIFits tables (validation)
+     * @param tableThreads number of threads or 0 to use parallel jobs if many data points
+     */
+    public void setTableThreads(final int tableThreads) {
+        this.tableThreads = Math.max(0, tableThreads);
+    }
+
+    /**
+     * Return the number of threads to compute the rows of an OIFits table
+     * @param nDataPoints number of data points (rows x spectral channels)
+     * @return number of threads
+     */
+    private int getTableThreadCount(final int nDataPoints) {
+        if (this.tableThreads != 0) {
+            return this.tableThreads;
+        }
+        return (!JOB_EXECUTOR.isWorkerThread() && (nDataPoints > JOB_THRESHOLD_OIFITS_TABLES)) ? JOB_EXECUTOR.getMaxParallelJob() : 1;
+    }
+
+    /**
+     * Create the sampling contexts (1 per thread)
+     * @param nTh number of threads
+     * @return sampling contexts
+     */
+    private static SamplingContext[] createSamplingContexts(final int nTh) {
+        final SamplingContext[] contexts = new SamplingContext[nTh];
+        for (int t = 0; t < nTh; t++) {
+            contexts[t] = new SamplingContext();
+        }
+        return contexts;
+    }
+
+    /**
+     * Thread context holding scratch arrays to sample complex visibilities and the row random generator
+     */
+    private static final class SamplingContext {
+
+        /** real part of complex samples */
+        final double[] re_samples = new double[N_SAMPLES];
+        /** imaginary part of complex samples */
+        final double[] im_samples = new double[N_SAMPLES];
+        /** amplitude samples */
+        final double[] amp_samples = new double[N_SAMPLES];
+        /** phase samples */
+        final double[] phi_samples = new double[N_SAMPLES];
+        /** mutable complex (differential visibilities) */
+        final MutableComplex cpxVisSum = new MutableComplex();
+        final MutableComplex cpxVisRef = new MutableComplex();
+        final MutableComplex cpxVisDiff = new MutableComplex();
+        /** random stream (seeded per row) */
+        final RandomStream random = new RandomStream(0L);
+        /** chi2 statistics (debug) */
+        int chi2_nb = 0;
+        double chi2_amp_sum = 0.0;
+        double chi2_phi_sum = 0.0;
+
+        int nextRandomSampleIndex() {
+            return random.nextInt(N_SAMPLES);
+        }
+
+        void addChi2(final int nb, final double ampSum, final double phiSum) {
+            chi2_nb += nb;
+            chi2_amp_sum += ampSum;
+            chi2_phi_sum += phiSum;
+        }
+    }
 }
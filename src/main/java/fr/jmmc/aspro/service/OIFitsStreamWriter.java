@@ -0,0 +1,451 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.service;
+
+import fr.jmmc.jmcs.util.FileUtils;
+import fr.jmmc.oitools.model.OIData;
+import fr.jmmc.oitools.model.OIFitsFile;
+import fr.jmmc.oitools.model.OIFitsWriter;
+import fr.nom.tam.fits.Fits;
+import fr.nom.tam.fits.FitsException;
+import fr.nom.tam.fits.Header;
+import fr.nom.tam.util.BufferedDataOutputStream;
+import fr.nom.tam.util.BufferedFile;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class writes an OIFits file by blocks of observation points (streaming export):
+ * each block is an OIFits structure having the same tables (OI_ARRAY, OI_TARGET, OI_WAVELENGTH and data tables)
+ * where data tables only contain the rows of the block observation points.
+ *
+ * Every block is serialized by the oitools OIFitsWriter (primary HDU, keywords, TDIM, TNULL, checksums) into a
+ * temporary file: the first block gives all HDU headers (data table NAXIS2 set to the total number of rows)
+ * and the constant tables; the data table rows of each block are then copied at their final position.
+ * Data table checksums (DATASUM / CHECKSUM) are updated when the file is completed.
+ *
+ * @author bourgesl
+ */
+public final class OIFitsStreamWriter implements Closeable {
+
+    /** Class logger */
+    private static final Logger logger = LoggerFactory.getLogger(OIFitsStreamWriter.class.getName());
+    /** FITS block size in bytes */
+    private final static int FITS_BLOCK = 2880;
+    /** copy buffer size in bytes */
+    private final static int BUFFER_SIZE = 64 * 1024;
+    /** NAXIS1 keyword */
+    private final static String KEYWORD_NAXIS1 = "NAXIS1";
+    /** NAXIS2 keyword */
+    private final static String KEYWORD_NAXIS2 = "NAXIS2";
+    /** CHECKSUM keyword */
+    private final static String KEYWORD_CHECKSUM = "CHECKSUM";
+    /** DATASUM keyword */
+    private final static String KEYWORD_DATASUM = "DATASUM";
+    /** CHECKSUM value used to compute the HDU checksum */
+    private final static String CHECKSUM_ZERO = "0000000000000000";
+
+    /* members */
+    /** file name */
+    private final String fileName;
+    /** total number of observation points */
+    private final int nPoints;
+    /** output file */
+    private RandomAccessFile out = null;
+    /** HDU layout (given by the first block) */
+    private List<StreamHDU> hdus = null;
+    /** number of written observation points */
+    private int writtenPoints = 0;
+    /** end of the file */
+    private long end = 0L;
+    /** copy buffer */
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    /**
+     * Create the OIFits stream writer
+     * @param fileName file name
+     * @param nPoints total number of observation points
+     * @throws IOException if the file can not be created
+     */
+    public OIFitsStreamWriter(final String fileName, final int nPoints) throws IOException {
+        this.fileName = fileName;
+        this.nPoints = nPoints;
+        this.out = new RandomAccessFile(fileName, "rw");
+        this.out.setLength(0L);
+    }
+
+    /**
+     * Write the given block (observation points written in order)
+     * @param oiFitsFile OIFits structure of the block
+     * @param nBlockPoints number of observation points in the block
+     * @throws FitsException if a fits error occurred
+     * @throws IOException if an I/O error occurred
+     */
+    public void write(final OIFitsFile oiFitsFile, final int nBlockPoints) throws FitsException, IOException {
+        if (this.out == null) {
+            throw new IllegalStateException("Writer closed: " + this.fileName);
+        }
+        if (this.writtenPoints + nBlockPoints > this.nPoints) {
+            throw new IllegalStateException("Too many observation points: " + (this.writtenPoints + nBlockPoints) + " > " + this.nPoints);
+        }
+        final long start = System.nanoTime();
+
+        // data tables (rows per observation point):
+        final Set<String> dataExtNames = new HashSet<String>(8);
+        for (OIData oiData : oiFitsFile.getOiDataList()) {
+            dataExtNames.add(oiData.getExtName());
+        }
+
+        final File tmpFile = FileUtils.getTempFile("aspro-block-", ".fits");
+        try {
+            // use oitools to serialize the block:
+            OIFitsWriter.writeOIFits(tmpFile.getAbsolutePath(), oiFitsFile);
+
+            final boolean first = (this.hdus == null);
+            if (first) {
+                this.hdus = new ArrayList<StreamHDU>(8);
+            }
+
+            final BufferedFile in = new BufferedFile(tmpFile.getAbsolutePath(), "r");
+            try {
+                int n = 0;
+                while (in.getFilePointer() < in.length()) {
+                    final long hduOffset = in.getFilePointer();
+                    final Header header = Header.readHeader(in);
+                    final long dataOffset = hduOffset + padding(in.getFilePointer() - hduOffset);
+                    final long dataSize = getDataSize(header);
+
+                    final StreamHDU hdu;
+                    if (first) {
+                        hdu = new StreamHDU(header, dataExtNames.contains(header.getTrimmedStringValue("EXTNAME")));
+                        this.hdus.add(hdu);
+                    } else {
+                        if (n >= this.hdus.size()) {
+                            throw new IllegalStateException("Unexpected HDU[" + n + "] in block");
+                        }
+                        hdu = this.hdus.get(n);
+                        hdu.check(header);
+                    }
+
+                    if (hdu.isData) {
+                        final long rowBytes = header.getIntValue(KEYWORD_NAXIS1);
+                        final int nRows = header.getIntValue(KEYWORD_NAXIS2);
+
+                        if (first) {
+                            if ((nBlockPoints == 0) || (nRows % nBlockPoints != 0)) {
+                                throw new IllegalStateException("Invalid number of rows: " + nRows + " for " + nBlockPoints + " observation points");
+                            }
+                            hdu.rowBytes = rowBytes;
+                            hdu.rowsPerPoint = nRows / nBlockPoints;
+
+                            // set the total number of rows:
+                            header.findCard(KEYWORD_NAXIS2).setValue(Integer.toString(hdu.rowsPerPoint * this.nPoints));
+
+                            if (header.containsKey(KEYWORD_CHECKSUM) && header.containsKey(KEYWORD_DATASUM)) {
+                                hdu.useChecksum = true;
+                                header.findCard(KEYWORD_DATASUM).setValue("0");
+                                header.findCard(KEYWORD_CHECKSUM).setValue(CHECKSUM_ZERO);
+                            }
+                            final byte[] headerBytes = toBytes(header);
+
+                            hdu.headerOffset = this.end;
+                            hdu.headerSize = headerBytes.length;
+                            hdu.dataOffset = this.end + headerBytes.length;
+                            hdu.dataSize = rowBytes * hdu.rowsPerPoint * this.nPoints;
+
+                            this.out.seek(hdu.headerOffset);
+                            this.out.write(headerBytes);
+
+                            this.end = hdu.dataOffset + padding(hdu.dataSize);
+                        } else if (nRows != hdu.rowsPerPoint * nBlockPoints) {
+                            throw new IllegalStateException("Invalid number of rows: " + nRows + " for " + nBlockPoints + " observation points");
+                        }
+
+                        // copy the block rows at their final position:
+                        in.seek(dataOffset);
+                        copy(in, hdu.dataOffset + hdu.written, dataSize, hdu);
+                        hdu.written += dataSize;
+
+                    } else if (first) {
+                        // constant table: copy the complete HDU:
+                        in.seek(hduOffset);
+                        copy(in, this.end, (dataOffset - hduOffset) + padding(dataSize), null);
+                        this.end += (dataOffset - hduOffset) + padding(dataSize);
+                    }
+                    in.seek(dataOffset + padding(dataSize));
+                    n++;
+                }
+                if (n != this.hdus.size()) {
+                    throw new IllegalStateException("Missing HDU in block: " + n + " HDU(s) but " + this.hdus.size() + " expected");
+                }
+            } finally {
+                in.close();
+            }
+        } finally {
+            if (!tmpFile.delete()) {
+                logger.debug("Unable to delete temporary file: {}", tmpFile);
+            }
+        }
+        this.writtenPoints += nBlockPoints;
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("write: {} observation points - duration = {} ms.", nBlockPoints, 1e-6d * (System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Complete the file: write data padding and update data table checksums
+     * @throws FitsException if a fits error occurred
+     * @throws IOException if an I/O error occurred
+     */
+    public void finish() throws FitsException, IOException {
+        if (this.writtenPoints != this.nPoints) {
+            throw new IllegalStateException("Missing observation points: " + this.writtenPoints + " written but " + this.nPoints + " expected");
+        }
+        if (this.hdus == null) {
+            throw new IllegalStateException("No block written");
+        }
+        for (StreamHDU hdu : this.hdus) {
+            if (hdu.isData) {
+                if (hdu.written != hdu.dataSize) {
+                    throw new IllegalStateException("Invalid data size: " + hdu.written + " written but " + hdu.dataSize + " expected");
+                }
+                // zero padding:
+                final int pad = (int) (padding(hdu.dataSize) - hdu.dataSize);
+                if (pad != 0) {
+                    this.out.seek(hdu.dataOffset + hdu.dataSize);
+                    this.out.write(new byte[pad]);
+                }
+                if (hdu.useChecksum) {
+                    final Header header = hdu.header;
+                    final long dataSum = fold(hdu.dataSum);
+
+                    header.findCard(KEYWORD_DATASUM).setValue(Long.toString(dataSum));
+                    header.findCard(KEYWORD_CHECKSUM).setValue(CHECKSUM_ZERO);
+
+                    final byte[] headerBytes = toBytes(header);
+                    final long sum = fold(checksum(0L, 0L, headerBytes, headerBytes.length) + dataSum);
+
+                    header.findCard(KEYWORD_CHECKSUM).setValue(Fits.checksumEnc(sum, true));
+
+                    writeHeader(hdu);
+                }
+            }
+        }
+        this.out.setLength(this.end);
+
+        logger.info("OIFits file written: {} ({} bytes)", this.fileName, this.end);
+    }
+
+    /**
+     * Close the output file
+     * @throws IOException if an I/O error occurred
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.out != null) {
+            try {
+                this.out.close();
+            } finally {
+                this.out = null;
+                this.hdus = null;
+            }
+        }
+    }
+
+    /**
+     * Return the file name
+     * @return file name
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Write again the header of the given HDU (same size)
+     * @param hdu HDU to update
+     * @throws FitsException if a fits error occurred
+     * @throws IOException if an I/O error occurred
+     */
+    private void writeHeader(final StreamHDU hdu) throws FitsException, IOException {
+        final byte[] headerBytes = toBytes(hdu.header);
+        if (headerBytes.length != hdu.headerSize) {
+            throw new IllegalStateException("Invalid header size: " + headerBytes.length + " != " + hdu.headerSize);
+        }
+        this.out.seek(hdu.headerOffset);
+        this.out.write(headerBytes);
+    }
+
+    /**
+     * Copy bytes from the given input to the output file
+     * @param in input positioned at the first byte to copy
+     * @param offset output position
+     * @param length number of bytes to copy
+     * @param hdu optional data table to update its data checksum
+     * @throws IOException if an I/O error occurred
+     */
+    private void copy(final BufferedFile in, final long offset, final long length, final StreamHDU hdu) throws IOException {
+        final byte[] buf = this.buffer;
+        this.out.seek(offset);
+
+        long pos = (hdu != null) ? hdu.written : 0L;
+        for (long remaining = length; remaining > 0L;) {
+            final int len = (int) Math.min(remaining, buf.length);
+            in.readFully(buf, 0, len);
+            this.out.write(buf, 0, len);
+
+            if (hdu != null) {
+                hdu.dataSum = fold(checksum(hdu.dataSum, pos, buf, len));
+            }
+            pos += len;
+            remaining -= len;
+        }
+    }
+
+    /**
+     * Serialize the given header (blank padding)
+     * @param header header to serialize
+     * @return header bytes
+     * @throws FitsException if a fits error occurred
+     * @throws IOException if an I/O error occurred
+     */
+    private static byte[] toBytes(final Header header) throws FitsException, IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream(4 * FITS_BLOCK);
+        final BufferedDataOutputStream dos = new BufferedDataOutputStream(bos);
+        header.write(dos);
+        dos.flush();
+
+        final byte[] bytes = bos.toByteArray();
+        final int len = (int) padding(bytes.length);
+        if (len == bytes.length) {
+            return bytes;
+        }
+        final byte[] padded = Arrays.copyOf(bytes, len);
+        Arrays.fill(padded, bytes.length, len, (byte) ' ');
+        return padded;
+    }
+
+    /**
+     * Return the data size (bytes) of the given HDU header (no padding)
+     * @param header HDU header
+     * @return data size in bytes
+     */
+    private static long getDataSize(final Header header) {
+        final int nAxis = header.getIntValue("NAXIS", 0);
+        if (nAxis == 0) {
+            return 0L;
+        }
+        if (header.getIntValue("PCOUNT", 0) != 0) {
+            throw new IllegalStateException("Variable length arrays are not supported (PCOUNT != 0)");
+        }
+        long size = Math.abs(header.getIntValue("BITPIX")) / 8;
+        for (int i = 1; i <= nAxis; i++) {
+            size *= header.getIntValue("NAXIS" + i);
+        }
+        return size * header.getIntValue("GCOUNT", 1);
+    }
+
+    /**
+     * Return the given size rounded to the FITS block size
+     * @param size size in bytes
+     * @return padded size in bytes
+     */
+    private static long padding(final long size) {
+        return ((size + FITS_BLOCK - 1) / FITS_BLOCK) * FITS_BLOCK;
+    }
+
+    /**
+     * Add the given bytes to the 32-bit 1's complement checksum (FITS checksum convention)
+     * @param sum current sum (not folded)
+     * @param pos position of the first byte relative to the start of the data (or header)
+     * @param bytes bytes to add
+     * @param len number of bytes to add
+     * @return updated sum (not folded)
+     */
+    private static long checksum(long sum, final long pos, final byte[] bytes, final int len) {
+        for (int i = 0; i < len; i++) {
+            // big endian 32-bit words:
+            sum += (bytes[i] & 0xFFL) << (8 * (3 - (int) ((pos + i) & 3L)));
+        }
+        return sum;
+    }
+
+    /**
+     * Fold carries of the given sum into a 32-bit 1's complement sum
+     * @param sum sum to fold
+     * @return 32-bit 1's complement sum
+     */
+    private static long fold(long sum) {
+        while ((sum >>> 32) != 0L) {
+            sum = (sum & 0xFFFFFFFFL) + (sum >>> 32);
+        }
+        return sum;
+    }
+
+    /**
+     * HDU layout in the output file
+     */
+    private static final class StreamHDU {
+
+        /** HDU header (first block) */
+        final Header header;
+        /** extension name */
+        final String extName;
+        /** true if rows are given per observation point; false for constant tables */
+        final boolean isData;
+        /** header offset */
+        long headerOffset = 0L;
+        /** header size (padded) */
+        int headerSize = 0;
+        /** data offset */
+        long dataOffset = 0L;
+        /** total data size (no padding) */
+        long dataSize = 0L;
+        /** row size in bytes */
+        long rowBytes = 0L;
+        /** number of rows per observation point */
+        int rowsPerPoint = 0;
+        /** written data size */
+        long written = 0L;
+        /** true if the header has checksums to update */
+        boolean useChecksum = false;
+        /** data checksum (not folded) */
+        long dataSum = 0L;
+
+        /**
+         * Protected constructor
+         * @param header HDU header (first block)
+         * @param isData true if rows are given per observation point; false for constant tables
+         */
+        StreamHDU(final Header header, final boolean isData) {
+            this.header = header;
+            this.extName = header.getTrimmedStringValue("EXTNAME");
+            this.isData = isData;
+        }
+
+        /**
+         * Check that the given header corresponds to this HDU (next blocks)
+         * @param other header of the next block
+         */
+        void check(final Header other) {
+            final String otherExtName = other.getTrimmedStringValue("EXTNAME");
+            if ((extName == null) ? (otherExtName != null) : !extName.equals(otherExtName)) {
+                throw new IllegalStateException("Invalid HDU: " + otherExtName + " != " + extName);
+            }
+            if (isData && (other.getIntValue(KEYWORD_NAXIS1) != rowBytes)) {
+                throw new IllegalStateException("Invalid row size [" + extName + "]: " + other.getIntValue(KEYWORD_NAXIS1) + " != " + rowBytes);
+            }
+        }
+    }
+}
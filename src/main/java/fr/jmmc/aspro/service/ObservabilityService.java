@@ -7,6 +7,7 @@ import ch.qos.logback.classic.Level;
 import edu.dartmouth.AstroAlmanac;
 import edu.dartmouth.AstroAlmanacTime;
 import edu.dartmouth.AstroSkyCalc;
+import edu.dartmouth.AstroSkyCalcEphemeris;
 import edu.dartmouth.AstroSkyCalcObservation;
 import fr.jmmc.aspro.AsproConstants;
 import fr.jmmc.aspro.Preferences;
@@ -14,10 +15,12 @@ import fr.jmmc.aspro.model.BaseLine;
 import fr.jmmc.aspro.model.Beam;
 import fr.jmmc.aspro.model.ConfigurationManager;
 import fr.jmmc.aspro.model.HorizonShape;
+import fr.jmmc.aspro.model.IntervalSet;
 import fr.jmmc.aspro.model.BestPoPsObservabilityContext;
 import fr.jmmc.oitools.model.range.Range;
 import fr.jmmc.aspro.model.ObservabilityContext;
 import fr.jmmc.aspro.model.TimeRef;
+import fr.jmmc.aspro.model.WarningContainer;
 import fr.jmmc.aspro.model.observability.DateTimeInterval;
 import fr.jmmc.aspro.model.observability.GroupedPopObservabilityData;
 import fr.jmmc.aspro.model.observability.ObservabilityData;
@@ -45,6 +48,7 @@ import fr.jmmc.aspro.model.oi.MoonRestriction;
 import fr.jmmc.aspro.model.oi.ObservationSetting;
 import fr.jmmc.aspro.model.oi.Operator;
 import fr.jmmc.aspro.model.oi.Pop;
+import fr.jmmc.aspro.model.oi.SpectralBand;
 import fr.jmmc.aspro.model.oi.PopLink;
 import fr.jmmc.aspro.model.oi.Position3D;
 import fr.jmmc.aspro.model.oi.Station;
@@ -56,8 +60,10 @@ import fr.jmmc.aspro.model.oi.Telescope;
 import fr.jmmc.aspro.service.pops.BestPopsEstimator;
 import fr.jmmc.aspro.service.pops.BestPopsEstimatorFactory;
 import fr.jmmc.aspro.service.pops.BestPopsEstimatorFactory.Algorithm;
+import fr.jmmc.aspro.service.pops.BestPopsSearch;
 import fr.jmmc.aspro.service.pops.Criteria;
 import fr.jmmc.aspro.util.TestUtils;
+import fr.jmmc.jmal.ALX;
 import fr.jmmc.jmcs.logging.LoggingService;
 import fr.jmmc.jmcs.util.SpecialChars;
 import fr.jmmc.jmcs.util.concurrent.InterruptedJobException;
@@ -69,10 +75,12 @@ import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Locale;
@@ -112,14 +120,61 @@ public final class ObservabilityService {
     private final static int MAX_POPS_IN_LIST = 4 * MAX_POPS_IN_WARNING;
     /** threshold to disable warnings 'Not observable' in terms of target list size */
     private final static int MAX_TARGETS_WARNING_NOT_OBSERVABLE = 100;
-    /** jd step = half a minute */
-    private final double JD_STEP = (0.5) / (24 * 60);
+    /** boundary tolerance (seconds) of the restriction scans (horizon, wind, moon) = half a minute by default */
+    private final static double SCAN_TOLERANCE = Double.parseDouble(System.getProperty("Observability.scan.tolerance", "30"));
+    /** jd step of the restriction scans = boundary tolerance */
+    private final static double JD_SCAN_STEP = SCAN_TOLERANCE / (24d * 3600d);
+    /** number of jd scan steps between coarse samples of the restriction scans (1 means every step) */
+    private final static int SCAN_COARSE_STEPS = Math.max(1, Integer.getInteger("Observability.scan.coarseSteps", 10).intValue());
+    /** sidereal rate (deg per day) = upper bound of the elevation rate and of the azimuth rate x cos(elevation) */
+    private final static double SIDEREAL_RATE = 360.9856d;
+    /** maximum elevation (deg) to bound the azimuth rate (undefined at zenith) */
+    private final static double MAX_ELEVATION_AZIMUTH_RATE = 89d;
+    /** upper bound of the moon separation rate (deg per day) = 1.5 deg/h (moon motion 0.7 deg/h + diurnal parallax 0.3 deg/h) */
+    private final static double MOON_SEPARATION_RATE = 1.5d * 24d;
     /** Moon separation margin = 0.5 arcmin for uncertainty */
     private final double MOON_SEPARATION_MARGIN = 0.5d / 60d;
     /** Jmcs Parallel Job executor */
     private static final ParallelJobExecutor jobExecutor = ParallelJobExecutor.getInstance();
     /** shared cache of Pop combinations keyed by 'interferometer_nBL' */
     private static final Map<String, List<SharedPopCombination>> popCombinationCache = new HashMap<String, List<SharedPopCombination>>(16);
+    /** flag to disable the incremental mode (reuse results of unchanged targets) */
+    private static final boolean DISABLE_INCREMENTAL = Boolean.getBoolean("Observability.incremental.disable");
+    /** maximum number of observability setups kept in the incremental cache */
+    private final static int MAX_INCREMENTAL_SETUPS = 8;
+    /** shared cache (LRU) of target observability results keyed by observability setup (incremental mode) */
+    private static final Map<String, IncrementalSetup> incrementalCache = new LinkedHashMap<String, IncrementalSetup>(16, 0.75f, true) {
+        /** default serial UID for Serializable interface */
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, IncrementalSetup> eldest) {
+            return size() > MAX_INCREMENTAL_SETUPS;
+        }
+    };
+    /** minimum number of targets to enable parallel jobs */
+    private final static int JOB_THRESHOLD_TARGETS = 8;
+    /**
+     * shared cache of HA ranges (delay lines) per PoP combination (best PoPs) keyed by (setup, declination, chunk)
+     * bounded by its number of PoP combinations (Observability.popRanges.disable, Observability.popRanges.decBin in arcsec)
+     */
+    static final BoundedCache<double[][]> POP_RANGES_CACHE = new BoundedCache<double[][]>("Observability.popRanges", "decBin", 256 * 1024) {
+        @Override
+        protected long weight(final double[][] popRanges) {
+            return popRanges.length;
+        }
+    };
+    /** default flag to use the exhaustive best PoPs search (validation) instead of the branch-and-bound search */
+    private static final boolean BEST_POPS_EXHAUSTIVE = Boolean.getBoolean("Observability.bestPops.exhaustive");
+    /** minimum number of pop combinations to use the branch-and-bound search (5T = 3125 combinations) */
+    private final static int BEST_POPS_SEARCH_THRESHOLD = 1000;
+    /** comparator of grouped pop observability data by PoP combination identifier */
+    private static final Comparator<GroupedPopObservabilityData> GROUPED_POP_DATA_IDENTIFIER_COMPARATOR = new Comparator<GroupedPopObservabilityData>() {
+        @Override
+        public int compare(final GroupedPopObservabilityData g1, final GroupedPopObservabilityData g2) {
+            return g1.getIdentifier().compareTo(g2.getIdentifier());
+        }
+    };
     /** shared InterruptedJobException instance */
     private static final InterruptedJobException ije = new InterruptedJobException("ObservabilityService.compute: interrupted");
 
@@ -130,8 +185,6 @@ public final class ObservabilityService {
     private final StringBuffer shared_sb = new StringBuffer(128);
     /** flag to enable / disable warnings about not observable targets */
     private boolean doWarnNotObservable = true;
-    /** temporary list of ranges to merge */
-    private ArrayList<Range> tmpRanges = null;
     /** main observability context (RangeFactory) */
     private final ObservabilityContext obsCtx = new ObservabilityContext(15); // 6T
     /** observability context dedicated to best Pops estimators (temporary variables) */
@@ -158,6 +211,14 @@ public final class ObservabilityService {
     private final Criteria bestPopEstimatorCriteriaSigma;
     /** optional Best Pops criteria on average weight */
     private final Criteria bestPopEstimatorCriteriaAverageWeight;
+    /** flag to use the exhaustive best PoPs search (validation) instead of the branch-and-bound search */
+    private boolean bestPopsExhaustive = BEST_POPS_EXHAUSTIVE;
+    /** number of jd scan steps between coarse samples of the restriction scans (1 means every step) */
+    private int scanCoarseSteps = SCAN_COARSE_STEPS;
+    /** flag to process targets in parallel (if many targets) */
+    private boolean parallelTargets = true;
+    /** flag to reuse results of unchanged targets (incremental mode) */
+    private boolean incremental = !DISABLE_INCREMENTAL;
 
     /* internal */
     /** double formatter for moon separation */
@@ -190,6 +251,8 @@ public final class ObservabilityService {
     private FocalInstrument instrument = null;
     /** flag to indicate that a station has an horizon profile */
     private boolean hasHorizon = false;
+    /** horizon profiles (per beam) */
+    private HorizonShape[] horizonProfiles = null;
     /** flag to indicate that pops are used */
     private boolean hasPops = false;
     /** flag to indicate that wind restriction is used */
@@ -206,6 +269,8 @@ public final class ObservabilityService {
     private List<List<Range>> wRangesVcms = null;
     /** list of Pop combinations with pop delays per baseline */
     private List<PopCombination> popCombinations = null;
+    /** key identifying the PoP ranges setup (base lines, W ranges and PoP combinations) or null if the cache is disabled */
+    private BoundedCache.Key popRangesKey = null;
     /** flag to disable the observability restriction due to the night */
     private boolean ignoreUseNightLimit = false;
     /** azimuth expressed in [0; 360 deg] */
@@ -285,6 +350,38 @@ public final class ObservabilityService {
         this.ignoreUseNightLimit = ignoreNightLimits;
     }
 
+    /**
+     * Define the flag to use the exhaustive best PoPs search (validation) instead of the branch-and-bound search
+     * @param bestPopsExhaustive true to use the exhaustive best PoPs search
+     */
+    public void setBestPopsExhaustive(final boolean bestPopsExhaustive) {
+        this.bestPopsExhaustive = bestPopsExhaustive;
+    }
+
+    /**
+     * Define the number of jd scan steps between coarse samples of the restriction scans (validation)
+     * @param scanCoarseSteps number of jd scan steps (1 means every step ie full scan)
+     */
+    public void setScanCoarseSteps(final int scanCoarseSteps) {
+        this.scanCoarseSteps = Math.max(1, scanCoarseSteps);
+    }
+
+    /**
+     * Define the flag to process targets in parallel if many targets (validation)
+     * @param parallelTargets true to process targets in parallel; false to process targets sequentially
+     */
+    public void setParallelTargets(final boolean parallelTargets) {
+        this.parallelTargets = parallelTargets;
+    }
+
+    /**
+     * Define the flag to reuse results of unchanged targets computed with the same setup (validation)
+     * @param incremental true to enable the incremental mode
+     */
+    public void setIncremental(final boolean incremental) {
+        this.incremental = incremental;
+    }
+
     /**
      * Test if the current thread is interrupted: if true then throw an InterruptedJobException
      * @throws InterruptedJobException if the current thread is interrupted
@@ -569,20 +666,250 @@ public final class ObservabilityService {
         // Start the Best Pops algorithm :
         final long start = System.nanoTime();
 
-        for (Target target : targets) {
+        final int nTargets = targets.size();
 
-            // fast interrupt:
-            checkInterrupted();
+        // incremental mode: reuse results of unchanged targets computed with the same setup:
+        final String setupKey = getIncrementalKey();
+
+        IncrementalSetup prevSetup = null;
+        IncrementalSetup setup = null;
+        String[] targetKeys = null;
+
+        if (setupKey != null) {
+            final InterferometerConfiguration intConf = this.observation.getInterferometerConfiguration().getInterferometerConfiguration();
+            final FocalInstrumentConfiguration insConf = this.observation.getInstrumentConfiguration().getInstrumentConfiguration();
+
+            synchronized (incrementalCache) {
+                prevSetup = incrementalCache.get(setupKey);
+            }
+            if (prevSetup != null && !prevSetup.isSameConfiguration(intConf, insConf)) {
+                prevSetup = null;
+            }
+            setup = new IncrementalSetup(intConf, insConf, nTargets);
+            targetKeys = new String[nTargets];
+        }
+
+        // target results (same order as targets):
+        final TargetObservability[] results = new TargetObservability[nTargets];
+        // indexes of the targets to process:
+        final int[] indexes = new int[nTargets];
+        int nIndexes = 0;
+
+        for (int i = 0; i < nTargets; i++) {
+            if (targetKeys != null) {
+                final Target target = targets.get(i);
+                targetKeys[i] = getIncrementalTargetKey(target);
+
+                if (prevSetup != null) {
+                    final TargetObservability result = prevSetup.getResult(target.getName());
+
+                    if (result != null && result.targetKey.equals(targetKeys[i])) {
+                        // unchanged target: reuse results (read-only)
+                        results[i] = result;
+                        continue;
+                    }
+                }
+            }
+            indexes[nIndexes++] = i;
+        }
+
+        findTargetsObservability(targets, indexes, nIndexes, targetKeys, results);
+
+        // fast interrupt:
+        checkInterrupted();
+
+        // merge results in target order (messages in the same order than a sequential computation):
+        final WarningContainer warningContainer = this.data.getWarningContainer();
 
-            findTargetObservability(target);
+        for (int i = 0; i < nTargets; i++) {
+            final TargetObservability result = results[i];
+            if (result == null) {
+                // interrupted job (worker thread):
+                throw ije;
+            }
+            final String targetName = targets.get(i).getName();
+
+            this.data.addStarVisibilities(targetName, result.starVisList);
+            this.data.addStarData(result.starData);
+            warningContainer.addWarnings(result.warningContainer);
+
+            // best PoPs (single target and PoPs not user defined), also for reused results:
+            if (result.bestPopList != null) {
+                this.data.setBestPopList(result.bestPopList);
+                this.data.setBetterPopList(result.betterPopList);
+            }
+            if (result.bestPops != null && this.data.getBestPops() == null) {
+                this.data.setBestPops(result.bestPops);
+            }
 
-        } // for Target
+            if (setup != null) {
+                setup.putResult(targetName, result);
+            }
+        }
+
+        if (setup != null) {
+            synchronized (incrementalCache) {
+                incrementalCache.put(setupKey, setup);
+            }
+
+            if (isLogDebug) {
+                logger.debug("findObservability: {} / {} target(s) reused", nTargets - nIndexes, nTargets);
+            }
+        }
 
         if (loggerTasks.isDebugEnabled()) {
             loggerTasks.debug("findObservability(targets) : duration = {} ms.", 1e-6d * (System.nanoTime() - start));
         }
     }
 
+    /**
+     * Find the observability ranges for the given targets (in parallel if many targets)
+     * @param targets target list
+     * @param indexes indexes of the targets to process
+     * @param nIndexes number of targets to process
+     * @param targetKeys optional target keys (incremental mode)
+     * @param results target observability results to fill (same order as targets)
+     */
+    private void findTargetsObservability(final List<Target> targets, final int[] indexes, final int nIndexes,
+                                          final String[] targetKeys, final TargetObservability[] results) {
+
+        // enable parallel jobs if many targets:
+        // note: in multi conf: disable parallelism because jobExecutor is used to compute Observability per configuration
+        final int nTh = (this.parallelTargets && !jobExecutor.isWorkerThread() && (nIndexes >= JOB_THRESHOLD_TARGETS))
+                ? jobExecutor.getMaxParallelJob() : 1;
+
+        if (isLogDebug) {
+            logger.debug("findTargetsObservability: {} targets using {} threads", nIndexes, nTh);
+        }
+
+        // night ephemeris (moon position) shared by all targets:
+        final AstroSkyCalcEphemeris ephemeris = (this.useNightLimit && this.moonPointingRestriction != null && nIndexes != 0)
+                ? new AstroSkyCalcEphemeris(this.sc, this.data.getJdMin(), this.data.getJdMax()) : null;
+
+        // Prepare thread context variables:
+        final TargetContext[] contextThreads = new TargetContext[nTh];
+
+        for (int t = 0; t < nTh; t++) {
+            if (t == 0) {
+                this.sco.defineEphemeris(ephemeris);
+                contextThreads[t] = new TargetContext(this.sco, this.obsCtx, this.bpObsCtx, this.shared_sb, this.df1, this.timeFormatter);
+            } else {
+                final AstroSkyCalcObservation scoLocal = new AstroSkyCalcObservation();
+                scoLocal.defineSite(this.sc);
+                scoLocal.defineEphemeris(ephemeris);
+
+                contextThreads[t] = new TargetContext(scoLocal, new ObservabilityContext(this.baseLines.size()),
+                        (this.bpObsCtx != null) ? new BestPoPsObservabilityContext(this.bpObsCtx) : null,
+                        new StringBuffer(128), new DecimalFormat("0.0"), DateFormat.getTimeInstance(DateFormat.SHORT, Locale.FRANCE));
+            }
+        }
+
+        if (nTh == 1) {
+            final TargetContext tctx = contextThreads[0];
+
+            for (int n = 0; n < nIndexes; n++) {
+                final int i = indexes[n];
+
+                // fast interrupt:
+                checkInterrupted();
+
+                results[i] = findTargetObservability(targets.get(i), (targetKeys != null) ? targetKeys[i] : null, tctx);
+            }
+        } else {
+            // computation tasks = 1 job per target (work stealing):
+            final Runnable[] jobs = new Runnable[nIndexes];
+
+            for (int n = 0; n < nIndexes; n++) {
+                // target index to be processed by this task:
+                final int targetIndex = indexes[n];
+
+                jobs[n] = new Runnable() {
+                    /**
+                     * Called by the ParallelJobExecutor to perform task computation
+                     */
+                    @Override
+                    public void run() {
+                        // Get thread index to get appropriate thread vars:
+                        final int threadIndex = ParallelJobExecutor.currentThreadIndex(nTh);
+
+                        final TargetContext tctx = contextThreads[threadIndex];
+
+                        // data partitioning so no synchronization required:
+                        // note: InterruptedJobException is propagated to abort the merge
+                        results[targetIndex] = findTargetObservability(targets.get(targetIndex),
+                                (targetKeys != null) ? targetKeys[targetIndex] : null, tctx);
+                    }
+                };
+            }
+
+            // execute jobs in parallel:
+            jobExecutor.forkAndJoin("ObservabilityService.findTargetsObservability", jobs);
+        }
+
+        if (SHOW_RANGE_FACTORY_STATS) {
+            for (int t = 0; t < nTh; t++) {
+                contextThreads[t].obsCtx.dumpStats();
+            }
+        }
+    }
+
+    /**
+     * Return the key identifying the observability setup (all inputs except targets) used by the incremental mode
+     * @return setup key or null if the incremental mode is disabled
+     */
+    private String getIncrementalKey() {
+        if (!this.incremental || this.doBaseLineLimits) {
+            return null;
+        }
+        final StringBuilder sb = new StringBuilder(256);
+
+        // service options:
+        sb.append(this.data.getTimeRef()).append('|').append(this.doDetailedOutput).append('|').append(this.doCenterMidnight);
+        sb.append('|').append(this.twilightNightLimit).append('|').append(this.ignoreUseNightLimit).append('|').append(this.doWarnNotObservable);
+        sb.append('|').append(this.bestPopsAlgorithm).append('|').append(this.bestPopEstimatorCriteriaSigma);
+        sb.append('|').append(this.bestPopEstimatorCriteriaAverageWeight);
+
+        // observation:
+        sb.append('|').append(this.observation.getWhen().getDate().toXMLFormat());
+        sb.append('|').append(this.useNightLimit).append('|').append(this.windAzimuth).append('|').append(this.minElev);
+        sb.append('|').append(this.observation.getInterferometerConfiguration().getName());
+        sb.append('|').append(this.observation.getInstrumentConfiguration().getName());
+        sb.append('|').append(this.observation.getInstrumentConfiguration().getStations());
+        sb.append('|').append(this.observation.getInstrumentConfiguration().getPops());
+
+        // selected PoPs (best PoPs depend on the complete target list):
+        sb.append('|').append(this.hasPops);
+        if (this.hasPops) {
+            if (this.popCombinations.size() == 1) {
+                sb.append('|').append(this.popCombinations.get(0).getIdentifier());
+            } else {
+                sb.append('|').append(this.popCombinations.size());
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Return the key identifying the given target inputs (coordinates, HA constraints and fluxes) used by the incremental mode
+     * @param target target to use
+     * @return target key
+     */
+    private static String getIncrementalTargetKey(final Target target) {
+        final StringBuilder sb = new StringBuilder(128);
+        sb.append(target.getRADeg()).append('|').append(target.getDECDeg());
+        sb.append('|').append(target.getPMRA()).append('|').append(target.getPMDEC());
+
+        final TargetConfiguration targetConf = target.getConfiguration();
+        if (targetConf != null) {
+            sb.append('|').append(targetConf.getHAMin()).append('|').append(targetConf.getHAMax());
+        }
+        // fluxes (moon restrictions):
+        for (SpectralBand band : SpectralBand.values()) {
+            sb.append('|').append(target.getFlux(band));
+        }
+        return sb.toString();
+    }
+
     /**
      * Find the best Pop combination for the given list of targets
      * @param targets list of targets
@@ -656,86 +983,92 @@ public final class ObservabilityService {
             bpObsCtxThreads[t] = (t == 0) ? this.bpObsCtx : new BestPoPsObservabilityContext(this.bpObsCtx);
         }
 
-        // chunks:
-        /*
-         * 3T:   125 => 1 chunk
-         * 4T:   625 => 1 chunk
-         * 5T:  3125 => 1 chunk per thread
-         * 6T: 15625 => 1 chunk per thread
-         */
-        final int nChunks = (sizeCb > 10000) ? Math.min(8, nTh) : (sizeCb > 1000) ? Math.min(4, nTh) : 1;
+        final List<List<PopObservabilityData>> targetPopDataListResults;
 
-        final int[] fromThreads = new int[nChunks];
-        final int[] endThreads = new int[nChunks];
-        final int stepCb = sizeCb / nChunks;
+        if (!this.bestPopsExhaustive && sizeCb > BEST_POPS_SEARCH_THRESHOLD) {
+            // 5T / 6T: branch-and-bound search:
+            targetPopDataListResults = findPoPsObservabilityBranchAndBound(riseTargets, infoTargets, bpObsCtxThreads);
+        } else {
+            // chunks:
+            /*
+             * 3T:   125 => 1 chunk
+             * 4T:   625 => 1 chunk
+             * 5T:  3125 => 1 chunk per thread
+             * 6T: 15625 => 1 chunk per thread
+             */
+            final int nChunks = (sizeCb > 10000) ? Math.min(8, nTh) : (sizeCb > 1000) ? Math.min(4, nTh) : 1;
+
+            final int[] fromThreads = new int[nChunks];
+            final int[] endThreads = new int[nChunks];
+            final int stepCb = sizeCb / nChunks;
+
+            for (int c = 0; c < nChunks; c++) {
+                fromThreads[c] = c * stepCb;
+                endThreads[c] = fromThreads[c] + stepCb;
+            }
+            endThreads[nChunks - 1] = sizeCb;
 
-        for (int c = 0; c < nChunks; c++) {
-            fromThreads[c] = c * stepCb;
-            endThreads[c] = fromThreads[c] + stepCb;
-        }
-        endThreads[nChunks - 1] = sizeCb;
+            if (isLogDebug) {
+                logger.debug("findCompatiblePoPs: {} chunks - size = {}", nChunks, stepCb);
+            }
 
-        if (isLogDebug) {
-            logger.debug("findCompatiblePoPs: {} chunks - size = {}", nChunks, stepCb);
-        }
+            // computation tasks = 1 job per target and chunk (work stealing):
+            final Callable<?>[] jobs = new Callable<?>[nRiseTargets * nChunks];
 
-        // computation tasks = 1 job per target and chunk (work stealing):
-        final Callable<?>[] jobs = new Callable<?>[nRiseTargets * nChunks];
+            // create estimate tasks:
+            for (int c = 0, j = 0; c < nChunks; c++) {
+                // Pop combination chunks:
+                final int fromCb = fromThreads[c];
+                final int endCb = endThreads[c];
 
-        // create estimate tasks:
-        for (int c = 0, j = 0; c < nChunks; c++) {
-            // Pop combination chunks:
-            final int fromCb = fromThreads[c];
-            final int endCb = endThreads[c];
+                for (int i = 0; i < nRiseTargets; i++) {
+                    // target index to be processed by this task:
+                    final int targetIndex = i;
 
-            for (int i = 0; i < nRiseTargets; i++) {
-                // target index to be processed by this task:
-                final int targetIndex = i;
+                    jobs[j++] = new Callable<List<PopObservabilityData>>() {
+                        /**
+                         * Called by the ParallelJobExecutor to perform task computation
+                         */
+                        @Override
+                        public List<PopObservabilityData> call() {
 
-                jobs[j++] = new Callable<List<PopObservabilityData>>() {
-                    /**
-                     * Called by the ParallelJobExecutor to perform task computation
-                     */
-                    @Override
-                    public List<PopObservabilityData> call() {
+                            // Get thread index to get appropriate thread vars:
+                            final int threadIndex = ParallelJobExecutor.currentThreadIndex(nTh);
 
-                        // Get thread index to get appropriate thread vars:
-                        final int threadIndex = ParallelJobExecutor.currentThreadIndex(nTh);
+                            if (SHOW_TASK_STATS) {
+                                loggerTasks.debug("Thread[{}]: target {} - from {} to {}", threadIndex, targetIndex, fromCb, endCb);
+                            }
 
-                        if (SHOW_TASK_STATS) {
-                            loggerTasks.debug("Thread[{}]: target {} - from {} to {}", threadIndex, targetIndex, fromCb, endCb);
-                        }
+                            // If new threads are created, array access may be a problem (thread conflicts):
+                            // ConcurrentLinkedQueue could be used to provide obs context switchs !!
+                            // or thread local but initialization / cleanup is not simple
+                            final BestPoPsObservabilityContext bpObsCtxLocal = bpObsCtxThreads[threadIndex];
 
-                        // If new threads are created, array access may be a problem (thread conflicts):
-                        // ConcurrentLinkedQueue could be used to provide obs context switchs !!
-                        // or thread local but initialization / cleanup is not simple
-                        final BestPoPsObservabilityContext bpObsCtxLocal = bpObsCtxThreads[threadIndex];
+                            final Target target = riseTargets.get(targetIndex);
+                            final double[] info = infoTargets.get(targetIndex); // Ra, Dec, HaElev
 
-                        final Target target = riseTargets.get(targetIndex);
-                        final double[] info = infoTargets.get(targetIndex); // Ra, Dec, HaElev
+                            // data partitioning so no synchronization required:
+                            final List<PopObservabilityData> popDataList = findPoPsForTargetObservability(
+                                    target, bpObsCtxLocal, info[0], info[1], info[2], fromCb, endCb);
 
-                        // data partitioning so no synchronization required:
-                        final List<PopObservabilityData> popDataList = findPoPsForTargetObservability(
-                                target, bpObsCtxLocal, info[0], info[1], info[2], fromCb, endCb);
+                            // fast interrupt (multi threading):
+                            if (Thread.currentThread().isInterrupted()) {
+                                return null;
+                            }
 
-                        // fast interrupt (multi threading):
-                        if (Thread.currentThread().isInterrupted()) {
-                            return null;
-                        }
+                            if (SHOW_BEST_POPS_STATS) {
+                                nTaskThreads[threadIndex][0]++;
+                            }
 
-                        if (SHOW_BEST_POPS_STATS) {
-                            nTaskThreads[threadIndex][0]++;
+                            return popDataList;
                         }
-
-                        return popDataList;
-                    }
-                };
+                    };
+                }
             }
-        }
 
-        // execute jobs in parallel:
-        final List<List<PopObservabilityData>> targetPopDataListResults
-                                               = (List<List<PopObservabilityData>>) jobExecutor.forkAndJoin("ObservabilityService.findCompatiblePoPs", jobs, nTh > 1);
+            // execute jobs in parallel:
+            targetPopDataListResults = (List<List<PopObservabilityData>>) jobExecutor.forkAndJoin("ObservabilityService.findCompatiblePoPs", jobs, nTh > 1);
+        }
 
         if (SHOW_BEST_POPS_STATS || SHOW_RANGE_FACTORY_STATS) {
             for (int t = 0; t < nTh; t++) {
@@ -789,6 +1122,10 @@ public final class ObservabilityService {
         targetPopDataListResults.clear();
         popMap.clear();
 
+        // sort by PoP combination (map order is undefined) so equivalent best PoPs are always given in the same order
+        // (stable sort below):
+        Collections.sort(popMergeList, GROUPED_POP_DATA_IDENTIFIER_COMPARATOR);
+
         // merged results per PoP combination :
         if (isLogDebug) {
             logger.debug("Complete GroupedPopData : {}", CollectionUtils.toString(popMergeList));
@@ -982,11 +1319,118 @@ public final class ObservabilityService {
         return popDataList;
     }
 
+    /**
+     * Return the list of Pop Observability Data per pop combination (at least the best pop combinations)
+     * for the given targets using the branch-and-bound search (prefix tree of PoPs per beam)
+     *
+     * @param riseTargets targets that rise
+     * @param infoTargets target information (precessed RA, DEC and rise/set ha) per target
+     * @param bpObsCtxThreads observability contexts (one per thread)
+     * @return list of Pop Observability Data per pop combination
+     */
+    private List<List<PopObservabilityData>> findPoPsObservabilityBranchAndBound(final List<Target> riseTargets, final List<double[]> infoTargets,
+                                                                                 final BestPoPsObservabilityContext[] bpObsCtxThreads) {
+        final int nRiseTargets = riseTargets.size();
+        final int nTh = bpObsCtxThreads.length;
+
+        final BestPopsSearch search = new BestPopsSearch(this.bpObsCtx.getPopCombs(), this.bpObsCtx.getBaseLines(), this.beams,
+                getGroupedBestPopsEstimator(), MAX_POPS_IN_LIST);
+
+        // prepare HA ranges per target, base line and PoP pair:
+        final BestPopsSearch.TargetData[] targetData = new BestPopsSearch.TargetData[nRiseTargets];
+
+        if (nTh == 1) {
+            for (int i = 0; i < nRiseTargets; i++) {
+                final double[] info = infoTargets.get(i); // Ra, Dec, HaElev
+                targetData[i] = prepareBestPopsTarget(search, riseTargets.get(i), bpObsCtxThreads[0], info[0], info[1], info[2]);
+            }
+        } else {
+            // computation tasks = 1 job per target:
+            final Runnable[] jobs = new Runnable[nRiseTargets];
+
+            for (int i = 0; i < nRiseTargets; i++) {
+                // target index to be processed by this task:
+                final int targetIndex = i;
+
+                jobs[i] = new Runnable() {
+                    /**
+                     * Called by the ParallelJobExecutor to perform task computation
+                     */
+                    @Override
+                    public void run() {
+                        // Get thread index to get appropriate thread vars:
+                        final int threadIndex = ParallelJobExecutor.currentThreadIndex(nTh);
+
+                        final double[] info = infoTargets.get(targetIndex); // Ra, Dec, HaElev
+
+                        // data partitioning so no synchronization required:
+                        targetData[targetIndex] = prepareBestPopsTarget(search, riseTargets.get(targetIndex), bpObsCtxThreads[threadIndex],
+                                info[0], info[1], info[2]);
+                    }
+                };
+            }
+
+            // execute jobs in parallel:
+            jobExecutor.forkAndJoin("ObservabilityService.findPoPsObservabilityBranchAndBound", jobs);
+        }
+
+        // fast interrupt:
+        checkInterrupted();
+
+        final List<GroupedPopObservabilityData> results = search.search(targetData, nTh, jobExecutor);
+
+        final List<List<PopObservabilityData>> popDataListResults = new ArrayList<List<PopObservabilityData>>(results.size());
+        for (GroupedPopObservabilityData result : results) {
+            popDataListResults.add(result.getPopDataList());
+        }
+        return popDataListResults;
+    }
+
+    /**
+     * Prepare the given target for the branch-and-bound search
+     * @param search best PoPs search
+     * @param target target to use
+     * @param bpObsCtxLocal observability context (local context ie thread)
+     * @param precRA precessed RA in degrees
+     * @param precDEC precessed DEC in degrees
+     * @param haElev rise/set ha
+     * @return prepared target data
+     */
+    private BestPopsSearch.TargetData prepareBestPopsTarget(final BestPopsSearch search, final Target target,
+                                                           final BestPoPsObservabilityContext bpObsCtxLocal,
+                                                           final double precRA, final double precDEC, final double haElev) {
+        // HA Min/Max range:
+        final Range haLimits = getTargetHALimits(target, bpObsCtxLocal);
+
+        // rise/set range RESTRICTED by HA Min/Max constraints:
+        final Range rangeHARiseSet = bpObsCtxLocal.valueOf(checkHA(haLimits.getMin(), haElev), checkHA(haLimits.getMax(), haElev));
+
+        final List<Range> rangesTarget = bpObsCtxLocal.getList();
+        rangesTarget.add(rangeHARiseSet);
+
+        if (this.useNightLimit) {
+            this.sc.convertJDToHARanges(this.nightLimits, rangesTarget, precRA, bpObsCtxLocal);
+        }
+
+        final BestPopsSearch.TargetData targetData = search.prepareTarget(target.getName(), getBestPopsEstimator(target, haElev, bpObsCtxLocal),
+                rangesTarget, 1 + ((this.useNightLimit) ? 1 : 0), FastMath.toRadians(precDEC), bpObsCtxLocal);
+
+        // recycle ranges & lists:
+        bpObsCtxLocal.recycleRangesAndList(rangesTarget);
+        // recycle range:
+        bpObsCtxLocal.recycleRange(haLimits);
+
+        return targetData;
+    }
+
     /**
      * Finds the observability ranges for the given target
      * @param target target to use
+     * @param targetKey optional target key (incremental mode)
+     * @param tctx target context (local context ie thread)
+     * @return target observability results
      */
-    private void findTargetObservability(final Target target) {
+    private TargetObservability findTargetObservability(final Target target, final String targetKey, final TargetContext tctx) {
         final String targetName = target.getName();
 
         if (isLogDebug) {
@@ -997,17 +1441,24 @@ public final class ObservabilityService {
 
         final int listSize = (this.doDetailedOutput) ? (4 + sizeBL) : 1;
         final List<StarObservabilityData> starVisList = new ArrayList<StarObservabilityData>(listSize);
-        this.data.addStarVisibilities(targetName, starVisList);
 
         final StarObservabilityData starObs = new StarObservabilityData(targetName, StarObservabilityData.TYPE_STAR);
         // add the result to have also unobservable targets :
         starVisList.add(starObs);
 
         final StarData starData = new StarData(target.getName());
-        this.data.addStarData(starData);
+
+        // messages related to this target:
+        final WarningContainer targetWarnings = new WarningContainer();
+        tctx.warningContainer = targetWarnings;
+        tctx.bestPops = null;
+        tctx.bestPopList = null;
+        tctx.betterPopList = null;
+
+        final AstroSkyCalcObservation sco = tctx.sco;
 
         // get Target coordinates precessed to JD CENTER and define target to get later az/alt positions from JSkyCalc :
-        final double[] raDec = this.sco.defineTarget(jdCenter(), target.getRADeg(), target.getDECDeg(), target.getPMRA(), target.getPMDEC());
+        final double[] raDec = sco.defineTarget(jdCenter(), target.getRADeg(), target.getDECDeg(), target.getPMRA(), target.getPMDEC());
 
         // precessed target right ascension in decimal hours :
         final double precRA = raDec[0];
@@ -1021,7 +1472,7 @@ public final class ObservabilityService {
                     AstroSkyCalcObservation.asString(15d * precRA, precDEC));
         }
 
-        final ObservabilityContext ctx = obsCtx;
+        final ObservabilityContext ctx = tctx.obsCtx;
 
         // define transit date (HA = 0):
         final double jdTransit = this.sc.convertHAToJD(0d, precRA);
@@ -1029,7 +1480,7 @@ public final class ObservabilityService {
 
         // get elevation at transit:
         final AzEl azEl = ctx.getAzEl();
-        getTargetPosition(precDEC, azEl, jdTransit);
+        getTargetPosition(precDEC, azEl, jdTransit, tctx);
         final double transitElev = azEl.getElevation();
 
         if (isLogDebug) {
@@ -1037,7 +1488,7 @@ public final class ObservabilityService {
         }
 
         // Find LST range corresponding to the rise / set of the target :
-        final double haElev = this.sco.getHAForElevation(precDEC, this.minElev);
+        final double haElev = sco.getHAForElevation(precDEC, this.minElev);
 
         // update Star Data :
         starData.setPrecRA(precRA);
@@ -1071,14 +1522,14 @@ public final class ObservabilityService {
             if (this.hasPops) {
                 // High elevation check for CHARA (2021.08):
                 final double highElevTh = 85.0; // TODO: put threshold in aspro conf
-                final double haHighElev = (transitElev > highElevTh) ? this.sco.getHAForElevation(precDEC, highElevTh) : 0.0;
+                final double haHighElev = (transitElev > highElevTh) ? sco.getHAForElevation(precDEC, highElevTh) : 0.0;
 
                 if (haHighElev > 0.0) {
                     rangeHAHighElev = ctx.valueOf(-haHighElev, haHighElev);
                 }
 
                 // update pop estimator related to target:
-                this.bpObsCtx.setPopEstimator(getBestPopsEstimator(target, haElev, ctx));
+                tctx.bpObsCtx.setPopEstimator(getBestPopsEstimator(target, haElev, ctx));
 
                 // handle here all possible combinations for POPs :
                 // keep only the POPs that maximize the DL+rise intersection ...
@@ -1092,7 +1543,7 @@ public final class ObservabilityService {
                     rangesTarget.addAll(nightsLimitsHA);
                 }
 
-                rangesHABaseLines = findHAIntervalsWithPops(FastMath.toRadians(precDEC), rangesTarget, starObs);
+                rangesHABaseLines = findHAIntervalsWithPops(FastMath.toRadians(precDEC), rangesTarget, starObs, tctx);
                 // recycle ranges & lists:
                 ctx.recycleRangesAndList(nightsLimitsHA);
                 ctx.recycleList(rangesTarget);
@@ -1148,10 +1599,10 @@ public final class ObservabilityService {
                             if (doWarn) {
                                 checkDLMaxThrow = true;
 
-                                final StringBuffer sb = getBuffer();
+                                final StringBuffer sb = tctx.getBuffer();
                                 sb.append("Pupil correction problem: ").append(delayLineRestrictions.get(k).getDescription());
                                 sb.append(" pressure limit exceeded.");
-                                this.addWarning(sb.toString());
+                                targetWarnings.addWarning(sb.toString());
                             }
                         }
                     }
@@ -1172,7 +1623,7 @@ public final class ObservabilityService {
             List<Range> rangesJDHorizon = null;
             if (this.hasHorizon) {
                 // check horizon profiles inside rise/set range :
-                rangesJDHorizon = checkHorizonProfile(precDEC, rangeJDRiseSet);
+                rangesJDHorizon = checkHorizonProfile(precDEC, rangeJDRiseSet, tctx);
 
                 if (isLogDebug) {
                     logger.debug("rangesJDHz: {}", rangesJDHorizon);
@@ -1193,7 +1644,7 @@ public final class ObservabilityService {
             boolean checkJDMoon = false;
             List<Range> rangesJDMoon = null;
             if (this.useNightLimit && this.moonPointingRestriction != null) {
-                rangesJDMoon = checkMoonRestriction(target, precDEC, rangeJDRiseSet);
+                rangesJDMoon = checkMoonRestriction(target, precDEC, rangeJDRiseSet, tctx);
 
                 if (isLogDebug) {
                     logger.debug("rangesJDMoon: {}", rangesJDMoon);
@@ -1215,7 +1666,7 @@ public final class ObservabilityService {
             List<Range> rangesJDWind = null;
             if (this.hasWindRestriction) {
                 // check target azimuth inside rise/set range :
-                rangesJDWind = checkWindRestriction(precDEC, rangeJDRiseSet);
+                rangesJDWind = checkWindRestriction(precDEC, rangeJDRiseSet, tctx);
 
                 if (isLogDebug) {
                     logger.debug("rangesJDWind: {}", rangesJDWind);
@@ -1233,17 +1684,17 @@ public final class ObservabilityService {
             }
 
             // observable ranges (jd) :
-            if (tmpRanges == null) {
-                tmpRanges = new ArrayList<Range>(sizeBL * 2 + 5);
+            if (tctx.tmpRanges == null) {
+                tctx.tmpRanges = new ArrayList<Range>(sizeBL * 2 + 5);
             }
-            final ArrayList<Range> obsRanges = tmpRanges;
+            final ArrayList<Range> obsRanges = tctx.tmpRanges;
             int nValid;
 
             if (this.doDetailedOutput) {
                 // Add Rise/Set :
                 final StarObservabilityData soRiseSet = new StarObservabilityData(targetName, "Rise/Set", StarObservabilityData.TYPE_RISE_SET);
                 // get target position (ha, az, el) at range boundaries:
-                addTargetPositions(soRiseSet, rangesJDRiseSet, precRA, precDEC, azEl, false);
+                addTargetPositions(soRiseSet, rangesJDRiseSet, precRA, precDEC, azEl, false, tctx);
                 starVisList.add(soRiseSet);
 
                 // convert JD ranges to date ranges :
@@ -1253,7 +1704,7 @@ public final class ObservabilityService {
                     // Add Horizon :
                     final StarObservabilityData soHorizon = new StarObservabilityData(targetName, "Horizon", StarObservabilityData.TYPE_HORIZON);
                     // get target position (ha, az, el) at range boundaries:
-                    addTargetPositions(soHorizon, rangesJDHorizon, precRA, precDEC, azEl, false);
+                    addTargetPositions(soHorizon, rangesJDHorizon, precRA, precDEC, azEl, false, tctx);
                     starVisList.add(soHorizon);
 
                     // convert JD ranges to date ranges :
@@ -1264,7 +1715,7 @@ public final class ObservabilityService {
                     // Add Moon separation :
                     final StarObservabilityData soMoon = new StarObservabilityData(targetName, "Moon Sep.", StarObservabilityData.TYPE_MOON_DIST);
                     // get target position (ha, az, el) at range boundaries:
-                    addTargetPositions(soMoon, rangesJDMoon, precRA, precDEC, azEl, false);
+                    addTargetPositions(soMoon, rangesJDMoon, precRA, precDEC, azEl, false, tctx);
                     starVisList.add(soMoon);
 
                     // convert JD ranges to date ranges :
@@ -1275,7 +1726,7 @@ public final class ObservabilityService {
                     // Add Horizon :
                     final StarObservabilityData soWind = new StarObservabilityData(targetName, "Wind", StarObservabilityData.TYPE_WIND);
                     // get target position (ha, az, el) at range boundaries:
-                    addTargetPositions(soWind, rangesJDWind, precRA, precDEC, azEl, false);
+                    addTargetPositions(soWind, rangesJDWind, precRA, precDEC, azEl, false, tctx);
                     starVisList.add(soWind);
 
                     // convert JD ranges to date ranges :
@@ -1309,7 +1760,7 @@ public final class ObservabilityService {
 
                         soBl = new StarObservabilityData(targetName, baseLine.getName(), StarObservabilityData.TYPE_BASE_LINE + i);
                         // get target position (ha, az, el) at range boundaries:
-                        addTargetPositions(soBl, obsRanges, precRA, precDEC, azEl, false);
+                        addTargetPositions(soBl, obsRanges, precRA, precDEC, azEl, false, tctx);
                         starVisList.add(soBl);
 
                         // convert JD ranges to date ranges :
@@ -1376,7 +1827,7 @@ public final class ObservabilityService {
                                     // Keep observability ranges with VCM Low restrictions:
 
                                     // get target position (ha, az, el) at range boundaries:
-                                    addTargetPositions(soBl, vcmComplementRanges, precRA, precDEC, azEl, false);
+                                    addTargetPositions(soBl, vcmComplementRanges, precRA, precDEC, azEl, false, tctx);
 
                                     // convert JD ranges to date ranges :
                                     final List<DateTimeInterval> visibleVcmLowLimits = new ArrayList<DateTimeInterval>(3);
@@ -1455,7 +1906,7 @@ public final class ObservabilityService {
             // store merge result as date intervals:
             if (finalRangesHardLimits != null) {
                 // get target position (ha, az, el) at transit:
-                addTargetPositionTransit(starObs, finalRangesHardLimits, precDEC, azEl, jdTransit);
+                addTargetPositionTransit(starObs, finalRangesHardLimits, precDEC, azEl, jdTransit, tctx);
 
                 // Show VCM limits as overlay:
                 if (checkDLMaxThrow) {
@@ -1516,7 +1967,7 @@ public final class ObservabilityService {
                             // Keep observability ranges with VCM Low restrictions:
 
                             // get target position (ha, az, el) at range boundaries:
-                            addTargetPositions(starObs, vcmComplementRanges, precRA, precDEC, azEl, false);
+                            addTargetPositions(starObs, vcmComplementRanges, precRA, precDEC, azEl, false, tctx);
 
                             final List<DateTimeInterval> visibleVcmLowLimits = new ArrayList<DateTimeInterval>(3);
 
@@ -1558,10 +2009,10 @@ public final class ObservabilityService {
 
                         if (doWarnNotObservable) {
                             // note: transitElev is max != max(elevation) in finalRangesHardLimits
-                            final StringBuffer sb = getBuffer();
+                            final StringBuffer sb = tctx.getBuffer();
                             sb.append("Target [").append(targetName).append("] transits at ");
-                            FormatterUtils.format(df1, sb, transitElev).append(" deg. Please check pointing restrictions.");
-                            addWarning(sb.toString());
+                            FormatterUtils.format(tctx.df1, sb, transitElev).append(" deg. Please check pointing restrictions.");
+                            targetWarnings.addWarning(sb.toString());
                         }
                     }
                 }
@@ -1653,7 +2104,7 @@ public final class ObservabilityService {
                             restrictionLevel = "partially";
                         }
 
-                        StringBuffer sb = getBuffer();
+                        StringBuffer sb = tctx.getBuffer();
                         if (checkHA) {
                             sb.append("HA");
                         }
@@ -1682,15 +2133,15 @@ public final class ObservabilityService {
                         }
 
                         if (doSoftLimits) {
-                            sb = getBuffer();
+                            sb = tctx.getBuffer();
                             sb.append("Target [").append(targetName).append("] is ")
                                     .append(restrictionLevel).append(" observable [")
                                     .append(desc).append(" restrictions]");
-                            addInformation(sb.toString());
+                            targetWarnings.addInformation(sb.toString());
                         }
 
                         // get target position (ha, az, el) at range boundaries:
-                        addTargetPositions(starObs, finalRangesHardLimits, precRA, precDEC, azEl, false);
+                        addTargetPositions(starObs, finalRangesHardLimits, precRA, precDEC, azEl, false, tctx);
 
                         // Keep observability ranges without HA restrictions:
                         final List<DateTimeInterval> visibleNoSoftLimits = new ArrayList<DateTimeInterval>(3);
@@ -1719,7 +2170,7 @@ public final class ObservabilityService {
                     }
                 } else {
                     // get detailled target position (ha, az, el) for the current target (ticks):
-                    addTargetPositions(starObs, finalRanges, precRA, precDEC, azEl, true);
+                    addTargetPositions(starObs, finalRanges, precRA, precDEC, azEl, true, tctx);
 
                     // convert JD ranges to date ranges :
                     convertRangesToDateIntervals(finalRanges, starObs.getVisible());
@@ -1745,9 +2196,9 @@ public final class ObservabilityService {
                     logger.debug("Target not observable: {}", target);
                 }
                 if (doWarnNotObservable) {
-                    final StringBuffer sb = getBuffer();
+                    final StringBuffer sb = tctx.getBuffer();
                     sb.append("Target [").append(targetName).append("] is not observable");
-                    addInformation(sb.toString());
+                    targetWarnings.addInformation(sb.toString());
                 }
             }
 
@@ -1772,14 +2223,24 @@ public final class ObservabilityService {
                 logger.debug("Target never rise: {}", target);
             }
             if (doWarnNotObservable) {
-                final StringBuffer sb = getBuffer();
+                final StringBuffer sb = tctx.getBuffer();
                 sb.append("Target [").append(targetName).append("] is not observable (never rise)");
-                addInformation(sb.toString());
+                targetWarnings.addInformation(sb.toString());
             }
         }
 
         // reset current target :
-        this.sco.reset();
+        sco.reset();
+        tctx.warningContainer = null;
+
+        final TargetObservability result = new TargetObservability(targetKey, starVisList, starData, targetWarnings,
+                tctx.bestPops, tctx.bestPopList, tctx.betterPopList);
+
+        tctx.bestPops = null;
+        tctx.bestPopList = null;
+        tctx.betterPopList = null;
+
+        return result;
     }
 
     /**
@@ -1792,9 +2253,11 @@ public final class ObservabilityService {
      * @param dec target declination (rad)
      * @param rangesTarget HA ranges for target rise/set and night limits
      * @param starObs star observability bean to set the final PoP combination
+     * @param tctx target context (local context ie thread)
      * @return intervals (hour angles) or null if thread interrupted
      */
-    private List<List<Range>> findHAIntervalsWithPops(final double dec, final List<Range> rangesTarget, final StarObservabilityData starObs) {
+    private List<List<Range>> findHAIntervalsWithPops(final double dec, final List<Range> rangesTarget, final StarObservabilityData starObs,
+                                                      final TargetContext tctx) {
         final int sizeCb = this.popCombinations.size();
 
         // flag to have extra information about DL (even if unobservable target):
@@ -1803,7 +2266,7 @@ public final class ObservabilityService {
         // First Pass :
         // For all PoP combinations : find the HA interval merged with the HA Rise/set interval
         // list of observability data associated to a pop combination :
-        final List<PopObservabilityData> popDataList = getPopObservabilityData(starObs.getTargetName(), dec, rangesTarget, doSkipDL, this.bpObsCtx, false);
+        final List<PopObservabilityData> popDataList = getPopObservabilityData(starObs.getTargetName(), dec, rangesTarget, doSkipDL, tctx.bpObsCtx, false);
 
         // Current pop observability :
         PopObservabilityData popData;
@@ -1850,20 +2313,19 @@ public final class ObservabilityService {
                     }
                 }
 
-                this.data.setBestPopList(bestPoPList);
-                this.data.setBetterPopList(betterPoPList);
+                // best PoPs results are applied to ObservabilityData when merging target results:
+                tctx.bestPopList = bestPoPList;
+                tctx.betterPopList = betterPoPList;
 
-                addInformation(sbBestPops.toString());
+                tctx.warningContainer.addInformation(sbBestPops.toString());
 
                 if (sbBetterPops.length() > 0) {
                     sbBetterPops.insert(0, "Next good PoPs: ");
-                    addInformation(sbBetterPops.toString());
+                    tctx.warningContainer.addInformation(sbBetterPops.toString());
                 }
             }
 
-            if (this.data.getBestPops() == null) {
-                this.data.setBestPops(popBestData.getPopCombination());
-            }
+            tctx.bestPops = popBestData.getPopCombination();
 
             return popBestData.getRangesBL();
         }
@@ -1923,8 +2385,28 @@ public final class ObservabilityService {
         // list of observability data associated to a pop combination :
         final List<PopObservabilityData> popDataList = bpObsCtxLocal.getPopDataList();
 
-        final double cosDec = FastMath.cos(dec);
-        final double sinDec = FastMath.sin(dec);
+        // HA ranges of base lines do not depend on the target (except its declination) so they can be cached:
+        final double decBL;
+        final BoundedCache.Key cacheKey;
+        final double[][] popRanges;
+
+        if (doSkipDL && clearRangesBL && this.popRangesKey != null) {
+            decBL = getPopRangesDeclination(dec);
+            cacheKey = new BoundedCache.Key(this.popRangesKey, Double.valueOf(decBL), Integer.valueOf(fromCb), Integer.valueOf(endCb));
+
+            final double[][] cachedRanges = POP_RANGES_CACHE.get(cacheKey);
+            if (cachedRanges != null) {
+                return getPopObservabilityData(targetName, rangesTarget, bpObsCtxLocal, cachedRanges, fromCb, endCb);
+            }
+            popRanges = new double[endCb - fromCb][];
+        } else {
+            decBL = dec;
+            cacheKey = null;
+            popRanges = null;
+        }
+
+        final double cosDec = FastMath.cos(decBL);
+        final double sinDec = FastMath.sin(decBL);
 
         // Use arrays instead of List for performance:
         final PopCombination[] popCombs = bpObsCtxLocal.getPopCombs();
@@ -2014,6 +2496,12 @@ public final class ObservabilityService {
             }
 
             if (skip) {
+                // recycle memory (to avoid GC):
+                bpObsCtxLocal.recycleAll(rangesBL);
+            } else if (popRanges != null) {
+                // intersect HA ranges of all base lines only (target independent):
+                popRanges[k - fromCb] = bpObsCtxLocal.intersectAndGetFlatRanges(rangesBL);
+
                 // recycle memory (to avoid GC):
                 bpObsCtxLocal.recycleAll(rangesBL);
             } else {
@@ -2036,10 +2524,85 @@ public final class ObservabilityService {
             rangesBL.clear();
         }
 
+        if (popRanges != null) {
+            POP_RANGES_CACHE.put(cacheKey, popRanges);
+
+            return getPopObservabilityData(targetName, rangesTarget, bpObsCtxLocal, popRanges, fromCb, endCb);
+        }
+
         if (SHOW_BEST_POPS_STATS && nIter > 1) {
             loggerTasks.info("getPopObservabilityData - iter = {} - size= {} : duration = {} ms.", nIter, popDataList.size(), 1e-6d * (System.nanoTime() - start));
         }
 
+        return getPopDataListResult(popDataList);
+    }
+
+    /**
+     * Return the list of Pop Observability Data given the HA ranges of all base lines per PoP combination
+     * (PoP ranges cache) merged with the target HA ranges (rise/set and night limits)
+     *
+     * @param targetName name of the target
+     * @param rangesTarget HA ranges for target rise/set and night limits
+     * @param bpObsCtxLocal observability context (local context ie thread)
+     * @param popRanges flat HA ranges (intersection of all base lines) per PoP combination in chunk[fromCb; endCb] (null if unobservable)
+     * @param fromCb index of the first PopCombination to evaluate (inclusive)
+     * @param endCb index of the last PopCombination to evaluate (exclusive)
+     * @return list of Pop Observability Data or null if thread interrupted
+     */
+    private List<PopObservabilityData> getPopObservabilityData(final String targetName, final List<Range> rangesTarget,
+                                                               final BestPoPsObservabilityContext bpObsCtxLocal, final double[][] popRanges,
+                                                               final int fromCb, final int endCb) {
+
+        // local vars for performance:
+        final Thread currentTh = Thread.currentThread(); // multi threading
+        final BestPopsEstimator estimator = bpObsCtxLocal.getPopEstimator();
+        // list of observability data associated to a pop combination :
+        final List<PopObservabilityData> popDataList = bpObsCtxLocal.getPopDataList();
+
+        final PopCombination[] popCombs = bpObsCtxLocal.getPopCombs();
+
+        // note : rangesTarget contains both rise/set intervals + night limits in HA
+        bpObsCtxLocal.resetAndAddInFlatRangeLimits(rangesTarget);
+
+        final IntervalSet targetIntervals = bpObsCtxLocal.getTargetIntervals();
+        targetIntervals.set(bpObsCtxLocal.intersectAndGetFlatRanges(1 + ((this.useNightLimit) ? 1 : 0)));
+
+        final IntervalSet mergeIntervals = bpObsCtxLocal.getMergeIntervals();
+        final Range tmpRange = bpObsCtxLocal.getTmpRange();
+
+        PopObservabilityData popData;
+        double[] limits;
+
+        // For every Pop Combination in chunk[fromCb; endCb]:
+        for (int k = fromCb; k < endCb && !targetIntervals.isEmpty(); k++) {
+            limits = popRanges[k - fromCb];
+
+            if (limits != null) {
+                // fast interrupt (multi threading):
+                if (currentTh.isInterrupted()) {
+                    return null;
+                }
+
+                // merge the baseline ranges with the target intervals to estimate observability:
+                popData = PopObservabilityData.estimate(targetName, popCombs[k], mergeIntervals.set(targetIntervals).intersect(limits),
+                        estimator, tmpRange);
+
+                if (popData != null) {
+                    // skip pop solutions outside Rise/Set HA range:
+                    popDataList.add(popData);
+                }
+            }
+        }
+
+        return getPopDataListResult(popDataList);
+    }
+
+    /**
+     * Return a copy of the given temporary PopObservabilityData list (and clear it)
+     * @param popDataList temporary PopObservabilityData list (observability context)
+     * @return list of Pop Observability Data or null if empty
+     */
+    private static List<PopObservabilityData> getPopDataListResult(final List<PopObservabilityData> popDataList) {
         if (popDataList.isEmpty()) {
             return null;
         }
@@ -2051,35 +2614,35 @@ public final class ObservabilityService {
         return popDataListResult;
     }
 
+    /**
+     * Return the declination used by the PoP ranges cache i.e. the nearest multiple of its declination bin (if enabled)
+     * @param dec target declination (rad)
+     * @return declination (rad)
+     */
+    private static double getPopRangesDeclination(final double dec) {
+        return POP_RANGES_CACHE.getBinValue(dec, FastMath.toRadians(ALX.ARCSEC_IN_DEGREES));
+    }
+
     /**
      * Check the horizon profiles for all stations given the target rise/set range (JD)
      * @param precDEC precessed DEC in degrees
      * @param jdRiseSet target rise/set range (JD)
+     * @param tctx target context (local context ie thread)
      * @return list of observable ranges (no obstruction)
      */
-    private List<Range> checkHorizonProfile(final double precDEC, final Range jdRiseSet) {
+    private List<Range> checkHorizonProfile(final double precDEC, final Range jdRiseSet, final TargetContext tctx) {
 
         // Note: as JD ranges are in [LST0 -12; LST0 + 36], sampled jds are fixed by getJDInLstRange(jd) 
         // in LST range [0; 24] in order to have accurate target position
         final boolean isDebug = isLogDebug; // local var
 
-        // output :
-        final ObservabilityContext ctx = obsCtx;
-        List<Range> ranges = ctx.getList();
+        final ObservabilityContext ctx = tctx.obsCtx;
 
-        // Interferometer:
-        final String name = this.interferometer.getName();
-
-        // Prepare profiles :
+        // Prepared profiles :
         final HorizonService hs = HorizonService.getInstance();
 
-        final int nBeams = this.beams.size();
-        final HorizonShape[] profiles = new HorizonShape[nBeams];
-
-        for (int i = 0; i < nBeams; i++) {
-            final Beam b = this.beams.get(i);
-            profiles[i] = hs.getProfile(name, b.getStation());
-        }
+        final HorizonShape[] profiles = this.horizonProfiles;
+        final int nBeams = profiles.length;
 
         // prepare cosDec/sinDec:
         final double dec = FastMath.toRadians(precDEC);
@@ -2089,74 +2652,67 @@ public final class ObservabilityService {
         final double jdMin = jdRiseSet.getMin();
         final double jdMax = jdRiseSet.getMax();
 
-        final AzEl azEl = ctx.getAzEl();
-        HorizonShape profile;
-        boolean visible;
-        boolean last = false;
-
-        Range range = ctx.valueOf(0d, 0d);
-
-        for (double jd = jdMin, jdIn; jd < jdMax; jd += JD_STEP) {
-
-            // fast interrupt:
-            checkInterrupted();
+        // output :
+        List<Range> ranges = scanRanges(new TargetPositionPredicate(cosDec, sinDec, tctx) {
+            @Override
+            boolean isVisible(final double jd) {
+                final int pos = getSample(jd);
+                // AZ [0; 360] where 0 is North, positive toward East:
+                final double az = samples[pos];
+                final double elev = samples[pos + 1];
 
-            // fix JD in LST range [0; 24] in order to have accurate target position:
-            jdIn = getJDInLstRange(jd);
+                if (isDebug) {
+                    logger.debug("Target position [{} {}]", az, elev);
+                }
 
-            // AZ [0; 360] where 0 is North, positive toward East:
-            this.sco.getTargetPosition(cosDec, sinDec, jdIn, azEl);
+                // For every beam (station) :
+                // check if there is no horizon obstruction :
+                for (int i = 0; i < nBeams; i++) {
+                    final HorizonShape profile = profiles[i];
 
-            if (isDebug) {
-                logger.debug("Target position [{} {}]",
-                        azEl.getAzimuth(), azEl.getElevation());
+                    if (!hs.checkProfile(profile, az, elev)) {
+                        if (isDebug) {
+                            logger.debug("Target hidden by horizon profile = {} [{} {}]",
+                                    profile.getName(), az, elev);
+                        }
+                        return false;
+                    }
+                }
+                return true;
             }
 
-            visible = true;
-
-            // For every beam (station) :
-            // check if there is no horizon obstruction :
-            for (int i = 0; i < nBeams; i++) {
-                profile = profiles[i];
+            @Override
+            boolean isUniform(final double jd1, final double jd2, final boolean visible) {
+                if (!isSameLstRange(jd1, jd2)) {
+                    return false;
+                }
+                final double elev1 = samples[getSample(jd1) + 1];
+                final double elev2 = samples[getSample(jd2) + 1];
 
-                if (!hs.checkProfile(profile, azEl.getAzimuth(), azEl.getElevation())) {
-                    visible = false;
+                // elevation bounds between samples:
+                final double delta = SIDEREAL_RATE * (jd2 - jd1);
+                final double elevMin = 0.5d * (elev1 + elev2 - delta);
+                final double elevMax = 0.5d * (elev1 + elev2 + delta);
 
-                    if (isDebug) {
-                        logger.debug("Target hidden by horizon profile = {} [{} {}]",
-                                profile.getName(), azEl.getAzimuth(), azEl.getElevation());
+                if (visible) {
+                    // every profile must be visible whatever the azimuth:
+                    for (int i = 0; i < nBeams; i++) {
+                        if (!hs.isVisible(profiles[i], elevMin, elevMax)) {
+                            return false;
+                        }
                     }
-
-                    break;
+                    return true;
                 }
-            }
-
-            // manage intervals :
-            if (visible) {
-                if (!last) {
-                    last = true;
-                    // start point
-                    range.setMin(jd);
-                }
-            } else {
-                if (last) {
-                    last = false;
-                    // end point
-                    range.setMax(jd);
-                    ranges.add(range);
-                    range = ctx.valueOf(0d, 0d);
+                // any profile hidden whatever the azimuth:
+                for (int i = 0; i < nBeams; i++) {
+                    if (hs.isHidden(profiles[i], elevMin, elevMax)) {
+                        return true;
+                    }
                 }
+                return false;
             }
-        } // jd
+        }, jdMin, jdMax, ctx);
 
-        // close last interval if opened :
-        if (range.getMin() > 0d) {
-            range.setMax(jdMax);
-            ranges.add(range);
-        } else {
-            // recycle range:
-            ctx.recycleRange(range);
-        }
         if (ranges.isEmpty()) {
             // recycle list:
             ctx.recycleList(ranges);
@@ -2175,15 +2731,14 @@ public final class ObservabilityService {
      * Check the wind restriction given the target rise/set range (JD)
      * @param precDEC precessed DEC in degrees
      * @param jdRiseSet target rise/set range (JD)
+     * @param tctx target context (local context ie thread)
      * @return list of observable ranges (no obstruction) or null if no restriction
      */
-    private List<Range> checkWindRestriction(final double precDEC, final Range jdRiseSet) {
+    private List<Range> checkWindRestriction(final double precDEC, final Range jdRiseSet, final TargetContext tctx) {
 
         // Note: as JD ranges are in [LST0 -12; LST0 + 36], sampled jds are fixed by getJDInLstRange(jd) 
         // in LST range [0; 24] in order to have accurate target position
-        // output :
-        final ObservabilityContext ctx = obsCtx;
-        List<Range> ranges = ctx.getList();
+        final ObservabilityContext ctx = tctx.obsCtx;
 
         // prepare cosDec/sinDec:
         final double dec = FastMath.toRadians(precDEC);
@@ -2193,60 +2748,67 @@ public final class ObservabilityService {
         final double jdMin = jdRiseSet.getMin();
         final double jdMax = jdRiseSet.getMax();
 
-        final AzEl azEl = ctx.getAzEl();
-        boolean visible;
-        boolean last = false;
-
-        Range range = ctx.valueOf(0d, 0d);
-
-        for (double jd = jdMin, jdIn; jd < jdMax; jd += JD_STEP) {
-
-            // fast interrupt:
-            checkInterrupted();
-
-            // fix JD in LST range [0; 24] in order to have accurate target position:
-            jdIn = getJDInLstRange(jd);
-
-            this.sco.getTargetPosition(cosDec, sinDec, jdIn, azEl);
+        final List<Range> windRanges = this.azimuthRanges;
 
-            visible = true;
+        // output :
+        List<Range> ranges = scanRanges(new TargetPositionPredicate(cosDec, sinDec, tctx) {
+            @Override
+            boolean isVisible(final double jd) {
+                final double az = samples[getSample(jd)];
 
-            // Check pointing restrictions according to the wind direction:
-            if (Range.contains(this.azimuthRanges, azEl.getAzimuth())) {
+                // Check pointing restrictions according to the wind direction:
+                if (Range.contains(windRanges, az)) {
 
-                if (isLogDebug) {
-                    logger.debug("Target pointing discarded by wind direction = {} [{}]", azEl.getAzimuth(), this.windAzimuth);
+                    if (isLogDebug) {
+                        logger.debug("Target pointing discarded by wind direction = {} [{}]", az, windAzimuth);
+                    }
+                    return false;
                 }
-
-                visible = false;
+                return true;
             }
 
-            // manage intervals :
-            if (visible) {
-                if (!last) {
-                    last = true;
-                    // start point
-                    range.setMin(jd);
+            @Override
+            boolean isUniform(final double jd1, final double jd2, final boolean visible) {
+                if (!isSameLstRange(jd1, jd2)) {
+                    return false;
                 }
-            } else {
-                if (last) {
-                    last = false;
-                    // end point
-                    range.setMax(jd);
-                    ranges.add(range);
-                    range = ctx.valueOf(0d, 0d);
+                final int pos1 = getSample(jd1);
+                final int pos2 = getSample(jd2);
+                final double az1 = samples[pos1];
+                final double az2 = samples[pos2];
+
+                // elevation bounds between samples:
+                final double delta = SIDEREAL_RATE * (jd2 - jd1);
+                final double elevMin = 0.5d * (samples[pos1 + 1] + samples[pos2 + 1] - delta);
+                final double elevMax = 0.5d * (samples[pos1 + 1] + samples[pos2 + 1] + delta);
+
+                final double maxElev = Math.max(Math.abs(elevMin), Math.abs(elevMax));
+                if (maxElev >= MAX_ELEVATION_AZIMUTH_RATE) {
+                    // azimuth rate is unbounded near zenith:
+                    return false;
                 }
+                // maximum azimuth path length between samples:
+                final double length = delta / FastMath.cos(FastMath.toRadians(maxElev));
+
+                for (int i = 0, len = windRanges.size(); i < len; i++) {
+                    final Range range = windRanges.get(i);
+
+                    if (visible) {
+                        // the azimuth path can not enter this range:
+                        if (getAzimuthDistance(az1, range) + getAzimuthDistance(az2, range) <= length) {
+                            return false;
+                        }
+                    } else if (range.contains(az1)) {
+                        // the azimuth path can not leave this range:
+                        return range.contains(az2)
+                                && (Math.min(az1 - range.getMin(), range.getMax() - az1)
+                                    + Math.min(az2 - range.getMin(), range.getMax() - az2) > length);
+                    }
+                }
+                return visible;
             }
-        } // jd
+        }, jdMin, jdMax, ctx);
 
-        // close last interval if opened :
-        if (range.getMin() > 0d) {
-            range.setMax(jdMax);
-            ranges.add(range);
-        } else {
-            // recycle range:
-            ctx.recycleRange(range);
-        }
         if (ranges.isEmpty()) {
             // recycle list:
             ctx.recycleList(ranges);
@@ -2266,9 +2828,11 @@ public final class ObservabilityService {
      * @param target target to test (name and flux V used)
      * @param precDEC precessed DEC in degrees
      * @param jdRiseSet target rise/set range (JD)
+     * @param tctx target context (local context ie thread)
      * @return list of observable ranges (no restriction) or null if no restriction
      */
-    private List<Range> checkMoonRestriction(final Target target, final double precDEC, final Range jdRiseSet) {
+    private List<Range> checkMoonRestriction(final Target target, final double precDEC, final Range jdRiseSet,
+                                             final TargetContext tctx) {
 
         // Note: as JD ranges are in [LST0 -12; LST0 + 36], sampled jds are fixed (by getJDInLstRange(jd) 
         // called by getMoonSeparation() ) in LST range [0; 24] in order to have accurate moon position
@@ -2297,19 +2861,19 @@ public final class ObservabilityService {
         double separation;
 
         // check at jd min:
-        separation = getMoonSeparation(cosDec, sinDec, jdMin);
+        separation = getMoonSeparation(cosDec, sinDec, jdMin, tctx);
 
         if (separation <= testThreshold) {
             doCheck = true;
         } else {
             // check at jd mid:
-            separation = getMoonSeparation(cosDec, sinDec, jdMid);
+            separation = getMoonSeparation(cosDec, sinDec, jdMid, tctx);
 
             if (separation <= testThreshold) {
                 doCheck = true;
             } else {
                 // check at jd max:
-                separation = getMoonSeparation(cosDec, sinDec, jdMax);
+                separation = getMoonSeparation(cosDec, sinDec, jdMax, tctx);
 
                 if (separation <= testThreshold) {
                     doCheck = true;
@@ -2375,66 +2939,67 @@ public final class ObservabilityService {
             logger.debug("appliedRule: {}", appliedRule);
 
             // Process Rise/Set HA range:
-            final ObservabilityContext ctx = obsCtx;
-            ranges = ctx.getList();
-
-            double minSeparation = Double.POSITIVE_INFINITY;
-            double minJd = 0d;
-
-            boolean visible;
-            boolean last = false;
-
-            Range range = ctx.valueOf(0d, 0d);
-
-            for (double jd = jdMin; jd < jdMax; jd += JD_STEP) {
+            final ObservabilityContext ctx = tctx.obsCtx;
+
+            final MoonRestriction rule = appliedRule;
+            // rule threshold including uncertainty:
+            final double ruleThreshold = (rule == null) ? Double.NaN : rule.getSeparation() + MOON_SEPARATION_MARGIN;
+            // minimum separation and its julian date among evaluated samples:
+            final double[] minSepJd = new double[]{Double.POSITIVE_INFINITY, 0d};
+
+            ranges = scanRanges(new SampledPredicate(1) {
+                @Override
+                void computeSample(final double jd, final double[] values, final int pos) {
+                    // check at jd (internally fix JD in LST range [0; 24]):
+                    values[pos] = getMoonSeparation(cosDec, sinDec, jd, tctx);
+                }
 
-                // fast interrupt:
-                checkInterrupted();
+                @Override
+                boolean isVisible(final double jd) {
+                    double sep = samples[getSample(jd)];
 
-                visible = true;
+                    if (sep < minSepJd[0]) {
+                        minSepJd[0] = sep;
+                        minSepJd[1] = jd;
+                    }
 
-                // check at jd (internally fix JD in LST range [0; 24]):
-                separation = getMoonSeparation(cosDec, sinDec, jd);
+                    // use uncertainty:
+                    sep -= MOON_SEPARATION_MARGIN;
 
-                if (separation < minSeparation) {
-                    minSeparation = separation;
-                    minJd = jd;
+                    // evaluate applied rule:
+                    return (rule == null) || (sep >= rule.getSeparation());
                 }
 
-                // use uncertainty:
-                separation -= MOON_SEPARATION_MARGIN;
-
-                // evaluate applied rule:
-                if ((appliedRule != null) && (separation < appliedRule.getSeparation())) {
-                    visible = false;
-                }
+                @Override
+                boolean isUniform(final double jd1, final double jd2, final boolean visible) {
+                    // the moon position jumps where the JD is fixed in another LST range:
+                    if (!isSameLstRange(jd1, jd2)) {
+                        return false;
+                    }
+                    final double sep1 = samples[getSample(jd1)];
+                    final double sep2 = samples[getSample(jd2)];
 
-                // manage intervals :
-                if (visible) {
-                    if (!last) {
-                        last = true;
-                        // start point
-                        range.setMin(jd);
+                    // the separation jumps where the moon rises or sets:
+                    if (Double.isInfinite(sep1) || Double.isInfinite(sep2)) {
+                        return false;
                     }
-                } else {
-                    if (last) {
-                        last = false;
-                        // end point
-                        range.setMax(jd);
-                        ranges.add(range);
-                        range = ctx.valueOf(0d, 0d);
+
+                    // maximum separation change between both samples:
+                    final double delta = MOON_SEPARATION_RATE * (jd2 - jd1);
+
+                    // minimum separation bound between samples must not give any warning:
+                    if (0.5d * (sep1 + sep2 - delta) < warningThreshold) {
+                        return false;
                     }
+                    // the separation can not cross the rule threshold twice between samples:
+                    return (rule == null)
+                            || (Math.abs(sep1 - ruleThreshold) + Math.abs(sep2 - ruleThreshold) > delta);
                 }
-            } // jd
+            }, jdMin, jdMax, ctx);
+
+            final double minSeparation = minSepJd[0];
+            final double minJd = minSepJd[1];
 
-            // close last interval if opened :
-            if (range.getMin() > 0d) {
-                range.setMax(jdMax);
-                ranges.add(range);
-            } else {
-                // recycle range:
-                ctx.recycleRange(range);
-            }
             if (ranges.isEmpty()) {
                 // recycle list:
                 ctx.recycleList(ranges);
@@ -2444,13 +3009,13 @@ public final class ObservabilityService {
             // check again the true warning threshold:
             if (minSeparation < warningThreshold) {
                 // add warning:
-                final StringBuffer sb = getBuffer();
+                final StringBuffer sb = tctx.getBuffer();
                 sb.append("Moon separation is ");
-                FormatterUtils.format(df1, sb, minSeparation).append(" deg at ");
-                FormatterUtils.format(timeFormatter, sb, convertJDToDate(minJd));
+                FormatterUtils.format(tctx.df1, sb, minSeparation).append(" deg at ");
+                FormatterUtils.format(tctx.timeFormatter, sb, convertJDToDate(minJd));
                 sb.append(" for target [").append(target.getName()).append("]. Please check pointing restrictions.");
 
-                this.addWarning(sb.toString());
+                tctx.warningContainer.addWarning(sb.toString());
             }
 
         } else {
@@ -2461,17 +3026,258 @@ public final class ObservabilityService {
         return ranges;
     }
 
+    /**
+     * Return the visible ranges (JD) given the visibility predicate using an adaptive scan:
+     * the predicate is evaluated on coarse samples (scanCoarseSteps) and every interval between samples is bisected
+     * on the scan grid (JD_SCAN_STEP = boundary tolerance) unless the predicate guarantees the state can not change
+     * (JDPredicate.isUniform) so ranges are the same as a full scan on this grid.
+     * @param predicate visibility predicate
+     * @param jdMin lower julian date
+     * @param jdMax upper julian date
+     * @param ctx observability context to get ranges and lists
+     * @return list of visible ranges (may be empty)
+     */
+    private List<Range> scanRanges(final JDPredicate predicate, final double jdMin, final double jdMax,
+                                   final ObservabilityContext ctx) {
+
+        final List<Range> ranges = ctx.getList();
+
+        final double step = JD_SCAN_STEP;
+        final int coarseSteps = this.scanCoarseSteps;
+        // samples: jd(k) = jdMin + k * step < jdMax
+        final int nSamples = (int) Math.ceil((jdMax - jdMin) / step);
+
+        if (nSamples > 0) {
+            // fast interrupt:
+            checkInterrupted();
+
+            boolean last = predicate.isVisible(jdMin);
+            // index of the current range start (-1 if none):
+            int start = (last) ? 0 : -1;
+
+            for (int a = 0, b; a < nSamples - 1; a = b) {
+                // fast interrupt:
+                checkInterrupted();
+
+                b = Math.min(a + coarseSteps, nSamples - 1);
+
+                final boolean visible = predicate.isVisible(jdMin + b * step);
+
+                start = scanInterval(predicate, jdMin, step, a, last, b, visible, start, ranges, ctx);
+                last = visible;
+            }
+
+            // close last interval if opened :
+            if (start != -1) {
+                ranges.add(ctx.valueOf(jdMin + start * step, jdMax));
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Find state changes in the interval ]a; b] of the scan grid by bisection:
+     * the interval is split while its bounds have different states or the predicate can not guarantee
+     * the state is uniform, until the state change is located at the scan grid resolution (JD_SCAN_STEP)
+     * @param predicate visibility predicate
+     * @param jdMin lower julian date
+     * @param step jd scan step
+     * @param a lower sample index (evaluated)
+     * @param va state at sample a
+     * @param b upper sample index (evaluated)
+     * @param vb state at sample b
+     * @param start index of the current range start (-1 if none)
+     * @param ranges visible ranges to fill
+     * @param ctx observability context to get ranges
+     * @return updated index of the current range start (-1 if none)
+     */
+    private static int scanInterval(final JDPredicate predicate, final double jdMin, final double step,
+                                    final int a, final boolean va, final int b, final boolean vb, final int start,
+                                    final List<Range> ranges, final ObservabilityContext ctx) {
+        if (b - a > 1) {
+            if (va != vb || !predicate.isUniform(jdMin + a * step, jdMin + b * step, va)) {
+                final int m = (a + b) >>> 1;
+                final boolean vm = predicate.isVisible(jdMin + m * step);
+
+                return scanInterval(predicate, jdMin, step, m, vm, b, vb,
+                        scanInterval(predicate, jdMin, step, a, va, m, vm, start, ranges, ctx), ranges, ctx);
+            }
+        } else if (va != vb) {
+            if (vb) {
+                // start point
+                return b;
+            }
+            // end point
+            ranges.add(ctx.valueOf(jdMin + start * step, jdMin + b * step));
+            return -1;
+        }
+        return start;
+    }
+
+    /**
+     * Return the circular distance (deg) between the given azimuth and the given azimuth range
+     * @param az azimuth in [0; 360]
+     * @param range azimuth range in [0; 360]
+     * @return circular distance (deg) or 0 if the azimuth is inside the range
+     */
+    private static double getAzimuthDistance(final double az, final Range range) {
+        if (range.contains(az)) {
+            return 0d;
+        }
+        return Math.min(getAzimuthDistance(az, range.getMin()), getAzimuthDistance(az, range.getMax()));
+    }
+
+    /**
+     * Return the circular distance (deg) between the given azimuths
+     * @param az1 azimuth in [0; 360]
+     * @param az2 azimuth in [0; 360]
+     * @return circular distance (deg) in [0; 180]
+     */
+    private static double getAzimuthDistance(final double az1, final double az2) {
+        final double d = Math.abs(az1 - az2);
+        return (d > 180d) ? 360d - d : d;
+    }
+
+    /**
+     * Visibility predicate evaluated at a julian date (restriction scans)
+     */
+    private abstract static class JDPredicate {
+
+        /**
+         * Return true if the target is visible (no restriction) at the given julian date
+         * @param jd julian date
+         * @return true if the target is visible
+         */
+        abstract boolean isVisible(final double jd);
+
+        /**
+         * Return true if the state can not change between the given samples having the same state
+         * so the samples in between can be skipped (false by default ie every sample is evaluated)
+         * @param jd1 lower julian date (evaluated)
+         * @param jd2 upper julian date (evaluated)
+         * @param visible state of both samples
+         * @return true if the state can not change between the given samples
+         */
+        boolean isUniform(final double jd1, final double jd2, final boolean visible) {
+            return false;
+        }
+    }
+
+    /**
+     * Visibility predicate keeping the last evaluated samples (bisection reuses interval bounds)
+     */
+    private abstract static class SampledPredicate extends JDPredicate {
+
+        /** number of cached samples (bisection depth) */
+        private final static int CACHE_SIZE = 16;
+        /* members */
+        /** number of values per sample */
+        private final int width;
+        /** julian dates of cached samples */
+        private final double[] jds = new double[CACHE_SIZE];
+        /** values of cached samples [CACHE_SIZE x width] */
+        final double[] samples;
+        /** next cache slot */
+        private int next = 0;
+
+        /**
+         * Protected constructor
+         * @param width number of values per sample
+         */
+        SampledPredicate(final int width) {
+            this.width = width;
+            this.samples = new double[CACHE_SIZE * width];
+            Arrays.fill(this.jds, Double.NaN);
+        }
+
+        /**
+         * Return the position in samples of the values at the given julian date (cached or computed)
+         * @param jd julian date
+         * @return position in samples
+         */
+        final int getSample(final double jd) {
+            for (int i = 0; i < CACHE_SIZE; i++) {
+                if (this.jds[i] == jd) {
+                    return i * this.width;
+                }
+            }
+            final int i = this.next;
+            this.next = (i + 1) % CACHE_SIZE;
+
+            this.jds[i] = jd;
+            final int pos = i * this.width;
+            computeSample(jd, this.samples, pos);
+            return pos;
+        }
+
+        /**
+         * Compute the values at the given julian date
+         * @param jd julian date
+         * @param values values to fill
+         * @param pos position in values
+         */
+        abstract void computeSample(final double jd, final double[] values, final int pos);
+    }
+
+    /**
+     * Visibility predicate on the target position (azimuth, elevation in degrees)
+     */
+    private abstract class TargetPositionPredicate extends SampledPredicate {
+
+        /** cosinus of target declination */
+        private final double cosDec;
+        /** sinus of target declination */
+        private final double sinDec;
+        /** target context (local context ie thread) */
+        private final TargetContext tctx;
+        /** temporary position */
+        private final AzEl azEl;
+
+        /**
+         * Protected constructor
+         * @param cosDec cosinus of target declination
+         * @param sinDec sinus of target declination
+         * @param tctx target context (local context ie thread)
+         */
+        TargetPositionPredicate(final double cosDec, final double sinDec, final TargetContext tctx) {
+            super(2);
+            this.cosDec = cosDec;
+            this.sinDec = sinDec;
+            this.tctx = tctx;
+            this.azEl = tctx.obsCtx.getAzEl();
+        }
+
+        @Override
+        final void computeSample(final double jd, final double[] values, final int pos) {
+            // fix JD in LST range [0; 24] in order to have accurate target position:
+            tctx.sco.getTargetPosition(cosDec, sinDec, getJDInLstRange(jd), azEl);
+            values[pos] = azEl.getAzimuth();
+            values[pos + 1] = azEl.getElevation();
+        }
+    }
+
+    /**
+     * Return true if both julian dates are fixed in the same LST range (no position jump in between)
+     * @param jd1 julian date
+     * @param jd2 julian date
+     * @return true if both julian dates are fixed in the same LST range
+     */
+    private boolean isSameLstRange(final double jd1, final double jd2) {
+        return getJDInLstRange(jd1) - jd1 == getJDInLstRange(jd2) - jd2;
+    }
+
     /**
      * Return the moon separation in degrees of the current target at the given julian date
      * @param cosDec cosinus of target declination
      * @param sinDec sinus of target declination
      * @param jd julian date
+     * @param tctx target context (local context ie thread)
      * @return moon separation in degrees or +INFINITY if moon is not visible
      */
-    private double getMoonSeparation(final double cosDec, final double sinDec, final double jd) {
+    private double getMoonSeparation(final double cosDec, final double sinDec, final double jd, final TargetContext tctx) {
         // fix JD in LST range [0; 24] in order to have accurate moon position:
         final double jdIn = getJDInLstRange(jd);
-        return this.sco.getMoonSeparation(cosDec, sinDec, jdIn);
+        return tctx.sco.getMoonSeparation(cosDec, sinDec, jdIn);
     }
 
     /**
@@ -2692,6 +3498,18 @@ public final class ObservabilityService {
             }
         }
 
+        if (this.hasHorizon) {
+            // Prepare profiles (shared by all targets) :
+            final HorizonService hs = HorizonService.getInstance();
+            final String name = this.interferometer.getName();
+
+            this.horizonProfiles = new HorizonShape[nBeams];
+
+            for (int i = 0; i < nBeams; i++) {
+                this.horizonProfiles[i] = hs.getProfile(name, this.beams.get(i).getStation());
+            }
+        }
+
         // Get all possible delay Lines:
         final List<DelayLine> delayLines = this.interferometer.getDelayLines();
         final int nDelayLines = delayLines.size();
@@ -3049,6 +3867,8 @@ public final class ObservabilityService {
 
         // Prepare observability context:
         this.bpObsCtx = prepareContext();
+
+        this.popRangesKey = getPopRangesKey();
     }
 
     /**
@@ -3074,6 +3894,33 @@ public final class ObservabilityService {
         return ctx;
     }
 
+    /**
+     * Return the key identifying the PoP ranges setup (base lines, W ranges and PoP combinations)
+     * used by the PoP ranges cache
+     * @return PoP ranges setup key or null if the cache is disabled
+     */
+    private BoundedCache.Key getPopRangesKey() {
+        if (!POP_RANGES_CACHE.isEnabled() || this.popCombinations.size() <= 1) {
+            return null;
+        }
+        final StringBuilder sb = new StringBuilder(512);
+
+        sb.append(this.observation.getInterferometerConfiguration().getName());
+        sb.append('|').append(this.observation.getInstrumentConfiguration().getName());
+        sb.append('|').append(this.observation.getInstrumentConfiguration().getPops());
+        sb.append('|').append(this.popCombinations.size());
+
+        // base lines and W ranges (stations, delay lines and switchyard):
+        for (int i = 0, size = this.baseLines.size(); i < size; i++) {
+            final BaseLine bl = this.baseLines.get(i);
+            final Range wRange = this.wRanges.get(i);
+
+            sb.append('|').append(bl.getName()).append(':').append(bl.getX()).append(',').append(bl.getY()).append(',').append(bl.getZ());
+            sb.append(':').append(wRange.getMin()).append(',').append(wRange.getMax());
+        }
+        return new BoundedCache.Key(sb.toString());
+    }
+
     /**
      * Find the optical length between the given station and the PoP
      * @param station used station
@@ -3444,10 +4291,11 @@ public final class ObservabilityService {
      * @param precDEC precessed DEC in degrees
      * @param azEl AzEl instance
      * @param doDetails flag to enable detailled (ticks and transit information)
+     * @param tctx target context (local context ie thread)
      */
     private void addTargetPositions(final StarObservabilityData starObs, final List<Range> obsRangeJD,
                                     final double precRA, final double precDEC, final AzEl azEl,
-                                    final boolean doDetails) {
+                                    final boolean doDetails, final TargetContext tctx) {
 
         final Map<Date, TargetPositionDate> targetPositions = starObs.getTargetPositions();
 
@@ -3465,17 +4313,17 @@ public final class ObservabilityService {
 
                 for (int elevation = 20; elevation <= 80; elevation += 20) {
                     if (elevation > minElevation) {
-                        final double haElev = this.sco.getHAForElevation(precDEC, elevation); // solver
+                        final double haElev = tctx.sco.getHAForElevation(precDEC, elevation); // solver
 
                         if (haElev > 0d) {
                             jd = this.sc.convertHAToJD(-haElev, precRA);
                             if (Range.contains(obsRangeJD, jd)) {
-                                addTargetPosition(targetPositions, cosDec, sinDec, azEl, jd, doDetails);
+                                addTargetPosition(targetPositions, cosDec, sinDec, azEl, jd, doDetails, tctx.sco);
                             }
 
                             jd = this.sc.convertHAToJD(haElev, precRA);
                             if (Range.contains(obsRangeJD, jd)) {
-                                addTargetPosition(targetPositions, cosDec, sinDec, azEl, jd, doDetails);
+                                addTargetPosition(targetPositions, cosDec, sinDec, azEl, jd, doDetails, tctx.sco);
                             }
                         }
                     }
@@ -3488,10 +4336,10 @@ public final class ObservabilityService {
             for (int i = 0, len = obsRangeJD.size(); i < len; i++) {
                 Range range = obsRangeJD.get(i);
                 jd = range.getMin();
-                addTargetPosition(targetPositions, cosDec, sinDec, azEl, jd, doDetails);
+                addTargetPosition(targetPositions, cosDec, sinDec, azEl, jd, doDetails, tctx.sco);
 
                 jd = range.getMax();
-                addTargetPosition(targetPositions, cosDec, sinDec, azEl, jd, doDetails);
+                addTargetPosition(targetPositions, cosDec, sinDec, azEl, jd, doDetails, tctx.sco);
             }
         }
         if (isLogDebug) {
@@ -3507,16 +4355,17 @@ public final class ObservabilityService {
      * @param azEl AzEl instance
      * @param jd julian date
      * @param showTicks true to show ticks at this date
+     * @param sco observation (current target)
      */
     private void addTargetPosition(final Map<Date, TargetPositionDate> targetPositions,
                                    final double cosDec, final double sinDec,
                                    final AzEl azEl, final double jd,
-                                   final boolean showTicks) {
+                                   final boolean showTicks, final AstroSkyCalcObservation sco) {
 
         // Note: as JD ranges are in [LST0 -12; LST0 + 36], jds are fixed by getJDInLstRange(jd) 
         // in LST range [0; 24] in order to have accurate target position
         final double jdIn = getJDInLstRange(jd);
-        final double ha = this.sco.getTargetPosition(cosDec, sinDec, jdIn, azEl);
+        final double ha = sco.getTargetPosition(cosDec, sinDec, jdIn, azEl);
         final Date date = jdToDateInDateRange(jdIn);
 
         if (showTicks || !targetPositions.containsKey(date)) {
@@ -3532,9 +4381,11 @@ public final class ObservabilityService {
      * @param precDEC precessed DEC in degrees
      * @param azEl AzEl instance
      * @param jd jd at transit
+     * @param tctx target context (local context ie thread)
      */
     private void addTargetPositionTransit(final StarObservabilityData starObs, final List<Range> obsRangeJD,
-                                          final double precDEC, final AzEl azEl, final double jd) {
+                                          final double precDEC, final AzEl azEl, final double jd,
+                                          final TargetContext tctx) {
 
         // prepare cosDec/sinDec:
         final double dec = FastMath.toRadians(precDEC);
@@ -3544,10 +4395,10 @@ public final class ObservabilityService {
         // always set information for transit (tooltips):
         final boolean showTicks = Range.contains(obsRangeJD, jd);
 
-        addTargetPosition(starObs.getTargetPositions(), cosDec, sinDec, azEl, jd, showTicks);
+        addTargetPosition(starObs.getTargetPositions(), cosDec, sinDec, azEl, jd, showTicks, tctx.sco);
     }
 
-    private void getTargetPosition(final double precDEC, final AzEl azEl, final double jd) {
+    private void getTargetPosition(final double precDEC, final AzEl azEl, final double jd, final TargetContext tctx) {
         // prepare cosDec/sinDec:
         final double dec = FastMath.toRadians(precDEC);
         final double cosDec = FastMath.cos(dec);
@@ -3556,7 +4407,7 @@ public final class ObservabilityService {
         // fix JD in LST range [0; 24] in order to have accurate target position:
         final double jdIn = getJDInLstRange(jd);
 
-        this.sco.getTargetPosition(cosDec, sinDec, jdIn, azEl);
+        tctx.sco.getTargetPosition(cosDec, sinDec, jdIn, azEl);
     }
 
     /**
@@ -3754,4 +4605,127 @@ public final class ObservabilityService {
         sb.setLength(0);
         return sb;
     }
+
+    /**
+     * Thread-confined state used to compute the observability of one target at a time
+     */
+    private static final class TargetContext {
+
+        /** observation (current target) */
+        final AstroSkyCalcObservation sco;
+        /** observability context */
+        final ObservabilityContext obsCtx;
+        /** best PoPs observability context (null if no PoPs) */
+        final BestPoPsObservabilityContext bpObsCtx;
+        /** reused string buffer instance */
+        final StringBuffer sb;
+        /** double formatter for numbers */
+        final NumberFormat df1;
+        /** time formatter for moon separation */
+        final DateFormat timeFormatter;
+        /** temporary list of ranges to merge */
+        ArrayList<Range> tmpRanges = null;
+        /** warning container of the current target */
+        WarningContainer warningContainer = null;
+        /** best PoP combination of the current target (null if no PoPs) */
+        PopCombination bestPops = null;
+        /** equivalent best PoP combinations of the current target (null if PoPs are fixed) */
+        List<PopCombination> bestPopList = null;
+        /** next good PoP combinations of the current target (null if PoPs are fixed) */
+        List<PopCombination> betterPopList = null;
+
+        TargetContext(final AstroSkyCalcObservation sco, final ObservabilityContext obsCtx,
+                      final BestPoPsObservabilityContext bpObsCtx, final StringBuffer sb,
+                      final NumberFormat df1, final DateFormat timeFormatter) {
+            this.sco = sco;
+            this.obsCtx = obsCtx;
+            this.bpObsCtx = bpObsCtx;
+            this.sb = sb;
+            this.df1 = df1;
+            this.timeFormatter = timeFormatter;
+        }
+
+        StringBuffer getBuffer() {
+            final StringBuffer buffer = this.sb;
+            buffer.setLength(0);
+            return buffer;
+        }
+    }
+
+    /**
+     * Observability results of all targets computed with the same setup (incremental mode)
+     */
+    private static final class IncrementalSetup {
+
+        /** interferometer configuration (identity) */
+        private final InterferometerConfiguration intConf;
+        /** focal instrument configuration (identity) */
+        private final FocalInstrumentConfiguration insConf;
+        /** target results keyed by target name */
+        private final Map<String, TargetObservability> results;
+
+        /**
+         * Protected constructor
+         * @param intConf interferometer configuration
+         * @param insConf focal instrument configuration
+         * @param nTargets number of targets
+         */
+        IncrementalSetup(final InterferometerConfiguration intConf, final FocalInstrumentConfiguration insConf, final int nTargets) {
+            this.intConf = intConf;
+            this.insConf = insConf;
+            this.results = new HashMap<String, TargetObservability>(2 * nTargets);
+        }
+
+        /**
+         * Return true if the given configurations are the same instances (configuration not reloaded)
+         * @param intConf interferometer configuration
+         * @param insConf focal instrument configuration
+         * @return true if the given configurations are the same instances
+         */
+        boolean isSameConfiguration(final InterferometerConfiguration intConf, final FocalInstrumentConfiguration insConf) {
+            return (this.intConf == intConf) && (this.insConf == insConf);
+        }
+
+        TargetObservability getResult(final String targetName) {
+            return this.results.get(targetName);
+        }
+
+        void putResult(final String targetName, final TargetObservability result) {
+            this.results.put(targetName, result);
+        }
+    }
+
+    /**
+     * Observability results of one target (read-only once computed)
+     */
+    private static final class TargetObservability {
+
+        /** target key (coordinates, HA constraints and fluxes) */
+        final String targetKey;
+        /** star observability data list */
+        final List<StarObservabilityData> starVisList;
+        /** star data */
+        final StarData starData;
+        /** messages related to this target */
+        final WarningContainer warningContainer;
+        /** best PoP combination (null if no PoPs) */
+        final PopCombination bestPops;
+        /** equivalent best PoP combinations (null if PoPs are fixed) */
+        final List<PopCombination> bestPopList;
+        /** next good PoP combinations (null if PoPs are fixed) */
+        final List<PopCombination> betterPopList;
+
+        TargetObservability(final String targetKey, final List<StarObservabilityData> starVisList,
+                            final StarData starData, final WarningContainer warningContainer,
+                            final PopCombination bestPops, final List<PopCombination> bestPopList,
+                            final List<PopCombination> betterPopList) {
+            this.targetKey = targetKey;
+            this.starVisList = starVisList;
+            this.starData = starData;
+            this.warningContainer = warningContainer;
+            this.bestPops = bestPops;
+            this.bestPopList = bestPopList;
+            this.betterPopList = betterPopList;
+        }
+    }
 }
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.service;
+
+/**
+ * This class is a seedable and splittable pseudo random generator (SplitMix64 algorithm like java 8 SplittableRandom)
+ * used to draw OIFits noise: sub-streams are derived from a base seed and keys (table, row, channel ...)
+ * so random sequences do not depend on the evaluation order (threads) and are reproducible given the base seed.
+ *
+ * Note: this class is not thread-safe: use one instance per thread or derive keyed streams
+ *
+ * @author bourgesl
+ */
+public final class RandomStream {
+
+    /** golden gamma (odd) */
+    private final static long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    /** 2^-53 */
+    private final static double DOUBLE_UNIT = 0x1.0p-53;
+
+    /* members */
+    /** current state */
+    private long state;
+    /** flag indicating that the next gaussian value is available */
+    private boolean haveNextGaussian = false;
+    /** next gaussian value */
+    private double nextGaussian = 0d;
+
+    /**
+     * Public constructor
+     * @param seed initial seed
+     */
+    public RandomStream(final long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Reset this stream with the given seed
+     * @param seed new seed
+     */
+    public void setSeed(final long seed) {
+        this.state = seed;
+        this.haveNextGaussian = false;
+    }
+
+    /**
+     * Return a new stream derived from the current state and the given key (current state is not modified)
+     * @param key stream key (row, baseline, channel ...)
+     * @return new random stream
+     */
+    public RandomStream split(final long key) {
+        return new RandomStream(seed(this.state, key));
+    }
+
+    /**
+     * Return the next pseudo random long value
+     * @return pseudo random long value
+     */
+    public long nextLong() {
+        return mix64(this.state += GOLDEN_GAMMA);
+    }
+
+    /**
+     * Return the next pseudo random int value in [0; bound[
+     * @param bound upper bound (exclusive, positive)
+     * @return pseudo random int value in [0; bound[
+     */
+    public int nextInt(final int bound) {
+        // 31 random bits x bound (31 bits) < 2^62:
+        return (int) (((nextLong() >>> 33) * bound) >>> 31);
+    }
+
+    /**
+     * Return the next pseudo random double value in [0; 1[
+     * @return pseudo random double value in [0; 1[
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Return the next pseudo random gaussian value (mean = 0, standard deviation = 1) using the polar method
+     * @return pseudo random gaussian value
+     */
+    public double nextGaussian() {
+        if (this.haveNextGaussian) {
+            this.haveNextGaussian = false;
+            return this.nextGaussian;
+        }
+        double v1, v2, s;
+        do {
+            v1 = 2d * nextDouble() - 1d;
+            v2 = 2d * nextDouble() - 1d;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1d || s == 0d);
+
+        final double multiplier = Math.sqrt(-2d * Math.log(s) / s);
+        this.nextGaussian = v2 * multiplier;
+        this.haveNextGaussian = true;
+        return v1 * multiplier;
+    }
+
+    /**
+     * Return a new complex normal distribution (real and imaginary parts) whose samples are normalized
+     * (mean = 0, standard deviation = 1) like StatUtils.ComplexDistribution
+     * @param nSamples number of samples
+     * @return complex distribution samples [re/im][sample]
+     */
+    public double[][] nextComplexDistribution(final int nSamples) {
+        final double[][] samples = new double[2][nSamples];
+
+        for (int n = 0; n < nSamples; n++) {
+            samples[0][n] = nextGaussian();
+            samples[1][n] = nextGaussian();
+        }
+        normalize(samples[0]);
+        normalize(samples[1]);
+        return samples;
+    }
+
+    /**
+     * Normalize the given samples (mean = 0, standard deviation = 1)
+     * @param samples samples to normalize
+     */
+    private static void normalize(final double[] samples) {
+        final int n = samples.length;
+        double sum = 0d;
+        for (int i = 0; i < n; i++) {
+            sum += samples[i];
+        }
+        final double mean = sum / n;
+
+        double sumSq = 0d, diff;
+        for (int i = 0; i < n; i++) {
+            diff = samples[i] - mean;
+            sumSq += diff * diff;
+        }
+        final double norm = 1d / Math.sqrt(sumSq / (n - 1));
+
+        for (int i = 0; i < n; i++) {
+            samples[i] = (samples[i] - mean) * norm;
+        }
+    }
+
+    /**
+     * Return the seed derived from the given seed and key
+     * @param seed base seed
+     * @param key stream key
+     * @return derived seed
+     */
+    public static long seed(final long seed, final long key) {
+        return mix64(seed + GOLDEN_GAMMA * (key + 1L));
+    }
+
+    /**
+     * Return the seed derived from the given seed and keys
+     * @param seed base seed
+     * @param key1 first stream key
+     * @param key2 second stream key
+     * @return derived seed
+     */
+    public static long seed(final long seed, final long key1, final long key2) {
+        return seed(seed(seed, key1), key2);
+    }
+
+    /**
+     * Return the pseudo random int value in [0; bound[ derived from the given seed and keys (stateless)
+     * @param seed base seed
+     * @param key1 first key
+     * @param key2 second key
+     * @param bound upper bound (exclusive, positive)
+     * @return pseudo random int value in [0; bound[
+     */
+    public static int index(final long seed, final long key1, final long key2, final int bound) {
+        return (int) (((seed(seed, key1, key2) >>> 33) * bound) >>> 31);
+    }
+
+    /**
+     * SplitMix64 finalizer (variant 13 of MurmurHash3 mixer)
+     * @param z input value
+     * @return mixed value
+     */
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
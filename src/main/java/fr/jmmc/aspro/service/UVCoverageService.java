@@ -4,7 +4,7 @@
 package fr.jmmc.aspro.service;
 
 import edu.dartmouth.AstroSkyCalc;
-import edu.dartmouth.AstroSkyCalcObservation;
+import edu.dartmouth.AstroSkyCalcPositions;
 import fr.jmmc.aspro.AsproConstants;
 import fr.jmmc.aspro.model.BaseLine;
 import fr.jmmc.aspro.model.Beam;
@@ -13,7 +13,6 @@ import fr.jmmc.oitools.model.range.Range;
 import fr.jmmc.aspro.model.observability.ObservabilityData;
 import fr.jmmc.aspro.model.observability.StarData;
 import fr.jmmc.aspro.model.observability.TargetPointInfo;
-import fr.jmmc.aspro.model.oi.AzEl;
 import fr.jmmc.aspro.model.oi.FocalInstrumentConfiguration;
 import fr.jmmc.aspro.model.oi.FocalInstrumentMode;
 import fr.jmmc.aspro.model.oi.ObservationSetting;
@@ -94,8 +93,6 @@ public final class UVCoverageService {
     private Target target = null;
     /** selected instrument mode */
     private FocalInstrumentMode instrumentMode = null;
-    /** observation sky calc instance */
-    private final AstroSkyCalcObservation sco = new AstroSkyCalcObservation();
 
     /* reused observability data */
     /** sky calc instance */
@@ -169,12 +166,6 @@ public final class UVCoverageService {
 
             // Is the target visible :
             if (this.starData.getHaElev() > 0d) {
-                // define site :
-                this.sco.defineSite(this.sc);
-
-                // get Target coordinates precessed to JD CENTER and define target to get later az/alt positions from JSkyCalc :
-                this.sco.defineTarget(this.obsData.jdCenter(), target.getRADeg(), target.getDECDeg(), target.getPMRA(), target.getPMDEC());
-
                 if (this.doUVSupport) {
                     computeUVSupport();
                 }
@@ -188,9 +179,6 @@ public final class UVCoverageService {
 
                 // prepare OIFits computation :
                 createOIFits();
-
-                // reset current target :
-                this.sco.reset();
             }
 
             // fast interrupt :
@@ -337,8 +325,6 @@ public final class UVCoverageService {
                 final double cosDec = FastMath.cos(precDEC);
                 final double sinDec = FastMath.sin(precDEC);
 
-                final AzEl azEl = new AzEl();
-
                 // Fix JD offset at haMin:
                 final double jdOffset = this.obsData.getJDOffset(this.sc.convertHAToJD(haMin, precRA));
 
@@ -351,10 +337,10 @@ public final class UVCoverageService {
                 // First pass : find observable HA values :
                 // use safety limit to avoid out of memory errors :
                 final int haLen = (capacity > MAX_HA_POINTS) ? MAX_HA_POINTS : capacity;
-                final TargetPointInfo[] ptInfos = new TargetPointInfo[haLen];
+                final double[] haValues = new double[haLen];
+                final double[] jds = new double[haLen];
 
                 Range obsRange;
-                TargetPointInfo targetPointInfo;
                 int j = 0;
 
                 // Traverse all observable HA range to find possible observing blocks (haObsTime duration):
@@ -365,12 +351,9 @@ public final class UVCoverageService {
                         // check HA end:
                         if (obsRange.contains(ha + haObsTime, HA_PRECISION)) {
 
-                            targetPointInfo = createTargetInfo(cosDec, sinDec, precRA, azEl, ha, jdOffset);
-                            if (logger.isDebugEnabled()) {
-                                logger.debug("info: {}", targetPointInfo);
-                            }
-
-                            ptInfos[j++] = targetPointInfo;
+                            // fix JD in night range in order to have accurate date:
+                            haValues[j] = ha;
+                            jds[j++] = this.sc.convertHAToJD(ha, precRA) + jdOffset;
 
                             // check safety limit :
                             if (j >= MAX_HA_POINTS) {
@@ -394,9 +377,9 @@ public final class UVCoverageService {
                     return;
                 }
 
-                // Copy only valid data points:
-                final TargetPointInfo[] targetPointInfos = new TargetPointInfo[nPoints];
-                System.arraycopy(ptInfos, 0, targetPointInfos, 0, nPoints);
+                // target positions (azimuth, elevation and airmass) for all valid data points:
+                final TargetPointInfo[] targetPointInfos = createTargetInfos(precRA, this.starData.getPrecDEC(),
+                        haValues, jds, nPoints);
 
                 this.data.setTargetPointInfos(targetPointInfos);
 
@@ -754,30 +737,36 @@ public final class UVCoverageService {
     }
 
     /**
-     * Create a new target point information (azimuth and elevation) for the current target and julian date
-     * @param cosDec cosinus of target declination
-     * @param sinDec sinus of target declination
-     * @param precRA precessed RA of target
-     * @param azEl AzEl instance
-     * @param ha current hour angle
-     * @param jdOffset offset on julian date to stay within night range
-     * @return target point information
+     * Create the target point informations (azimuth, elevation and airmass) for the current target
+     * at the given julian dates (bulk computation)
+     * @param precRA precessed RA of target (decimal hours)
+     * @param precDEC precessed DEC of target (deg)
+     * @param haValues hour angles
+     * @param jds julian dates (fixed in night range)
+     * @param nPoints number of points
+     * @return target point informations
      */
-    private TargetPointInfo createTargetInfo(final double cosDec, final double sinDec,
-                                             final double precRA,
-                                             final AzEl azEl,
-                                             final double ha,
-                                             final double jdOffset) {
+    private TargetPointInfo[] createTargetInfos(final double precRA, final double precDEC,
+                                                final double[] haValues, final double[] jds, final int nPoints) {
+
+        final double[] elevation = new double[nPoints];
+        final double[] azimuth = new double[nPoints];
+        final double[] airmass = new double[nPoints];
 
-        // fix JD in night range in order to have accurate date:
-        final double jd = this.sc.convertHAToJD(ha, precRA) + jdOffset;
+        AstroSkyCalcPositions.computePositions(this.sc, new double[]{precRA}, new double[]{precDEC}, 1,
+                jds, nPoints, elevation, azimuth, airmass, false);
 
-        this.sco.getTargetPosition(cosDec, sinDec, jd, azEl);
+        final TargetPointInfo[] targetPointInfos = new TargetPointInfo[nPoints];
 
-        final Date date = this.sc.toDate(jd, this.obsData.getTimeRef()); // LST or GMT
+        for (int i = 0; i < nPoints; i++) {
+            final Date date = this.sc.toDate(jds[i], this.obsData.getTimeRef()); // LST or GMT
 
-        final double airmass = AstroSkyCalc.airmass(azEl.getElevation());
+            targetPointInfos[i] = new TargetPointInfo(jds[i], haValues[i], date, azimuth[i], elevation[i], airmass[i]);
 
-        return new TargetPointInfo(jd, ha, date, azEl.getAzimuth(), azEl.getElevation(), airmass);
+            if (logger.isDebugEnabled()) {
+                logger.debug("info: {}", targetPointInfos[i]);
+            }
+        }
+        return targetPointInfos;
     }
 }
@@ -24,6 +24,8 @@ public final class UserModelData extends OIBase {
      * spatial coordinates along the column and row axis (rad)
      */
     private float[] data1D = null;
+    /** digest of data1D (lazy) used by the visibility cache key */
+    private byte[] dataDigest = null;
 
     /** airy radius (apodization) */
     private double airyRadius = Double.NaN;
@@ -94,6 +96,7 @@ public final class UserModelData extends OIBase {
      */
     public UserModelData set(final float[] data1D) {
         this.data1D = data1D;
+        this.dataDigest = null;
         return this;
     }
 
@@ -114,6 +117,22 @@ public final class UserModelData extends OIBase {
         return data1D;
     }
 
+    /**
+     * Return the digest of data1D or null if undefined
+     * @return digest of data1D or null if undefined
+     */
+    byte[] getDataDigest() {
+        return dataDigest;
+    }
+
+    /**
+     * Define the digest of data1D
+     * @param dataDigest digest of data1D
+     */
+    void setDataDigest(final byte[] dataDigest) {
+        this.dataDigest = dataDigest;
+    }
+
     /**
     * Return the airy radius (apodization)
     * @return airy radius (apodization)
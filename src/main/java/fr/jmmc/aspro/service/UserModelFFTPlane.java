@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.service;
+
+import fr.jmmc.jmal.complex.MutableComplex;
+import fr.jmmc.jmal.image.FloatArrayCache;
+
+/**
+ * This class holds the complex visibility plane (FFT) of one user model image
+ * and interpolates complex visibilities at any (u,v) frequency using a bicubic (Keys) kernel
+ *
+ * @author bourgesl
+ */
+public final class UserModelFFTPlane {
+
+    /** bicubic kernel parameter (Catmull-Rom) */
+    private final static double KEYS_A = -0.5;
+
+    /* members */
+    /** complex visibility data [rows][2 x cols] (interleaved re/im) centered on the zero frequency */
+    private float[][] visData;
+    /** number of pixels along both axes */
+    private final int size;
+    /** pixel index of the zero frequency */
+    private final int center;
+    /** frequency increment (rad-1) per pixel */
+    private final double freqStep;
+    /** inverse frequency increment along the U axis (negative if the column increment is negative) */
+    private final double invFreqStepU;
+    /** inverse frequency increment along the V axis (negative if the row increment is negative) */
+    private final double invFreqStepV;
+
+    /**
+     * Protected constructor
+     * @param visData complex visibility data [rows][2 x cols] (interleaved re/im) centered on the zero frequency
+     * @param size number of pixels along both axes
+     * @param freqStep frequency increment (rad-1) per pixel
+     * @param flipU true to mirror the U axis (negative column increment)
+     * @param flipV true to mirror the V axis (negative row increment)
+     */
+    UserModelFFTPlane(final float[][] visData, final int size, final double freqStep, final boolean flipU, final boolean flipV) {
+        this.visData = visData;
+        this.size = size;
+        this.center = size / 2;
+        this.freqStep = freqStep;
+        this.invFreqStepU = (flipU) ? -1.0 / freqStep : 1.0 / freqStep;
+        this.invFreqStepV = (flipV) ? -1.0 / freqStep : 1.0 / freqStep;
+    }
+
+    /**
+     * Return the number of pixels along both axes
+     * @return number of pixels along both axes
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Return the frequency increment (rad-1) per pixel
+     * @return frequency increment (rad-1) per pixel
+     */
+    public double getFreqStep() {
+        return freqStep;
+    }
+
+    /**
+     * Interpolate the complex visibility at the given frequency and add it to the given complex
+     * @param ufreq U frequency in rad-1
+     * @param vfreq V frequency in rad-1
+     * @param vis complex visibility to update (add)
+     * @return true if interpolated; false if the frequency is outside of the plane (vis is unchanged)
+     */
+    public boolean interpolate(final double ufreq, final double vfreq, final MutableComplex vis) {
+        final float[][] data = this.visData;
+        if (data == null) {
+            throw new IllegalStateException("FFT plane already recycled !");
+        }
+
+        final double x = ufreq * invFreqStepU + center;
+        final double y = vfreq * invFreqStepV + center;
+
+        final int ix = (int) Math.floor(x);
+        final int iy = (int) Math.floor(y);
+
+        // bicubic interpolation requires 2 pixels on each side:
+        if (ix < 1 || iy < 1 || ix + 2 >= size || iy + 2 >= size) {
+            return false;
+        }
+
+        final double fx = x - ix;
+        final double fy = y - iy;
+
+        final double wx0 = keys(1.0 + fx);
+        final double wx1 = keys(fx);
+        final double wx2 = keys(1.0 - fx);
+        final double wx3 = keys(2.0 - fx);
+
+        double re = 0.0, im = 0.0;
+        float[] row;
+        double wy;
+
+        for (int j = -1, c; j <= 2; j++) {
+            row = data[iy + j];
+            wy = keys(Math.abs(fy - j));
+
+            c = 2 * (ix - 1);
+            re += wy * (wx0 * row[c] + wx1 * row[c + 2] + wx2 * row[c + 4] + wx3 * row[c + 6]);
+            c++;
+            im += wy * (wx0 * row[c] + wx1 * row[c + 2] + wx2 * row[c + 4] + wx3 * row[c + 6]);
+        }
+
+        vis.add(re, im);
+        return true;
+    }
+
+    /**
+     * Recycle the complex visibility data (this plane can not be used anymore)
+     */
+    public void recycle() {
+        if (this.visData != null) {
+            FloatArrayCache.recycleArray(this.visData);
+            this.visData = null;
+        }
+    }
+
+    /**
+     * Return the bicubic (Keys) kernel weight
+     * @param t distance in pixels (positive)
+     * @return kernel weight
+     */
+    private static double keys(final double t) {
+        final double t2 = t * t;
+        if (t <= 1.0) {
+            return ((KEYS_A + 2.0) * t - (KEYS_A + 3.0)) * t2 + 1.0;
+        }
+        if (t < 2.0) {
+            return KEYS_A * (t2 * t - 5.0 * t2 + 8.0 * t - 4.0);
+        }
+        return 0.0;
+    }
+
+    /**
+     * @return string representation
+     */
+    @Override
+    public String toString() {
+        return "UserModelFFTPlane[size=" + size + " freqStep=" + freqStep
+                + ((invFreqStepU < 0.0) ? " flipU" : "") + ((invFreqStepV < 0.0) ? " flipV" : "") + ']';
+    }
+}
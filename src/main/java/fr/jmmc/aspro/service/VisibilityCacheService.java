@@ -0,0 +1,440 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.service;
+
+import fr.jmmc.aspro.service.UserModelService.MathMode;
+import fr.jmmc.jmal.complex.MutableComplex;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.apache.commons.lang.SystemUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class manages an optional persistent cache of complex visibilities computed from user models
+ * (binary files in the per-user cache folder) with LRU eviction based on the total cache size.
+ *
+ * The cache is disabled by default: use -DOIFits.cache.enable=true to enable it.
+ *
+ * Cache key: user model checksum, model parts (image data and wavelength indexes), sampled wavelengths,
+ * spatial frequencies (U,V), math mode and computation engine (FFT + interpolation allowed and its error threshold).
+ *
+ * @author bourgesl
+ */
+public final class VisibilityCacheService {
+
+    /** Class logger */
+    private static final Logger logger = LoggerFactory.getLogger(VisibilityCacheService.class.getName());
+    /** flag to enable the cache (disabled by default) */
+    private static final boolean ENABLE_CACHE = Boolean.getBoolean("OIFits.cache.enable");
+    /** maximum cache size in megabytes */
+    private static final long MAX_CACHE_SIZE = 1024L * 1024L * Integer.getInteger("OIFits.cache.maxSizeMB", 512).intValue();
+    /** cache directory name (in the per-user cache folder) */
+    private static final String CACHE_DIR = "Aspro2" + File.separatorChar + "vis-cache";
+    /** cache file extension */
+    private static final String CACHE_EXT = ".vis";
+    /** cache file magic number */
+    private static final int MAGIC = 0x41564953; // 'AVIS'
+    /** header size in bytes (magic, nRows, nWLen, padding) */
+    private static final int HEADER_SIZE = 16;
+    /** hexadecimal digits */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** singleton instance */
+    private static final VisibilityCacheService instance = new VisibilityCacheService();
+
+    /* members */
+    /** cache directory (null if unavailable) */
+    private final File cacheDir;
+    /** maximum cache size in bytes */
+    private final long maxCacheSize;
+
+    /**
+     * Return the singleton
+     * @return singleton
+     */
+    public static VisibilityCacheService getInstance() {
+        return instance;
+    }
+
+    /**
+     * Private constructor
+     */
+    private VisibilityCacheService() {
+        this((ENABLE_CACHE) ? new File(getUserCacheFolder(), CACHE_DIR) : null, MAX_CACHE_SIZE);
+    }
+
+    /**
+     * Package-private constructor (tests)
+     * @param dir cache directory or null to disable the cache
+     * @param maxCacheSize maximum cache size in bytes
+     */
+    VisibilityCacheService(final File dir, final long maxCacheSize) {
+        this.cacheDir = prepareDirectory(dir);
+        this.maxCacheSize = maxCacheSize;
+        logger.debug("visibility cache directory: {}", this.cacheDir);
+    }
+
+    /**
+     * Create the given cache directory (if needed) only accessible by its owner
+     * @param dir cache directory or null
+     * @return cache directory or null if unavailable
+     */
+    private static File prepareDirectory(final File dir) {
+        if (dir == null) {
+            return null;
+        }
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            logger.warn("Unable to create the visibility cache directory: {}", dir);
+            return null;
+        }
+        // owner only (cache files are trusted as model visibilities):
+        boolean ok = dir.setReadable(false, false) & dir.setReadable(true, true);
+        ok &= dir.setWritable(false, false) & dir.setWritable(true, true);
+        ok &= dir.setExecutable(false, false) & dir.setExecutable(true, true);
+        if (!ok) {
+            logger.debug("Unable to restrict the visibility cache directory permissions: {}", dir);
+        }
+        if (!dir.canWrite()) {
+            logger.warn("Unable to write into the visibility cache directory: {}", dir);
+            return null;
+        }
+        return dir;
+    }
+
+    /**
+     * Return the per-user cache folder (platform dependent)
+     * @return per-user cache folder
+     */
+    private static File getUserCacheFolder() {
+        final File userHome = SystemUtils.getUserHome();
+        if (SystemUtils.IS_OS_WINDOWS) {
+            final String localAppData = System.getenv("LOCALAPPDATA");
+            if (localAppData != null) {
+                return new File(localAppData);
+            }
+            return new File(userHome, "AppData" + File.separatorChar + "Local");
+        }
+        if (SystemUtils.IS_OS_MAC_OSX) {
+            return new File(userHome, "Library" + File.separatorChar + "Caches");
+        }
+        final String xdgCacheHome = System.getenv("XDG_CACHE_HOME");
+        if (xdgCacheHome != null && xdgCacheHome.length() != 0) {
+            return new File(xdgCacheHome);
+        }
+        return new File(userHome, ".cache");
+    }
+
+    /**
+     * Return true if the cache is enabled
+     * @return true if the cache is enabled
+     */
+    public boolean isEnabled() {
+        return this.cacheDir != null;
+    }
+
+    /**
+     * Compute the cache key for the given user model computation
+     * @param checksum user model checksum
+     * @param modelParts user model parts (image and wavelength indexes)
+     * @param sampleWaveLengths sampled wavelengths
+     * @param ufreq U frequencies in rad-1 [row][wavelength]
+     * @param vfreq V frequencies in rad-1 [row][wavelength]
+     * @param mathMode math mode
+     * @param useFFT true if the FFT + interpolation engine is allowed; false for the direct Fourier transform only
+     * @param fftMaxError maximum absolute error accepted by the FFT + interpolation engine
+     * @return cache key (hexadecimal digest) or null if the cache is disabled
+     */
+    public String computeKey(final long checksum, final List<AbstractOIFitsProducer.UserModelComputePart> modelParts,
+                             final double[] sampleWaveLengths, final double[][] ufreq, final double[][] vfreq,
+                             final MathMode mathMode, final boolean useFFT, final double fftMaxError) {
+        if (!isEnabled()) {
+            return null;
+        }
+        final long start = System.nanoTime();
+
+        final MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException nsae) {
+            logger.warn("SHA-1 unsupported: visibility cache disabled", nsae);
+            return null;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+
+        buffer.putLong(checksum);
+        buffer.putInt(mathMode.ordinal());
+        // computation engine (exact DFT or approximated FFT + interpolation):
+        buffer.putInt(useFFT ? 1 : 0);
+        buffer.putDouble(useFFT ? fftMaxError : 0d);
+
+        for (AbstractOIFitsProducer.UserModelComputePart modelPart : modelParts) {
+            buffer.putInt(modelPart.fromWL);
+            buffer.putInt(modelPart.endWL);
+            // prepared image data (depends on fast mode, apodization, scale & rotation):
+            final byte[] dataDigest = getDataDigest(modelPart.modelData);
+            if (dataDigest == null) {
+                return null;
+            }
+            buffer.put(dataDigest);
+        }
+        update(md, buffer, sampleWaveLengths);
+
+        for (int k = 0; k < ufreq.length; k++) {
+            update(md, buffer, ufreq[k]);
+            update(md, buffer, vfreq[k]);
+        }
+        flush(md, buffer);
+
+        final byte[] digest = md.digest();
+
+        final char[] key = new char[2 * digest.length];
+        for (int i = 0; i < digest.length; i++) {
+            key[2 * i] = HEX[(digest[i] >> 4) & 0xF];
+            key[2 * i + 1] = HEX[digest[i] & 0xF];
+        }
+
+        logger.debug("computeKey: duration = {} ms.", 1e-6d * (System.nanoTime() - start));
+
+        return new String(key);
+    }
+
+    /**
+     * Return the digest of the prepared image data (computed once per prepared image)
+     * @param modelData user model data
+     * @return digest of the prepared image data or null if SHA-1 is unsupported
+     */
+    private static byte[] getDataDigest(final UserModelData modelData) {
+        byte[] dataDigest = modelData.getDataDigest();
+        if (dataDigest == null) {
+            final MessageDigest md;
+            try {
+                md = MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException nsae) {
+                logger.warn("SHA-1 unsupported: visibility cache disabled", nsae);
+                return null;
+            }
+            final ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+
+            for (final float value : modelData.getData1D()) {
+                if (buffer.remaining() < 4) {
+                    flush(md, buffer);
+                }
+                buffer.putFloat(value);
+            }
+            flush(md, buffer);
+
+            dataDigest = md.digest();
+            modelData.setDataDigest(dataDigest);
+        }
+        return dataDigest;
+    }
+
+    /**
+     * Load cached complex visibilities into the given array
+     * @param key cache key
+     * @param cmVis complex visibilities to fill [row][wavelength]
+     * @param nWLen number of sampled wavelengths
+     * @return true if loaded; false if not found or invalid
+     */
+    public boolean load(final String key, final MutableComplex[][] cmVis, final int nWLen) {
+        final File file = getFile(key);
+
+        if (file == null || !file.isFile()) {
+            return false;
+        }
+        final long start = System.nanoTime();
+
+        final int nRows = cmVis.length;
+
+        if (file.length() != getFileSize(nRows, nWLen)) {
+            logger.info("load: invalid cache file size: {}", file);
+            return false;
+        }
+
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+
+            if (in.readInt() != MAGIC || in.readInt() != nRows || in.readInt() != nWLen) {
+                logger.info("load: invalid cache file header: {}", file);
+                return false;
+            }
+            in.readInt(); // padding
+
+            for (int k = 0, i; k < nRows; k++) {
+                final MutableComplex[] cmVisRow = cmVis[k];
+
+                for (i = 0; i < nWLen; i++) {
+                    cmVisRow[i].updateComplex(in.readDouble(), in.readDouble());
+                }
+            }
+        } catch (IOException ioe) {
+            logger.info("load: unable to read the cache file: {}", file, ioe);
+            return false;
+        } finally {
+            close(in);
+        }
+
+        // LRU: update access time:
+        file.setLastModified(System.currentTimeMillis());
+
+        logger.info("load: {} complex visibilities loaded from cache - duration = {} ms.", nRows * nWLen, 1e-6d * (System.nanoTime() - start));
+        return true;
+    }
+
+    /**
+     * Store the given complex visibilities in the cache (and evict least recently used entries if needed)
+     * @param key cache key
+     * @param cmVis complex visibilities [row][wavelength]
+     * @param nWLen number of sampled wavelengths
+     */
+    public void store(final String key, final MutableComplex[][] cmVis, final int nWLen) {
+        final File file = getFile(key);
+
+        if (file == null) {
+            return;
+        }
+        final int nRows = cmVis.length;
+        final long fileSize = getFileSize(nRows, nWLen);
+
+        if (fileSize > this.maxCacheSize) {
+            return;
+        }
+
+        synchronized (this) {
+            evict(fileSize);
+
+            // write to a temporary file then rename it (atomic for concurrent readers):
+            final File tmpFile = new File(this.cacheDir, key + ".tmp");
+
+            DataOutputStream out = null;
+            try {
+                out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile), 64 * 1024));
+
+                out.writeInt(MAGIC);
+                out.writeInt(nRows);
+                out.writeInt(nWLen);
+                out.writeInt(0); // padding
+
+                for (int k = 0, i; k < nRows; k++) {
+                    final MutableComplex[] cmVisRow = cmVis[k];
+
+                    for (i = 0; i < nWLen; i++) {
+                        out.writeDouble(cmVisRow[i].getReal());
+                        out.writeDouble(cmVisRow[i].getImaginary());
+                    }
+                }
+                // close before renaming (windows):
+                out.close();
+                out = null;
+            } catch (IOException ioe) {
+                logger.info("store: unable to write the cache file: {}", tmpFile, ioe);
+                close(out);
+                tmpFile.delete();
+                return;
+            }
+
+            // renameTo() fails on windows if the target file exists:
+            if (file.exists()) {
+                file.delete();
+            }
+            if (!tmpFile.renameTo(file)) {
+                logger.info("store: unable to rename the cache file: {}", tmpFile);
+                tmpFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Delete least recently used cache files until the cache size plus the given size is below the maximum cache size
+     * @param size size (bytes) of the new entry
+     */
+    private void evict(final long size) {
+        final File[] files = this.cacheDir.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        long total = size;
+        for (File f : files) {
+            total += f.length();
+        }
+
+        if (total > this.maxCacheSize) {
+            // oldest first:
+            Arrays.sort(files, new Comparator<File>() {
+                @Override
+                public int compare(final File f1, final File f2) {
+                    final long t1 = f1.lastModified();
+                    final long t2 = f2.lastModified();
+                    return (t1 < t2) ? -1 : ((t1 == t2) ? 0 : 1);
+                }
+            });
+
+            for (int i = 0; i < files.length && total > this.maxCacheSize; i++) {
+                final long length = files[i].length();
+                if (files[i].delete()) {
+                    total -= length;
+                    logger.debug("evict: {}", files[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the cache file for the given key
+     * @param key cache key
+     * @return cache file or null if the cache is disabled
+     */
+    private File getFile(final String key) {
+        if (key == null || !isEnabled()) {
+            return null;
+        }
+        return new File(this.cacheDir, key + CACHE_EXT);
+    }
+
+    private static long getFileSize(final int nRows, final int nWLen) {
+        return HEADER_SIZE + 16L * nRows * nWLen;
+    }
+
+    private static void update(final MessageDigest md, final ByteBuffer buffer, final double[] values) {
+        for (final double value : values) {
+            if (buffer.remaining() < 8) {
+                flush(md, buffer);
+            }
+            buffer.putDouble(value);
+        }
+    }
+
+    private static void flush(final MessageDigest md, final ByteBuffer buffer) {
+        buffer.flip();
+        md.update(buffer);
+        buffer.clear();
+    }
+
+    private static void close(final Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ioe) {
+                logger.debug("close failure:", ioe);
+            }
+        }
+    }
+}
@@ -0,0 +1,536 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.service.pops;
+
+import fr.jmmc.aspro.model.BaseLine;
+import fr.jmmc.aspro.model.Beam;
+import fr.jmmc.aspro.model.BestPoPsObservabilityContext;
+import fr.jmmc.aspro.model.IntervalSet;
+import fr.jmmc.aspro.model.observability.GroupedPopObservabilityData;
+import fr.jmmc.aspro.model.observability.PopCombination;
+import fr.jmmc.aspro.model.observability.PopObservabilityData;
+import fr.jmmc.aspro.model.oi.Pop;
+import fr.jmmc.aspro.service.DelayLineService;
+import fr.jmmc.jmcs.util.concurrent.ParallelJobExecutor;
+import fr.jmmc.oitools.model.range.Range;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import net.jafama.FastMath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a branch-and-bound search of the best PoP combinations for a list of targets:
+ * PoP combinations are traversed as a prefix tree (one PoP per beam) and the HA ranges of every base line
+ * are intersected as soon as both beams have their PoP assigned. A sub-tree is pruned when its upper bound
+ * (observable targets and estimation) can not beat the worst of the current best results.
+ *
+ * Note: upper bounds are valid because the best PoPs estimators are increasing functions
+ * (range inclusion, average and minimum estimations).
+ *
+ * @author bourgesl
+ */
+public final class BestPopsSearch {
+
+    /** Class logger */
+    private static final Logger logger = LoggerFactory.getLogger(BestPopsSearch.class.getName());
+
+    /* members */
+    /** pop combinations array */
+    private final PopCombination[] popCombs;
+    /** number of beams */
+    private final int nBeams;
+    /** number of distinct PoPs */
+    private final int nPops;
+    /** base line index per beam pair [beam1][beam2] */
+    private final int[][] blIndexes;
+    /** PoP index per beam for every PoP combination [comb][beam] */
+    private final int[][] popIndexes;
+    /** PoP offset per base line and PoP pair [bl][pop1 * nPops + pop2] (NaN if unused) */
+    private final double[][] popOffsets;
+    /** PoP combination indexes sorted by PoP indexes (prefix tree) */
+    private final int[] sortedCombs;
+    /** estimator used to compare PoP combinations for all targets */
+    private final BestPopsEstimator groupedEstimator;
+    /** maximum number of best results */
+    private final int maxResults;
+    /** best results (worst first) */
+    private final PriorityQueue<GroupedPopObservabilityData> bestResults;
+    /** all evaluated results indexed by PoP combination index (null if not evaluated) */
+    private final GroupedPopObservabilityData[] results;
+    /** number of evaluated results */
+    private int nResults = 0;
+    /** worst of the best results once maxResults are found (read without lock) */
+    private volatile GroupedPopObservabilityData threshold = null;
+    /** number of pruned sub-trees */
+    private int nPruned = 0;
+
+    /**
+     * Public constructor
+     * @param popCombs pop combinations array
+     * @param baseLines base line array
+     * @param beams beam list
+     * @param groupedEstimator estimator used to compare PoP combinations for all targets
+     * @param maxResults maximum number of best results (best / better PoPs lists)
+     */
+    public BestPopsSearch(final PopCombination[] popCombs, final BaseLine[] baseLines, final List<Beam> beams,
+                          final BestPopsEstimator groupedEstimator, final int maxResults) {
+        this.popCombs = popCombs;
+        this.nBeams = beams.size();
+        this.groupedEstimator = groupedEstimator;
+        this.maxResults = maxResults;
+        this.bestResults = new PriorityQueue<GroupedPopObservabilityData>(maxResults + 1);
+
+        final int sizeCb = popCombs.length;
+        this.results = new GroupedPopObservabilityData[sizeCb];
+        final int sizeBL = baseLines.length;
+
+        // base line index per beam pair (beams are sorted i < j):
+        this.blIndexes = new int[nBeams][nBeams];
+        for (int i = 0; i < sizeBL; i++) {
+            final int b1 = beams.indexOf(baseLines[i].getBeam1());
+            final int b2 = beams.indexOf(baseLines[i].getBeam2());
+            this.blIndexes[Math.min(b1, b2)][Math.max(b1, b2)] = i;
+        }
+
+        // distinct PoPs (sorted by index):
+        final int[] popIdx = new int[sizeCb * nBeams];
+        int n = 0;
+        for (int c = 0; c < sizeCb; c++) {
+            for (Pop pop : popCombs[c].getPops()) {
+                popIdx[n++] = pop.getIndex();
+            }
+        }
+        Arrays.sort(popIdx);
+        n = 0;
+        for (int i = 0; i < popIdx.length; i++) {
+            if (i == 0 || popIdx[i] != popIdx[i - 1]) {
+                popIdx[n++] = popIdx[i];
+            }
+        }
+        this.nPops = n;
+
+        // PoP index per beam and offsets per base line:
+        this.popIndexes = new int[sizeCb][nBeams];
+        this.popOffsets = new double[sizeBL][nPops * nPops];
+        for (int i = 0; i < sizeBL; i++) {
+            Arrays.fill(this.popOffsets[i], Double.NaN);
+        }
+
+        final long[] keys = new long[sizeCb];
+
+        for (int c = 0, i, j; c < sizeCb; c++) {
+            final Pop[] pops = popCombs[c].getPops();
+            final int[] indexes = this.popIndexes[c];
+            long key = 0L;
+
+            for (i = 0; i < nBeams; i++) {
+                indexes[i] = Arrays.binarySearch(popIdx, 0, nPops, pops[i].getIndex());
+                key = key * nPops + indexes[i];
+            }
+            for (i = 0; i < nBeams; i++) {
+                for (j = i + 1; j < nBeams; j++) {
+                    final int bl = this.blIndexes[i][j];
+                    this.popOffsets[bl][indexes[i] * nPops + indexes[j]] = popCombs[c].getPopOffsets()[bl];
+                }
+            }
+            // sort key = PoP indexes (lexicographic order) + combination index:
+            keys[c] = (key << 24) | c;
+        }
+        Arrays.sort(keys);
+
+        this.sortedCombs = new int[sizeCb];
+        for (int c = 0; c < sizeCb; c++) {
+            this.sortedCombs[c] = (int) (keys[c] & 0xFFFFFFL);
+        }
+    }
+
+    /**
+     * Prepare the target data i.e. its HA ranges (rise/set and night limits) and the HA ranges
+     * of every base line and PoP pair
+     * @param targetName target name
+     * @param estimator best PoPs estimator related to the target
+     * @param rangesTarget HA ranges for target rise/set and night limits
+     * @param nValidTarget number of target ranges to consider a point is valid
+     * @param dec target declination (rad)
+     * @param bpObsCtxLocal observability context (local context ie thread)
+     * @return target data
+     */
+    public TargetData prepareTarget(final String targetName, final BestPopsEstimator estimator,
+                                    final List<Range> rangesTarget, final int nValidTarget, final double dec,
+                                    final BestPoPsObservabilityContext bpObsCtxLocal) {
+
+        bpObsCtxLocal.resetAndAddInFlatRangeLimits(rangesTarget);
+        final double[] flatRangesTarget = bpObsCtxLocal.intersectAndGetFlatRanges(nValidTarget);
+
+        final BaseLine[] bls = bpObsCtxLocal.getBaseLines();
+        final Range[] wRangeArray = bpObsCtxLocal.getWRanges();
+        final int sizeBL = bls.length;
+
+        final double[][][] flatRangesBL = new double[sizeBL][][];
+
+        if (flatRangesTarget != null) {
+            final double cosDec = FastMath.cos(dec);
+            final double sinDec = FastMath.sin(dec);
+
+            final double[] w = bpObsCtxLocal.getW();
+            final double[] ha = bpObsCtxLocal.getHa();
+            final double[] haValues = bpObsCtxLocal.getHaValues();
+
+            final Range wRangeWithOffset = new Range();
+            final List<List<Range>> rangesBL = new ArrayList<List<Range>>(1);
+
+            List<Range> ranges;
+            Range wRange;
+            double offset;
+
+            // For every Base Line :
+            for (int i = 0; i < sizeBL; i++) {
+                final double[] wExtrema = DelayLineService.findWExtrema(cosDec, sinDec, bls[i], w);
+                final double[] wExtremaBL = (wExtrema != null) ? Arrays.copyOf(wExtrema, 2) : null;
+
+                final double[] offsets = this.popOffsets[i];
+                final double[][] flatRanges = new double[offsets.length][];
+                wRange = wRangeArray[i];
+
+                // For every PoP pair used by this base line:
+                for (int k = 0; k < offsets.length; k++) {
+                    offset = offsets[k];
+
+                    if (!Double.isNaN(offset)) {
+                        // adjust w range with the current pop combination's Offset :
+                        wRangeWithOffset.set(wRange.getMin() + offset, wRange.getMax() + offset);
+
+                        ranges = DelayLineService.findHAIntervalsForBaseLine(cosDec, sinDec, bls[i], wExtremaBL, wRangeWithOffset, ha, haValues, bpObsCtxLocal);
+
+                        if (!ranges.isEmpty()) {
+                            bpObsCtxLocal.resetAndAddInFlatRangeLimits(ranges);
+                            flatRanges[k] = bpObsCtxLocal.intersectAndGetFlatRanges(1);
+                        }
+
+                        // recycle memory (to avoid GC):
+                        rangesBL.add(ranges);
+                        bpObsCtxLocal.recycleAll(rangesBL);
+                        rangesBL.clear();
+                    }
+                }
+                flatRangesBL[i] = flatRanges;
+            }
+        }
+        return new TargetData(targetName, estimator, flatRangesTarget, flatRangesBL);
+    }
+
+    /**
+     * Search the best PoP combinations for the given targets
+     * @param targets prepared target data
+     * @param nTh number of threads
+     * @param jobExecutor parallel job executor (if several threads)
+     * @return list of evaluated results containing at least all the best results sorted by PoP combination index
+     *         (or any partial list if the current thread is interrupted)
+     */
+    public List<GroupedPopObservabilityData> search(final TargetData[] targets, final int nTh,
+                                                    final ParallelJobExecutor jobExecutor) {
+        final long start = System.nanoTime();
+
+        final int sizeCb = this.sortedCombs.length;
+
+        if (nTh == 1 || this.nBeams < 2) {
+            final SearchState state = new SearchState(targets, this.nBeams);
+            visitChildren(targets, -1, 0, sizeCb, state.rootStates, state);
+        } else {
+            // 1 job per sub-tree (PoPs of the first 2 beams):
+            final List<Runnable> jobs = new ArrayList<Runnable>(this.nPops * this.nPops);
+
+            for (int from0 = 0, end0; from0 < sizeCb; from0 = end0) {
+                end0 = endOfGroup(0, from0, sizeCb);
+
+                for (int from = from0, end; from < end0; from = end) {
+                    end = endOfGroup(1, from, end0);
+
+                    final int fromCb = from;
+                    final int endCb = end;
+
+                    jobs.add(new Runnable() {
+                        /**
+                         * Called by the ParallelJobExecutor to perform task computation
+                         */
+                        @Override
+                        public void run() {
+                            // no base line at depth 0 so root states are the parent states at depth 1:
+                            final SearchState state = new SearchState(targets, nBeams);
+                            visit(targets, 1, fromCb, endCb, state.rootStates, state);
+                        }
+                    });
+                }
+            }
+
+            // execute jobs in parallel:
+            jobExecutor.forkAndJoin("BestPopsSearch.search", jobs.toArray(new Runnable[jobs.size()]));
+        }
+
+        // results in PoP combination order (independent of the job completion order):
+        final List<GroupedPopObservabilityData> sortedResults = new ArrayList<GroupedPopObservabilityData>(this.nResults);
+        for (int c = 0; c < sizeCb; c++) {
+            if (this.results[c] != null) {
+                sortedResults.add(this.results[c]);
+            }
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("search: {} evaluated / {} PoP combinations - {} pruned sub-trees - duration = {} ms.",
+                    this.nResults, sizeCb, this.nPruned, 1e-6d * (System.nanoTime() - start));
+        }
+        return sortedResults;
+    }
+
+    /**
+     * Visit the sub-tree i.e. PoP combinations having the same PoPs for the beams [0; depth]
+     * @param targets prepared target data
+     * @param depth index of the last beam having its PoP assigned
+     * @param fromCb index of the first sorted PopCombination (inclusive)
+     * @param endCb index of the last sorted PopCombination (exclusive)
+     * @param parentStates merged HA ranges per target of the parent node (empty if unobservable)
+     * @param state search state (local context ie thread)
+     */
+    private void visit(final TargetData[] targets, final int depth, final int fromCb, final int endCb,
+                       final IntervalSet[] parentStates, final SearchState state) {
+
+        // fast interrupt (multi threading):
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+
+        final int nTargets = targets.length;
+        final int[] indexes = this.popIndexes[this.sortedCombs[fromCb]];
+        final int pop2 = indexes[depth];
+
+        // reuse states of this depth (siblings are visited sequentially):
+        final IntervalSet[] states = state.states[depth];
+
+        int count = 0;
+        double sum = 0d;
+        double max = 0d;
+
+        IntervalSet ranges;
+        double estimation;
+
+        for (int t = 0, i; t < nTargets; t++) {
+            ranges = states[t].set(parentStates[t]);
+
+            // intersect with base lines [i; depth]:
+            for (i = 0; i < depth && !ranges.isEmpty(); i++) {
+                ranges.intersect(targets[t].rangesBL[this.blIndexes[i][depth]][indexes[i] * this.nPops + pop2]);
+            }
+
+            if (!ranges.isEmpty()) {
+                count++;
+
+                // upper bound of the target estimation:
+                estimation = getMaxEstimation(targets[t].estimator, ranges, state.tmpRange);
+                sum += estimation;
+                if (estimation > max) {
+                    max = estimation;
+                }
+            }
+        }
+
+        if (count == 0) {
+            // no observable target:
+            return;
+        }
+
+        final GroupedPopObservabilityData worst = this.threshold;
+
+        if (worst != null) {
+            final int worstCount = worst.getPopDataList().size();
+
+            if ((count < worstCount)
+                    || ((count == worstCount) && (this.groupedEstimator.compute(sum / count, max) < worst.getEstimation()))) {
+                // this sub-tree can not beat the current best results:
+                synchronized (this) {
+                    this.nPruned++;
+                }
+                return;
+            }
+        }
+
+        if (depth == this.nBeams - 1) {
+            for (int c = fromCb; c < endCb; c++) {
+                evaluate(targets, this.sortedCombs[c], states, state.tmpRange);
+            }
+        } else {
+            visitChildren(targets, depth, fromCb, endCb, states, state);
+        }
+    }
+
+    /**
+     * Visit all child sub-trees of the given node
+     * @param targets prepared target data
+     * @param depth index of the last beam having its PoP assigned (node)
+     * @param fromCb index of the first sorted PopCombination (inclusive)
+     * @param endCb index of the last sorted PopCombination (exclusive)
+     * @param states merged HA ranges per target of the node (empty if unobservable)
+     * @param state search state (local context ie thread)
+     */
+    private void visitChildren(final TargetData[] targets, final int depth, final int fromCb, final int endCb,
+                               final IntervalSet[] states, final SearchState state) {
+        for (int from = fromCb, end; from < endCb; from = end) {
+            end = endOfGroup(depth + 1, from, endCb);
+
+            visit(targets, depth + 1, from, end, states, state);
+        }
+    }
+
+    /**
+     * Evaluate the given PoP combination for all targets and add its result
+     * @param targets prepared target data
+     * @param c PoP combination index
+     * @param states merged HA ranges per target (empty if unobservable)
+     * @param tmpRange temporary range
+     */
+    private void evaluate(final TargetData[] targets, final int c, final IntervalSet[] states, final Range tmpRange) {
+
+        final PopCombination popComb = this.popCombs[c];
+
+        List<PopObservabilityData> popDataList = null;
+        PopObservabilityData popData;
+
+        for (int t = 0; t < targets.length; t++) {
+            popData = PopObservabilityData.estimate(targets[t].name, popComb, states[t], targets[t].estimator, tmpRange);
+
+            if (popData != null) {
+                if (popDataList == null) {
+                    popDataList = new ArrayList<PopObservabilityData>(targets.length);
+                }
+                popDataList.add(popData);
+            }
+        }
+
+        if (popDataList != null) {
+            final GroupedPopObservabilityData result = new GroupedPopObservabilityData(popComb, popDataList);
+            result.estimateData(this.groupedEstimator);
+
+            addResult(c, result);
+        }
+    }
+
+    /**
+     * Add the given result and update the best results
+     * @param c PoP combination index
+     * @param result evaluated result
+     */
+    private synchronized void addResult(final int c, final GroupedPopObservabilityData result) {
+        this.results[c] = result;
+        this.nResults++;
+
+        final PriorityQueue<GroupedPopObservabilityData> best = this.bestResults;
+
+        if (best.size() < this.maxResults) {
+            best.add(result);
+        } else if (result.compareTo(best.peek()) > 0) {
+            best.poll();
+            best.add(result);
+        }
+        if (best.size() == this.maxResults) {
+            this.threshold = best.peek();
+        }
+    }
+
+    /**
+     * Return the index of the last sorted PopCombination (exclusive) having the same PoPs for the beams [0; depth]
+     * as the first one
+     * @param depth index of the last beam
+     * @param fromCb index of the first sorted PopCombination (inclusive)
+     * @param endCb index of the last sorted PopCombination (exclusive)
+     * @return index of the last sorted PopCombination (exclusive)
+     */
+    private int endOfGroup(final int depth, final int fromCb, final int endCb) {
+        final int pop = this.popIndexes[this.sortedCombs[fromCb]][depth];
+        int end = fromCb + 1;
+        while (end < endCb && this.popIndexes[this.sortedCombs[end]][depth] == pop) {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Return the maximum estimation of the given ranges
+     * @param estimator best PoPs estimator related to the target
+     * @param ranges HA ranges
+     * @param tmpRange temporary range
+     * @return maximum estimation
+     */
+    private static double getMaxEstimation(final BestPopsEstimator estimator, final IntervalSet ranges, final Range tmpRange) {
+        double max = 0d;
+        for (int i = 0, len = ranges.size(); i < len; i++) {
+            tmpRange.set(ranges.getMin(i), ranges.getMax(i));
+            max = Math.max(max, estimator.compute(tmpRange));
+        }
+        return max;
+    }
+
+    /**
+     * Search state (local context ie thread) to avoid allocations during the traversal
+     */
+    private static final class SearchState {
+
+        /** target HA ranges (root) */
+        final IntervalSet[] rootStates;
+        /** merged HA ranges per depth and target */
+        final IntervalSet[][] states;
+        /** temporary range */
+        final Range tmpRange = new Range();
+
+        /**
+         * Protected constructor
+         * @param targets prepared target data
+         * @param nBeams number of beams (tree depth)
+         */
+        SearchState(final TargetData[] targets, final int nBeams) {
+            final int nTargets = targets.length;
+
+            this.rootStates = new IntervalSet[nTargets];
+            for (int t = 0; t < nTargets; t++) {
+                this.rootStates[t] = new IntervalSet().set(targets[t].ranges);
+            }
+            this.states = new IntervalSet[nBeams][nTargets];
+            for (int d = 0; d < nBeams; d++) {
+                for (int t = 0; t < nTargets; t++) {
+                    this.states[d][t] = new IntervalSet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Prepared target data (read only)
+     */
+    public static final class TargetData {
+
+        /** target name */
+        final String name;
+        /** best PoPs estimator related to the target */
+        final BestPopsEstimator estimator;
+        /** flat HA ranges for target rise/set and night limits (null if unobservable) */
+        final double[] ranges;
+        /** flat HA ranges per base line and PoP pair [bl][pop1 * nPops + pop2] (null if unobservable) */
+        final double[][][] rangesBL;
+
+        /**
+         * Protected constructor
+         * @param name target name
+         * @param estimator best PoPs estimator related to the target
+         * @param ranges flat HA ranges for target rise/set and night limits
+         * @param rangesBL flat HA ranges per base line and PoP pair
+         */
+        TargetData(final String name, final BestPopsEstimator estimator, final double[] ranges, final double[][][] rangesBL) {
+            this.name = name;
+            this.estimator = estimator;
+            this.ranges = ranges;
+            this.rangesBL = rangesBL;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package edu.dartmouth;
+
+import fr.jmmc.aspro.model.oi.LonLatAlt;
+import java.util.Locale;
+import java.util.TimeZone;
+import net.jafama.FastMath;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * AstroSkyCalcEphemeris tests: moon positions interpolated (Catmull-Rom) from the 10 minutes samples
+ * must match the direct JSkyCalc computation (topocentric moon) over a night
+ * @author bourgesl
+ */
+public class AstroSkyCalcEphemerisTest {
+
+    /** maximum RA / Dec error = 1 arcsec (deg) */
+    private final static double MAX_ERROR = 1.0 / 3600.0;
+    /** number of julian dates (every minute, off the sample grid) */
+    private final static int N_JDS = 720;
+    /** night length (12 hours) as julian days */
+    private final static double NIGHT = 0.5;
+
+    @BeforeClass
+    public static void setUp() {
+        // Set the default locale to en-US locale (for Numerical Fields "." ",")
+        Locale.setDefault(Locale.US);
+
+        // Set the default timezone to GMT to handle properly the date in UTC :
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
+    }
+
+    @Test
+    public void testMoonPositionOverNight() {
+        final AstroSkyCalc sc = new AstroSkyCalc();
+        // Paranal: lon = -70.4045 deg, lat = -24.6272 deg:
+        sc.defineSite("test", new LonLatAlt(FastMath.toRadians(-70.4045), FastMath.toRadians(-24.6272), 2635.0), "GMT");
+
+        // several dates covering moon phases:
+        for (int day = 1; day <= 29; day += 7) {
+            final double jdMin = sc.defineDate(2019, 6, day);
+            final double jdMax = jdMin + NIGHT;
+
+            final AstroSkyCalcEphemeris ephemeris = new AstroSkyCalcEphemeris(sc, jdMin, jdMax);
+
+            final WhenWhere ww = new WhenWhere(jdMin, sc.site, true);
+            final double[] xyz = new double[3];
+
+            double maxRaErr = 0.0;
+            double maxDecErr = 0.0;
+
+            for (int j = 0; j <= N_JDS; j++) {
+                // irregular offsets inside sample intervals:
+                final double jd = jdMin + (NIGHT * (j + 0.37)) / (N_JDS + 1);
+
+                Assert.assertTrue("jd " + jd + " sampled", ephemeris.contains(jd));
+
+                ephemeris.getMoonXYZ(jd, xyz);
+
+                ww.changeWhen(jd);
+                ww.updateLocalMoon();
+                final double[] expXYZ = ww.moon.topopos.cel_unitXYZ();
+
+                final double dec = getDec(xyz);
+                final double expDec = getDec(expXYZ);
+
+                // RA error along the sky (cos(dec)):
+                final double raErr = Math.abs(normalize(getRa(xyz) - getRa(expXYZ))) * Math.cos(Math.toRadians(expDec));
+                final double decErr = Math.abs(dec - expDec);
+
+                maxRaErr = Math.max(maxRaErr, raErr);
+                maxDecErr = Math.max(maxDecErr, decErr);
+
+                Assert.assertTrue("day " + day + " jd " + jd + ": RA error (deg) = " + raErr, raErr < MAX_ERROR);
+                Assert.assertTrue("day " + day + " jd " + jd + ": Dec error (deg) = " + decErr, decErr < MAX_ERROR);
+            }
+
+            System.out.println("day " + day + ": max RA error = " + (3600.0 * maxRaErr)
+                    + " arcsec - max Dec error = " + (3600.0 * maxDecErr) + " arcsec");
+        }
+    }
+
+    /**
+     * Return the right ascension (deg) of the given unit vector
+     * @param xyz unit vector
+     * @return right ascension (deg)
+     */
+    private static double getRa(final double[] xyz) {
+        return Math.toDegrees(Math.atan2(xyz[1], xyz[0]));
+    }
+
+    /**
+     * Return the declination (deg) of the given unit vector
+     * @param xyz unit vector
+     * @return declination (deg)
+     */
+    private static double getDec(final double[] xyz) {
+        return Math.toDegrees(Math.asin(Math.max(-1.0, Math.min(1.0, xyz[2]))));
+    }
+
+    /**
+     * Return the given angle difference in [-180; 180] deg
+     * @param angle angle difference (deg)
+     * @return angle difference in [-180; 180] deg
+     */
+    private static double normalize(final double angle) {
+        double a = angle % 360.0;
+        if (a > 180.0) {
+            a -= 360.0;
+        } else if (a < -180.0) {
+            a += 360.0;
+        }
+        return a;
+    }
+}
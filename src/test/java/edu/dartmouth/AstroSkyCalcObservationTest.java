@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package edu.dartmouth;
+
+import fr.jmmc.aspro.model.oi.AzEl;
+import fr.jmmc.aspro.model.oi.LonLatAlt;
+import java.util.Locale;
+import java.util.TimeZone;
+import net.jafama.FastMath;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * AstroSkyCalcObservation tests: the observation instance is reused across targets (reset)
+ * and gives the same positions and moon separations as a new instance
+ * @author bourgesl
+ */
+public class AstroSkyCalcObservationTest {
+
+    /** moon separation tolerance (deg) as the reused date may be updated (changeWhen) instead of created */
+    private final static double MOON_TOLERANCE = 1e-9;
+    /** number of julian dates (full day every 15 minutes) */
+    private final static int N_JDS = 96;
+
+    @BeforeClass
+    public static void setUp() {
+        // Set the default locale to en-US locale (for Numerical Fields "." ",")
+        Locale.setDefault(Locale.US);
+
+        // Set the default timezone to GMT to handle properly the date in UTC :
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
+    }
+
+    @Test
+    public void testReuseAfterReset() {
+        final AstroSkyCalc sc = new AstroSkyCalc();
+        // Paranal: lon = -70.4045 deg, lat = -24.6272 deg:
+        sc.defineSite("test", new LonLatAlt(FastMath.toRadians(-70.4045), FastMath.toRadians(-24.6272), 2635.0), "GMT");
+
+        final double jdLst0 = sc.defineDate(2019, 6, 15);
+
+        // targets (deg) with a proper motion for the last one:
+        final double[][] targets = new double[][]{{10.0, -60.0}, {279.2, 38.8}, {83.8, -5.4}, {201.3, -11.2}};
+
+        final AstroSkyCalcObservation reused = new AstroSkyCalcObservation();
+        reused.defineSite(sc);
+
+        Observation observation = null;
+
+        for (int i = 0; i < targets.length; i++) {
+            final Double pmRa = (i == targets.length - 1) ? Double.valueOf(500.0) : null;
+            final Double pmDec = (i == targets.length - 1) ? Double.valueOf(-300.0) : null;
+
+            final double[] raDec = reused.defineTarget(jdLst0, targets[i][0], targets[i][1], pmRa, pmDec);
+
+            if (observation == null) {
+                observation = reused.getObservation();
+            } else {
+                Assert.assertSame("target " + i + ": observation reused", observation, reused.getObservation());
+            }
+
+            final AstroSkyCalcObservation fresh = new AstroSkyCalcObservation();
+            fresh.defineSite(sc);
+            final double[] expRaDec = fresh.defineTarget(jdLst0, targets[i][0], targets[i][1], pmRa, pmDec);
+
+            Assert.assertEquals("target " + i + ": ra", expRaDec[0], raDec[0], 0.0);
+            Assert.assertEquals("target " + i + ": dec", expRaDec[1], raDec[1], 0.0);
+
+            final double dec = FastMath.toRadians(raDec[1]);
+            final double cosDec = FastMath.cos(dec);
+            final double sinDec = FastMath.sin(dec);
+
+            final AzEl azEl = new AzEl();
+            final AzEl expAzEl = new AzEl();
+
+            for (int j = 0; j < N_JDS; j++) {
+                final double jd = jdLst0 + j / (double) N_JDS;
+                final String message = "target " + i + " jd " + jd;
+
+                Assert.assertEquals(message + ": ha", fresh.getTargetPosition(cosDec, sinDec, jd, expAzEl),
+                        reused.getTargetPosition(cosDec, sinDec, jd, azEl), 0.0);
+                Assert.assertEquals(message + ": elevation", expAzEl.getElevation(), azEl.getElevation(), 0.0);
+                Assert.assertEquals(message + ": azimuth", expAzEl.getAzimuth(), azEl.getAzimuth(), 0.0);
+
+                Assert.assertEquals(message + ": moon separation", fresh.getMoonSeparation(cosDec, sinDec, jd),
+                        reused.getMoonSeparation(cosDec, sinDec, jd), MOON_TOLERANCE);
+            }
+
+            // next target:
+            reused.reset();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package edu.dartmouth;
+
+import fr.jmmc.aspro.model.oi.AzEl;
+import fr.jmmc.aspro.model.oi.LonLatAlt;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import net.jafama.FastMath;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * AstroSkyCalcPositions tests: bulk positions must be the same as AstroSkyCalcObservation.getTargetPosition()
+ * and Spherical.true_airmass() (below horizon, zenith and near pole targets)
+ * @author bourgesl
+ */
+public class AstroSkyCalcPositionsTest {
+
+    /** elevation / azimuth tolerance (deg) */
+    private final static double ANGLE_TOLERANCE = 1e-6;
+    /** airmass relative tolerance */
+    private final static double AIRMASS_TOLERANCE = 1e-6;
+    /** number of random targets */
+    private final static int N_RANDOM = 200;
+    /** number of julian dates (full day every 6 minutes) */
+    private final static int N_JDS = 240;
+
+    @BeforeClass
+    public static void setUp() {
+        // Set the default locale to en-US locale (for Numerical Fields "." ",")
+        Locale.setDefault(Locale.US);
+
+        // Set the default timezone to GMT to handle properly the date in UTC :
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
+    }
+
+    @Test
+    public void testParanal() {
+        // Paranal: lon = -70.4045 deg, lat = -24.6272 deg:
+        check(-70.4045, -24.6272, 2635.0);
+    }
+
+    @Test
+    public void testNorthernSite() {
+        // Mount Wilson (CHARA): lon = -118.0570 deg, lat = 34.2244 deg:
+        check(-118.0570, 34.2244, 1740.0);
+    }
+
+    private static void check(final double lonDeg, final double latDeg, final double alt) {
+        final AstroSkyCalc sc = new AstroSkyCalc();
+        sc.defineSite("test", new LonLatAlt(FastMath.toRadians(lonDeg), FastMath.toRadians(latDeg), alt), "GMT");
+
+        final double jdLst0 = sc.defineDate(2019, 6, 15);
+
+        final double[] jds = new double[N_JDS];
+        for (int j = 0; j < N_JDS; j++) {
+            jds[j] = jdLst0 + j / (double) N_JDS;
+        }
+
+        // targets (deg): poles, zenith (dec = latitude), never rising and random targets:
+        final Random random = new Random(1234L);
+        final int nTargets = 10 + N_RANDOM;
+        final double[] raDeg = new double[nTargets];
+        final double[] decDeg = new double[nTargets];
+
+        final double[] fixedDec = new double[]{90.0, -90.0, 89.9999, -89.9999, latDeg, latDeg + 1e-4,
+                                               -latDeg, (latDeg > 0.0) ? -80.0 : 80.0, 0.0, 45.0};
+        for (int i = 0; i < fixedDec.length; i++) {
+            raDeg[i] = 36.0 * i;
+            decDeg[i] = fixedDec[i];
+        }
+        for (int i = fixedDec.length; i < nTargets; i++) {
+            raDeg[i] = 360.0 * random.nextDouble();
+            decDeg[i] = 180.0 * random.nextDouble() - 90.0;
+        }
+
+        final AstroSkyCalcObservation sco = new AstroSkyCalcObservation();
+        sco.defineSite(sc);
+
+        // precessed coordinates:
+        final double[] precRA = new double[nTargets];
+        final double[] precDEC = new double[nTargets];
+        for (int i = 0; i < nTargets; i++) {
+            final double[] raDec = sco.defineTarget(jdLst0, raDeg[i], decDeg[i], null, null);
+            precRA[i] = raDec[0];
+            precDEC[i] = raDec[1];
+        }
+
+        for (boolean useThreads : new boolean[]{false, true}) {
+            final double[] elevation = new double[nTargets * N_JDS];
+            final double[] azimuth = new double[nTargets * N_JDS];
+            final double[] airmass = new double[nTargets * N_JDS];
+
+            AstroSkyCalcPositions.computePositions(sc, precRA, precDEC, nTargets, jds, N_JDS,
+                    elevation, azimuth, airmass, useThreads);
+
+            final AzEl azEl = new AzEl();
+            int nBelow = 0;
+
+            for (int i = 0; i < nTargets; i++) {
+                // reference: current target in AstroSkyCalcObservation
+                sco.defineTarget(jdLst0, raDeg[i], decDeg[i], null, null);
+
+                final double dec = FastMath.toRadians(precDEC[i]);
+                final double cosDec = FastMath.cos(dec);
+                final double sinDec = FastMath.sin(dec);
+
+                for (int j = 0; j < N_JDS; j++) {
+                    final int k = i * N_JDS + j;
+                    final String message = "[" + latDeg + "] target [" + raDeg[i] + ", " + decDeg[i] + "] jd " + jds[j];
+
+                    sco.getTargetPosition(cosDec, sinDec, jds[j], azEl);
+
+                    final double expElev = azEl.getElevation();
+                    Assert.assertEquals(message + ": elevation", expElev, elevation[k], ANGLE_TOLERANCE);
+
+                    // azimuth is undefined at zenith:
+                    if (expElev < 90.0 - 1e-3) {
+                        double delta = Math.abs(azEl.getAzimuth() - azimuth[k]);
+                        if (delta > 180.0) {
+                            delta = 360.0 - delta;
+                        }
+                        Assert.assertEquals(message + ": azimuth", 0.0, delta, ANGLE_TOLERANCE);
+                    }
+                    Assert.assertTrue(message + ": azimuth range", azimuth[k] >= 0.0 && azimuth[k] < 360.0);
+
+                    final double expAirmass = Spherical.true_airmass(expElev);
+                    if (expAirmass < 0.0) {
+                        // below horizon:
+                        nBelow++;
+                        Assert.assertTrue(message + ": airmass", Double.isNaN(airmass[k]));
+                    } else {
+                        Assert.assertEquals(message + ": airmass", expAirmass, airmass[k], AIRMASS_TOLERANCE * expAirmass);
+                    }
+                }
+            }
+            Assert.assertTrue("no position below horizon", nBelow != 0);
+        }
+    }
+}
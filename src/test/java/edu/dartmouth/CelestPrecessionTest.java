@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package edu.dartmouth;
+
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Celest precession tests: precessInto() using a shared precession matrix must give the same coordinates
+ * as precessed() (random positions, RA=0/24 and poles)
+ * @author bourgesl
+ */
+public class CelestPrecessionTest {
+
+    /** number of random positions */
+    private final static int N_RANDOM = 100000;
+
+    /** target epochs (julian years) */
+    private final static double[] EPOCHS = new double[]{2000.0, 1950.0, 2019.45, 2031.999, 2100.0};
+
+    @Test
+    public void testPrecessInto() {
+        final Random random = new Random(1234L);
+
+        final double[] p = new double[9];
+        final Celest out = new Celest(0d, 0d, 2000d);
+
+        for (double epoch : EPOCHS) {
+            Celest.precessionMatrix(2000d, epoch, p);
+
+            // RA=0/24 and poles:
+            for (double ra : new double[]{0.0, 6.0, 12.0, 23.999999, 24.0}) {
+                for (double dec : new double[]{-90.0, -89.999999, 0.0, 45.0, 89.999999, 90.0}) {
+                    check(epoch, p, out, ra, dec);
+                }
+            }
+
+            for (int i = 0; i < N_RANDOM; i++) {
+                check(epoch, p, out, 24.0 * random.nextDouble(), 180.0 * random.nextDouble() - 90.0);
+            }
+        }
+    }
+
+    private static void check(final double epoch, final double[] p, final Celest out, final double ra, final double dec) {
+        final Celest target = new Celest(ra, dec, 2000d);
+
+        final Celest expected = target.precessed(epoch);
+
+        // reused output instance:
+        target.precessInto(p, epoch, out);
+
+        final String message = "epoch " + epoch + " [" + ra + ", " + dec + "]";
+
+        Assert.assertEquals(message + ": RA", expected.alpha.value, out.alpha.value, 0.0);
+        Assert.assertEquals(message + ": DEC", expected.delta.value, out.delta.value, 0.0);
+        Assert.assertEquals(message + ": equinox", expected.equinox, out.equinox, 0.0);
+    }
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.service;
+
+import static fest.common.FestSwingCustomJUnitTestCase.getProjectFolderPath;
+import fr.jmmc.aspro.model.ObservationManager;
+import fr.jmmc.aspro.model.observability.ObservabilityData;
+import fr.jmmc.aspro.model.oi.ObservationSetting;
+import fr.jmmc.aspro.model.oi.Target;
+import fr.jmmc.aspro.model.uvcoverage.UVCoverageData;
+import fr.jmmc.aspro.service.UserModelService.MathMode;
+import fr.jmmc.oitools.model.OIFitsFile;
+import java.io.File;
+import java.util.Locale;
+import java.util.TimeZone;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import test.OIFitsStreamWriterTest;
+
+/**
+ * NoiseService cache tests: OIFits data and errors computed with the strehl and instrument caches (miss then hit)
+ * must be equal to the ones computed without caches
+ * @author bourgesl
+ */
+public class NoiseServiceCacheTest {
+
+    /** absolute path to test folder to load test resources */
+    private final static String TEST_FOLDER = getProjectFolderPath() + "src/test/resources/";
+
+    /** random seed */
+    private final static long RANDOM_SEED = 1234L;
+
+    @BeforeClass
+    public static void setUp() {
+        // Set the default locale to en-US locale (for Numerical Fields "." ",")
+        Locale.setDefault(Locale.US);
+
+        // Set the default timezone to GMT to handle properly the date in UTC :
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
+    }
+
+    @After
+    public void tearDown() {
+        setCacheEnabled(true);
+    }
+
+    @Test
+    public void testCachedEqualsUncached() throws Exception {
+        final ObservationManager om = ObservationManager.getInstance();
+        om.load(new File(TEST_FOLDER + "Aspro2_sample.asprox"));
+
+        final ObservationSetting observation = om.getMainObservation();
+
+        final ObservabilityData obsData = new ObservabilityService(observation).compute();
+
+        int nTested = 0;
+
+        for (Target target : observation.getTargets()) {
+            setCacheEnabled(false);
+            final OIFitsFile uncached = createOIFits(observation, obsData, target);
+
+            if (uncached == null) {
+                continue;
+            }
+
+            // caches are cleared when disabled:
+            setCacheEnabled(true);
+            final OIFitsFile miss = createOIFits(observation, obsData, target);
+
+            Assert.assertTrue("instrument cache", NoiseService.INSTRUMENT_CACHE.size() != 0);
+            Assert.assertTrue("strehl cache", NoiseService.STREHL_CACHE.size() != 0);
+
+            final OIFitsFile hit = createOIFits(observation, obsData, target);
+
+            OIFitsStreamWriterTest.compare(target.getName() + " [cache miss]", uncached, miss);
+            OIFitsStreamWriterTest.compare(target.getName() + " [cache hit]", uncached, hit);
+
+            nTested++;
+        }
+
+        Assert.assertTrue("no target tested", nTested != 0);
+    }
+
+    /**
+     * Create the OIFits file (noise enabled, fixed seed) of the given target
+     * @param observation observation settings
+     * @param obsData observability data
+     * @param target target to use
+     * @return OIFits file or null if the target is not observable or has no model
+     */
+    private static OIFitsFile createOIFits(final ObservationSetting observation, final ObservabilityData obsData, final Target target) {
+        final UVCoverageData uvData = new UVCoverageService(observation, obsData, target.getName(), 100.0, false,
+                true, true, 1, MathMode.FAST, 3.0).compute();
+
+        final OIFitsCreatorService oiFitsCreator = uvData.getOiFitsCreator();
+        if (oiFitsCreator == null) {
+            return null;
+        }
+        oiFitsCreator.setRandomSeed(RANDOM_SEED);
+        return oiFitsCreator.createOIFits();
+    }
+
+    private static void setCacheEnabled(final boolean enabled) {
+        NoiseService.STREHL_CACHE.setEnabled(enabled);
+        NoiseService.INSTRUMENT_CACHE.setEnabled(enabled);
+    }
+}
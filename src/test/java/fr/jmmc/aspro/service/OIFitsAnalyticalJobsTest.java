@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.service;
+
+import static fest.common.FestSwingCustomJUnitTestCase.getProjectFolderPath;
+import fr.jmmc.aspro.model.ObservationManager;
+import fr.jmmc.aspro.model.observability.ObservabilityData;
+import fr.jmmc.aspro.model.oi.ObservationSetting;
+import fr.jmmc.aspro.model.oi.Target;
+import fr.jmmc.aspro.model.uvcoverage.UVCoverageData;
+import fr.jmmc.aspro.service.UserModelService.MathMode;
+import fr.jmmc.jmal.complex.Complex;
+import fr.jmmc.oitools.model.OIFitsFile;
+import java.io.File;
+import java.util.Locale;
+import java.util.TimeZone;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import test.OIFitsStreamWriterTest;
+
+/**
+ * Analytical model tests: complex visibilities computed by row blocks (parallel jobs)
+ * must be equal to the ones computed sequentially
+ * @author bourgesl
+ */
+public class OIFitsAnalyticalJobsTest {
+
+    /** absolute path to test folder to load test resources */
+    private final static String TEST_FOLDER = getProjectFolderPath() + "src/test/resources/";
+
+    /** random seed */
+    private final static long RANDOM_SEED = 1234L;
+
+    @BeforeClass
+    public static void setUp() {
+        // Set the default locale to en-US locale (for Numerical Fields "." ",")
+        Locale.setDefault(Locale.US);
+
+        // Set the default timezone to GMT to handle properly the date in UTC :
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
+    }
+
+    @After
+    public void tearDown() {
+        AbstractOIFitsProducer.setAnalyticalJobThreshold(AbstractOIFitsProducer.JOB_THRESHOLD_ANALYTICAL_MODELS);
+    }
+
+    @Test
+    public void testParallelEqualsSequential() throws Exception {
+        final ObservationManager om = ObservationManager.getInstance();
+        om.load(new File(TEST_FOLDER + "Aspro2_sample.asprox"));
+
+        final ObservationSetting observation = om.getMainObservation();
+
+        final ObservabilityData obsData = new ObservabilityService(observation).compute();
+
+        int nTested = 0;
+
+        for (Target target : observation.getTargets()) {
+            if (!target.hasAnalyticalModel()) {
+                continue;
+            }
+            final String msg = "target [" + target.getName() + "]";
+
+            // sequential:
+            AbstractOIFitsProducer.setAnalyticalJobThreshold(Integer.MAX_VALUE);
+            final OIFitsCreatorService sequential = createOIFitsCreator(observation, obsData, target);
+
+            if (sequential == null) {
+                continue;
+            }
+            final OIFitsFile expected = createOIFits(sequential);
+            Assert.assertNotNull(msg + ": sequential", expected);
+
+            // row blocks (always parallel jobs):
+            AbstractOIFitsProducer.setAnalyticalJobThreshold(0);
+            final OIFitsCreatorService parallel = createOIFitsCreator(observation, obsData, target);
+
+            final OIFitsFile actual = createOIFits(parallel);
+            Assert.assertNotNull(msg + ": parallel", actual);
+
+            assertEquals(msg, sequential.visComplex, parallel.visComplex);
+
+            OIFitsStreamWriterTest.compare(msg, expected, actual);
+
+            nTested++;
+        }
+
+        Assert.assertTrue("no target tested", nTested != 0);
+    }
+
+    /**
+     * Create the OIFits creator of the given target
+     * @param observation observation settings
+     * @param obsData observability data
+     * @param target target to use
+     * @return OIFits creator or null if the target is not observable
+     */
+    private static OIFitsCreatorService createOIFitsCreator(final ObservationSetting observation, final ObservabilityData obsData,
+                                                            final Target target) {
+        final UVCoverageData uvData = new UVCoverageService(observation, obsData, target.getName(), 100.0, false,
+                true, true, 1, MathMode.FAST, 3.0).compute();
+
+        return uvData.getOiFitsCreator();
+    }
+
+    /**
+     * Create the OIFits file (fixed seed)
+     * @param oiFitsCreator OIFits creator
+     * @return OIFits file
+     */
+    private static OIFitsFile createOIFits(final OIFitsCreatorService oiFitsCreator) {
+        oiFitsCreator.setRandomSeed(RANDOM_SEED);
+        return oiFitsCreator.createOIFits();
+    }
+
+    private static void assertEquals(final String message, final Complex[][] expected, final Complex[][] actual) {
+        Assert.assertNotNull(message + ": visComplex", actual);
+        Assert.assertEquals(message + ": rows", expected.length, actual.length);
+
+        for (int k = 0; k < expected.length; k++) {
+            Assert.assertEquals(message + ": row " + k, expected[k].length, actual[k].length);
+
+            for (int l = 0; l < expected[k].length; l++) {
+                Assert.assertEquals(message + ": row " + k + " channel " + l + " re",
+                        expected[k][l].getReal(), actual[k][l].getReal(), 0.0);
+                Assert.assertEquals(message + ": row " + k + " channel " + l + " im",
+                        expected[k][l].getImaginary(), actual[k][l].getImaginary(), 0.0);
+            }
+        }
+    }
+}
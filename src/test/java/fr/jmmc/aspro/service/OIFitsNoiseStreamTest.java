@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.service;
+
+import static fest.common.FestSwingCustomJUnitTestCase.getProjectFolderPath;
+import fr.jmmc.aspro.model.ObservationManager;
+import fr.jmmc.aspro.model.observability.ObservabilityData;
+import fr.jmmc.aspro.model.oi.ObservationSetting;
+import fr.jmmc.aspro.model.oi.Target;
+import fr.jmmc.aspro.model.uvcoverage.UVCoverageData;
+import fr.jmmc.aspro.service.UserModelService.MathMode;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.TimeZone;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Noise random stream tests: the same random seed gives the same complex distributions and sample indexes
+ * (visRndDist / visRndIdx) and each row has its own complex distribution
+ * @author bourgesl
+ */
+public class OIFitsNoiseStreamTest {
+
+    /** absolute path to test folder to load test resources */
+    private final static String TEST_FOLDER = getProjectFolderPath() + "src/test/resources/";
+
+    /** random seed */
+    private final static long RANDOM_SEED = 1234L;
+
+    @BeforeClass
+    public static void setUp() {
+        // Set the default locale to en-US locale (for Numerical Fields "." ",")
+        Locale.setDefault(Locale.US);
+
+        // Set the default timezone to GMT to handle properly the date in UTC :
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
+    }
+
+    @Test
+    public void testSameSeedSameNoise() throws Exception {
+        final ObservationManager om = ObservationManager.getInstance();
+        om.load(new File(TEST_FOLDER + "Aspro2_sample.asprox"));
+
+        final ObservationSetting observation = om.getMainObservation();
+
+        final ObservabilityData obsData = new ObservabilityService(observation).compute();
+
+        int nTested = 0;
+
+        for (Target target : observation.getTargets()) {
+            // noise enabled:
+            final UVCoverageData uvData = new UVCoverageService(observation, obsData, target.getName(), 100.0, false,
+                    true, true, 1, MathMode.FAST, 3.0).compute();
+
+            final OIFitsCreatorService oiFitsCreator = uvData.getOiFitsCreator();
+            if (oiFitsCreator == null) {
+                continue;
+            }
+
+            oiFitsCreator.setRandomSeed(RANDOM_SEED);
+            if (oiFitsCreator.createOIFits() == null || oiFitsCreator.visRndIdx == null) {
+                // no model or no noise:
+                continue;
+            }
+
+            final String msg = "target [" + target.getName() + "]";
+
+            final double[][][] dist = oiFitsCreator.visRndDist;
+            final int[][] idx = oiFitsCreator.visRndIdx;
+
+            Assert.assertTrue(msg + ": several rows", dist.length > 1);
+
+            // one distribution per row:
+            for (int k = 1; k < dist.length; k++) {
+                Assert.assertNotSame(msg + ": row " + k, dist[k - 1], dist[k]);
+                Assert.assertFalse(msg + ": row " + k, Arrays.equals(dist[k - 1][0], dist[k][0]));
+            }
+
+            // same seed:
+            oiFitsCreator.setRandomSeed(RANDOM_SEED);
+            Assert.assertNotNull(msg, oiFitsCreator.createOIFits());
+
+            Assert.assertTrue(msg + ": same distributions", Arrays.deepEquals(dist, oiFitsCreator.visRndDist));
+            Assert.assertTrue(msg + ": same indexes", Arrays.deepEquals(idx, oiFitsCreator.visRndIdx));
+
+            // other seed:
+            oiFitsCreator.setRandomSeed(RANDOM_SEED + 1L);
+            Assert.assertNotNull(msg, oiFitsCreator.createOIFits());
+
+            Assert.assertFalse(msg + ": other distributions", Arrays.deepEquals(dist, oiFitsCreator.visRndDist));
+            Assert.assertFalse(msg + ": other indexes", Arrays.deepEquals(idx, oiFitsCreator.visRndIdx));
+
+            nTested++;
+        }
+
+        Assert.assertTrue("no target tested", nTested != 0);
+    }
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.service;
+
+import fr.jmmc.aspro.model.observability.ObservabilityData;
+import fr.jmmc.aspro.model.observability.PopCombination;
+import fr.jmmc.aspro.model.oi.ObservationSetting;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import test.ObservabilityServiceTest;
+
+/**
+ * PoP ranges cache tests on CHARA 6T: best PoPs computed with the cache (miss then hit, exact or binned declination)
+ * must be equal to the ones computed without cache (-DObservability.popRanges.disable=true)
+ * @author bourgesl
+ */
+public class PopRangesCacheTest {
+
+    /** number of stations */
+    private final static int N_STATIONS = 6;
+    /** number of targets */
+    private final static int N_TARGETS = 12;
+    /** declination bin (arcsec) */
+    private final static double DEC_BIN = 60.0;
+
+    @BeforeClass
+    public static void setUp() {
+        // Set the default locale to en-US locale (for Numerical Fields "." ",")
+        Locale.setDefault(Locale.US);
+
+        // Set the default timezone to GMT to handle properly the date in UTC :
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
+    }
+
+    @After
+    public void tearDown() {
+        ObservabilityService.POP_RANGES_CACHE.setEnabled(true);
+        ObservabilityService.POP_RANGES_CACHE.setBin(0.0);
+    }
+
+    @Test
+    public void testCachedEqualsUncached() {
+        final ObservationSetting observation = ObservabilityServiceTest.createObservation(N_STATIONS, N_TARGETS);
+
+        ObservabilityService.POP_RANGES_CACHE.setEnabled(false);
+        final ObservabilityData uncached = compute(observation);
+
+        Assert.assertNotNull("best PoPs", uncached.getBestPops());
+
+        // cache cleared when disabled:
+        ObservabilityService.POP_RANGES_CACHE.setEnabled(true);
+        final ObservabilityData miss = compute(observation);
+
+        Assert.assertTrue("PoP ranges cache", ObservabilityService.POP_RANGES_CACHE.size() != 0);
+
+        final ObservabilityData hit = compute(observation);
+
+        assertEquals("cache miss", uncached, miss);
+        assertEquals("cache hit", uncached, hit);
+
+        // neighbouring declinations share cache entries (cache cleared):
+        ObservabilityService.POP_RANGES_CACHE.setBin(DEC_BIN);
+
+        final ObservabilityData binnedMiss = compute(observation);
+        final ObservabilityData binnedHit = compute(observation);
+
+        Assert.assertEquals("decBin miss: best PoPs",
+                uncached.getBestPops().getIdentifier(), binnedMiss.getBestPops().getIdentifier());
+        Assert.assertEquals("decBin hit: best PoPs",
+                uncached.getBestPops().getIdentifier(), binnedHit.getBestPops().getIdentifier());
+    }
+
+    /**
+     * Compute the observability (no incremental results)
+     * @param observation observation settings
+     * @return observability data
+     */
+    private static ObservabilityData compute(final ObservationSetting observation) {
+        final ObservabilityService os = new ObservabilityService(observation);
+        os.setIncremental(false);
+        return os.compute();
+    }
+
+    private static void assertEquals(final String message, final ObservabilityData expected, final ObservabilityData actual) {
+        Assert.assertNotNull(message + ": best PoPs", actual.getBestPops());
+        Assert.assertEquals(message + ": best PoPs", expected.getBestPops().getIdentifier(), actual.getBestPops().getIdentifier());
+        Assert.assertEquals(message + ": best PoPs list", toIdentifiers(expected.getBestPopList()), toIdentifiers(actual.getBestPopList()));
+        Assert.assertEquals(message + ": better PoPs list", toIdentifiers(expected.getBetterPopList()), toIdentifiers(actual.getBetterPopList()));
+    }
+
+    private static List<String> toIdentifiers(final List<PopCombination> popCombs) {
+        if (popCombs == null) {
+            return null;
+        }
+        final List<String> ids = new ArrayList<String>(popCombs.size());
+        for (PopCombination popComb : popCombs) {
+            ids.add(popComb.getIdentifier());
+        }
+        return ids;
+    }
+}
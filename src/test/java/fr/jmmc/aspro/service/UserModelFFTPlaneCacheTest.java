@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.service;
+
+import fr.jmmc.jmal.ALX;
+import fr.jmmc.jmal.image.ColorModels;
+import fr.jmmc.jmal.image.ColorScale;
+import fr.jmmc.jmal.image.FFTUtils;
+import fr.jmmc.jmal.model.ImageMode;
+import fr.jmmc.oiexplorer.core.util.FitsImageUtils;
+import fr.jmmc.oitools.image.FitsImage;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * FFT plane cache tests: zoom, image mode and rotation changes reuse the cached FFT plane
+ * (giving the same complex visibilities as the uncached FFT) and the cache stays bounded by its maximum weight
+ * @author bourgesl
+ */
+public class UserModelFFTPlaneCacheTest {
+
+    /** image size */
+    private final static int SIZE = 64;
+    /** FFT size */
+    private final static int FFT_SIZE = 256;
+    /** pixel increment = 0.5 mas */
+    private final static double INCREMENT = Math.toRadians(0.5 * ALX.MILLI_ARCSEC_IN_DEGREES);
+    /** UV map size (pixels) */
+    private final static int IMAGE_SIZE = 256;
+
+    /** initial maximum weight */
+    private long maxWeight;
+
+    @Before
+    public void setUp() {
+        maxWeight = UserModelService.FFT_PLANE_CACHE.getMaxWeight();
+        UserModelService.FFT_PLANE_CACHE.setEnabled(true);
+        UserModelService.FFT_PLANE_CACHE.clear();
+    }
+
+    @After
+    public void tearDown() {
+        UserModelService.FFT_PLANE_CACHE.setMaxWeight(maxWeight);
+    }
+
+    @Test
+    public void testZoom() {
+        final BoundedCache<float[][]> cache = UserModelService.FFT_PLANE_CACHE;
+
+        final FitsImage fitsImage = createFitsImage(1.0);
+
+        final long misses = cache.getMisses();
+
+        final float[][] first = UserModelService.getFFTPlane(fitsImage, SIZE, FFT_SIZE, 100);
+        Assert.assertEquals("first: size", 1, cache.size());
+        Assert.assertEquals("first: misses", misses + 1L, cache.getMisses());
+        assertEquals("first", FFTUtils.computeFFT(SIZE, fitsImage.getData(), FFT_SIZE, 100), first);
+
+        // zoom out (within the oversized plane) then zoom in:
+        for (int outputSize : new int[]{150, 200, 60}) {
+            final long hits = cache.getHits();
+
+            final float[][] visData = UserModelService.getFFTPlane(fitsImage, SIZE, FFT_SIZE, outputSize);
+
+            Assert.assertEquals("output " + outputSize + ": hits", hits + 1L, cache.getHits());
+            Assert.assertEquals("output " + outputSize + ": misses", misses + 1L, cache.getMisses());
+            assertEquals("output " + outputSize, FFTUtils.computeFFT(SIZE, fitsImage.getData(), FFT_SIZE, outputSize), visData);
+        }
+
+        // zoom out beyond the cached plane:
+        UserModelService.getFFTPlane(fitsImage, SIZE, FFT_SIZE, 220);
+        Assert.assertEquals("larger plane: misses", misses + 2L, cache.getMisses());
+        Assert.assertEquals("larger plane: size", 1, cache.size());
+    }
+
+    @Test
+    public void testModeAndRotation() {
+        final BoundedCache<float[][]> cache = UserModelService.FFT_PLANE_CACHE;
+
+        final FitsImage fitsImage = createFitsImage(1.0);
+
+        final double uvMax = 0.25 * UserModelService.getMaxFreq(fitsImage);
+        final Rectangle2D.Double uvRect = new Rectangle2D.Double(-uvMax, -uvMax, 2.0 * uvMax, 2.0 * uvMax);
+
+        final long misses = cache.getMisses() + 1L;
+
+        Assert.assertNotNull("amplitude", UserModelService.computeUVMap(fitsImage, uvRect, ImageMode.AMP, IMAGE_SIZE,
+                ColorModels.getDefaultColorModel(), ColorScale.LINEAR));
+        Assert.assertEquals("amplitude: misses", misses, cache.getMisses());
+
+        Assert.assertNotNull("phase", UserModelService.computeUVMap(fitsImage, uvRect, ImageMode.PHASE, IMAGE_SIZE,
+                ColorModels.getDefaultColorModel(), ColorScale.LINEAR));
+        Assert.assertEquals("phase: misses", misses, cache.getMisses());
+
+        // rotation is applied after the FFT and enlarges the output within the oversized plane:
+        fitsImage.setRotAngle(30.0);
+
+        Assert.assertNotNull("rotated", UserModelService.computeUVMap(fitsImage, uvRect, ImageMode.AMP, IMAGE_SIZE,
+                ColorModels.getDefaultColorModel(), ColorScale.LINEAR));
+        Assert.assertEquals("rotated: misses", misses, cache.getMisses());
+        Assert.assertEquals("rotated: size", 1, cache.size());
+    }
+
+    @Test
+    public void testEviction() {
+        final BoundedCache<float[][]> cache = UserModelService.FFT_PLANE_CACHE;
+
+        // one plane [200 x 200] fits:
+        cache.setMaxWeight(2L * 200L * 200L);
+
+        final FitsImage imageA = createFitsImage(1.0);
+        final FitsImage imageB = createFitsImage(-1.0);
+
+        UserModelService.getFFTPlane(imageA, SIZE, FFT_SIZE, 100);
+        Assert.assertEquals("A: size", 1, cache.size());
+
+        final float[][] visDataB = UserModelService.getFFTPlane(imageB, SIZE, FFT_SIZE, 100);
+        Assert.assertEquals("B: size", 1, cache.size());
+        Assert.assertTrue("B: weight", cache.getWeight() <= cache.getMaxWeight());
+        assertEquals("B", FFTUtils.computeFFT(SIZE, imageB.getData(), FFT_SIZE, 100), visDataB);
+
+        // A was evicted:
+        final long misses = cache.getMisses();
+        final float[][] visDataA = UserModelService.getFFTPlane(imageA, SIZE, FFT_SIZE, 100);
+        Assert.assertEquals("A again: misses", misses + 1L, cache.getMisses());
+        Assert.assertEquals("A again: size", 1, cache.size());
+        assertEquals("A again", FFTUtils.computeFFT(SIZE, imageA.getData(), FFT_SIZE, 100), visDataA);
+
+        // plane [256 x 256] too large to be cached:
+        final float[][] visDataLarge = UserModelService.getFFTPlane(imageB, SIZE, FFT_SIZE, 128);
+        Assert.assertEquals("too large: size", 1, cache.size());
+        Assert.assertTrue("too large: weight", cache.getWeight() <= cache.getMaxWeight());
+        assertEquals("too large", FFTUtils.computeFFT(SIZE, imageB.getData(), FFT_SIZE, 128), visDataLarge);
+    }
+
+    /**
+     * Create an asymmetric image (two gaussian sources) given the offset sign of the secondary source
+     * @param sign offset sign of the secondary source
+     * @return fits image
+     */
+    private static FitsImage createFitsImage(final double sign) {
+        final float[][] data = new float[SIZE][SIZE];
+
+        final double c0 = SIZE / 2.0 + sign * 8.0;
+        final double r0 = SIZE / 2.0 + sign * 4.0;
+
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                final double d1 = (c - SIZE / 2.0) * (c - SIZE / 2.0) + (r - SIZE / 2.0) * (r - SIZE / 2.0);
+                final double d2 = (c - c0) * (c - c0) + (r - r0) * (r - r0);
+                data[r][c] = (float) (Math.exp(-d1 / 4.5) + 0.5 * Math.exp(-d2 / 8.0));
+            }
+        }
+        return FitsImageUtils.createFitsImage(data, 1d + SIZE / 2d, 1d + SIZE / 2d, INCREMENT, INCREMENT);
+    }
+
+    private static void assertEquals(final String message, final float[][] expected, final float[][] actual) {
+        Assert.assertEquals(message + ": rows", expected.length, actual.length);
+        for (int r = 0; r < expected.length; r++) {
+            Assert.assertTrue(message + ": row " + r, Arrays.equals(expected[r], actual[r]));
+        }
+    }
+}
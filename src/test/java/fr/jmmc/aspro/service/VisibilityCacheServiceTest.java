@@ -0,0 +1,266 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.aspro.service;
+
+import fr.jmmc.aspro.service.UserModelService.MathMode;
+import fr.jmmc.jmal.complex.MutableComplex;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * VisibilityCacheService tests: cache key invalidation (checksum, image data, uv table, math mode, computation engine),
+ * store / load round trip and LRU eviction under the size cap
+ * @author bourgesl
+ */
+public class VisibilityCacheServiceTest {
+
+    /** number of rows */
+    private final static int N_ROWS = 20;
+    /** number of wavelengths */
+    private final static int N_WLEN = 8;
+    /** cache file size in bytes (header + complex values) */
+    private final static long FILE_SIZE = 16L + 16L * N_ROWS * N_WLEN;
+
+    /** temporary cache directory */
+    private File cacheDir = null;
+
+    @Before
+    public void setUp() throws IOException {
+        final File file = File.createTempFile("vis-cache-test", "");
+        Assert.assertTrue(file.delete());
+        Assert.assertTrue(file.mkdirs());
+        this.cacheDir = file;
+    }
+
+    @After
+    public void tearDown() {
+        final File[] files = this.cacheDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.cacheDir.delete();
+    }
+
+    @Test
+    public void testKeyInvalidation() {
+        final VisibilityCacheService cache = new VisibilityCacheService(this.cacheDir, 1024L * 1024L);
+        Assert.assertTrue(cache.isEnabled());
+
+        final Random random = new Random(1234L);
+        final float[] data1D = createData(random);
+        final double[] waveLengths = createArray(random, N_WLEN);
+        final double[][] ufreq = createTable(random);
+        final double[][] vfreq = createTable(random);
+
+        final List<AbstractOIFitsProducer.UserModelComputePart> parts = createParts(data1D);
+
+        final String key = cache.computeKey(1L, parts, waveLengths, ufreq, vfreq, MathMode.FAST, true, 1e-4);
+        Assert.assertNotNull(key);
+
+        // stable:
+        Assert.assertEquals(key, cache.computeKey(1L, createParts(data1D.clone()), waveLengths.clone(), ufreq, vfreq, MathMode.FAST, true, 1e-4));
+
+        final Set<String> keys = new HashSet<String>();
+        keys.add(key);
+
+        // checksum:
+        keys.add(cache.computeKey(2L, parts, waveLengths, ufreq, vfreq, MathMode.FAST, true, 1e-4));
+        // math mode:
+        keys.add(cache.computeKey(1L, parts, waveLengths, ufreq, vfreq, MathMode.BLOCKED, true, 1e-4));
+        // computation engine:
+        keys.add(cache.computeKey(1L, parts, waveLengths, ufreq, vfreq, MathMode.FAST, false, 1e-4));
+        // FFT error threshold:
+        keys.add(cache.computeKey(1L, parts, waveLengths, ufreq, vfreq, MathMode.FAST, true, 1e-5));
+
+        // image data:
+        final float[] data1Dmod = data1D.clone();
+        data1Dmod[data1Dmod.length - 3] += 1e-3f;
+        keys.add(cache.computeKey(1L, createParts(data1Dmod), waveLengths, ufreq, vfreq, MathMode.FAST, true, 1e-4));
+
+        // wavelengths:
+        final double[] waveLengthsMod = waveLengths.clone();
+        waveLengthsMod[N_WLEN - 1] *= 1.0 + 1e-12;
+        keys.add(cache.computeKey(1L, parts, waveLengthsMod, ufreq, vfreq, MathMode.FAST, true, 1e-4));
+
+        // uv table:
+        final double[][] vfreqMod = new double[N_ROWS][];
+        for (int k = 0; k < N_ROWS; k++) {
+            vfreqMod[k] = vfreq[k].clone();
+        }
+        vfreqMod[N_ROWS / 2][0] = -vfreqMod[N_ROWS / 2][0];
+        keys.add(cache.computeKey(1L, parts, waveLengths, ufreq, vfreqMod, MathMode.FAST, true, 1e-4));
+
+        Assert.assertEquals("distinct keys", 8, keys.size());
+
+        // the FFT error threshold is ignored by the exact direct Fourier transform:
+        Assert.assertEquals(cache.computeKey(1L, parts, waveLengths, ufreq, vfreq, MathMode.FAST, false, 1e-4),
+                cache.computeKey(1L, parts, waveLengths, ufreq, vfreq, MathMode.FAST, false, 1e-5));
+
+        // data digest is reset when the prepared data changes:
+        final UserModelData modelData = parts.get(0).modelData;
+        modelData.set(data1Dmod);
+        Assert.assertEquals(cache.computeKey(1L, createParts(data1Dmod), waveLengths, ufreq, vfreq, MathMode.FAST, true, 1e-4),
+                cache.computeKey(1L, parts, waveLengths, ufreq, vfreq, MathMode.FAST, true, 1e-4));
+    }
+
+    @Test
+    public void testDisabled() {
+        final VisibilityCacheService cache = new VisibilityCacheService(null, 1024L * 1024L);
+        Assert.assertFalse(cache.isEnabled());
+
+        final Random random = new Random(1234L);
+        Assert.assertNull(cache.computeKey(1L, createParts(createData(random)), createArray(random, N_WLEN),
+                createTable(random), createTable(random), MathMode.FAST, true, 1e-4));
+
+        final MutableComplex[][] cmVis = createVis(random);
+        cache.store(null, cmVis, N_WLEN);
+        Assert.assertFalse(cache.load(null, cmVis, N_WLEN));
+    }
+
+    @Test
+    public void testStoreLoad() {
+        final VisibilityCacheService cache = new VisibilityCacheService(this.cacheDir, 1024L * 1024L);
+
+        final Random random = new Random(1234L);
+        final MutableComplex[][] cmVis = createVis(random);
+
+        Assert.assertFalse("missing", cache.load("abcd", createVis(random), N_WLEN));
+
+        cache.store("abcd", cmVis, N_WLEN);
+
+        // no temporary file left:
+        final File[] files = this.cacheDir.listFiles();
+        Assert.assertNotNull(files);
+        Assert.assertEquals(1, files.length);
+        Assert.assertEquals("abcd.vis", files[0].getName());
+        Assert.assertEquals(FILE_SIZE, files[0].length());
+
+        final MutableComplex[][] loaded = createVis(random);
+        Assert.assertTrue("loaded", cache.load("abcd", loaded, N_WLEN));
+        assertEquals(cmVis, loaded);
+
+        // overwrite existing entry:
+        final MutableComplex[][] other = createVis(random);
+        cache.store("abcd", other, N_WLEN);
+        Assert.assertTrue("loaded", cache.load("abcd", loaded, N_WLEN));
+        assertEquals(other, loaded);
+
+        // wrong shape:
+        Assert.assertFalse("wrong shape", cache.load("abcd", createVis(random), N_WLEN - 1));
+    }
+
+    @Test
+    public void testEviction() {
+        // room for 3 entries:
+        final VisibilityCacheService cache = new VisibilityCacheService(this.cacheDir, 3L * FILE_SIZE + FILE_SIZE / 2L);
+
+        final Random random = new Random(1234L);
+        final List<MutableComplex[][]> values = new ArrayList<MutableComplex[][]>();
+
+        final long now = System.currentTimeMillis();
+
+        for (int i = 0; i < 6; i++) {
+            final MutableComplex[][] cmVis = createVis(random);
+            values.add(cmVis);
+
+            cache.store("key" + i, cmVis, N_WLEN);
+
+            // distinct access times (file system resolution):
+            Assert.assertTrue(new File(this.cacheDir, "key" + i + ".vis").setLastModified(now - 60000L * (10 - i)));
+
+            if (i == 3) {
+                // LRU: a hit refreshes the access time of key1:
+                Assert.assertTrue(cache.load("key1", createVis(random), N_WLEN));
+                Assert.assertTrue(new File(this.cacheDir, "key1.vis").setLastModified(now));
+            }
+
+            long total = 0L;
+            for (File file : this.cacheDir.listFiles()) {
+                total += file.length();
+            }
+            Assert.assertTrue("size cap", total <= 3L * FILE_SIZE + FILE_SIZE / 2L);
+        }
+
+        // least recently used entries evicted: key0, key2, key3
+        for (int i : new int[]{0, 2, 3}) {
+            Assert.assertFalse("evicted key" + i, cache.load("key" + i, createVis(random), N_WLEN));
+        }
+        for (int i : new int[]{1, 4, 5}) {
+            final MutableComplex[][] loaded = createVis(random);
+            Assert.assertTrue("kept key" + i, cache.load("key" + i, loaded, N_WLEN));
+            assertEquals(values.get(i), loaded);
+        }
+
+        // entry larger than the cache is never stored:
+        final VisibilityCacheService small = new VisibilityCacheService(this.cacheDir, FILE_SIZE - 1L);
+        small.store("large", createVis(random), N_WLEN);
+        Assert.assertFalse(new File(this.cacheDir, "large.vis").exists());
+    }
+
+    private static void assertEquals(final MutableComplex[][] expected, final MutableComplex[][] actual) {
+        for (int k = 0; k < N_ROWS; k++) {
+            for (int i = 0; i < N_WLEN; i++) {
+                Assert.assertEquals(expected[k][i].getReal(), actual[k][i].getReal(), 0.0);
+                Assert.assertEquals(expected[k][i].getImaginary(), actual[k][i].getImaginary(), 0.0);
+            }
+        }
+    }
+
+    private static List<AbstractOIFitsProducer.UserModelComputePart> createParts(final float[] data1D) {
+        final AbstractOIFitsProducer.UserModelComputePart part = new AbstractOIFitsProducer.UserModelComputePart();
+        part.modelData = new UserModelData().set(data1D);
+        part.fromWL = 0;
+        part.endWL = N_WLEN;
+
+        final List<AbstractOIFitsProducer.UserModelComputePart> parts = new ArrayList<AbstractOIFitsProducer.UserModelComputePart>(1);
+        parts.add(part);
+        return parts;
+    }
+
+    private static float[] createData(final Random random) {
+        final float[] data1D = new float[3 * 1000];
+        for (int i = 0; i < data1D.length; i++) {
+            data1D[i] = random.nextFloat();
+        }
+        return data1D;
+    }
+
+    private static double[] createArray(final Random random, final int length) {
+        final double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextGaussian();
+        }
+        return values;
+    }
+
+    private static double[][] createTable(final Random random) {
+        final double[][] table = new double[N_ROWS][];
+        for (int k = 0; k < N_ROWS; k++) {
+            table[k] = createArray(random, N_WLEN);
+        }
+        return table;
+    }
+
+    private static MutableComplex[][] createVis(final Random random) {
+        final MutableComplex[][] cmVis = new MutableComplex[N_ROWS][N_WLEN];
+        for (int k = 0; k < N_ROWS; k++) {
+            for (int i = 0; i < N_WLEN; i++) {
+                cmVis[k][i] = new MutableComplex();
+                cmVis[k][i].updateComplex(random.nextGaussian(), random.nextGaussian());
+            }
+        }
+        return cmVis;
+    }
+}
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package test;
+
+import static fest.common.FestSwingCustomJUnitTestCase.getProjectFolderPath;
+import fr.jmmc.aspro.model.HorizonShape;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.StringTokenizer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * HorizonShape tests: the compiled azimuth-indexed table must give the same results than Polygon.contains()
+ * on real VLTI horizon profiles and random polygons (column boundaries, vertices and edges);
+ * global elevation bounds (containsAll / containsNone) must be consistent with Polygon.contains()
+ * @author bourgesl
+ */
+public class HorizonShapeTest {
+
+    /** Class logger */
+    protected static final Logger logger = LoggerFactory.getLogger(HorizonShapeTest.class.getName());
+
+    /** absolute path to VLTI horizon profiles */
+    private final static String HORIZON_FOLDER = getProjectFolderPath() + "src/test/resources/VLTI_NewDatabase/";
+
+    /** number of random points per polygon */
+    private final static int N_POINTS = 5000;
+
+    /** number of random polygons */
+    private final static int N_POLYGONS = 1000;
+
+    @Test
+    public void testVLTIProfiles() throws IOException {
+        final File[] files = new File(HORIZON_FOLDER).listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(final File dir, final String name) {
+                return name.endsWith(".horizon");
+            }
+        });
+        Assert.assertNotNull("missing folder: " + HORIZON_FOLDER, files);
+        Assert.assertTrue("no horizon profile", files.length != 0);
+
+        Arrays.sort(files);
+
+        final Random random = new Random(1234L);
+
+        for (File file : files) {
+            final List<double[]> rows = loadHorizon(file);
+
+            // same polygon as HorizonService (1/10 deg):
+            final int npoints = rows.size() + 1;
+            final int[] xpoints = new int[npoints];
+            final int[] ypoints = new int[npoints];
+
+            int i = 0;
+            for (double[] row : rows) {
+                xpoints[i] = (int) Math.round(10.0 * row[0]);
+                ypoints[i] = (int) Math.round(10.0 * row[1]);
+                i++;
+            }
+            xpoints[i] = xpoints[0];
+            ypoints[i] = ypoints[0];
+
+            logger.info("{}: {} points", file.getName(), npoints);
+
+            check(file.getName(), random, xpoints, ypoints, npoints);
+        }
+    }
+
+    @Test
+    public void testRandomPolygons() {
+        final Random random = new Random(4321L);
+
+        for (int n = 0; n < N_POLYGONS; n++) {
+            // small integer range (many vertical / horizontal edges, shared columns and self intersections):
+            final int npoints = 3 + random.nextInt(10) + 1;
+            final int[] xpoints = new int[npoints];
+            final int[] ypoints = new int[npoints];
+
+            for (int i = 0; i < npoints - 1; i++) {
+                xpoints[i] = random.nextInt(20) - 5;
+                ypoints[i] = random.nextInt(20) - 5;
+            }
+            // close the polygon:
+            xpoints[npoints - 1] = xpoints[0];
+            ypoints[npoints - 1] = ypoints[0];
+
+            check("polygon[" + n + "] x=" + Arrays.toString(xpoints) + " y=" + Arrays.toString(ypoints),
+                    random, xpoints, ypoints, npoints);
+        }
+    }
+
+    /**
+     * Compare HorizonShape.check() with Polygon.contains() on random points, points on integer azimuth column
+     * boundaries, vertices and points on edges
+     * @param message test message
+     * @param random random generator
+     * @param xpoints polygon x coordinates (closed polygon)
+     * @param ypoints polygon y coordinates (closed polygon)
+     * @param npoints number of polygon points
+     */
+    private static void check(final String message, final Random random,
+                              final int[] xpoints, final int[] ypoints, final int npoints) {
+
+        final Polygon polygon = new Polygon(xpoints, ypoints, npoints);
+        final HorizonShape shape = new HorizonShape(message, polygon, xpoints, ypoints, npoints);
+
+        final Rectangle bounds = polygon.getBounds();
+        // margin to test points outside:
+        final double xMin = bounds.getMinX() - 2.0;
+        final double yMin = bounds.getMinY() - 2.0;
+        final int width = bounds.width + 4;
+        final int height = bounds.height + 4;
+
+        for (int i = 0; i < N_POINTS; i++) {
+            final double x = xMin + width * random.nextDouble();
+            final double y = yMin + height * random.nextDouble();
+
+            // random point:
+            check(message, shape, polygon, x, y);
+            // integer azimuth (column boundary):
+            check(message, shape, polygon, Math.floor(x), y);
+            // integer azimuth and elevation (grid):
+            check(message, shape, polygon, Math.floor(x), Math.floor(y));
+        }
+
+        for (int i = 1; i < npoints; i++) {
+            final int x0 = xpoints[i - 1];
+            final int y0 = ypoints[i - 1];
+            final int x1 = xpoints[i];
+            final int y1 = ypoints[i];
+
+            // vertices and their neighbours:
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    check(message, shape, polygon, x0 + 0.5 * dx, y0 + 0.5 * dy);
+                }
+            }
+
+            // points on the edge at column boundaries and column middles:
+            if (x0 != x1) {
+                final double slope = (double) (y1 - y0) / (x1 - x0);
+                for (int x = Math.min(x0, x1), xMax = Math.max(x0, x1); x < xMax; x++) {
+                    check(message, shape, polygon, x, y0 + (x - x0) * slope);
+                    check(message, shape, polygon, x + 0.5, y0 + (x + 0.5 - x0) * slope);
+                }
+            }
+        }
+    }
+
+    private static void check(final String message, final HorizonShape shape, final Polygon polygon,
+                              final double x, final double y) {
+        final boolean expected = polygon.contains(x, y);
+        Assert.assertEquals(message + ": (" + x + ", " + y + ")", expected, shape.check(x, y));
+
+        // global bounds (used by adaptive observability scans):
+        if (shape.containsAll(Math.floor(x), Math.floor(x) + 1.0, y, y)) {
+            Assert.assertTrue(message + ": containsAll (" + x + ", " + y + ")", expected);
+        }
+        if (shape.containsNone(y, y)) {
+            Assert.assertFalse(message + ": containsNone (" + x + ", " + y + ")", expected);
+        }
+    }
+
+    /**
+     * Load the given VLTI horizon file as AsproGenConfig does (az: south = 0, east = 90 fixed to north = 0)
+     * and add the upper limits (elevation = 90 deg)
+     * @param file horizon file
+     * @return rows [az, el] in degrees
+     * @throws IOException if an I/O exception occurred
+     */
+    private static List<double[]> loadHorizon(final File file) throws IOException {
+        final List<double[]> rows = new ArrayList<double[]>(1024);
+
+        final BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#") || line.trim().length() == 0) {
+                    continue;
+                }
+                final StringTokenizer tok = new StringTokenizer(line, " \t");
+
+                // fix VLTI azimuth (south = 0, east = 90):
+                double az = 180.0 - Double.parseDouble(tok.nextToken());
+                if (az < 0.0) {
+                    az += 360.0;
+                }
+                rows.add(new double[]{az, Double.parseDouble(tok.nextToken())});
+            }
+        } finally {
+            reader.close();
+        }
+
+        // Sort rows by az [0;360]:
+        Collections.sort(rows, new Comparator<double[]>() {
+            @Override
+            public int compare(final double[] o1, final double[] o2) {
+                return Double.compare(o1[0], o2[0]);
+            }
+        });
+
+        // continuity at az=0 and az=360:
+        if (rows.get(0)[0] != 0.0) {
+            rows.add(0, new double[]{0.0, rows.get(0)[1]});
+        }
+        if (rows.get(rows.size() - 1)[0] != 360.0) {
+            rows.add(new double[]{360.0, rows.get(rows.size() - 1)[1]});
+        }
+
+        // Add upper limits:
+        rows.add(new double[]{360.0, 90.0});
+        rows.add(new double[]{0.0, 90.0});
+
+        return rows;
+    }
+}
@@ -0,0 +1,269 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package test;
+
+import fr.jmmc.aspro.model.IntervalSet;
+import fr.jmmc.oitools.model.range.Range;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * IntervalSet tests (union and intersection edge cases) against a simple reference implementation
+ * @author bourgesl
+ */
+public class IntervalSetTest {
+
+    /** number of random tests */
+    private final static int N_RANDOM = 10000;
+
+    @Test
+    public void testAdd() {
+        final IntervalSet set = new IntervalSet();
+
+        // unsorted disjoint intervals:
+        set.add(5.0, 6.0).add(1.0, 2.0).add(3.0, 4.0);
+        check("disjoint", new double[]{1.0, 2.0, 3.0, 4.0, 5.0, 6.0}, set);
+
+        // overlapping interval merged with its neighbours:
+        set.add(1.5, 3.5);
+        check("overlapping", new double[]{1.0, 4.0, 5.0, 6.0}, set);
+
+        // touching intervals are merged:
+        set.add(4.0, 5.0);
+        check("touching", new double[]{1.0, 6.0}, set);
+
+        // zero-length interval inside or touching: absorbed
+        set.add(6.0, 6.0).add(2.0, 2.0);
+        check("zero-length inside", new double[]{1.0, 6.0}, set);
+
+        // zero-length interval outside: kept
+        set.add(8.0, 8.0);
+        check("zero-length outside", new double[]{1.0, 6.0, 8.0, 8.0}, set);
+
+        // same lower bound:
+        set.add(8.0, 9.0);
+        check("same lower bound", new double[]{1.0, 6.0, 8.0, 9.0}, set);
+
+        // covering interval:
+        set.add(0.0, 10.0);
+        check("covering", new double[]{0.0, 10.0}, set);
+
+        set.clear();
+        Assert.assertTrue("clear", set.isEmpty());
+        Assert.assertNull("clear", set.toArray());
+        Assert.assertEquals("clear", -1, set.indexOfMaxLength());
+    }
+
+    @Test
+    public void testIntersect() {
+        final IntervalSet set = new IntervalSet();
+
+        // touching intervals: empty intersection
+        set.clear().add(0.0, 1.0);
+        set.intersect(new IntervalSet().add(1.0, 2.0));
+        check("touching", null, set);
+
+        // zero-length interval: dropped
+        set.clear().add(0.0, 1.0);
+        set.intersect(new double[]{0.5, 0.5});
+        check("zero-length", null, set);
+
+        // null or empty: empty
+        set.clear().add(0.0, 1.0);
+        set.intersect((double[]) null);
+        check("null", null, set);
+
+        set.clear().add(0.0, 1.0);
+        set.intersect(new IntervalSet());
+        check("empty other", null, set);
+
+        set.clear();
+        set.intersect(new double[]{0.0, 1.0});
+        check("empty", null, set);
+
+        // same intervals:
+        set.clear().add(0.0, 1.0).add(2.0, 3.0);
+        set.intersect(new double[]{0.0, 1.0, 2.0, 3.0});
+        check("same", new double[]{0.0, 1.0, 2.0, 3.0}, set);
+
+        // same upper bounds:
+        set.clear().add(0.0, 2.0).add(3.0, 5.0);
+        set.intersect(new double[]{1.0, 2.0, 4.0, 5.0});
+        check("same upper bounds", new double[]{1.0, 2.0, 4.0, 5.0}, set);
+
+        // one interval split by several ones:
+        set.clear().add(0.0, 10.0);
+        set.intersect(new double[]{-1.0, 1.0, 2.0, 3.0, 9.0, 11.0});
+        check("split", new double[]{0.0, 1.0, 2.0, 3.0, 9.0, 10.0}, set);
+
+        Assert.assertEquals("indexOfMaxLength", 0, set.indexOfMaxLength());
+    }
+
+    @Test
+    public void testCapacity() {
+        // minimal capacity to grow arrays during add and intersect (swap):
+        final IntervalSet set = new IntervalSet(1);
+        final IntervalSet other = new IntervalSet(1);
+
+        final List<double[]> refSet = new ArrayList<double[]>();
+        final List<double[]> refOther = new ArrayList<double[]>();
+
+        for (int i = 0; i < 100; i++) {
+            set.add(2.0 * i, 2.0 * i + 1.5);
+            refSet.add(new double[]{2.0 * i, 2.0 * i + 1.5});
+
+            other.add(2.0 * i + 1.0, 2.0 * i + 2.5);
+            refOther.add(new double[]{2.0 * i + 1.0, 2.0 * i + 2.5});
+        }
+        double[] expected = refIntersect(refUnion(refSet), refUnion(refOther));
+        set.intersect(other);
+        check("grow intersect", expected, set);
+
+        // add after swapped arrays:
+        final List<double[]> refAdded = toList(expected);
+        for (int i = 0; i < 300; i++) {
+            set.add(1000.0 + 2.0 * i, 1001.0 + 2.0 * i);
+            refAdded.add(new double[]{1000.0 + 2.0 * i, 1001.0 + 2.0 * i});
+        }
+        expected = refUnion(refAdded);
+        check("grow add", expected, set);
+
+        // copy into a small set:
+        check("copy", expected, new IntervalSet(1).set(set));
+        check("copy flat", expected, new IntervalSet(1).set(set.toArray()));
+    }
+
+    @Test
+    public void testRandom() {
+        final Random random = new Random(1234L);
+
+        final IntervalSet set = new IntervalSet(1);
+        final IntervalSet other = new IntervalSet(1);
+
+        for (int n = 0; n < N_RANDOM; n++) {
+            final List<Range> ranges = new ArrayList<Range>();
+            final List<double[]> refRanges = new ArrayList<double[]>();
+            final List<double[]> refOther = new ArrayList<double[]>();
+
+            other.clear();
+
+            for (int i = 0, len = random.nextInt(8); i < len; i++) {
+                final double[] r = randomInterval(random);
+                ranges.add(new Range(r[0], r[1]));
+                refRanges.add(r);
+            }
+            for (int i = 0, len = random.nextInt(8); i < len; i++) {
+                final double[] r = randomInterval(random);
+                other.add(r[0], r[1]);
+                refOther.add(r);
+            }
+
+            final double[] union = refUnion(refRanges);
+            check("random union", union, set.set(ranges));
+            check("random union", refUnion(refOther), other);
+
+            check("random intersect", refIntersect(union, refUnion(refOther)), set.intersect(other));
+        }
+    }
+
+    /**
+     * Return a random interval using integer bounds (many touching or zero-length intervals)
+     * @param random random generator
+     * @return interval [min, max]
+     */
+    private static double[] randomInterval(final Random random) {
+        final double min = random.nextInt(20);
+        return new double[]{min, min + random.nextInt(4)};
+    }
+
+    private static void check(final String message, final double[] expected, final IntervalSet set) {
+        final double[] actual = set.toArray();
+        Assert.assertArrayEquals(message + ": " + set, expected, actual, 0.0);
+        Assert.assertEquals(message + ": size", (expected == null) ? 0 : expected.length / 2, set.size());
+    }
+
+    private static List<double[]> toList(final double[] flatRanges) {
+        final List<double[]> list = new ArrayList<double[]>();
+        if (flatRanges != null) {
+            for (int i = 0; i < flatRanges.length; i += 2) {
+                list.add(new double[]{flatRanges[i], flatRanges[i + 1]});
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Reference union: sort by lower bound and merge overlapping or touching intervals
+     * @param intervals intervals [min, max]
+     * @return flat intervals or null if empty
+     */
+    private static double[] refUnion(final List<double[]> intervals) {
+        if (intervals.isEmpty()) {
+            return null;
+        }
+        final List<double[]> sorted = new ArrayList<double[]>(intervals);
+        Collections.sort(sorted, new Comparator<double[]>() {
+            @Override
+            public int compare(final double[] r1, final double[] r2) {
+                return Double.compare(r1[0], r2[0]);
+            }
+        });
+        final double[] res = new double[2 * sorted.size()];
+        int k = 0;
+        for (double[] r : sorted) {
+            if (k != 0 && r[0] <= res[k - 1]) {
+                res[k - 1] = Math.max(res[k - 1], r[1]);
+            } else {
+                res[k++] = r[0];
+                res[k++] = r[1];
+            }
+        }
+        return Arrays.copyOf(res, k);
+    }
+
+    /**
+     * Reference intersection: all pairs having a positive length intersection (sorted)
+     * @param flat1 flat intervals (sorted and disjoint) or null
+     * @param flat2 flat intervals (sorted and disjoint) or null
+     * @return flat intervals or null if empty
+     */
+    private static double[] refIntersect(final double[] flat1, final double[] flat2) {
+        if (flat1 == null || flat2 == null) {
+            return null;
+        }
+        final List<double[]> res = new ArrayList<double[]>();
+        for (int i = 0; i < flat1.length; i += 2) {
+            for (int j = 0; j < flat2.length; j += 2) {
+                final double lo = Math.max(flat1[i], flat2[j]);
+                final double hi = Math.min(flat1[i + 1], flat2[j + 1]);
+                if (lo < hi) {
+                    res.add(new double[]{lo, hi});
+                }
+            }
+        }
+        if (res.isEmpty()) {
+            return null;
+        }
+        // disjoint pieces (sorted by lower bound):
+        Collections.sort(res, new Comparator<double[]>() {
+            @Override
+            public int compare(final double[] r1, final double[] r2) {
+                return Double.compare(r1[0], r2[0]);
+            }
+        });
+        final double[] flat = new double[2 * res.size()];
+        int k = 0;
+        for (double[] r : res) {
+            flat[k++] = r[0];
+            flat[k++] = r[1];
+        }
+        return flat;
+    }
+}
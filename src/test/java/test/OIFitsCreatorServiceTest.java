@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package test;
+
+import static fest.common.FestSwingCustomJUnitTestCase.getProjectFolderPath;
+import fr.jmmc.aspro.model.ObservationManager;
+import fr.jmmc.aspro.model.observability.ObservabilityData;
+import fr.jmmc.aspro.model.oi.ObservationSetting;
+import fr.jmmc.aspro.model.oi.Target;
+import fr.jmmc.aspro.model.uvcoverage.UVCoverageData;
+import fr.jmmc.aspro.service.OIFitsCreatorService;
+import fr.jmmc.aspro.service.ObservabilityService;
+import fr.jmmc.aspro.service.UVCoverageService;
+import fr.jmmc.aspro.service.UserModelService.MathMode;
+import fr.jmmc.oitools.model.OIFitsFile;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.TimeZone;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * OIFits reproducibility tests: OI_VIS, OI_VIS2 and OI_T3 tables computed with noise and the same random seed
+ * (OIFits.random.seed) must be bitwise identical whatever the number of threads computing table rows
+ * @author bourgesl
+ */
+public class OIFitsCreatorServiceTest {
+
+    /** Class logger */
+    protected static final Logger logger = LoggerFactory.getLogger(OIFitsCreatorServiceTest.class.getName());
+
+    /** absolute path to test folder to load test resources */
+    private final static String TEST_FOLDER = getProjectFolderPath() + "src/test/resources/";
+
+    /** random seed (OIFits.random.seed system property or default) */
+    private final static long RANDOM_SEED = Long.getLong("OIFits.random.seed", 1234L).longValue();
+
+    /** number of threads (N > 1) */
+    private final static int N_THREADS = 4;
+
+    @BeforeClass
+    public static void setUp() {
+        // Set the default locale to en-US locale (for Numerical Fields "." ",")
+        Locale.setDefault(Locale.US);
+
+        // Set the default timezone to GMT to handle properly the date in UTC :
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
+    }
+
+    @Test
+    public void testSameSeedAnyThreads() throws Exception {
+        final ObservationManager om = ObservationManager.getInstance();
+        om.load(new File(TEST_FOLDER + "Aspro2_sample.asprox"));
+
+        final ObservationSetting observation = om.getMainObservation();
+
+        final ObservabilityData obsData = new ObservabilityService(observation).compute();
+
+        int nTested = 0;
+
+        for (Target target : observation.getTargets()) {
+            // noise enabled:
+            final UVCoverageData uvData = new UVCoverageService(observation, obsData, target.getName(), 100.0, false,
+                    true, true, 1, MathMode.FAST, 3.0).compute();
+
+            final OIFitsCreatorService oiFitsCreator = uvData.getOiFitsCreator();
+            if (oiFitsCreator == null) {
+                logger.info("target [{}] not observable", target.getName());
+                continue;
+            }
+
+            oiFitsCreator.setRandomSeed(RANDOM_SEED);
+
+            oiFitsCreator.setTableThreads(1);
+            final OIFitsFile sequential = oiFitsCreator.createOIFits();
+
+            if (sequential == null) {
+                // no model:
+                continue;
+            }
+
+            oiFitsCreator.setTableThreads(N_THREADS);
+            final OIFitsFile parallel = oiFitsCreator.createOIFits();
+
+            Assert.assertNotNull("target [" + target.getName() + "]: parallel", parallel);
+
+            OIFitsStreamWriterTest.compare(target.getName() + " [1 vs " + N_THREADS + " threads]", sequential, parallel);
+
+            // the seed drives the noise:
+            oiFitsCreator.setRandomSeed(RANDOM_SEED + 1L);
+            final OIFitsFile other = oiFitsCreator.createOIFits();
+
+            Assert.assertFalse("target [" + target.getName() + "]: noise depends on the seed",
+                    Arrays.deepEquals(sequential.getOiVis2()[0].getVis2Data(), other.getOiVis2()[0].getVis2Data()));
+
+            nTested++;
+        }
+
+        Assert.assertTrue("no target tested", nTested != 0);
+    }
+}
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package test;
+
+import static fest.common.FestSwingCustomJUnitTestCase.getProjectFolderPath;
+import fr.jmmc.aspro.model.ObservationManager;
+import fr.jmmc.aspro.model.observability.ObservabilityData;
+import fr.jmmc.aspro.model.oi.ObservationSetting;
+import fr.jmmc.aspro.model.oi.Target;
+import fr.jmmc.aspro.model.uvcoverage.UVCoverageData;
+import fr.jmmc.aspro.service.OIFitsCreatorService;
+import fr.jmmc.aspro.service.ObservabilityService;
+import fr.jmmc.aspro.service.UVCoverageService;
+import fr.jmmc.aspro.service.UserModelService.MathMode;
+import fr.jmmc.oitools.meta.ColumnMeta;
+import fr.jmmc.oitools.meta.KeywordMeta;
+import fr.jmmc.oitools.model.OIFitsFile;
+import fr.jmmc.oitools.model.OIFitsLoader;
+import fr.jmmc.oitools.model.OIFitsWriter;
+import fr.jmmc.oitools.model.OITable;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.TimeZone;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streaming OIFits export tests: files written by blocks of observation points
+ * must give the same OIFits tables than the OIFitsWriter output
+ * @author bourgesl
+ */
+public class OIFitsStreamWriterTest {
+
+    /** Class logger */
+    protected static final Logger logger = LoggerFactory.getLogger(OIFitsStreamWriterTest.class.getName());
+
+    /** absolute path to test folder to load test resources */
+    private final static String TEST_FOLDER = getProjectFolderPath() + "src/test/resources/";
+
+    /** block sizes (data points): 1 observation point per block and a single block */
+    private final static int[] BLOCK_SIZES = new int[]{1, Integer.MAX_VALUE};
+
+    @BeforeClass
+    public static void setUp() {
+        // Set the default locale to en-US locale (for Numerical Fields "." ",")
+        Locale.setDefault(Locale.US);
+
+        // Set the default timezone to GMT to handle properly the date in UTC :
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
+    }
+
+    @Test
+    public void testStreamingExport() throws Exception {
+        final ObservationManager om = ObservationManager.getInstance();
+        om.load(new File(TEST_FOLDER + "Aspro2_sample.asprox"));
+
+        final ObservationSetting observation = om.getMainObservation();
+
+        final ObservabilityData obsData = new ObservabilityService(observation).compute();
+
+        for (Target target : observation.getTargets()) {
+            // noise enabled (random streams keyed by row):
+            final UVCoverageData uvData = new UVCoverageService(observation, obsData, target.getName(), 100.0, false,
+                    true, true, 1, MathMode.FAST, 3.0).compute();
+
+            final OIFitsCreatorService oiFitsCreator = uvData.getOiFitsCreator();
+            if (oiFitsCreator == null) {
+                logger.info("target [{}] not observable", target.getName());
+                continue;
+            }
+
+            final File refFile = File.createTempFile("aspro-ref-", ".fits");
+            final File file = File.createTempFile("aspro-stream-", ".fits");
+            try {
+                final OIFitsFile oiFitsFile = oiFitsCreator.createOIFits();
+
+                for (int blockSize : BLOCK_SIZES) {
+                    oiFitsCreator.setStreamBlockSize(blockSize);
+
+                    final boolean written = oiFitsCreator.writeOIFits(file.getAbsolutePath());
+
+                    if (oiFitsFile == null) {
+                        // no model:
+                        Assert.assertFalse("target [" + target.getName() + "]: written", written);
+                        continue;
+                    }
+                    Assert.assertTrue("target [" + target.getName() + "]: written", written);
+
+                    OIFitsWriter.writeOIFits(refFile.getAbsolutePath(), oiFitsFile);
+
+                    logger.info("target [{}] block size = {}: {} bytes", target.getName(), blockSize, file.length());
+
+                    Assert.assertEquals("file size", refFile.length(), file.length());
+
+                    compare(target.getName() + " [" + blockSize + "]",
+                            OIFitsLoader.loadOIFits(refFile.getAbsolutePath()),
+                            OIFitsLoader.loadOIFits(file.getAbsolutePath()));
+                }
+            } finally {
+                refFile.delete();
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Compare OI tables (keywords and columns)
+     * @param message test message
+     * @param expected OIFitsWriter output
+     * @param actual streaming export output
+     */
+    public static void compare(final String message, final OIFitsFile expected, final OIFitsFile actual) {
+        Assert.assertEquals(message + ": tables", expected.getNbOiTables(), actual.getNbOiTables());
+
+        for (int i = 0; i < expected.getNbOiTables(); i++) {
+            final OITable expectedTable = expected.getOiTable(i);
+            final OITable actualTable = actual.getOiTable(i);
+
+            final String tableMessage = message + ": " + expectedTable.getExtName();
+
+            Assert.assertEquals(tableMessage, expectedTable.getExtName(), actualTable.getExtName());
+            Assert.assertEquals(tableMessage + ": rows", expectedTable.getNbRows(), actualTable.getNbRows());
+
+            for (KeywordMeta keyword : expectedTable.getKeywordDescCollection()) {
+                Assert.assertEquals(tableMessage + ": " + keyword.getName(),
+                        expectedTable.getKeywordValue(keyword.getName()), actualTable.getKeywordValue(keyword.getName()));
+            }
+            for (ColumnMeta column : expectedTable.getColumnDescCollection()) {
+                // note: Arrays.equals(double[]) considers NaN values equal
+                Assert.assertTrue(tableMessage + ": " + column.getName(), Arrays.deepEquals(
+                        new Object[]{expectedTable.getColumnValue(column.getName())},
+                        new Object[]{actualTable.getColumnValue(column.getName())}));
+            }
+        }
+    }
+}
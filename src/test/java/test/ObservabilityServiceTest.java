@@ -0,0 +1,335 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package test;
+
+import static fest.common.FestSwingCustomJUnitTestCase.getProjectFolderPath;
+import fr.jmmc.aspro.model.ConfigurationManager;
+import fr.jmmc.aspro.model.ObservationManager;
+import fr.jmmc.aspro.model.TimeRef;
+import fr.jmmc.aspro.model.WarningMessage;
+import fr.jmmc.aspro.model.observability.DateTimeInterval;
+import fr.jmmc.aspro.model.observability.ObservabilityData;
+import fr.jmmc.aspro.model.observability.PopCombination;
+import fr.jmmc.aspro.model.observability.StarObservabilityData;
+import fr.jmmc.aspro.model.observability.SunTimeInterval.SunType;
+import fr.jmmc.aspro.model.oi.FocalInstrumentConfigurationChoice;
+import fr.jmmc.aspro.model.oi.InterferometerConfigurationChoice;
+import fr.jmmc.aspro.model.oi.ObservationSetting;
+import fr.jmmc.aspro.model.oi.Target;
+import fr.jmmc.aspro.model.oi.WhenSetting;
+import fr.jmmc.aspro.service.ObservabilityService;
+import fr.jmmc.aspro.service.pops.BestPopsEstimatorFactory.Algorithm;
+import fr.jmmc.aspro.service.pops.Criteria;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Locale;
+import java.util.TimeZone;
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ObservabilityService tests on CHARA (PoPs)
+ * @author bourgesl
+ */
+public class ObservabilityServiceTest {
+
+    /** Class logger */
+    protected static final Logger logger = LoggerFactory.getLogger(ObservabilityServiceTest.class.getName());
+
+    /** absolute path to test folder to load test resources */
+    private final static String TEST_FOLDER = getProjectFolderPath() + "src/test/resources/";
+
+    /** interferometer */
+    private final static String INTERFEROMETER = "CHARA";
+
+    @BeforeClass
+    public static void setUp() {
+        // Set the default locale to en-US locale (for Numerical Fields "." ",")
+        Locale.setDefault(Locale.US);
+
+        // Set the default timezone to GMT to handle properly the date in UTC :
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
+    }
+
+    /**
+     * Single target with PoPs not user defined: the best PoPs must be available
+     * even if the target results are reused (incremental mode)
+     */
+    @Test
+    public void testBestPopsReused() {
+        final ObservationSetting observation = createObservation(3, 1);
+
+        for (int pass = 0; pass < 2; pass++) {
+            final ObservabilityData obsData = new ObservabilityService(observation).compute();
+
+            logger.info("pass {}: best PoPs = {}", pass, obsData.getBestPops());
+
+            Assert.assertNotNull("best PoPs (pass " + pass + ")", obsData.getBestPops());
+            Assert.assertNotNull("best PoPs list (pass " + pass + ")", obsData.getBestPopList());
+            Assert.assertNotNull("better PoPs list (pass " + pass + ")", obsData.getBetterPopList());
+        }
+    }
+
+    /**
+     * The branch-and-bound search must give the same best PoPs as the exhaustive search (5T / 6T)
+     */
+    @Test
+    public void testBestPopsBranchAndBound() {
+        for (int nStations = 5; nStations <= 6; nStations++) {
+            final ObservationSetting observation = createObservation(nStations, 12);
+
+            final ObservabilityService osExhaustive = new ObservabilityService(observation);
+            osExhaustive.setBestPopsExhaustive(true);
+            osExhaustive.setIncremental(false);
+            final ObservabilityData obsDataExhaustive = osExhaustive.compute();
+
+            final ObservabilityService osSearch = new ObservabilityService(observation);
+            osSearch.setBestPopsExhaustive(false);
+            osSearch.setIncremental(false);
+            final ObservabilityData obsDataSearch = osSearch.compute();
+
+            logger.info("{}T: best PoPs = {} (exhaustive) vs {} (branch-and-bound)", nStations,
+                    obsDataExhaustive.getBestPops(), obsDataSearch.getBestPops());
+
+            Assert.assertNotNull(nStations + "T: best PoPs", obsDataExhaustive.getBestPops());
+            Assert.assertNotNull(nStations + "T: best PoPs", obsDataSearch.getBestPops());
+            Assert.assertEquals(nStations + "T: best PoPs",
+                    obsDataExhaustive.getBestPops().getIdentifier(), obsDataSearch.getBestPops().getIdentifier());
+            Assert.assertEquals(nStations + "T: best PoPs list",
+                    toIdentifiers(obsDataExhaustive.getBestPopList()), toIdentifiers(obsDataSearch.getBestPopList()));
+            Assert.assertEquals(nStations + "T: better PoPs list",
+                    toIdentifiers(obsDataExhaustive.getBetterPopList()), toIdentifiers(obsDataSearch.getBetterPopList()));
+        }
+    }
+
+    /**
+     * The adaptive restriction scans (horizon, wind and moon) must give the same ranges and warnings
+     * as the full scan (every 30s step) on VLTI with many targets around the sky (moon and wind)
+     * @throws Exception if the observation can not be loaded
+     */
+    @Test
+    public void testScanRanges() throws Exception {
+        final ObservationSetting observation = createGridObservation();
+
+        final ObservabilityData obsDataFull = createDetailedService(observation, 1, true).compute();
+        final ObservabilityData obsDataScan = createDetailedService(observation, 10, true).compute();
+
+        logger.info("testScanRanges: {} targets - {} warnings", obsDataFull.getMapStarVisibilities().size(),
+                obsDataFull.getWarningContainer().getWarnings().size());
+
+        assertEquals(obsDataFull, obsDataScan);
+    }
+
+    /**
+     * Targets processed in parallel (more than 8 targets) must give the same ranges and warnings
+     * (same order) as targets processed sequentially
+     * @throws Exception if the observation can not be loaded
+     */
+    @Test
+    public void testParallelTargets() throws Exception {
+        final ObservationSetting observation = createGridObservation();
+
+        final ObservabilityData obsDataSequential = createDetailedService(observation, 10, false).compute();
+        final ObservabilityData obsDataParallel = createDetailedService(observation, 10, true).compute();
+
+        logger.info("testParallelTargets: {} targets - {} warnings", obsDataSequential.getMapStarVisibilities().size(),
+                obsDataSequential.getWarningContainer().getWarnings().size());
+
+        Assert.assertTrue("more than 8 targets", obsDataSequential.getMapStarVisibilities().size() > 8);
+
+        assertEquals(obsDataSequential, obsDataParallel);
+    }
+
+    /**
+     * Load the VLTI moon sample (wind azimuth = 45 deg) and add targets every 1h in RA and 10 deg in DEC
+     * @return observation
+     * @throws Exception if the observation can not be loaded
+     */
+    private static ObservationSetting createGridObservation() throws Exception {
+        final ObservationManager om = ObservationManager.getInstance();
+        om.load(new File(TEST_FOLDER + "Aspro2_sample_moon.asprox"));
+
+        final ObservationSetting observation = om.getMainObservation();
+        observation.getWhen().setWindAzimuth(Double.valueOf(45.0));
+
+        // targets every 1h in RA and 10 deg in DEC:
+        for (int ra = 0; ra < 24; ra++) {
+            for (int dec = -80; dec <= 30; dec += 10) {
+                final Target target = new Target();
+                target.setName("T_" + ra + "_" + dec);
+                target.setRA(String.format("%02d:00:00.0", ra));
+                target.setDEC(String.format("%+03d:00:00.0", dec));
+                target.setEQUINOX(2000f);
+                target.setFLUXV(5.0);
+                target.updateNameAndIdentifier();
+
+                observation.getTargets().add(target);
+            }
+        }
+        return observation;
+    }
+
+    /**
+     * Compare the ranges of every target and the warnings (same order)
+     * @param expected expected observability data
+     * @param actual actual observability data
+     */
+    private static void assertEquals(final ObservabilityData expected, final ObservabilityData actual) {
+        final Map<String, List<StarObservabilityData>> visExpected = expected.getMapStarVisibilities();
+        final Map<String, List<StarObservabilityData>> visActual = actual.getMapStarVisibilities();
+
+        Assert.assertEquals("targets", visExpected.keySet(), visActual.keySet());
+
+        for (Map.Entry<String, List<StarObservabilityData>> e : visExpected.entrySet()) {
+            final List<StarObservabilityData> starExpected = e.getValue();
+            final List<StarObservabilityData> starActual = visActual.get(e.getKey());
+
+            Assert.assertEquals(e.getKey() + ": size", starExpected.size(), starActual.size());
+
+            for (int i = 0; i < starExpected.size(); i++) {
+                final String message = e.getKey() + ": " + starExpected.get(i).getInfo();
+
+                Assert.assertEquals(message + ": type", starExpected.get(i).getType(), starActual.get(i).getType());
+                Assert.assertEquals(message + ": visible",
+                        toString(starExpected.get(i).getVisible()), toString(starActual.get(i).getVisible()));
+            }
+        }
+
+        final List<WarningMessage> warnExpected = expected.getWarningContainer().getWarnings();
+        final List<WarningMessage> warnActual = actual.getWarningContainer().getWarnings();
+
+        Assert.assertEquals("warnings", warnExpected, warnActual);
+    }
+
+    /**
+     * Create an observability service producing detailed output (horizon, wind and moon ranges per target)
+     * without reusing previous results (incremental mode)
+     * @param observation observation to use
+     * @param scanCoarseSteps number of jd scan steps between coarse samples (1 means full scan)
+     * @param parallelTargets true to process targets in parallel
+     * @return observability service
+     */
+    private static ObservabilityService createDetailedService(final ObservationSetting observation, final int scanCoarseSteps,
+                                                              final boolean parallelTargets) {
+        final ObservabilityService os = new ObservabilityService(observation, TimeRef.LST, true, false, false, SunType.Night,
+                Algorithm.HALimits, Criteria.MEDIUM, Criteria.LARGE);
+        os.setScanCoarseSteps(scanCoarseSteps);
+        os.setParallelTargets(parallelTargets);
+        os.setIncremental(false);
+        return os;
+    }
+
+    /**
+     * Return the string representation of the given date intervals (null safe)
+     * @param intervals date intervals (may be null)
+     * @return string representation
+     */
+    private static String toString(final List<DateTimeInterval> intervals) {
+        if (intervals == null) {
+            return null;
+        }
+        final StringBuilder sb = new StringBuilder(64);
+        for (DateTimeInterval interval : intervals) {
+            sb.append('[').append(interval.getStartDate().getTime()).append(", ")
+                    .append(interval.getEndDate().getTime()).append(']');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Return the identifiers of the given PoP combinations
+     * @param popCombs PoP combinations (may be null)
+     * @return identifiers or null
+     */
+    private static List<String> toIdentifiers(final List<PopCombination> popCombs) {
+        if (popCombs == null) {
+            return null;
+        }
+        final List<String> ids = new ArrayList<String>(popCombs.size());
+        for (PopCombination popComb : popCombs) {
+            ids.add(popComb.getIdentifier());
+        }
+        return ids;
+    }
+
+    /**
+     * Create a CHARA observation (PoPs not user defined) using the first instrument configuration
+     * having the given number of stations
+     * @param nStations number of stations
+     * @param nTargets number of targets (spread around Vega)
+     * @return observation
+     */
+    public static ObservationSetting createObservation(final int nStations, final int nTargets) {
+        final ConfigurationManager cm = ConfigurationManager.getInstance();
+
+        final String confName = cm.getInterferometerConfigurationNames(INTERFEROMETER).get(0);
+
+        String insName = null;
+        String stations = null;
+
+        for (String name : cm.getInterferometerInstrumentNames(confName)) {
+            for (String conf : cm.getInstrumentConfigurationNames(confName, name)) {
+                if (conf.trim().split("\\s+").length == nStations) {
+                    insName = name;
+                    stations = conf;
+                    break;
+                }
+            }
+            if (stations != null) {
+                break;
+            }
+        }
+        Assert.assertNotNull("no " + INTERFEROMETER + " configuration with " + nStations + " stations", stations);
+
+        logger.info("createObservation: {} - {} [{}]", confName, insName, stations);
+
+        final ObservationSetting observation = new ObservationSetting();
+
+        final WhenSetting when = new WhenSetting();
+        try {
+            when.setDate(DatatypeFactory.newInstance().newXMLGregorianCalendar("2019-06-15"));
+        } catch (DatatypeConfigurationException dce) {
+            throw new IllegalStateException("unsupported datatype factory", dce);
+        }
+        when.setNightRestriction(true);
+        observation.setWhen(when);
+
+        final InterferometerConfigurationChoice interferometerChoice = new InterferometerConfigurationChoice();
+        interferometerChoice.setName(confName);
+        interferometerChoice.setMinElevation(30.0);
+        observation.setInterferometerConfiguration(interferometerChoice);
+
+        final FocalInstrumentConfigurationChoice instrumentChoice = new FocalInstrumentConfigurationChoice();
+        instrumentChoice.setName(insName);
+        instrumentChoice.setStations(stations);
+        // PoPs not user defined:
+        instrumentChoice.setPops(null);
+        observation.setInstrumentConfiguration(instrumentChoice);
+
+        for (int i = 0; i < nTargets; i++) {
+            final Target target = new Target();
+            target.setName("T" + i);
+            // Vega (18:36:56 +38:47:01) and neighbours:
+            target.setRA(String.format("%02d:36:56.3", 17 + (i % 4)));
+            target.setDEC(String.format("+%02d:47:01.0", 20 + 6 * (i % 7)));
+            target.setEQUINOX(2000f);
+            target.setFLUXV(0.03);
+            target.updateNameAndIdentifier();
+
+            observation.getTargets().add(target);
+        }
+
+        // resolve references:
+        ObservationManager.getInstance().resetAndChangeObservation(observation);
+
+        return observation;
+    }
+}
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package test;
+
+import fr.jmmc.aspro.model.oi.Target;
+import fr.jmmc.aspro.model.util.TargetIndex;
+import fr.jmmc.aspro.model.util.TargetMatch;
+import fr.jmmc.jmal.ALX;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * TargetIndex tests: index matches must be the same as Target.doMatchTarget(srcTarget, targets)
+ * across add / remove / update sequences (duplicate identifiers, NaN coordinates, RA=0/360 and poles)
+ * @author bourgesl
+ */
+public class TargetIndexTest {
+
+    /** Class logger */
+    protected static final Logger logger = LoggerFactory.getLogger(TargetIndexTest.class.getName());
+
+    /** number of add / remove / update operations */
+    private final static int N_OPERATIONS = 3000;
+
+    /** number of queries per operation */
+    private final static int N_QUERIES = 10;
+
+    /** number of distinct names (duplicate identifiers) */
+    private final static int N_NAMES = 40;
+
+    /** jitter (deg) around sky positions = 8 arcsec (larger than the cross-match distance) */
+    private final static double JITTER = 8d * ALX.ARCSEC_IN_DEGREES;
+
+    /** sky positions [ra, dec] (deg): RA=0/360, poles and ordinary positions */
+    private final static double[][] POSITIONS = new double[][]{
+        {0.0, 0.0}, {360.0, 0.0}, {0.0, -45.0}, {359.9999, 30.0},
+        {0.0, 90.0}, {180.0, 89.9995}, {90.0, -90.0}, {270.0, -89.9995},
+        {83.8221, -5.3911}, {279.2347, 38.7837}, {101.2872, -16.7161}
+    };
+
+    @Test
+    public void testAddRemoveUpdate() {
+        final Random random = new Random(1234L);
+
+        final List<Target> targets = new ArrayList<Target>();
+        for (int i = 0; i < 20; i++) {
+            targets.add(createTarget(random));
+        }
+        final TargetIndex index = new TargetIndex(targets);
+
+        check("initial", random, targets, index);
+
+        for (int n = 0; n < N_OPERATIONS; n++) {
+            final int op = random.nextInt(4);
+            final String message;
+
+            if (op == 0 || targets.isEmpty()) {
+                final Target target = createTarget(random);
+                targets.add(target);
+                index.add(target);
+                message = "add " + target.getIdentifier();
+
+            } else if (op == 1) {
+                final Target target = targets.remove(random.nextInt(targets.size()));
+                index.remove(target);
+                message = "remove " + target.getIdentifier();
+
+            } else {
+                final Target target = targets.get(random.nextInt(targets.size()));
+                if (op == 2) {
+                    // new coordinates:
+                    setPosition(random, target);
+                } else {
+                    // new identifier:
+                    target.updateNameAndIdentifier(randomName(random));
+                }
+                index.update(target);
+                message = "update " + target.getIdentifier();
+            }
+
+            Assert.assertEquals(message + ": size", targets.size(), index.size());
+
+            check(message, random, targets, index);
+        }
+    }
+
+    @Test
+    public void testDuplicateIdentifiers() {
+        final Target first = createTarget("HD 1234", 10.0, 20.0);
+        final Target second = createTarget("HD 1234", 30.0, 40.0);
+        final Target third = createTarget("HD 1234", 50.0, 60.0);
+
+        final List<Target> targets = new ArrayList<Target>();
+        targets.add(first);
+        targets.add(second);
+        targets.add(third);
+        final TargetIndex index = new TargetIndex(targets);
+
+        final Target probe = createTarget("HD 1234", 0.0, 0.0);
+
+        // first target in list order:
+        Assert.assertSame("duplicate", first, index.matchTarget(probe));
+
+        // updated target keeps its position in the list:
+        first.updateNameAndIdentifier("HD 5678");
+        index.update(first);
+        first.updateNameAndIdentifier("HD 1234");
+        index.update(first);
+        Assert.assertSame("update", first, index.matchTarget(probe));
+
+        targets.remove(first);
+        index.remove(first);
+        Assert.assertSame("remove", second, index.matchTarget(probe));
+        Assert.assertSame("remove", Target.matchTarget(probe, targets), index.matchTarget(probe));
+
+        // re-added target is appended:
+        targets.add(first);
+        index.add(first);
+        Assert.assertSame("add", second, index.matchTarget(probe));
+        Assert.assertSame("add", Target.matchTarget(probe, targets), index.matchTarget(probe));
+    }
+
+    /**
+     * Compare index matches with Target.doMatchTarget() for random probes and copies of the indexed targets
+     * @param message test message
+     * @param random random generator
+     * @param targets target list
+     * @param index target index
+     */
+    private static void check(final String message, final Random random, final List<Target> targets, final TargetIndex index) {
+        for (int i = 0; i < N_QUERIES; i++) {
+            final Target probe;
+            if (i % 2 == 0 || targets.isEmpty()) {
+                probe = createTarget(random);
+            } else {
+                // same position as an indexed target but another identifier:
+                final Target target = targets.get(random.nextInt(targets.size()));
+                probe = createTarget("PROBE", target.getRADeg(), target.getDECDeg());
+                probe.setIDS(target.getIDS());
+            }
+            check(message, probe, targets, index);
+        }
+    }
+
+    private static void check(final String message, final Target probe, final List<Target> targets, final TargetIndex index) {
+        final TargetMatch expected = Target.doMatchTarget(probe, targets);
+        final TargetMatch actual = index.doMatchTarget(probe);
+
+        final String msg = message + ": probe " + probe.getIdentifier() + " [" + probe.getRADeg() + ", " + probe.getDECDeg() + "]";
+
+        if (expected == null) {
+            Assert.assertNull(msg, actual);
+        } else {
+            Assert.assertNotNull(msg, actual);
+            Assert.assertSame(msg, expected.getMatch(), actual.getMatch());
+            Assert.assertEquals(msg + ": distance", expected.getDistance(), actual.getDistance(), 0.0);
+        }
+    }
+
+    /**
+     * Create a random target (duplicate names, NaN coordinates, identifiers)
+     * @param random random generator
+     * @return new target
+     */
+    private static Target createTarget(final Random random) {
+        final Target target = new Target();
+        target.updateNameAndIdentifier(randomName(random));
+        setPosition(random, target);
+
+        // simbad identifiers (sometimes shared to exercise the identifier cross-match):
+        switch (random.nextInt(3)) {
+            case 0:
+                target.setIDS("HD " + random.nextInt(3) + ",HIP " + random.nextInt(3) + ",TYC " + random.nextInt(3));
+                break;
+            case 1:
+                target.setIDS("HD 0,HIP 0,TYC 0");
+                break;
+            default:
+                target.setIDS(null);
+        }
+        return target;
+    }
+
+    private static Target createTarget(final String name, final double raDeg, final double decDeg) {
+        final Target target = new Target();
+        target.updateNameAndIdentifier(name);
+        setPosition(target, raDeg, decDeg);
+        return target;
+    }
+
+    private static String randomName(final Random random) {
+        return "STAR " + random.nextInt(N_NAMES);
+    }
+
+    /**
+     * Set a random position: jitter around RA=0/360, poles or ordinary positions or NaN coordinates
+     * @param random random generator
+     * @param target target to update
+     */
+    private static void setPosition(final Random random, final Target target) {
+        if (random.nextInt(10) == 0) {
+            // NaN coordinates (not parseable):
+            target.setCoords("--:--:--", "--:--:--", 2000f);
+            return;
+        }
+        final double[] pos = POSITIONS[random.nextInt(POSITIONS.length)];
+
+        double raDeg = pos[0];
+        double decDeg = pos[1];
+
+        if (random.nextBoolean()) {
+            decDeg += JITTER * (2.0 * random.nextDouble() - 1.0);
+            if (decDeg > 90.0) {
+                decDeg = 180.0 - decDeg;
+                raDeg += 180.0;
+            } else if (decDeg < -90.0) {
+                decDeg = -180.0 - decDeg;
+                raDeg += 180.0;
+            }
+            final double cosDec = Math.cos(Math.toRadians(decDeg));
+            // RA jitter scaled by declination (huge RA changes near the poles):
+            raDeg += JITTER * (2.0 * random.nextDouble() - 1.0) / Math.max(cosDec, 1e-6);
+
+            // RA in [0; 360[ (RA=360 is only given by unchanged positions):
+            raDeg = ((raDeg % 360.0) + 360.0) % 360.0;
+        }
+        setPosition(target, raDeg, decDeg);
+    }
+
+    private static void setPosition(final Target target, final double raDeg, final double decDeg) {
+        if (Double.isNaN(raDeg) || Double.isNaN(decDeg)) {
+            target.setCoords("--:--:--", "--:--:--", 2000f);
+            return;
+        }
+        target.setCoords(ALX.toHMS(raDeg), ALX.toDMS(decDeg), 2000f);
+        // exact coordinates (no HMS / DMS rounding):
+        target.setRADeg(raDeg);
+        target.setDECDeg(decDeg);
+    }
+}
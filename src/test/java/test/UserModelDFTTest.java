@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package test;
+
+import fr.jmmc.aspro.service.UserModelData;
+import fr.jmmc.aspro.service.UserModelService;
+import fr.jmmc.aspro.service.UserModelService.MathMode;
+import fr.jmmc.jmal.ALX;
+import fr.jmmc.jmal.complex.MutableComplex;
+import java.util.Random;
+
+/**
+ * Compare the direct Fourier transform kernels (MathMode) on a synthetic 512x512 image (timings and errors)
+ * @author bourgesl
+ */
+public class UserModelDFTTest {
+
+    /** image size */
+    private final static int SIZE = 512;
+    /** number of wavelengths per row */
+    private final static int N_WLEN = 64;
+    /** number of rows */
+    private final static int N_ROWS = 4;
+    /** number of passes (warm-up + timing) */
+    private final static int PASSES = 5;
+
+    /**
+     * Forbidden constructor
+     */
+    private UserModelDFTTest() {
+        super();
+    }
+
+    /**
+     * Test
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        final Random random = new Random(1234L);
+
+        // 0.1 mas per pixel:
+        final double increment = Math.toRadians(0.1 * ALX.MILLI_ARCSEC_IN_DEGREES);
+        final double[] coords = UserModelService.computeSpatialCoords(SIZE, increment);
+
+        final int nPoints = SIZE * SIZE;
+        final float[] data1D = new float[nPoints * UserModelService.DATA_1D_POINT_SIZE];
+
+        for (int r = 0, n = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                data1D[n++] = random.nextFloat() / nPoints;
+                data1D[n++] = (float) coords[c];
+                data1D[n++] = (float) coords[r];
+            }
+        }
+
+        final UserModelData modelData = new UserModelData().set(data1D);
+
+        // rows: u = B / lambda:
+        final double[][] ufreq = new double[N_ROWS][N_WLEN];
+        final double[][] vfreq = new double[N_ROWS][N_WLEN];
+
+        for (int k = 0; k < N_ROWS; k++) {
+            final double u = 10.0 + 30.0 * k;
+            final double v = 50.0 - 10.0 * k;
+
+            for (int i = 0; i < N_WLEN; i++) {
+                final double lambda = 3.0e-6 + 1e-8 * i;
+                ufreq[k][i] = u / lambda;
+                vfreq[k][i] = v / lambda;
+            }
+        }
+
+        MutableComplex[][] ref = null;
+
+        for (MathMode mathMode : new MathMode[]{MathMode.DEFAULT, MathMode.FAST, MathMode.QUICK, MathMode.BLOCKED}) {
+            MutableComplex[][] vis = null;
+            long best = Long.MAX_VALUE;
+
+            for (int p = 0; p < PASSES; p++) {
+                vis = createVis();
+
+                final long start = System.nanoTime();
+
+                for (int k = 0; k < N_ROWS; k++) {
+                    UserModelService.computeModel(modelData, 0, data1D.length, ufreq[k], vfreq[k], vis[k], 0, N_WLEN, mathMode);
+                }
+                best = Math.min(best, System.nanoTime() - start);
+            }
+
+            if (ref == null) {
+                ref = vis;
+            }
+
+            double maxErr = 0.0;
+            for (int k = 0; k < N_ROWS; k++) {
+                for (int i = 0; i < N_WLEN; i++) {
+                    maxErr = Math.max(maxErr, Math.abs(vis[k][i].getReal() - ref[k][i].getReal()));
+                    maxErr = Math.max(maxErr, Math.abs(vis[k][i].getImaginary() - ref[k][i].getImaginary()));
+                }
+            }
+
+            System.out.println("MathMode[" + mathMode + "]: duration = " + (1e-6d * best) + " ms - max error = " + maxErr);
+        }
+    }
+
+    private static MutableComplex[][] createVis() {
+        final MutableComplex[][] vis = new MutableComplex[N_ROWS][N_WLEN];
+        for (int k = 0; k < N_ROWS; k++) {
+            for (int i = 0; i < N_WLEN; i++) {
+                vis[k][i] = new MutableComplex();
+            }
+        }
+        return vis;
+    }
+}
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package test;
+
+import fr.jmmc.aspro.service.UserModelData;
+import fr.jmmc.aspro.service.UserModelFFTPlane;
+import fr.jmmc.aspro.service.UserModelService;
+import fr.jmmc.aspro.service.UserModelService.MathMode;
+import fr.jmmc.jmal.ALX;
+import fr.jmmc.jmal.complex.MutableComplex;
+import fr.jmmc.oiexplorer.core.util.FitsImageUtils;
+import fr.jmmc.oitools.image.FitsImage;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * FFT + bicubic interpolation tests: complex visibilities interpolated in the FFT plane (UserModelFFTPlane)
+ * must match the direct Fourier transform on an asymmetric image having negative increments (CDELT1 &lt; 0)
+ * @author bourgesl
+ */
+public class UserModelFFTTest {
+
+    /** image size */
+    private final static int SIZE = 64;
+    /** pixel increment = 0.5 mas */
+    private final static double INCREMENT = Math.toRadians(0.5 * ALX.MILLI_ARCSEC_IN_DEGREES);
+    /** maximum absolute error (see AbstractOIFitsProducer.FFT_INTERP_MAX_ERROR) */
+    private final static double MAX_ERROR = 1e-3;
+    /** number of random (u,v) points */
+    private final static int N_POINTS = 2000;
+
+    /**
+     * Prepared image (prepareImage flips axes to have positive increments) with a negative column increment
+     */
+    @Test
+    public void testPreparedNegativeIncrement() {
+        final FitsImage fitsImage = FitsImageUtils.createFitsImage(createAsymmetricImage(),
+                1d + SIZE / 2d, 1d + SIZE / 2d, -INCREMENT, INCREMENT);
+
+        final UserModelData modelData = new UserModelData();
+        UserModelService.prepareImage(fitsImage, modelData, false, 0.0, false, 0.0, 0.0);
+
+        final FitsImage preparedImage = modelData.getFitsImage();
+        Assert.assertTrue("positive column increment", preparedImage.getSignedIncCol() > 0.0);
+
+        check("prepared", preparedImage, modelData.getData1D());
+    }
+
+    /**
+     * Unprepared images (FFT of the raw data) with all increment signs
+     */
+    @Test
+    public void testSignedIncrements() {
+        for (double signCol : new double[]{1.0, -1.0}) {
+            for (double signRow : new double[]{1.0, -1.0}) {
+                final float[][] data = createAsymmetricImage();
+                normalize(data);
+
+                final FitsImage fitsImage = FitsImageUtils.createFitsImage(data,
+                        1d + SIZE / 2d, 1d + SIZE / 2d, signCol * INCREMENT, signRow * INCREMENT);
+
+                // same data points as UserModelService.prepareModelData (no threshold):
+                final double[] colCoords = UserModelService.computeSpatialCoords(SIZE, fitsImage.getSignedIncCol());
+                final double[] rowCoords = UserModelService.computeSpatialCoords(SIZE, fitsImage.getSignedIncRow());
+
+                final float[] data1D = new float[SIZE * SIZE * UserModelService.DATA_1D_POINT_SIZE];
+                for (int r = 0, n = 0; r < SIZE; r++) {
+                    for (int c = 0; c < SIZE; c++) {
+                        data1D[n++] = data[r][c];
+                        data1D[n++] = (float) colCoords[c];
+                        data1D[n++] = (float) rowCoords[r];
+                    }
+                }
+
+                check("incCol " + signCol + " incRow " + signRow, fitsImage, data1D);
+            }
+        }
+    }
+
+    /**
+     * Compare interpolated complex visibilities with the direct Fourier transform on random (u,v) points
+     * @param message test message
+     * @param fitsImage fits image (square)
+     * @param data1D data points [flux col row]
+     */
+    private static void check(final String message, final FitsImage fitsImage, final float[] data1D) {
+        final Random random = new Random(1234L);
+
+        final double uvMaxFreq = 0.5 * UserModelService.getMaxFreq(fitsImage);
+
+        final double[] ufreq = new double[N_POINTS];
+        final double[] vfreq = new double[N_POINTS];
+        for (int i = 0; i < N_POINTS; i++) {
+            ufreq[i] = uvMaxFreq * (2.0 * random.nextDouble() - 1.0);
+            vfreq[i] = uvMaxFreq * (2.0 * random.nextDouble() - 1.0);
+        }
+
+        final MutableComplex[] exact = createArray(N_POINTS);
+        UserModelService.computeModel(data1D, 0, data1D.length, ufreq, vfreq, exact, 0, N_POINTS, MathMode.FAST);
+
+        final UserModelFFTPlane plane = UserModelService.computeFFTPlane(fitsImage, uvMaxFreq);
+        Assert.assertNotNull(message + ": plane", plane);
+
+        try {
+            final MutableComplex interp = new MutableComplex();
+
+            double maxImag = 0.0;
+            int nChecked = 0;
+
+            for (int i = 0; i < N_POINTS; i++) {
+                interp.updateComplex(0d, 0d);
+
+                if (plane.interpolate(ufreq[i], vfreq[i], interp)) {
+                    final String msg = message + ": (" + ufreq[i] + ", " + vfreq[i] + ")";
+                    Assert.assertEquals(msg + ": re", exact[i].getReal(), interp.getReal(), MAX_ERROR);
+                    Assert.assertEquals(msg + ": im", exact[i].getImaginary(), interp.getImaginary(), MAX_ERROR);
+                    nChecked++;
+                }
+                maxImag = Math.max(maxImag, Math.abs(exact[i].getImaginary()));
+            }
+
+            Assert.assertEquals(message + ": all points inside the FFT plane", N_POINTS, nChecked);
+
+            // asymmetric image (mirrored u or v axis would fail):
+            Assert.assertTrue(message + ": asymmetric image", maxImag > 100.0 * MAX_ERROR);
+        } finally {
+            plane.recycle();
+        }
+    }
+
+    /**
+     * Create an asymmetric image: 3 gaussian sources of different fluxes at off-center positions
+     * @return image [row][col]
+     */
+    private static float[][] createAsymmetricImage() {
+        final double[][] sources = new double[][]{
+            // col, row, sigma (pixels), flux
+            {40.0, 36.0, 1.5, 1.0},
+            {25.0, 20.0, 2.0, 0.5},
+            {33.0, 48.0, 1.0, 0.25}
+        };
+
+        final float[][] data = new float[SIZE][SIZE];
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                double value = 0.0;
+                for (double[] source : sources) {
+                    final double dc = c - source[0];
+                    final double dr = r - source[1];
+                    value += source[3] * Math.exp(-(dc * dc + dr * dr) / (2.0 * source[2] * source[2]));
+                }
+                data[r][c] = (float) value;
+            }
+        }
+        return data;
+    }
+
+    private static void normalize(final float[][] data) {
+        double sum = 0.0;
+        for (float[] row : data) {
+            for (float value : row) {
+                sum += value;
+            }
+        }
+        for (float[] row : data) {
+            for (int c = 0; c < row.length; c++) {
+                row[c] /= sum;
+            }
+        }
+    }
+
+    private static MutableComplex[] createArray(final int length) {
+        final MutableComplex[] array = new MutableComplex[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = new MutableComplex();
+        }
+        return array;
+    }
+}